@@ -40,6 +40,13 @@ public class CoreConfig {
 	private int mailchangeValidationWindow;
 	private int pwdresetValidationWindow;
 	private int queryTimeout;
+	private int auditerConsumerBatchSize;
+	private String auditerMessageFormat;
+	private int genDataParallelism;
+	private int genDataDeltaCacheSize;
+	private boolean attributesReadMemoEnabled;
+	private int attributeRightsMaxAge;
+	private int authzRolesMaxAge;
 	private List<String> admins;
 	private List<String> enginePrincipals;
 	private List<String> generatedLoginNamespaces;
@@ -632,4 +639,67 @@ public class CoreConfig {
 	public void setQueryTimeout(int queryTimeout) {
 		this.queryTimeout = queryTimeout;
 	}
+
+	public int getAuditerConsumerBatchSize() {
+		return auditerConsumerBatchSize;
+	}
+
+	public void setAuditerConsumerBatchSize(int auditerConsumerBatchSize) {
+		this.auditerConsumerBatchSize = auditerConsumerBatchSize;
+	}
+
+	/**
+	 * Format of newly stored auditer messages, "json" or "smile".
+	 * Smile is cheaper to store, but the readable AUDIT_JSON log line then needs a second serialization of each message,
+	 * so in that format it is logged only on debug level.
+	 *
+	 * @return format of auditer messages
+	 */
+	public String getAuditerMessageFormat() {
+		return auditerMessageFormat;
+	}
+
+	public void setAuditerMessageFormat(String auditerMessageFormat) {
+		this.auditerMessageFormat = auditerMessageFormat;
+	}
+
+	public int getGenDataParallelism() {
+		return genDataParallelism;
+	}
+
+	public void setGenDataParallelism(int genDataParallelism) {
+		this.genDataParallelism = genDataParallelism;
+	}
+
+	public int getGenDataDeltaCacheSize() {
+		return genDataDeltaCacheSize;
+	}
+
+	public void setGenDataDeltaCacheSize(int genDataDeltaCacheSize) {
+		this.genDataDeltaCacheSize = genDataDeltaCacheSize;
+	}
+
+	public boolean isAttributesReadMemoEnabled() {
+		return attributesReadMemoEnabled;
+	}
+
+	public void setAttributesReadMemoEnabled(boolean attributesReadMemoEnabled) {
+		this.attributesReadMemoEnabled = attributesReadMemoEnabled;
+	}
+
+	public int getAttributeRightsMaxAge() {
+		return attributeRightsMaxAge;
+	}
+
+	public void setAttributeRightsMaxAge(int attributeRightsMaxAge) {
+		this.attributeRightsMaxAge = attributeRightsMaxAge;
+	}
+
+	public int getAuthzRolesMaxAge() {
+		return authzRolesMaxAge;
+	}
+
+	public void setAuthzRolesMaxAge(int authzRolesMaxAge) {
+		this.authzRolesMaxAge = authzRolesMaxAge;
+	}
 }
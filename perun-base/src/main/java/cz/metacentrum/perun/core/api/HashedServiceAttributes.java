@@ -0,0 +1,50 @@
+package cz.metacentrum.perun.core.api;
+
+/**
+ * Node of the ServiceAttributes structure returned in ServiceAttributesDelta together with its stable key
+ * and content hash of its whole subtree.
+ *
+ * Key is the path of the node from the root, e.g. "facility:1/resource:2/members/member:3", so the same
+ * node has the same key in all generations of the structure.
+ *
+ * @see ServiceAttributesDelta
+ */
+public class HashedServiceAttributes extends ServiceAttributes {
+
+	private String key;
+	private String hash;
+
+	public HashedServiceAttributes() {
+	}
+
+	public HashedServiceAttributes(String key, String hash) {
+		this.key = key;
+		this.hash = hash;
+	}
+
+	/**
+	 * Stable key of the node, the same in all generations of the structure.
+	 *
+	 * @return path of the node from the root
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	public void setKey(String key) {
+		this.key = key;
+	}
+
+	/**
+	 * Content hash of the node and all its child elements, including those left out from the changes.
+	 *
+	 * @return hash of the subtree
+	 */
+	public String getHash() {
+		return hash;
+	}
+
+	public void setHash(String hash) {
+		this.hash = hash;
+	}
+}
@@ -0,0 +1,17 @@
+package cz.metacentrum.perun.core.api;
+
+/**
+ * Columns, by which a page of members can be sorted. Members with the same value are sorted by their id.
+ *
+ * @see MembersPageQuery
+ */
+public enum MembersOrderColumn {
+	/**
+	 * Sort by id of the member.
+	 */
+	ID,
+	/**
+	 * Sort by last name and first name of the user.
+	 */
+	NAME
+}
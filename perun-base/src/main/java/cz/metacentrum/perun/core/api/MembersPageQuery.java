@@ -0,0 +1,100 @@
+package cz.metacentrum.perun.core.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query for one page of members of a VO.
+ *
+ * Pages are addressed by a token returned with the previous page (keyset pagination), so each page
+ * is read by one query regardless of how deep in the results it is.
+ *
+ * @see Paginated
+ */
+public class MembersPageQuery {
+
+	private int pageSize;
+	private MembersOrderColumn sortColumn = MembersOrderColumn.ID;
+	private List<String> statuses = new ArrayList<>();
+	private String searchString;
+	private Integer groupId;
+	private String pageToken;
+
+	public MembersPageQuery() {
+	}
+
+	public MembersPageQuery(int pageSize, MembersOrderColumn sortColumn) {
+		this.pageSize = pageSize;
+		this.sortColumn = sortColumn;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	public void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	public MembersOrderColumn getSortColumn() {
+		return sortColumn;
+	}
+
+	public void setSortColumn(MembersOrderColumn sortColumn) {
+		this.sortColumn = sortColumn;
+	}
+
+	/**
+	 * @return names of allowed statuses of members, empty list allows all statuses
+	 */
+	public List<String> getStatuses() {
+		return statuses;
+	}
+
+	public void setStatuses(List<String> statuses) {
+		this.statuses = statuses == null ? new ArrayList<>() : statuses;
+	}
+
+	/**
+	 * @return string searched in the names of users or id of the member or the user, null returns all members
+	 */
+	public String getSearchString() {
+		return searchString;
+	}
+
+	public void setSearchString(String searchString) {
+		this.searchString = searchString;
+	}
+
+	/**
+	 * @return id of the group to return only its members or null
+	 */
+	public Integer getGroupId() {
+		return groupId;
+	}
+
+	public void setGroupId(Integer groupId) {
+		this.groupId = groupId;
+	}
+
+	/**
+	 * @return token of the requested page returned with the previous page, null for the first page
+	 */
+	public String getPageToken() {
+		return pageToken;
+	}
+
+	public void setPageToken(String pageToken) {
+		this.pageToken = pageToken;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + ":[pageSize='" + pageSize +
+				"', sortColumn='" + sortColumn +
+				"', statuses='" + statuses +
+				"', searchString='" + searchString +
+				"', groupId='" + groupId +
+				"', pageToken='" + pageToken + "']";
+	}
+}
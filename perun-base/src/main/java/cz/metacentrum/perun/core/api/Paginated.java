@@ -0,0 +1,72 @@
+package cz.metacentrum.perun.core.api;
+
+import java.util.List;
+
+/**
+ * One page of the results together with the total count of the results and a token of the next page.
+ *
+ * @param <T> type of the results
+ */
+public class Paginated<T> {
+
+	private List<T> data;
+	private int pageSize;
+	private int totalCount;
+	private String nextPageToken;
+
+	public Paginated() {
+	}
+
+	public Paginated(List<T> data, int pageSize, int totalCount, String nextPageToken) {
+		this.data = data;
+		this.pageSize = pageSize;
+		this.totalCount = totalCount;
+		this.nextPageToken = nextPageToken;
+	}
+
+	public List<T> getData() {
+		return data;
+	}
+
+	public void setData(List<T> data) {
+		this.data = data;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	public void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * @return number of all results matching the query, not only the ones on this page
+	 */
+	public int getTotalCount() {
+		return totalCount;
+	}
+
+	public void setTotalCount(int totalCount) {
+		this.totalCount = totalCount;
+	}
+
+	/**
+	 * @return token to get the next page or null, if this is the last page
+	 */
+	public String getNextPageToken() {
+		return nextPageToken;
+	}
+
+	public void setNextPageToken(String nextPageToken) {
+		this.nextPageToken = nextPageToken;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + ":[pageSize='" + pageSize +
+				"', totalCount='" + totalCount +
+				"', nextPageToken='" + nextPageToken +
+				"', data='" + data + "']";
+	}
+}
@@ -0,0 +1,122 @@
+package cz.metacentrum.perun.core.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Changes of the ServiceAttributes structure of a service and a facility since the previous generation.
+ *
+ * Each generation is identified by the content hash of the whole structure. When the structure didn't change
+ * since the requested generation, there are no changes at all. When the requested generation is known,
+ * the changes contain only the nodes, whose subtrees differ from the same nodes of the requested generation
+ * (new or modified ones), together with their parent nodes, and keys of the removed nodes.
+ * Otherwise the changes contain the complete structure. Generations are known only for a limited time
+ * and only to the instance, which generated them, so clients must handle the complete structure at any time.
+ *
+ * Each node of the changes has its stable key and hash. Child elements left out from the changes
+ * are the same as in the requested generation.
+ *
+ * @see ServiceAttributes
+ * @see HashedServiceAttributes
+ */
+public class ServiceAttributesDelta {
+
+	private String generation;
+	private String previousGeneration;
+	private boolean complete;
+	private List<String> removedElements = new ArrayList<>();
+	private HashedServiceAttributes changes;
+
+	public ServiceAttributesDelta() {
+	}
+
+	public ServiceAttributesDelta(String generation, String previousGeneration, boolean complete, List<String> removedElements, HashedServiceAttributes changes) {
+		this.generation = generation;
+		this.previousGeneration = previousGeneration;
+		this.complete = complete;
+		this.removedElements = removedElements;
+		this.changes = changes;
+	}
+
+	/**
+	 * Generation of the current structure, it can be used to request changes next time.
+	 *
+	 * @return generation token
+	 */
+	public String getGeneration() {
+		return generation;
+	}
+
+	public void setGeneration(String generation) {
+		this.generation = generation;
+	}
+
+	/**
+	 * Generation the changes are relative to, null if complete structure is returned.
+	 *
+	 * @return generation token or null
+	 */
+	public String getPreviousGeneration() {
+		return previousGeneration;
+	}
+
+	public void setPreviousGeneration(String previousGeneration) {
+		this.previousGeneration = previousGeneration;
+	}
+
+	/**
+	 * True if changes contain the complete structure, because the requested generation is not known.
+	 *
+	 * @return true if the structure is complete
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+	public void setComplete(boolean complete) {
+		this.complete = complete;
+	}
+
+	/**
+	 * Keys of nodes present in the previous generation, which are not present in the current one.
+	 * When whole subtree was removed, only the key of its root is listed.
+	 *
+	 * @return keys of removed nodes
+	 */
+	public List<String> getRemovedElements() {
+		return removedElements;
+	}
+
+	public void setRemovedElements(List<String> removedElements) {
+		this.removedElements = removedElements;
+	}
+
+	/**
+	 * Changed part of the structure or null, if nothing has changed since the previous generation.
+	 *
+	 * @return changed nodes with their parents or null
+	 */
+	public HashedServiceAttributes getChanges() {
+		return changes;
+	}
+
+	public void setChanges(HashedServiceAttributes changes) {
+		this.changes = changes;
+	}
+
+	/**
+	 * @return true if anything has changed since the previous generation
+	 */
+	public boolean isChanged() {
+		return changes != null;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + ":[generation='" + generation +
+				"', previousGeneration='" + previousGeneration +
+				"', complete='" + complete +
+				"', removedElements='" + removedElements +
+				"', changed='" + isChanged() + "']";
+	}
+}
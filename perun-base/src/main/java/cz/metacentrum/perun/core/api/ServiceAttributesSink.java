@@ -0,0 +1,41 @@
+package cz.metacentrum.perun.core.api;
+
+import java.util.List;
+
+/**
+ * Receives the structure of ServiceAttributes node by node as it is generated, so it doesn't have to be
+ * kept in memory as a whole.
+ *
+ * Each node is started by {@link #startElement(List)} and finished by {@link #endElement()}.
+ * Nodes started in between are child elements of the node.
+ *
+ * Nodes of generated GEN data are started by {@link #startElement(String, List)} with a key identifying
+ * the node among its siblings, sinks which don't need it can ignore it.
+ *
+ * @see ServiceAttributes
+ */
+public interface ServiceAttributesSink {
+
+	/**
+	 * Starts new node with attributes. Following nodes are its child elements until {@link #endElement()} is called.
+	 *
+	 * @param attributes attributes of the node
+	 */
+	void startElement(List<Attribute> attributes);
+
+	/**
+	 * Starts new node with attributes and key. Following nodes are its child elements until {@link #endElement()} is called.
+	 *
+	 * @param key key of the node unique among its siblings, e.g. "resource:1" or "members"
+	 * @param attributes attributes of the node
+	 */
+	default void startElement(String key, List<Attribute> attributes) {
+		startElement(attributes);
+	}
+
+	/**
+	 * Finishes the last started node.
+	 */
+	void endElement();
+
+}
@@ -0,0 +1,21 @@
+package cz.metacentrum.perun.core.api;
+
+import cz.metacentrum.perun.core.api.exceptions.PerunException;
+
+/**
+ * ServiceAttributes structure, which is generated only when it is written to the sink.
+ *
+ * @see ServiceAttributesSink
+ */
+@FunctionalInterface
+public interface ServiceAttributesStream {
+
+	/**
+	 * Generates the structure and writes it node by node to the sink.
+	 *
+	 * @param sink sink to write the nodes to
+	 * @throws PerunException when the structure can't be generated
+	 */
+	void writeTo(ServiceAttributesSink sink) throws PerunException;
+
+}
@@ -4,10 +4,14 @@ import cz.metacentrum.perun.core.api.BeansUtils;
 import cz.metacentrum.perun.core.api.PerunBean;
 
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 public class AuthzRoles extends HashMap<String, Map<String, Set<Integer>>> {
 	private static final long serialVersionUID = 1L;
 
+	private boolean unmodifiable = false;
+
 	public AuthzRoles() {
 		super();
 	}
@@ -52,6 +56,25 @@ public class AuthzRoles extends HashMap<String, Map<String, Set<Integer>>> {
 		this.put(role, complementaryObjects);
 	}
 
+	/**
+	 * Create modifiable copy of the roles, including objects of each role.
+	 *
+	 * @param roles roles to copy
+	 */
+	public AuthzRoles(AuthzRoles roles) {
+		super();
+		for (Map.Entry<String, Map<String, Set<Integer>>> role : roles.entrySet()) {
+			Map<String, Set<Integer>> complementaryObjects = null;
+			if (role.getValue() != null) {
+				complementaryObjects = new HashMap<String, Set<Integer>>();
+				for (Map.Entry<String, Set<Integer>> objects : role.getValue().entrySet()) {
+					complementaryObjects.put(objects.getKey(), objects.getValue() == null ? null : new HashSet<Integer>(objects.getValue()));
+				}
+			}
+			this.put(role.getKey(), complementaryObjects);
+		}
+	}
+
 	public void putAuthzRoles(String role, Map<String, Set<Integer>> perunBeans) {
 		this.putComplementaryObjects(role, perunBeans);
 	}
@@ -144,6 +167,112 @@ public class AuthzRoles extends HashMap<String, Map<String, Set<Integer>>> {
 		}
 	}
 
+	/**
+	 * Make these roles unmodifiable, including objects of each role. Roles are made unmodifiable when they are
+	 * published to the principal, because more threads can read them since then.
+	 *
+	 * @return these roles
+	 */
+	public AuthzRoles makeUnmodifiable() {
+		if (unmodifiable) return this;
+		for (Map.Entry<String, Map<String, Set<Integer>>> role : this.entrySet()) {
+			if (role.getValue() == null) continue;
+			Map<String, Set<Integer>> complementaryObjects = new HashMap<String, Set<Integer>>();
+			for (Map.Entry<String, Set<Integer>> objects : role.getValue().entrySet()) {
+				complementaryObjects.put(objects.getKey(), objects.getValue() == null ? null : Collections.unmodifiableSet(new HashSet<Integer>(objects.getValue())));
+			}
+			role.setValue(Collections.unmodifiableMap(complementaryObjects));
+		}
+		unmodifiable = true;
+		return this;
+	}
+
+	public boolean isUnmodifiable() {
+		return unmodifiable;
+	}
+
+	@Override
+	public Map<String, Set<Integer>> put(String role, Map<String, Set<Integer>> perunBeans) {
+		checkModifiable();
+		return super.put(role, perunBeans);
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends Map<String, Set<Integer>>> roles) {
+		checkModifiable();
+		super.putAll(roles);
+	}
+
+	@Override
+	public Map<String, Set<Integer>> putIfAbsent(String role, Map<String, Set<Integer>> perunBeans) {
+		checkModifiable();
+		return super.putIfAbsent(role, perunBeans);
+	}
+
+	@Override
+	public Map<String, Set<Integer>> remove(Object role) {
+		checkModifiable();
+		return super.remove(role);
+	}
+
+	@Override
+	public boolean remove(Object role, Object perunBeans) {
+		checkModifiable();
+		return super.remove(role, perunBeans);
+	}
+
+	@Override
+	public void clear() {
+		checkModifiable();
+		super.clear();
+	}
+
+	@Override
+	public Map<String, Set<Integer>> replace(String role, Map<String, Set<Integer>> perunBeans) {
+		checkModifiable();
+		return super.replace(role, perunBeans);
+	}
+
+	@Override
+	public boolean replace(String role, Map<String, Set<Integer>> oldPerunBeans, Map<String, Set<Integer>> newPerunBeans) {
+		checkModifiable();
+		return super.replace(role, oldPerunBeans, newPerunBeans);
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super String, ? super Map<String, Set<Integer>>, ? extends Map<String, Set<Integer>>> function) {
+		checkModifiable();
+		super.replaceAll(function);
+	}
+
+	@Override
+	public Map<String, Set<Integer>> computeIfAbsent(String role, Function<? super String, ? extends Map<String, Set<Integer>>> mappingFunction) {
+		checkModifiable();
+		return super.computeIfAbsent(role, mappingFunction);
+	}
+
+	@Override
+	public Map<String, Set<Integer>> computeIfPresent(String role, BiFunction<? super String, ? super Map<String, Set<Integer>>, ? extends Map<String, Set<Integer>>> remappingFunction) {
+		checkModifiable();
+		return super.computeIfPresent(role, remappingFunction);
+	}
+
+	@Override
+	public Map<String, Set<Integer>> compute(String role, BiFunction<? super String, ? super Map<String, Set<Integer>>, ? extends Map<String, Set<Integer>>> remappingFunction) {
+		checkModifiable();
+		return super.compute(role, remappingFunction);
+	}
+
+	@Override
+	public Map<String, Set<Integer>> merge(String role, Map<String, Set<Integer>> perunBeans, BiFunction<? super Map<String, Set<Integer>>, ? super Map<String, Set<Integer>>, ? extends Map<String, Set<Integer>>> remappingFunction) {
+		checkModifiable();
+		return super.merge(role, perunBeans, remappingFunction);
+	}
+
+	private void checkModifiable() {
+		if (unmodifiable) throw new UnsupportedOperationException("AuthzRoles can't be modified after they were published.");
+	}
+
 	public String toString() {
 		String roles = "";
 		if (!this.isEmpty()) {
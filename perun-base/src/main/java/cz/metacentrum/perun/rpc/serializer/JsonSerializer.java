@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -159,6 +160,22 @@ public final class JsonSerializer implements Serializer {
 		}
 	}
 
+	/**
+	 * Writes ServiceAttributes structure node by node as it is generated by the stream.
+	 * If the stream fails after some nodes were written, the output is not a valid JSON.
+	 *
+	 * @param stream stream generating ServiceAttributes structure
+	 * @throws IOException if an IO error occurs
+	 * @throws PerunException if the stream can't generate the structure
+	 */
+	public void writeServiceAttributes(ServiceAttributesStream stream) throws IOException, PerunException {
+		JsonGenerator gen = jsonFactory.createJsonGenerator(out, JsonEncoding.UTF8);
+
+		stream.writeTo(new JsonServiceAttributesSink(gen));
+		gen.flush();
+		gen.close();
+	}
+
 	@Override
 	public void writePerunException(PerunException pex) throws IOException {
 
@@ -186,4 +203,38 @@ public final class JsonSerializer implements Serializer {
 		gen.close();
 
 	}
+
+	/**
+	 * Writes nodes in the same format as ServiceAttributes object would be serialized.
+	 */
+	private static class JsonServiceAttributesSink implements ServiceAttributesSink {
+
+		private final JsonGenerator gen;
+
+		JsonServiceAttributesSink(JsonGenerator gen) {
+			this.gen = gen;
+		}
+
+		@Override
+		public void startElement(List<Attribute> attributes) {
+			try {
+				gen.writeStartObject();
+				gen.writeFieldName("attributes");
+				gen.writeObject(attributes);
+				gen.writeArrayFieldStart("childElements");
+			} catch (IOException ex) {
+				throw new RpcException(RpcException.Type.CANNOT_SERIALIZE_VALUE, ex);
+			}
+		}
+
+		@Override
+		public void endElement() {
+			try {
+				gen.writeEndArray();
+				gen.writeEndObject();
+			} catch (IOException ex) {
+				throw new RpcException(RpcException.Type.CANNOT_SERIALIZE_VALUE, ex);
+			}
+		}
+	}
 }
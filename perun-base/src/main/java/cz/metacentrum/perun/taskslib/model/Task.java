@@ -22,6 +22,23 @@ public class Task implements Serializable {
 		WAITING, PLANNED, GENERATING, GENERROR, GENERATED, SENDING, DONE, SENDERROR, ERROR
 	}
 
+	/**
+	 * Listener notified about every change of Task status. It is used by the TaskStore
+	 * holding the Task to keep its index of Tasks by status up to date.
+	 */
+	public interface StatusListener {
+
+		/**
+		 * Called while holding the Task lock, right after its status was changed.
+		 *
+		 * @param task Task which status was changed
+		 * @param oldStatus previous status (can be null)
+		 * @param newStatus current status (can be null)
+		 */
+		void statusChanged(Task task, TaskStatus oldStatus, TaskStatus newStatus);
+
+	}
+
 	private int id;
 	private int delay;
 	private int recurrence;
@@ -39,6 +56,7 @@ public class Task implements Serializable {
 	private TaskStatus status;
 	private boolean sourceUpdated;
 	private boolean propagationForced;
+	private transient StatusListener statusListener;
 
 	@Override
 	public int hashCode() {
@@ -296,7 +314,22 @@ public class Task implements Serializable {
 	}
 
 	public synchronized void setStatus(TaskStatus status) {
+		TaskStatus oldStatus = this.status;
 		this.status = status;
+		if (statusListener != null && oldStatus != status) {
+			statusListener.statusChanged(this, oldStatus, status);
+		}
+	}
+
+	/**
+	 * Set listener notified about status changes of this Task. Only one listener
+	 * is kept, pass null to remove it. There is intentionally no getter,
+	 * so the listener is never serialized with the Task.
+	 *
+	 * @param statusListener listener to notify or null
+	 */
+	public synchronized void setStatusListener(StatusListener statusListener) {
+		this.statusListener = statusListener;
 	}
 
 	public String getBeanName(){
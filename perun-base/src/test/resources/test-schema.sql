@@ -2,7 +2,7 @@ set database sql syntax PGS true;
 -- fix unique index on authz, since PGS compatibility doesn't allow coalesce call in index and treats nulls in columns as different values.
 SET DATABASE SQL UNIQUE NULLS FALSE;
 
--- database version 3.1.55 (don't forget to update insert statement at the end of file)
+-- database version 3.1.56 (don't forget to update insert statement at the end of file)
 
 -- VOS - virtual organizations
 create table vos (
@@ -1195,7 +1195,9 @@ create table tasks_results (
 -- AUDITER_LOG - logging
 create table auditer_log (
 	id integer not null,         --identifier of logged event
-	msg text not null,           --text of logging message
+	msg text,                    --text of logging message (JSON format)
+	msg_format integer default 0 not null, --format of stored message (0 = JSON in msg, 1 = Smile in msg_binary)
+	msg_binary longvarbinary,    --binary encoded logging message (Smile format)
 	actor varchar(256) not null, --who causes the event
 	created_at timestamp default current_date not null ,
 	created_by_uid integer,
@@ -1773,7 +1775,7 @@ CREATE INDEX ufauv_idx ON user_facility_attr_u_values (user_id, facility_id, att
 CREATE INDEX vauv_idx ON vo_attr_u_values (vo_id, attr_id) ;
 
 -- set initial Perun DB version
-insert into configurations values ('DATABASE VERSION','3.1.55');
+insert into configurations values ('DATABASE VERSION','3.1.56');
 insert into membership_types (id, membership_type, description) values (1, 'DIRECT', 'Member is directly added into group');
 insert into membership_types (id, membership_type, description) values (2, 'INDIRECT', 'Member is added indirectly through UNION relation');
 insert into action_types (id, action_type, description) values (nextval('action_types_seq'), 'read', 'Can read value.');
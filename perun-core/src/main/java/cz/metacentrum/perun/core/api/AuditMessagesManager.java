@@ -71,6 +71,34 @@ public interface AuditMessagesManager {
 	 */
 	List<AuditEvent> pollConsumerEvents(PerunSession perunSession, String consumerName) throws InternalErrorException, PrivilegeException;
 
+	/**
+	 * Returns list of <b>AuditMessages</b> from audit log with IDs > lastProcessedId for registered auditer consumer.
+	 * At most batchSize oldest messages are returned and last processed ID of consumer is moved to the last of them,
+	 * so consumer can read large backlog in consecutive bounded chunks.
+	 *
+	 * @param perunSession perun session
+	 * @param consumerName consumer to get messages for
+	 * @param batchSize maximal number of returned messages
+	 * @return List of audit messages
+	 * @throws InternalErrorException When implementation fails
+	 * @throws PrivilegeException When you are not authorized to poll messages
+	 */
+	List<AuditMessage> pollConsumerMessages(PerunSession perunSession, String consumerName, int batchSize) throws InternalErrorException, PrivilegeException;
+
+	/**
+	 * Returns list of <b>AuditEvents</b> from audit log with IDs > lastProcessedId for registered auditer consumer.
+	 * At most batchSize oldest events are returned and last processed ID of consumer is moved to the last of them,
+	 * so consumer can read large backlog in consecutive bounded chunks.
+	 *
+	 * @param perunSession perun session
+	 * @param consumerName consumer to get events for
+	 * @param batchSize maximal number of returned events
+	 * @return List of audit events
+	 * @throws InternalErrorException When implementation fails
+	 * @throws PrivilegeException When you are not authorized to poll events
+	 */
+	List<AuditEvent> pollConsumerEvents(PerunSession perunSession, String consumerName, int batchSize) throws InternalErrorException, PrivilegeException;
+
 	/**
 	 * Creates new auditer consumer with last processed id which equals current auditer log max id.
 	 *
@@ -100,6 +128,17 @@ public interface AuditMessagesManager {
 	 */
 	Map<String, Integer> getAllAuditerConsumers(PerunSession perunSession) throws InternalErrorException;
 
+	/**
+	 * Get lag of all registered auditer consumers as map name(String)=lag(Integer).
+	 * Lag is the difference between ID of last (newest) message in audit log and last processed ID of consumer.
+	 * Number of messages waiting for the consumer is equal or less than lag, because some IDs could be skipped in the sequence.
+	 *
+	 * @param perunSession perun session
+	 * @return Mapping of auditer consumer names to their lag.
+	 * @throws InternalErrorException When implementation fails
+	 */
+	Map<String, Integer> getAuditerConsumersLag(PerunSession perunSession) throws InternalErrorException;
+
 	/**
 	 * Get ID of last (newest) message in audit log (max_id).
 	 *
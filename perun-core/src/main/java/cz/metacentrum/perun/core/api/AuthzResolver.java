@@ -38,6 +38,19 @@ public class AuthzResolver {
 		return AuthzResolverBlImpl.authorized(sess, policyDefinition, objects);
 	}
 
+	/**
+	 * Filter objects on which the principal is authorized, each object is checked separately.
+	 *
+	 * @param sess PerunSession which contains the principal.
+	 * @param policyDefinition of policy which contains authorization rules.
+	 * @param objects PerunBeans to filter (e.g. groups, Vos, etc...)
+	 * @return objects on which the principal is authorized, in the original order
+	 * @throws PolicyNotExistsException when the given policyDefinition does not exist in the PerunPoliciesContainer.
+	 */
+	public static <T extends PerunBean> List<T> authorizedFilter(PerunSession sess, String policyDefinition, List<T> objects) throws PolicyNotExistsException {
+		return AuthzResolverBlImpl.authorizedFilter(sess, policyDefinition, objects);
+	}
+
 	/**
 	 * Checks if the principal is authorized.
 	 *
@@ -570,6 +570,25 @@ public interface MembersManager {
 	 */
 	List<RichMember> getCompleteRichMembers(PerunSession sess, Vo vo, List<String> attrsNames, List<String> allowedStatuses) throws InternalErrorException, PrivilegeException, VoNotExistsException, AttributeNotExistsException;
 
+	/**
+	 * Get one page of RichMembers with attributes specific for list of attrsNames from the vo.
+	 * Members are filtered by statuses, group and search string of the query and sorted by its sort column.
+	 * Next page is requested by the token returned with the previous page.
+	 * If attrsNames is empty or null return all attributes for specific richMembers.
+	 *
+	 * @param sess
+	 * @param vo
+	 * @param query page size, sort column, filters and token of the page
+	 * @param attrsNames
+	 * @return page of richMembers with specific attributes from Vo, total count of matching members and token of the next page
+	 * @throws InternalErrorException
+	 * @throws PrivilegeException
+	 * @throws VoNotExistsException
+	 * @throws GroupNotExistsException
+	 * @throws AttributeNotExistsException
+	 */
+	Paginated<RichMember> getMembersPage(PerunSession sess, Vo vo, MembersPageQuery query, List<String> attrsNames) throws InternalErrorException, PrivilegeException, VoNotExistsException, GroupNotExistsException, AttributeNotExistsException;
+
 	/**
 	 * Get all RichMembers with attrs specific for list of attrsNames from the group.
 	 * If attrsNames is empty or null return all attributes for specific richMembers.
@@ -375,6 +375,41 @@ public interface ServicesManager {
 	 */
 	ServiceAttributes getHierarchicalData(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
 
+	/**
+	 * Same as {@link #getHierarchicalData(PerunSession, Service, Facility, boolean)}, but the structure is not kept in memory,
+	 * each node is written to the sink as soon as it is generated. See {@link ServiceAttributesSink}.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility, resources associated with it and members assigned to the resources
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param sink sink to write the structure to
+	 *
+	 * @throws InternalErrorException
+	 * @throws ServiceNotExistsException
+	 * @throws FacilityNotExistsException
+	 * @throws PrivilegeException
+	 */
+	void streamHierarchicalData(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
+
+	/**
+	 * Same as {@link #getHierarchicalData(PerunSession, Service, Facility, boolean)}, but only the part of the structure, which has changed
+	 * since the given generation, is returned. See {@link ServiceAttributesDelta}.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility and the objects associated with it
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param generation generation returned by the previous call or null to get the complete structure
+	 * @return changes of the structure together with its current generation
+	 *
+	 * @throws InternalErrorException
+	 * @throws ServiceNotExistsException
+	 * @throws FacilityNotExistsException
+	 * @throws PrivilegeException
+	 */
+	ServiceAttributesDelta getHierarchicalDataDelta(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, String generation) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
+
 	/**
 	 * Generates the list of attributes per each user and per each resource. Resources are filtered by service.
 	 * Never return member or member-resource attribute.
@@ -413,6 +448,41 @@ public interface ServicesManager {
 	 */
 	ServiceAttributes getFlatData(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
 
+	/**
+	 * Same as {@link #getFlatData(PerunSession, Service, Facility, boolean)}, but the structure is not kept in memory,
+	 * each node is written to the sink as soon as it is generated. See {@link ServiceAttributesSink}.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility, resources associated with it and users assigned to the resources
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param sink sink to write the structure to
+	 *
+	 * @throws InternalErrorException
+	 * @throws ServiceNotExistsException
+	 * @throws FacilityNotExistsException
+	 * @throws PrivilegeException
+	 */
+	void streamFlatData(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
+
+	/**
+	 * Same as {@link #getFlatData(PerunSession, Service, Facility, boolean)}, but only the part of the structure, which has changed
+	 * since the given generation, is returned. See {@link ServiceAttributesDelta}.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility and the objects associated with it
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param generation generation returned by the previous call or null to get the complete structure
+	 * @return changes of the structure together with its current generation
+	 *
+	 * @throws InternalErrorException
+	 * @throws ServiceNotExistsException
+	 * @throws FacilityNotExistsException
+	 * @throws PrivilegeException
+	 */
+	ServiceAttributesDelta getFlatDataDelta(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, String generation) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
+
 	/**
 	 * Generates the list of attributes per each member associated with the resources and groups.
 	 *
@@ -496,6 +566,41 @@ public interface ServicesManager {
 		*/
 		ServiceAttributes getDataWithGroups(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
 
+	/**
+	 * Same as {@link #getDataWithGroups(PerunSession, Service, Facility, boolean)}, but the structure is not kept in memory,
+	 * each node is written to the sink as soon as it is generated. See {@link ServiceAttributesSink}.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility, resources associated with it and members assigned to the resources
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param sink sink to write the structure to
+	 *
+	 * @throws InternalErrorException
+	 * @throws ServiceNotExistsException
+	 * @throws FacilityNotExistsException
+	 * @throws PrivilegeException
+	 */
+	void streamDataWithGroups(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
+
+	/**
+	 * Same as {@link #getDataWithGroups(PerunSession, Service, Facility, boolean)}, but only the part of the structure, which has changed
+	 * since the given generation, is returned. See {@link ServiceAttributesDelta}.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility and the objects associated with it
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param generation generation returned by the previous call or null to get the complete structure
+	 * @return changes of the structure together with its current generation
+	 *
+	 * @throws InternalErrorException
+	 * @throws ServiceNotExistsException
+	 * @throws FacilityNotExistsException
+	 * @throws PrivilegeException
+	 */
+	ServiceAttributesDelta getDataWithGroupsDelta(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, String generation) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
+
 	/**
 	 * Generates the list of attributes per each member associated with the resources and groups in vos.
 	 *
@@ -582,6 +687,43 @@ public interface ServicesManager {
 	 */
 	ServiceAttributes getDataWithVos(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException, VoNotExistsException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
 
+	/**
+	 * Same as {@link #getDataWithVos(PerunSession, Service, Facility, boolean)}, but the structure is not kept in memory,
+	 * each node is written to the sink as soon as it is generated. See {@link ServiceAttributesSink}.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility, vos associated with this facility by resources, resources associated with it and members assigned to the resources
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param sink sink to write the structure to
+	 *
+	 * @throws InternalErrorException
+	 * @throws ServiceNotExistsException
+	 * @throws FacilityNotExistsException
+	 * @throws PrivilegeException
+	 * @throws VoNotExistsException
+	 */
+	void streamDataWithVos(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException, VoNotExistsException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
+
+	/**
+	 * Same as {@link #getDataWithVos(PerunSession, Service, Facility, boolean)}, but only the part of the structure, which has changed
+	 * since the given generation, is returned. See {@link ServiceAttributesDelta}.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility and the objects associated with it
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param generation generation returned by the previous call or null to get the complete structure
+	 * @return changes of the structure together with its current generation
+	 *
+	 * @throws InternalErrorException
+	 * @throws VoNotExistsException
+	 * @throws ServiceNotExistsException
+	 * @throws FacilityNotExistsException
+	 * @throws PrivilegeException
+	 */
+	ServiceAttributesDelta getDataWithVosDelta(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, String generation) throws InternalErrorException, VoNotExistsException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException;
+
 	/**
 	 * List packages
 	 *
@@ -1014,6 +1014,22 @@ public interface AttributesManagerBl {
 	 */
 	Attribute getAttribute(PerunSession sess, Resource resource, String attributeName) throws InternalErrorException, WrongAttributeAssignmentException, AttributeNotExistsException;
 
+	/**
+	 * Get number of facility, vo and resource attributes read by name, which were found in the memo
+	 * of the current transaction, so they weren't loaded again.
+	 *
+	 * @return number of memo hits since start
+	 */
+	long getAttributesReadMemoHits();
+
+	/**
+	 * Get number of facility, vo and resource attributes read by name, which had to be loaded,
+	 * because they weren't found in the memo of the current transaction.
+	 *
+	 * @return number of memo misses since start
+	 */
+	long getAttributesReadMemoMisses();
+
 	/**
 	 * Get particular attribute for the member on this resource.
 	 *
@@ -2249,6 +2265,32 @@ public interface AttributesManagerBl {
 	 */
 	HashMap<User, List<Attribute>> getRequiredAttributes(PerunSession sess, Service service, List<User> users) throws InternalErrorException;
 
+	/**
+	 * Get user attributes with the given names for each user in the list.
+	 * Users are processed in chunks of fixed size, attributes of each chunk are read by one query.
+	 *
+	 * @param sess perun session
+	 * @param users you get attributes for these users
+	 * @param attrNames names of the attributes, names from other than user namespace are ignored
+	 * @return map of user and his list of attributes, every user from the list is present
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	HashMap<User, List<Attribute>> getUsersAttributes(PerunSession sess, List<User> users, List<String> attrNames) throws InternalErrorException;
+
+	/**
+	 * Get member attributes with the given names for each member in the list.
+	 * Members are processed in chunks of fixed size, attributes of each chunk are read by one query.
+	 *
+	 * @param sess perun session
+	 * @param members you get attributes for these members
+	 * @param attrNames names of the attributes, names from other than member namespace are ignored
+	 * @return map of member and his list of attributes, every member from the list is present
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	HashMap<Member, List<Attribute>> getMembersAttributes(PerunSession sess, List<Member> members, List<String> attrNames) throws InternalErrorException;
+
 	/**
 	 * Get member-group attributes which are required by the service.
 	 *
@@ -57,6 +57,48 @@ public interface AuditMessagesManagerBl {
 	 */
 	List<AuditEvent> pollConsumerEvents(PerunSession perunSession, String consumerName) throws InternalErrorException;
 
+	/**
+	 * Returns list of <b>AuditMessages</b> from audit log with IDs > lastProcessedId for registered auditer consumer.
+	 * At most batchSize oldest messages are returned and last processed ID of consumer is moved to the last of them,
+	 * so consumer can read large backlog in consecutive bounded chunks.
+	 *
+	 * @param perunSession perun session
+	 * @param consumerName consumer to get messages for
+	 * @param batchSize maximal number of returned messages
+	 * @return List of audit messages
+	 * @throws InternalErrorException When implementation fails
+	 */
+	List<AuditMessage> pollConsumerMessages(PerunSession perunSession, String consumerName, int batchSize) throws InternalErrorException;
+
+	/**
+	 * Returns list of <b>AuditEvents</b> from audit log with IDs > lastProcessedId for registered auditer consumer.
+	 * At most batchSize oldest events are returned and last processed ID of consumer is moved to the last of them,
+	 * so consumer can read large backlog in consecutive bounded chunks.
+	 *
+	 * @param perunSession perun session
+	 * @param consumerName consumer to get events for
+	 * @param batchSize maximal number of returned events
+	 * @return List of audit events
+	 * @throws InternalErrorException When implementation fails
+	 */
+	List<AuditEvent> pollConsumerEvents(PerunSession perunSession, String consumerName, int batchSize) throws InternalErrorException;
+
+	/**
+	 * Blocks until new audit messages are stored since the last poll of specified consumer or until timeout elapses.
+	 * Consumers should call this method instead of sleeping between polls. Messages stored by this instance
+	 * wake up the consumer as soon as their transaction commits. Messages stored by other instances are not
+	 * signaled at all, they are picked by the next poll after timeout, so timeout still bounds their latency.
+	 *
+	 * Audit log in the DB is still the only source of messages, consumer must poll them afterwards.
+	 *
+	 * @param perunSession perun session
+	 * @param consumerName consumer waiting for messages
+	 * @param timeout maximum time to wait in milliseconds
+	 * @return TRUE if new messages were stored by this instance / FALSE if timeout elapsed
+	 * @throws InterruptedException When waiting thread is interrupted
+	 */
+	boolean waitForNewMessages(PerunSession perunSession, String consumerName, long timeout) throws InterruptedException;
+
 	/**
 	 * Creates new auditer consumer with last processed id which equals current auditer log max id.
 	 *
@@ -84,6 +126,17 @@ public interface AuditMessagesManagerBl {
 	 */
 	Map<String, Integer> getAllAuditerConsumers(PerunSession perunSession) throws InternalErrorException;
 
+	/**
+	 * Get lag of all registered auditer consumers as map name(String)=lag(Integer).
+	 * Lag is the difference between ID of last (newest) message in audit log and last processed ID of consumer.
+	 * Number of messages waiting for the consumer is equal or less than lag, because some IDs could be skipped in the sequence.
+	 *
+	 * @param perunSession perun session
+	 * @return Mapping of auditer consumer names to their lag.
+	 * @throws InternalErrorException When implementation fails
+	 */
+	Map<String, Integer> getAuditerConsumersLag(PerunSession perunSession) throws InternalErrorException;
+
 	/**
 	 * Get ID of last (newest) message in audit log (max_id).
 	 *
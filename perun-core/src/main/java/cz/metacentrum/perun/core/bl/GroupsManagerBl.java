@@ -713,6 +713,18 @@ public interface GroupsManagerBl {
 	 */
 	List<Group> getAllSubGroups(PerunSession sess, Group parentGroup) throws InternalErrorException;
 
+	/**
+	 * Get all groups above the group in the hierarchy, from its parent group up to the top-level group.
+	 * Unlike getParentGroup, Members group is not returned for top-level groups.
+	 *
+	 * @param sess
+	 * @param group group
+	 *
+	 * @return list of groups, empty for top-level groups
+	 * @throws InternalErrorException
+	 */
+	List<Group> getAllParentGroups(PerunSession sess, Group group) throws InternalErrorException;
+
 	/**
 	 * Get list of all user administrators for supported role and specific group.
 	 *
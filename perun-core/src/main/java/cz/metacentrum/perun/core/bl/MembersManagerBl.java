@@ -7,6 +7,8 @@ import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Group;
 import cz.metacentrum.perun.core.api.Member;
 import cz.metacentrum.perun.core.api.MemberGroupStatus;
+import cz.metacentrum.perun.core.api.MembersPageQuery;
+import cz.metacentrum.perun.core.api.Paginated;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.Resource;
 import cz.metacentrum.perun.core.api.RichMember;
@@ -622,6 +624,21 @@ public interface MembersManagerBl {
 	 */
 	List<RichMember> getCompleteRichMembers(PerunSession sess, Vo vo, List<String> attrsNames, List<String> allowedStatuses) throws InternalErrorException, AttributeNotExistsException;
 
+	/**
+	 * Get one page of RichMembers with attributes specific for list of attrsNames from the vo.
+	 * Filters of the query are evaluated by the database, so only members of the page are read.
+	 * If attrsNames is empty or null return all attributes for specific richMembers.
+	 *
+	 * @param sess
+	 * @param vo
+	 * @param query page size, sort column, filters and token of the page
+	 * @param attrsNames
+	 * @return page of richMembers with specific attributes from Vo, total count of matching members and token of the next page
+	 * @throws InternalErrorException
+	 * @throws AttributeNotExistsException
+	 */
+	Paginated<RichMember> getMembersPage(PerunSession sess, Vo vo, MembersPageQuery query, List<String> attrsNames) throws InternalErrorException, AttributeNotExistsException;
+
 	/**
 	 * Get all RichMembers with attributes specific for list of attrsNames from the group.
 	 * If attrsNames is empty or null return all attributes for specific richMembers.
@@ -9,6 +9,8 @@ import cz.metacentrum.perun.core.api.Resource;
 import cz.metacentrum.perun.core.api.RichDestination;
 import cz.metacentrum.perun.core.api.Service;
 import cz.metacentrum.perun.core.api.ServiceAttributes;
+import cz.metacentrum.perun.core.api.ServiceAttributesDelta;
+import cz.metacentrum.perun.core.api.ServiceAttributesSink;
 import cz.metacentrum.perun.core.api.ServicesPackage;
 import cz.metacentrum.perun.core.api.Vo;
 import cz.metacentrum.perun.core.api.exceptions.AttributeAlreadyAssignedException;
@@ -333,6 +335,39 @@ public interface ServicesManagerBl {
 	 */
 	ServiceAttributes getHierarchicalData(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException;
 
+	/**
+	 * Same as {@link #getHierarchicalData(PerunSession, Service, Facility, boolean)}, but the structure is not kept in memory,
+	 * each node is written to the sink as soon as it is generated.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility, resources associated with it and members assigned to the resources
+	 * @param filterExpiredMembers if true the method does not take expired members into account
+	 * @param sink sink to write the structure to
+	 *
+	 * @throws InternalErrorException
+	 */
+	void streamHierarchicalData(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException;
+
+	/**
+	 * Same as {@link #getHierarchicalData(PerunSession, Service, Facility, boolean)}, but only the part of the structure, which has changed
+	 * since the given generation, is returned.
+	 *
+	 * Content hashes of nodes of the recently generated structures are kept in memory of this instance by the service,
+	 * facility and generation, so changes can be computed only against these generations. Complete structure is
+	 * returned otherwise, e.g. after restart or when the request is served by another instance.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility and the objects associated with it
+	 * @param filterExpiredMembers if true the method does not take expired members into account
+	 * @param generation generation returned by the previous call or null
+	 * @return changes of the structure together with its current generation
+	 *
+	 * @throws InternalErrorException
+	 */
+	ServiceAttributesDelta getHierarchicalDataDelta(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, String generation) throws InternalErrorException;
+
 	/**
 	 * Generates the list of attributes per each resource associated with the facility and filtered by service. Next it generates list of attributes
 	 * associated with the facility and service.
@@ -348,6 +383,39 @@ public interface ServicesManagerBl {
 	 */
 	ServiceAttributes getFlatData(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException;
 
+	/**
+	 * Same as {@link #getFlatData(PerunSession, Service, Facility, boolean)}, but the structure is not kept in memory,
+	 * each node is written to the sink as soon as it is generated.
+	 *
+	 * @param perunSession
+	 * @param service you will get attributes required by this service
+	 * @param facility you will get attributes for this facility, resources associated with it and users assigned to the resources
+	 * @param filterExpiredMembers if true the method does not take expired members into account
+	 * @param sink sink to write the structure to
+	 *
+	 * @throws InternalErrorException
+	 */
+	void streamFlatData(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException;
+
+	/**
+	 * Same as {@link #getFlatData(PerunSession, Service, Facility, boolean)}, but only the part of the structure, which has changed
+	 * since the given generation, is returned.
+	 *
+	 * Content hashes of nodes of the recently generated structures are kept in memory of this instance by the service,
+	 * facility and generation, so changes can be computed only against these generations. Complete structure is
+	 * returned otherwise, e.g. after restart or when the request is served by another instance.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility and the objects associated with it
+	 * @param filterExpiredMembers if true the method does not take expired members into account
+	 * @param generation generation returned by the previous call or null
+	 * @return changes of the structure together with its current generation
+	 *
+	 * @throws InternalErrorException
+	 */
+	ServiceAttributesDelta getFlatDataDelta(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, String generation) throws InternalErrorException;
+
 	/**
 	 * Generates the list of attributes per each member associated with the resources and groups.
 	 *
@@ -366,6 +434,40 @@ public interface ServicesManagerBl {
 	 * @throws InternalErrorException
 	 */
 	ServiceAttributes getDataWithGroups(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException;
+
+	/**
+	 * Same as {@link #getDataWithGroups(PerunSession, Service, Facility, boolean)}, but the structure is not kept in memory,
+	 * each node is written to the sink as soon as it is generated.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility, resources associated with it and members assigned to the resources
+	 * @param filterExpiredMembers if true the method does not take expired members into account
+	 * @param sink sink to write the structure to
+	 *
+	 * @throws InternalErrorException
+	 */
+	void streamDataWithGroups(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException;
+
+	/**
+	 * Same as {@link #getDataWithGroups(PerunSession, Service, Facility, boolean)}, but only the part of the structure, which has changed
+	 * since the given generation, is returned.
+	 *
+	 * Content hashes of nodes of the recently generated structures are kept in memory of this instance by the service,
+	 * facility and generation, so changes can be computed only against these generations. Complete structure is
+	 * returned otherwise, e.g. after restart or when the request is served by another instance.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility and the objects associated with it
+	 * @param filterExpiredMembers if true the method does not take expired members into account
+	 * @param generation generation returned by the previous call or null
+	 * @return changes of the structure together with its current generation
+	 *
+	 * @throws InternalErrorException
+	 */
+	ServiceAttributesDelta getDataWithGroupsDelta(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, String generation) throws InternalErrorException;
+
 	/**
 	 * Generates the list of attributes per each member associated with the resources and groups.
 	 *
@@ -384,6 +486,41 @@ public interface ServicesManagerBl {
 	 */
 	ServiceAttributes getDataWithVos(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException, VoNotExistsException;
 
+	/**
+	 * Same as {@link #getDataWithVos(PerunSession, Service, Facility, boolean)}, but the structure is not kept in memory,
+	 * each node is written to the sink as soon as it is generated.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility, resources associated with it and members assigned to the resources
+	 * @param filterExpiredMembers if true the method does not take expired members into account
+	 * @param sink sink to write the structure to
+	 *
+	 * @throws InternalErrorException
+	 * @throws VoNotExistsException
+	 */
+	void streamDataWithVos(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException, VoNotExistsException;
+
+	/**
+	 * Same as {@link #getDataWithVos(PerunSession, Service, Facility, boolean)}, but only the part of the structure, which has changed
+	 * since the given generation, is returned.
+	 *
+	 * Content hashes of nodes of the recently generated structures are kept in memory of this instance by the service,
+	 * facility and generation, so changes can be computed only against these generations. Complete structure is
+	 * returned otherwise, e.g. after restart or when the request is served by another instance.
+	 *
+	 * @param perunSession
+	 * @param service attributes required by this service you will get
+	 * @param facility you will get attributes for this facility and the objects associated with it
+	 * @param filterExpiredMembers if true the method does not take expired members into account
+	 * @param generation generation returned by the previous call or null
+	 * @return changes of the structure together with its current generation
+	 *
+	 * @throws InternalErrorException
+	 * @throws VoNotExistsException
+	 */
+	ServiceAttributesDelta getDataWithVosDelta(PerunSession perunSession, Service service, Facility facility, boolean filterExpiredMembers, String generation) throws InternalErrorException, VoNotExistsException;
+
 	/**
 	 * List packages
 	 *
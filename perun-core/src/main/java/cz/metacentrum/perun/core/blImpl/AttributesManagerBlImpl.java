@@ -110,6 +110,8 @@ import cz.metacentrum.perun.utils.graphs.generators.NodeGenerator;
 import cz.metacentrum.perun.utils.graphs.serializers.GraphSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
@@ -121,12 +123,14 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import static cz.metacentrum.perun.core.api.AttributesManager.NS_ENTITYLESS_ATTR;
 import static cz.metacentrum.perun.core.api.AttributesManager.NS_FACILITY_ATTR;
@@ -151,6 +155,9 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 
 	private final static Logger log = LoggerFactory.getLogger(AttributesManagerBlImpl.class);
 
+	// number of users or members, for which attributes are read by one query
+	private final static int ATTRIBUTES_CHUNK_SIZE = 1000;
+
 	private final AttributesManagerImplApi attributesManagerImpl;
 	private PerunBl perunBl;
 
@@ -163,6 +170,11 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 
 	private final Object dependenciesMonitor = new Object();
 
+	// key of the transaction resource holding memoized attributes, see getMemoizedAttribute()
+	private final Object attributesReadMemoKey = new Object();
+	private final LongAdder attributesReadMemoHits = new LongAdder();
+	private final LongAdder attributesReadMemoMisses = new LongAdder();
+
 	/**
 	 * Constructor.
 	 */
@@ -1323,8 +1335,13 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 		//check namespace
 		if (!attributeName.startsWith(AttributesManager.NS_FACILITY_ATTR))
 			throw new WrongAttributeAssignmentException("Attribute name=" + attributeName);
+		//value of core attribute is taken from the passed object, which may differ from the stored one
+		//value of virtual attribute depends on other data, which may change without notice
+		if (attributeName.startsWith(AttributesManager.NS_FACILITY_ATTR_CORE) || attributeName.startsWith(AttributesManager.NS_FACILITY_ATTR_VIRT))
+			return getAttributesManagerImpl().getAttribute(sess, facility, attributeName);
 
-		return getAttributesManagerImpl().getAttribute(sess, facility, attributeName);
+		return getMemoizedAttribute(getAttributesReadMemoKey(facility, attributeName),
+				() -> getAttributesManagerImpl().getAttribute(sess, facility, attributeName));
 	}
 
 	@Override
@@ -1332,8 +1349,13 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 		//check namespace
 		if (!attributeName.startsWith(AttributesManager.NS_VO_ATTR))
 			throw new WrongAttributeAssignmentException("Attribute name=" + attributeName);
+		//value of core attribute is taken from the passed object, which may differ from the stored one
+		//value of virtual attribute depends on other data, which may change without notice
+		if (attributeName.startsWith(AttributesManager.NS_VO_ATTR_CORE) || attributeName.startsWith(AttributesManager.NS_VO_ATTR_VIRT))
+			return getAttributesManagerImpl().getAttribute(sess, vo, attributeName);
 
-		return getAttributesManagerImpl().getAttribute(sess, vo, attributeName);
+		return getMemoizedAttribute(getAttributesReadMemoKey(vo, attributeName),
+				() -> getAttributesManagerImpl().getAttribute(sess, vo, attributeName));
 	}
 
 	@Override
@@ -1351,8 +1373,141 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 		//check namespace
 		if (!attributeName.startsWith(AttributesManager.NS_RESOURCE_ATTR))
 			throw new WrongAttributeAssignmentException("Attribute name=" + attributeName);
+		//value of core attribute is taken from the passed object, which may differ from the stored one
+		//value of virtual attribute depends on other data, which may change without notice
+		if (attributeName.startsWith(AttributesManager.NS_RESOURCE_ATTR_CORE) || attributeName.startsWith(AttributesManager.NS_RESOURCE_ATTR_VIRT))
+			return getAttributesManagerImpl().getAttribute(sess, resource, attributeName);
+
+		return getMemoizedAttribute(getAttributesReadMemoKey(resource, attributeName),
+				() -> getAttributesManagerImpl().getAttribute(sess, resource, attributeName));
+	}
 
-		return getAttributesManagerImpl().getAttribute(sess, resource, attributeName);
+	@Override
+	public long getAttributesReadMemoHits() {
+		return attributesReadMemoHits.sum();
+	}
+
+	@Override
+	public long getAttributesReadMemoMisses() {
+		return attributesReadMemoMisses.sum();
+	}
+
+	/**
+	 * Loads attribute from the DB.
+	 */
+	private interface AttributeLoader {
+		Attribute load() throws InternalErrorException, AttributeNotExistsException;
+	}
+
+	/**
+	 * Get attribute from the memo of the current transaction or load it and remember it there.
+	 *
+	 * Attribute is removed from the memo whenever it's set or removed for its holder, so memoized values
+	 * are always the current ones. Without active transaction or when disabled by perun.attributes.readMemo
+	 * property, the attribute is just loaded.
+	 *
+	 * @param key identification of the attribute holder and the attribute name
+	 * @param loader loads the attribute if it's not memoized
+	 * @return copy of the attribute, so callers can't modify the memoized one
+	 */
+	private Attribute getMemoizedAttribute(String key, AttributeLoader loader) throws InternalErrorException, AttributeNotExistsException {
+		if (!BeansUtils.getCoreConfig().isAttributesReadMemoEnabled() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+			return loader.load();
+		}
+		AttributesReadMemo memo = (AttributesReadMemo) TransactionSynchronizationManager.getResource(attributesReadMemoKey);
+		if (memo == null) {
+			memo = new AttributesReadMemo();
+			TransactionSynchronizationManager.bindResource(attributesReadMemoKey, memo);
+			TransactionSynchronizationManager.registerSynchronization(memo);
+		}
+		Attribute attribute = memo.attributes.get(key);
+		if (attribute != null) {
+			attributesReadMemoHits.increment();
+		} else {
+			attributesReadMemoMisses.increment();
+			attribute = loader.load();
+			memo.attributes.put(key, copyAttribute(attribute));
+			return attribute;
+		}
+		return copyAttribute(attribute);
+	}
+
+	private static String getAttributesReadMemoKey(Facility facility, String attributeName) {
+		return "facility:" + facility.getId() + ":" + attributeName;
+	}
+
+	private static String getAttributesReadMemoKey(Vo vo, String attributeName) {
+		return "vo:" + vo.getId() + ":" + attributeName;
+	}
+
+	private static String getAttributesReadMemoKey(Resource resource, String attributeName) {
+		return "resource:" + resource.getId() + ":" + attributeName;
+	}
+
+	/**
+	 * Remove the attribute from the memo of the current transaction, so it's loaded again on next read.
+	 *
+	 * @param key identification of the attribute holder and the attribute name
+	 */
+	private void forgetMemoizedAttribute(String key) {
+		AttributesReadMemo memo = (AttributesReadMemo) TransactionSynchronizationManager.getResource(attributesReadMemoKey);
+		if (memo != null) memo.attributes.remove(key);
+	}
+
+	/**
+	 * Remove all attributes of the holder from the memo of the current transaction.
+	 *
+	 * @param holderKey identification of the attribute holder, e.g. "facility:1"
+	 */
+	private void forgetMemoizedAttributes(String holderKey) {
+		AttributesReadMemo memo = (AttributesReadMemo) TransactionSynchronizationManager.getResource(attributesReadMemoKey);
+		if (memo != null) memo.attributes.keySet().removeIf(key -> key.startsWith(holderKey + ":"));
+	}
+
+	/**
+	 * Remove all attributes from the memo of the current transaction, e.g. when attribute definition is changed.
+	 */
+	private void forgetAllMemoizedAttributes() {
+		AttributesReadMemo memo = (AttributesReadMemo) TransactionSynchronizationManager.getResource(attributesReadMemoKey);
+		if (memo != null) memo.attributes.clear();
+	}
+
+	/**
+	 * Copy of the attribute, list and map values are copied too.
+	 */
+	private static Attribute copyAttribute(Attribute attribute) {
+		Attribute copy = new Attribute(attribute, true);
+		if (attribute.getValue() instanceof ArrayList) {
+			copy.setValue(new ArrayList<>((ArrayList<?>) attribute.getValue()));
+		} else if (attribute.getValue() instanceof LinkedHashMap) {
+			copy.setValue(new LinkedHashMap<>((LinkedHashMap<?, ?>) attribute.getValue()));
+		}
+		return copy;
+	}
+
+	/**
+	 * Attributes read in one transaction. It's bound to the transaction, while the transaction is suspended
+	 * (by an inner one), it's unbound. It's cleared on resume, because the inner transaction may have changed the data.
+	 */
+	private class AttributesReadMemo extends TransactionSynchronizationAdapter {
+
+		private final Map<String, Attribute> attributes = new HashMap<>();
+
+		@Override
+		public void suspend() {
+			TransactionSynchronizationManager.unbindResourceIfPossible(attributesReadMemoKey);
+		}
+
+		@Override
+		public void resume() {
+			attributes.clear();
+			TransactionSynchronizationManager.bindResource(attributesReadMemoKey, this);
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(attributesReadMemoKey);
+		}
 	}
 
 	@Override
@@ -1815,6 +1970,7 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 			changed = getAttributesManagerImpl().setAttribute(sess, facility, attribute);
 		}
 		if (changed) {
+			forgetMemoizedAttribute(getAttributesReadMemoKey(facility, attribute.getName()));
 			getPerunBl().getAuditer().log(sess, new AttributeSetForFacility(attribute, facility));
 			getAttributesManagerImpl().changedAttributeHook(sess, facility, attribute);
 		}
@@ -1848,6 +2004,7 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 			changed = getAttributesManagerImpl().setAttribute(sess, vo, attribute);
 		}
 		if (changed) {
+			forgetMemoizedAttribute(getAttributesReadMemoKey(vo, attribute.getName()));
 			getPerunBl().getAuditer().log(sess, new AttributeSetForVo(attribute, vo));
 			getAttributesManagerImpl().changedAttributeHook(sess, vo, attribute);
 		}
@@ -1905,6 +2062,7 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 		}
 
 		if (changed) {
+			forgetMemoizedAttribute(getAttributesReadMemoKey(resource, attribute.getName()));
 			getPerunBl().getAuditer().log(sess, new AttributeSetForResource(attribute, resource));
 			getAttributesManagerImpl().changedAttributeHook(sess, resource, attribute);
 		}
@@ -2485,6 +2643,7 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 		//Remove attribute and all it's values
 		this.deleteAllAttributeAuthz(sess, attribute);
 		getAttributesManagerImpl().deleteAttribute(sess, attribute);
+		forgetAllMemoizedAttributes();
 		getPerunBl().getAuditer().log(sess, new AttributeDeleted(attribute));
 
 		//Remove attribute dependencies
@@ -2984,6 +3143,36 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 		return new HashMap<>();
 	}
 
+	@Override
+	public HashMap<User, List<Attribute>> getUsersAttributes(PerunSession sess, List<User> users, List<String> attrNames) throws InternalErrorException {
+		HashMap<User, List<Attribute>> attributes = new HashMap<>();
+		for (User user : users) {
+			attributes.put(user, new ArrayList<>());
+		}
+		if (attrNames.isEmpty()) return attributes;
+
+		for (int from = 0; from < users.size(); from += ATTRIBUTES_CHUNK_SIZE) {
+			List<User> chunk = users.subList(from, Math.min(from + ATTRIBUTES_CHUNK_SIZE, users.size()));
+			attributes.putAll(getAttributesManagerImpl().getUsersAttributes(sess, chunk, attrNames));
+		}
+		return attributes;
+	}
+
+	@Override
+	public HashMap<Member, List<Attribute>> getMembersAttributes(PerunSession sess, List<Member> members, List<String> attrNames) throws InternalErrorException {
+		HashMap<Member, List<Attribute>> attributes = new HashMap<>();
+		for (Member member : members) {
+			attributes.put(member, new ArrayList<>());
+		}
+		if (attrNames.isEmpty()) return attributes;
+
+		for (int from = 0; from < members.size(); from += ATTRIBUTES_CHUNK_SIZE) {
+			List<Member> chunk = members.subList(from, Math.min(from + ATTRIBUTES_CHUNK_SIZE, members.size()));
+			attributes.putAll(getAttributesManagerImpl().getMembersAttributes(sess, chunk, attrNames));
+		}
+		return attributes;
+	}
+
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Service service, Member member, Group group) throws InternalErrorException {
 		return getAttributesManagerImpl().getRequiredAttributes(sess, service, member, group);
@@ -4205,6 +4394,7 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 			throw new WrongAttributeAssignmentException(attribute);
 		boolean changed = getAttributesManagerImpl().removeAttribute(sess, facility, attribute);
 		if (changed) {
+			forgetMemoizedAttribute(getAttributesReadMemoKey(facility, attribute.getName()));
 			getAttributesManagerImpl().changedAttributeHook(sess, facility, new Attribute(attribute));
 			log.info("{} removed attribute: {} from facility {}.",sess.getLogId(), attribute.getName(), facility.getId());
 			getPerunBl().getAuditer().log(sess, new AttributeRemovedForFacility(new AttributeDefinition(attribute), facility));
@@ -4327,6 +4517,7 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 	public void removeAllAttributes(PerunSession sess, Facility facility) throws InternalErrorException, WrongAttributeValueException, WrongReferenceAttributeValueException {
 		List<Attribute> attributes = getAttributes(sess, facility);
 		if (getAttributesManagerImpl().removeAllAttributes(sess, facility)) {
+			forgetMemoizedAttributes("facility:" + facility.getId());
 			getPerunBl().getAuditer().log(sess,new FacilityAllAttributesRemoved(facility));
 		}
 		log.info("{} removed all attributes from facility {}.", sess.getLogId(), facility.getId());
@@ -4461,6 +4652,7 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 
 		boolean changed = getAttributesManagerImpl().removeAttribute(sess, vo, attribute);
 		if (changed) {
+			forgetMemoizedAttribute(getAttributesReadMemoKey(vo, attribute.getName()));
 			getAttributesManagerImpl().changedAttributeHook(sess, vo, new Attribute(attribute));
 			log.info("{} removed attribute {} from vo {}.",sess.getLogId(), attribute.getName(), vo.getId());
 			getPerunBl().getAuditer().log(sess, new AttributeRemovedForVo(new AttributeDefinition(attribute), vo));
@@ -4486,6 +4678,7 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 	public void removeAllAttributes(PerunSession sess, Vo vo) throws InternalErrorException, WrongAttributeValueException, WrongReferenceAttributeValueException {
 		List<Attribute> attributes = getAttributes(sess, vo);
 		if (getAttributesManagerImpl().removeAllAttributes(sess, vo)) {
+			forgetMemoizedAttributes("vo:" + vo.getId());
 			getPerunBl().getAuditer().log(sess, new AllAttributesRemovedForVo(vo));
 		}
 		log.info("{} removed all attributes from vo {}.",sess.getLogId(), vo.getId());
@@ -4593,7 +4786,10 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 			} else {
 				changed = getAttributesManagerImpl().removeAttribute(sess, resource, attribute);
 			}
-			if (changed) getAttributesManagerImpl().changedAttributeHook(sess, resource, new Attribute(attribute));
+			if (changed) {
+				forgetMemoizedAttribute(getAttributesReadMemoKey(resource, attribute.getName()));
+				getAttributesManagerImpl().changedAttributeHook(sess, resource, new Attribute(attribute));
+			}
 		} catch (WrongAttributeValueException | WrongReferenceAttributeValueException ex) {
 			throw new InternalErrorException(ex);
 		}
@@ -4621,6 +4817,7 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 	public void removeAllAttributes(PerunSession sess, Resource resource) throws InternalErrorException, WrongAttributeValueException, WrongReferenceAttributeValueException {
 		List<Attribute> attributes = getAttributes(sess, resource);
 		if (getAttributesManagerImpl().removeAllAttributes(sess, resource)) {
+			forgetMemoizedAttributes("resource:" + resource.getId());
 			getPerunBl().getAuditer().log(sess,  new AllAttributesRemovedForResource(resource));
 		}
 		log.info("{} removed all attributes from resource {}.",sess.getLogId(), resource.getId());
@@ -5648,6 +5845,7 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 	@Override
 	public AttributeDefinition updateAttributeDefinition(PerunSession perunSession, AttributeDefinition attributeDefinition) throws InternalErrorException {
 		getPerunBl().getAuditer().log(perunSession, new AttributeUpdated(attributeDefinition));
+		forgetAllMemoizedAttributes();
 		return getAttributesManagerImpl().updateAttributeDefinition(perunSession, attributeDefinition);
 	}
 
@@ -5665,8 +5863,10 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 					throw new WrongAttributeAssignmentException(attr);
 				}
 			}
-			checkAttributesDependencies(sess, resource, group, groupResourceAttributes);
-			checkAttributesDependencies(sess, group, null, groupAttributes);
+			List<RichAttribute> richAttrs = new ArrayList<>();
+			addRichAttributes(richAttrs, resource, group, groupResourceAttributes);
+			addRichAttributes(richAttrs, group, null, groupAttributes);
+			checkAttributesDependencies(sess, richAttrs);
 		} else {
 			checkAttributesDependencies(sess, resource, group, attributes);
 		}
@@ -5686,8 +5886,10 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 					throw new WrongAttributeAssignmentException(attr);
 				}
 			}
-			checkAttributesDependencies(sess, member, null, memberAttributes);
-			checkAttributesDependencies(sess, user, null, userAttributes);
+			List<RichAttribute> richAttrs = new ArrayList<>();
+			addRichAttributes(richAttrs, member, null, memberAttributes);
+			addRichAttributes(richAttrs, user, null, userAttributes);
+			checkAttributesDependencies(sess, richAttrs);
 		} else {
 			checkAttributesDependencies(sess, member, null, attributes);
 		}
@@ -5711,10 +5913,12 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 				throw new WrongAttributeAssignmentException(attr);
 			}
 		}
-		checkAttributesDependencies(sess, member, null, memberAttributes);
-		checkAttributesDependencies(sess, user, null, userAttributes);
-		checkAttributesDependencies(sess, facility, user, userFacilityAttributes);
-		checkAttributesDependencies(sess, resource, member, memberResourceAttributes);
+		List<RichAttribute> richAttrs = new ArrayList<>();
+		addRichAttributes(richAttrs, member, null, memberAttributes);
+		addRichAttributes(richAttrs, user, null, userAttributes);
+		addRichAttributes(richAttrs, facility, user, userFacilityAttributes);
+		addRichAttributes(richAttrs, resource, member, memberResourceAttributes);
+		checkAttributesDependencies(sess, richAttrs);
 	}
 
 	private void checkAttributesDependencies(PerunSession sess, Resource resource, Group group, Member member, User user, Facility facility, List<Attribute> attributes) throws InternalErrorException, WrongAttributeValueException, WrongAttributeAssignmentException, WrongReferenceAttributeValueException {
@@ -5738,11 +5942,13 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 				throw new WrongAttributeAssignmentException(attr);
 			}
 		}
-		checkAttributesDependencies(sess, member, null, memberAttributes);
-		checkAttributesDependencies(sess, user, null, userAttributes);
-		checkAttributesDependencies(sess, facility, user, userFacilityAttributes);
-		checkAttributesDependencies(sess, resource, member, memberResourceAttributes);
-		checkAttributesDependencies(sess, member, group, memberGroupAttributes);
+		List<RichAttribute> richAttrs = new ArrayList<>();
+		addRichAttributes(richAttrs, member, null, memberAttributes);
+		addRichAttributes(richAttrs, user, null, userAttributes);
+		addRichAttributes(richAttrs, facility, user, userFacilityAttributes);
+		addRichAttributes(richAttrs, resource, member, memberResourceAttributes);
+		addRichAttributes(richAttrs, member, group, memberGroupAttributes);
+		checkAttributesDependencies(sess, richAttrs);
 	}
 
 	private void checkAttributesDependencies(PerunSession sess, Resource resource, Member member, List<Attribute> attributes, boolean workWithUserAttributes) throws InternalErrorException, WrongAttributeValueException, WrongAttributeAssignmentException, WrongReferenceAttributeValueException {
@@ -5766,10 +5972,12 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 					throw new WrongAttributeAssignmentException(attr);
 				}
 			}
-			checkAttributesDependencies(sess, member, null, memberAttributes);
-			checkAttributesDependencies(sess, user, null, userAttributes);
-			checkAttributesDependencies(sess, facility, user, userFacilityAttributes);
-			checkAttributesDependencies(sess, resource, member, memberResourceAttributes);
+			List<RichAttribute> richAttrs = new ArrayList<>();
+			addRichAttributes(richAttrs, member, null, memberAttributes);
+			addRichAttributes(richAttrs, user, null, userAttributes);
+			addRichAttributes(richAttrs, facility, user, userFacilityAttributes);
+			addRichAttributes(richAttrs, resource, member, memberResourceAttributes);
+			checkAttributesDependencies(sess, richAttrs);
 		} else {
 			checkAttributesDependencies(sess, resource, member, attributes);
 		}
@@ -5792,209 +6000,260 @@ public class AttributesManagerBlImpl implements AttributesManagerBl {
 					throw new WrongAttributeAssignmentException(attr);
 				}
 			}
-			checkAttributesDependencies(sess, member, null, memberAttributes);
-			checkAttributesDependencies(sess, user, null, userAttributes);
-			checkAttributesDependencies(sess, member, group, memberGroupAttributes);
+			List<RichAttribute> richAttrs = new ArrayList<>();
+			addRichAttributes(richAttrs, member, null, memberAttributes);
+			addRichAttributes(richAttrs, user, null, userAttributes);
+			addRichAttributes(richAttrs, member, group, memberGroupAttributes);
+			checkAttributesDependencies(sess, richAttrs);
 		} else {
 			checkAttributesDependencies(sess, member, group, attributes);
 		}
 	}
 
 	private void checkAttributesDependencies(PerunSession sess, Object primaryHolder, Object secondaryHolder, List<Attribute> attributes) throws InternalErrorException, WrongAttributeValueException, WrongAttributeAssignmentException, WrongReferenceAttributeValueException {
-		if (attributes != null && !attributes.isEmpty()) {
+		List<RichAttribute> richAttrs = new ArrayList<>();
+		addRichAttributes(richAttrs, primaryHolder, secondaryHolder, attributes);
+		checkAttributesDependencies(sess, richAttrs);
+	}
+
+	private void addRichAttributes(List<RichAttribute> richAttrs, Object primaryHolder, Object secondaryHolder, List<Attribute> attributes) {
+		if (attributes != null) {
 			for (Attribute attr : attributes) {
-				checkAttributeDependencies(sess, new RichAttribute<>(primaryHolder, secondaryHolder, attr));
+				richAttrs.add(new RichAttribute<>(primaryHolder, secondaryHolder, attr));
 			}
 		}
 	}
 
 	@Override
 	public void checkAttributeDependencies(PerunSession sess, RichAttribute richAttr) throws InternalErrorException, WrongAttributeValueException, WrongAttributeAssignmentException, WrongReferenceAttributeValueException {
-		if (getAllDependencies() == null || getAllDependencies().isEmpty())
-			log.error("Map of all dependencies is empty. If this is not test, its an error probably.");
 		if (richAttr == null || richAttr.getAttribute() == null)
 			throw new InternalErrorException("RichAttribute or Attribute in it can't be null!");
-		else {
-			//Get All attributeDef which are dependencies
+		checkAttributesDependencies(sess, Collections.singletonList(richAttr));
+	}
+
+	/**
+	 * Checks semantics of all attributes which depend on the given attributes.
+	 * Dependencies of attributes with the same holders are resolved together, so each dependant attribute definition
+	 * is looked up for the holders only once and each dependant attribute is checked only once,
+	 * no matter how many of the given attributes it depends on.
+	 *
+	 * @param sess perun session
+	 * @param richAttrs changed attributes with their holders
+	 * @throws InternalErrorException if any of attributes is null
+	 * @throws WrongAttributeValueException if any dependant attribute has wrong value
+	 * @throws WrongAttributeAssignmentException if any dependant attribute is assigned to wrong holders
+	 * @throws WrongReferenceAttributeValueException if any dependant attribute is not valid in combination with others
+	 */
+	private void checkAttributesDependencies(PerunSession sess, List<RichAttribute> richAttrs) throws InternalErrorException, WrongAttributeValueException, WrongAttributeAssignmentException, WrongReferenceAttributeValueException {
+		if (getAllDependencies() == null || getAllDependencies().isEmpty())
+			log.error("Map of all dependencies is empty. If this is not test, its an error probably.");
+
+		//Get All attributeDef which are dependencies, merged for attributes with the same holders
+		Map<List<Object>, RichAttribute> aidingAttrs = new LinkedHashMap<>();
+		Map<List<Object>, Set<AttributeDefinition>> dependenciesByHolders = new LinkedHashMap<>();
+		for (RichAttribute richAttr : richAttrs) {
+			if (richAttr == null || richAttr.getAttribute() == null)
+				throw new InternalErrorException("RichAttribute or Attribute in it can't be null!");
 			Set<AttributeDefinition> dependencies = getAllDependencies().get(new AttributeDefinition(richAttr.getAttribute()));
-			if (dependencies != null && !dependencies.isEmpty()) {
-				for (AttributeDefinition dependency : dependencies) {
-					List<RichAttribute> richAttributesToCheck;
-					if (attributesManagerImpl.isVirtAttribute(sess, dependency)) {
-						AttributesModuleImplApi module = (AttributesModuleImplApi) attributesManagerImpl.getAttributesModule(sess, dependency);
-						if (module.getClass().isAnnotationPresent(SkipValueCheckDuringDependencyCheck.class)) {
-							continue;
-						}
+			if (dependencies == null || dependencies.isEmpty()) continue;
+
+			List<Object> holders = Arrays.asList(richAttr.getPrimaryHolder(), richAttr.getSecondaryHolder());
+			aidingAttrs.putIfAbsent(holders, richAttr);
+			dependenciesByHolders.computeIfAbsent(holders, h -> new LinkedHashSet<>()).addAll(dependencies);
+		}
+
+		Set<List<Object>> checkedAttributes = new HashSet<>();
+		for (Map.Entry<List<Object>, Set<AttributeDefinition>> entry : dependenciesByHolders.entrySet()) {
+			RichAttribute aidingAttr = aidingAttrs.get(entry.getKey());
+			for (AttributeDefinition dependency : entry.getValue()) {
+				List<RichAttribute> richAttributesToCheck;
+				if (attributesManagerImpl.isVirtAttribute(sess, dependency)) {
+					AttributesModuleImplApi module = (AttributesModuleImplApi) attributesManagerImpl.getAttributesModule(sess, dependency);
+					if (module.getClass().isAnnotationPresent(SkipValueCheckDuringDependencyCheck.class)) {
+						continue;
+					}
+				}
+				try {
+					richAttributesToCheck = getRichAttributesWithHoldersForAttributeDefinition(sess, dependency, aidingAttr);
+				} catch (AttributeNotExistsException | VoNotExistsException | UserNotExistsException | GroupResourceMismatchException | MemberResourceMismatchException ex) {
+					throw new InternalErrorException(ex);
+				}
+				for (RichAttribute richAttribute : richAttributesToCheck) {
+					//the same dependant attribute can be reached from holders of more changed attributes
+					if (checkedAttributes.add(Arrays.asList(richAttribute.getPrimaryHolder(), richAttribute.getSecondaryHolder(), richAttribute.getAttribute().getName()))) {
+						checkDependantAttributeSemantics(sess, richAttribute);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks semantics of dependant attribute by the type of its holders.
+	 *
+	 * @param sess perun session
+	 * @param richAttribute dependant attribute with its holders
+	 */
+	private void checkDependantAttributeSemantics(PerunSession sess, RichAttribute richAttribute) throws InternalErrorException, WrongAttributeValueException, WrongAttributeAssignmentException, WrongReferenceAttributeValueException {
+		if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_VO_ATTR)) {
+			if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Vo) {
+				if (richAttribute.getSecondaryHolder() != null) {
+					throw new InternalErrorException("Secondary Holder for VO Attribute must be null!");
+				} else {
+					this.checkAttributeSemantics(sess, (Vo) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
+				}
+			} else {
+				throw new InternalErrorException("For VO Attribute there must be VO in primaryHolder");
+			}
+		} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_GROUP_ATTR)) {
+			if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Group) {
+				if (richAttribute.getSecondaryHolder() != null) {
+					throw new InternalErrorException("Secondary Holder for Group Attribute must be null!");
+				} else {
+					this.checkAttributeSemantics(sess, (Group) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
+				}
+			} else {
+				throw new InternalErrorException("For Group Attribute there must be Group in primaryHolder");
+			}
+		} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_MEMBER_ATTR)) {
+			if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Member) {
+				if (richAttribute.getSecondaryHolder() != null) {
+					throw new InternalErrorException("Secondary Holder for Member Attribute must be null!");
+				} else {
+					this.checkAttributeSemantics(sess, (Member) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
+				}
+			} else {
+				throw new InternalErrorException("For Member Attribute there must be Member in primaryHolder");
+			}
+		} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_USER_ATTR)) {
+			if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof User) {
+				if (richAttribute.getSecondaryHolder() != null) {
+					throw new InternalErrorException("Secondary Holder for User Attribute must be null!");
+				} else {
+					this.checkAttributeSemantics(sess, (User) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
+				}
+			} else {
+				throw new InternalErrorException("For User Attribute there must be User in primaryHolder");
+			}
+		} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_RESOURCE_ATTR)) {
+			if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Resource) {
+				if (richAttribute.getSecondaryHolder() != null) {
+					throw new InternalErrorException("Secondary Holder for Resource Attribute must be null!");
+				} else {
+					this.checkAttributeSemantics(sess, (Resource) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
+				}
+			} else {
+				throw new InternalErrorException("For Resource Attribute there must be Resource in primaryHolder");
+			}
+		} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_FACILITY_ATTR)) {
+			if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Facility) {
+				if (richAttribute.getSecondaryHolder() != null) {
+					throw new InternalErrorException("Secondary Holder for Facility Attribute must be null!");
+				} else {
+					this.checkAttributeSemantics(sess, (Facility) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
+				}
+			} else {
+				throw new InternalErrorException("For Facility Attribute there must be Facility in primaryHolder");
+			}
+		} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), AttributesManager.NS_ENTITYLESS_ATTR)) {
+			if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof String) {
+				if (richAttribute.getSecondaryHolder() != null) {
+					throw new InternalErrorException("Secondary Holder for Entityless Attribute must be null!");
+				} else {
+					this.checkAttributeSemantics(sess, (String) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
+				}
+			} else {
+				throw new InternalErrorException("For Entityless Attribute there must be String in primaryHolder");
+			}
+		} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), AttributesManager.NS_HOST_ATTR)) {
+			if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Host) {
+				if (richAttribute.getSecondaryHolder() != null) {
+					throw new InternalErrorException("Secondary Holder for Host Attribute must be null!");
+				} else {
+					this.checkAttributeSemantics(sess, (Host) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
+				}
+			} else {
+				throw new InternalErrorException("For Host Attribute there must be Host in primaryHolder");
+			}
+		} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_GROUP_RESOURCE_ATTR)) {
+			if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Resource) {
+				if (richAttribute.getSecondaryHolder() != null && richAttribute.getSecondaryHolder() instanceof Group) {
+					try {
+						this.checkAttributeSemantics(sess, (Resource) richAttribute.getPrimaryHolder(), (Group) richAttribute.getSecondaryHolder(), richAttribute.getAttribute());
+					} catch (GroupResourceMismatchException ex) {
+						throw new ConsistencyErrorException(ex);
+					}
+				} else {
+					throw new InternalErrorException("Secondary Holder for Group_Resource Attribute is null or its not group or resource");
+				}
+			} else if (richAttribute.getSecondaryHolder() != null && richAttribute.getSecondaryHolder() instanceof Resource) {
+				if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Group) {
+					try {
+						this.checkAttributeSemantics(sess, (Resource) richAttribute.getSecondaryHolder(), (Group) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
+					} catch (GroupResourceMismatchException ex) {
+						throw new ConsistencyErrorException(ex);
 					}
+				} else {
+					throw new InternalErrorException("Secondary Holder for Group_Resource Attribute is null or its not group or resource");
+				}
+			} else {
+				throw new InternalErrorException("For Group_Resource Attribute there must be Group or Resource in primaryHolder.");
+			}
+		} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_MEMBER_RESOURCE_ATTR)) {
+			if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Resource) {
+				if (richAttribute.getSecondaryHolder() != null && richAttribute.getSecondaryHolder() instanceof Member) {
 					try {
-						richAttributesToCheck = getRichAttributesWithHoldersForAttributeDefinition(sess, dependency, richAttr);
-					} catch (AttributeNotExistsException | VoNotExistsException | UserNotExistsException | GroupResourceMismatchException | MemberResourceMismatchException ex) {
-						throw new InternalErrorException(ex);
+						this.checkAttributeSemantics(sess, (Member) richAttribute.getSecondaryHolder(), (Resource) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
+					} catch (MemberResourceMismatchException ex) {
+						throw new ConsistencyErrorException(ex);
 					}
-					for (RichAttribute richAttribute : richAttributesToCheck) {
-						if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_VO_ATTR)) {
-							if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Vo) {
-								if (richAttribute.getSecondaryHolder() != null) {
-									throw new InternalErrorException("Secondary Holder for VO Attribute must be null!");
-								} else {
-									this.checkAttributeSemantics(sess, (Vo) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
-								}
-							} else {
-								throw new InternalErrorException("For VO Attribute there must be VO in primaryHolder");
-							}
-						} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_GROUP_ATTR)) {
-							if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Group) {
-								if (richAttribute.getSecondaryHolder() != null) {
-									throw new InternalErrorException("Secondary Holder for Group Attribute must be null!");
-								} else {
-									this.checkAttributeSemantics(sess, (Group) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
-								}
-							} else {
-								throw new InternalErrorException("For Group Attribute there must be Group in primaryHolder");
-							}
-						} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_MEMBER_ATTR)) {
-							if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Member) {
-								if (richAttribute.getSecondaryHolder() != null) {
-									throw new InternalErrorException("Secondary Holder for Member Attribute must be null!");
-								} else {
-									this.checkAttributeSemantics(sess, (Member) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
-								}
-							} else {
-								throw new InternalErrorException("For Member Attribute there must be Member in primaryHolder");
-							}
-						} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_USER_ATTR)) {
-							if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof User) {
-								if (richAttribute.getSecondaryHolder() != null) {
-									throw new InternalErrorException("Secondary Holder for User Attribute must be null!");
-								} else {
-									this.checkAttributeSemantics(sess, (User) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
-								}
-							} else {
-								throw new InternalErrorException("For User Attribute there must be User in primaryHolder");
-							}
-						} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_RESOURCE_ATTR)) {
-							if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Resource) {
-								if (richAttribute.getSecondaryHolder() != null) {
-									throw new InternalErrorException("Secondary Holder for Resource Attribute must be null!");
-								} else {
-									this.checkAttributeSemantics(sess, (Resource) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
-								}
-							} else {
-								throw new InternalErrorException("For Resource Attribute there must be Resource in primaryHolder");
-							}
-						} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_FACILITY_ATTR)) {
-							if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Facility) {
-								if (richAttribute.getSecondaryHolder() != null) {
-									throw new InternalErrorException("Secondary Holder for Facility Attribute must be null!");
-								} else {
-									this.checkAttributeSemantics(sess, (Facility) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
-								}
-							} else {
-								throw new InternalErrorException("For Facility Attribute there must be Facility in primaryHolder");
-							}
-						} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), AttributesManager.NS_ENTITYLESS_ATTR)) {
-							if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof String) {
-								if (richAttribute.getSecondaryHolder() != null) {
-									throw new InternalErrorException("Secondary Holder for Entityless Attribute must be null!");
-								} else {
-									this.checkAttributeSemantics(sess, (String) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
-								}
-							} else {
-								throw new InternalErrorException("For Entityless Attribute there must be String in primaryHolder");
-							}
-						} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), AttributesManager.NS_HOST_ATTR)) {
-							if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Host) {
-								if (richAttribute.getSecondaryHolder() != null) {
-									throw new InternalErrorException("Secondary Holder for Host Attribute must be null!");
-								} else {
-									this.checkAttributeSemantics(sess, (Host) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
-								}
-							} else {
-								throw new InternalErrorException("For Host Attribute there must be Host in primaryHolder");
-							}
-						} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_GROUP_RESOURCE_ATTR)) {
-							if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Resource) {
-								if (richAttribute.getSecondaryHolder() != null && richAttribute.getSecondaryHolder() instanceof Group) {
-									try {
-										this.checkAttributeSemantics(sess, (Resource) richAttribute.getPrimaryHolder(), (Group) richAttribute.getSecondaryHolder(), richAttribute.getAttribute());
-									} catch (GroupResourceMismatchException ex) {
-										throw new ConsistencyErrorException(ex);
-									}
-								} else {
-									throw new InternalErrorException("Secondary Holder for Group_Resource Attribute is null or its not group or resource");
-								}
-							} else if (richAttribute.getSecondaryHolder() != null && richAttribute.getSecondaryHolder() instanceof Resource) {
-								if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Group) {
-									try {
-										this.checkAttributeSemantics(sess, (Resource) richAttribute.getSecondaryHolder(), (Group) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
-									} catch (GroupResourceMismatchException ex) {
-										throw new ConsistencyErrorException(ex);
-									}
-								} else {
-									throw new InternalErrorException("Secondary Holder for Group_Resource Attribute is null or its not group or resource");
-								}
-							} else {
-								throw new InternalErrorException("For Group_Resource Attribute there must be Group or Resource in primaryHolder.");
-							}
-						} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_MEMBER_RESOURCE_ATTR)) {
-							if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Resource) {
-								if (richAttribute.getSecondaryHolder() != null && richAttribute.getSecondaryHolder() instanceof Member) {
-									try {
-										this.checkAttributeSemantics(sess, (Member) richAttribute.getSecondaryHolder(), (Resource) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
-									} catch (MemberResourceMismatchException ex) {
-										throw new ConsistencyErrorException(ex);
-									}
-								} else {
-									throw new InternalErrorException("Secondary Holder for Member_Resource Attribute is null or its not member or resource");
-								}
-							} else if (richAttribute.getSecondaryHolder() != null && richAttribute.getSecondaryHolder() instanceof Resource) {
-								if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Member) {
-									try {
-										this.checkAttributeSemantics(sess, (Member) richAttribute.getPrimaryHolder(), (Resource) richAttribute.getSecondaryHolder(), richAttribute.getAttribute());
-									} catch (MemberResourceMismatchException ex) {
-										throw new ConsistencyErrorException(ex);
-									}
-								} else {
-									throw new InternalErrorException("Secondary Holder for Member_Resource Attribute is null or its not member or resource");
-								}
-							} else {
-								throw new InternalErrorException("For Member_Resource Attribute there must be Member or Resource in primaryHolder.");
-							}
-						} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_MEMBER_GROUP_ATTR)) {
-							if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Group) {
-								if (richAttribute.getSecondaryHolder() != null && richAttribute.getSecondaryHolder() instanceof Member) {
-									this.checkAttributeSemantics(sess, (Member) richAttribute.getSecondaryHolder(), (Group) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
-								} else {
-									throw new InternalErrorException("Secondary Holder for Member_Group Attribute is null or its not member or group");
-								}
-							} else if (richAttribute.getSecondaryHolder() != null && richAttribute.getSecondaryHolder() instanceof Group) {
-								if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Member) {
-									this.checkAttributeSemantics(sess, (Member) richAttribute.getPrimaryHolder(), (Group) richAttribute.getSecondaryHolder(), richAttribute.getAttribute());
-								} else {
-									throw new InternalErrorException("Secondary Holder for Member_Group Attribute is null or its not member or group");
-								}
-							} else {
-								throw new InternalErrorException("For Member_Group Attribute there must be Member or Group in primaryHolder.");
-							}
-						} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_USER_FACILITY_ATTR)) {
-							if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Facility) {
-								if (richAttribute.getSecondaryHolder() != null && richAttribute.getSecondaryHolder() instanceof User) {
-									this.checkAttributeSemantics(sess, (Facility) richAttribute.getPrimaryHolder(), (User) richAttribute.getSecondaryHolder(), richAttribute.getAttribute());
-								} else {
-									throw new InternalErrorException("Secondary Holder for Facility_User Attribute is null or its not facility or user");
-								}
-							} else if (richAttribute.getSecondaryHolder() != null && richAttribute.getSecondaryHolder() instanceof Facility) {
-								if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof User) {
-									this.checkAttributeSemantics(sess, (Facility) richAttribute.getSecondaryHolder(), (User) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
-								} else {
-									throw new InternalErrorException("Secondary Holder for Facility_User Attribute is null or its not facility or user");
-								}
-							} else {
-								throw new InternalErrorException("For Facility_User Attribute there must be Facility or User in primaryHolder.");
-							}
-						}
+				} else {
+					throw new InternalErrorException("Secondary Holder for Member_Resource Attribute is null or its not member or resource");
+				}
+			} else if (richAttribute.getSecondaryHolder() != null && richAttribute.getSecondaryHolder() instanceof Resource) {
+				if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Member) {
+					try {
+						this.checkAttributeSemantics(sess, (Member) richAttribute.getPrimaryHolder(), (Resource) richAttribute.getSecondaryHolder(), richAttribute.getAttribute());
+					} catch (MemberResourceMismatchException ex) {
+						throw new ConsistencyErrorException(ex);
 					}
+				} else {
+					throw new InternalErrorException("Secondary Holder for Member_Resource Attribute is null or its not member or resource");
 				}
+			} else {
+				throw new InternalErrorException("For Member_Resource Attribute there must be Member or Resource in primaryHolder.");
+			}
+		} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_MEMBER_GROUP_ATTR)) {
+			if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Group) {
+				if (richAttribute.getSecondaryHolder() != null && richAttribute.getSecondaryHolder() instanceof Member) {
+					this.checkAttributeSemantics(sess, (Member) richAttribute.getSecondaryHolder(), (Group) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
+				} else {
+					throw new InternalErrorException("Secondary Holder for Member_Group Attribute is null or its not member or group");
+				}
+			} else if (richAttribute.getSecondaryHolder() != null && richAttribute.getSecondaryHolder() instanceof Group) {
+				if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Member) {
+					this.checkAttributeSemantics(sess, (Member) richAttribute.getPrimaryHolder(), (Group) richAttribute.getSecondaryHolder(), richAttribute.getAttribute());
+				} else {
+					throw new InternalErrorException("Secondary Holder for Member_Group Attribute is null or its not member or group");
+				}
+			} else {
+				throw new InternalErrorException("For Member_Group Attribute there must be Member or Group in primaryHolder.");
+			}
+		} else if (getAttributesManagerImpl().isFromNamespace(richAttribute.getAttribute(), NS_USER_FACILITY_ATTR)) {
+			if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof Facility) {
+				if (richAttribute.getSecondaryHolder() != null && richAttribute.getSecondaryHolder() instanceof User) {
+					this.checkAttributeSemantics(sess, (Facility) richAttribute.getPrimaryHolder(), (User) richAttribute.getSecondaryHolder(), richAttribute.getAttribute());
+				} else {
+					throw new InternalErrorException("Secondary Holder for Facility_User Attribute is null or its not facility or user");
+				}
+			} else if (richAttribute.getSecondaryHolder() != null && richAttribute.getSecondaryHolder() instanceof Facility) {
+				if (richAttribute.getPrimaryHolder() != null && richAttribute.getPrimaryHolder() instanceof User) {
+					this.checkAttributeSemantics(sess, (Facility) richAttribute.getSecondaryHolder(), (User) richAttribute.getPrimaryHolder(), richAttribute.getAttribute());
+				} else {
+					throw new InternalErrorException("Secondary Holder for Facility_User Attribute is null or its not facility or user");
+				}
+			} else {
+				throw new InternalErrorException("For Facility_User Attribute there must be Facility or User in primaryHolder.");
 			}
 		}
 	}
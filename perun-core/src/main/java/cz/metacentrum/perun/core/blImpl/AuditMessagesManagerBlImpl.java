@@ -10,8 +10,10 @@ import cz.metacentrum.perun.core.bl.PerunBl;
 import cz.metacentrum.perun.core.impl.Auditer;
 import cz.metacentrum.perun.core.implApi.AuditMessagesManagerImplApi;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * AuditMessagesManager manages audit messages (logs). Implementation of Business Logic.
@@ -23,6 +25,8 @@ public class AuditMessagesManagerBlImpl implements AuditMessagesManagerBl {
 	private Auditer auditer;
 	private PerunBl perunBl;
 	private AuditMessagesManagerImplApi auditMessagesManagerImpl;
+	// stored batches count of Auditer observed by each consumer at the time of its last poll
+	private final Map<String, Long> consumersLastSeenBatches = new ConcurrentHashMap<>();
 
 	public void setAuditer(Auditer auditer) {
 		this.auditer = auditer;
@@ -60,14 +64,38 @@ public class AuditMessagesManagerBlImpl implements AuditMessagesManagerBl {
 
 	@Override
 	public List<AuditMessage> pollConsumerMessages(PerunSession perunSession, String consumerName) throws InternalErrorException {
+		markConsumerPolled(consumerName);
 		return getAuditMessagesManagerImpl().pollConsumerMessages(perunSession, consumerName);
 	}
 
 	@Override
 	public List<AuditEvent> pollConsumerEvents(PerunSession perunSession, String consumerName) throws InternalErrorException {
+		markConsumerPolled(consumerName);
 		return getAuditMessagesManagerImpl().pollConsumerEvents(perunSession, consumerName);
 	}
 
+	@Override
+	public List<AuditMessage> pollConsumerMessages(PerunSession perunSession, String consumerName, int batchSize) throws InternalErrorException {
+		markConsumerPolled(consumerName);
+		return getAuditMessagesManagerImpl().pollConsumerMessages(perunSession, consumerName, batchSize);
+	}
+
+	@Override
+	public List<AuditEvent> pollConsumerEvents(PerunSession perunSession, String consumerName, int batchSize) throws InternalErrorException {
+		markConsumerPolled(consumerName);
+		return getAuditMessagesManagerImpl().pollConsumerEvents(perunSession, consumerName, batchSize);
+	}
+
+	@Override
+	public boolean waitForNewMessages(PerunSession perunSession, String consumerName, long timeout) throws InterruptedException {
+		Long lastSeenBatches = consumersLastSeenBatches.get(consumerName);
+		if (lastSeenBatches == null) {
+			// consumer has never polled, so there is nothing it could have missed
+			lastSeenBatches = getAuditer().getStoredBatchesCount();
+		}
+		return getAuditer().awaitStoredMessages(lastSeenBatches, timeout);
+	}
+
 	@Override
 	public void createAuditerConsumer(PerunSession perunSession, String consumerName) throws InternalErrorException {
 		getAuditMessagesManagerImpl().createAuditerConsumer(perunSession, consumerName);
@@ -83,6 +111,16 @@ public class AuditMessagesManagerBlImpl implements AuditMessagesManagerBl {
 		return getAuditMessagesManagerImpl().getAllAuditerConsumers(perunSession);
 	}
 
+	@Override
+	public Map<String, Integer> getAuditerConsumersLag(PerunSession perunSession) throws InternalErrorException {
+		int lastMessageId = getLastMessageId(perunSession);
+		Map<String, Integer> consumersLag = new HashMap<>();
+		for (Map.Entry<String, Integer> consumer : getAllAuditerConsumers(perunSession).entrySet()) {
+			consumersLag.put(consumer.getKey(), Math.max(0, lastMessageId - consumer.getValue()));
+		}
+		return consumersLag;
+	}
+
 	@Override
 	public int getLastMessageId(PerunSession perunSession) throws InternalErrorException {
 		return getAuditMessagesManagerImpl().getLastMessageId(perunSession);
@@ -98,4 +136,16 @@ public class AuditMessagesManagerBlImpl implements AuditMessagesManagerBl {
 		return getAuditMessagesManagerImpl().getAuditerMessagesCount(perunSession);
 	}
 
+	/**
+	 * Remember stored batches count of Auditer before consumer reads the audit log,
+	 * so any batch stored later is considered new for the consumer.
+	 *
+	 * @param consumerName consumer which is going to poll messages
+	 */
+	private void markConsumerPolled(String consumerName) {
+		if (consumerName != null && getAuditer() != null) {
+			consumersLastSeenBatches.put(consumerName, getAuditer().getStoredBatchesCount());
+		}
+	}
+
 }
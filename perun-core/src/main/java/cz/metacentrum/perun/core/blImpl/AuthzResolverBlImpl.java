@@ -24,15 +24,14 @@ import cz.metacentrum.perun.audit.events.VoManagerEvents.AdminRemovedForVo;
 import cz.metacentrum.perun.core.api.ActionType;
 import cz.metacentrum.perun.core.api.Attribute;
 import cz.metacentrum.perun.core.api.AttributeDefinition;
-import cz.metacentrum.perun.core.api.AuthzResolver;
 import cz.metacentrum.perun.core.api.BeansUtils;
 import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Group;
 import cz.metacentrum.perun.core.api.Host;
 import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.Pair;
 import cz.metacentrum.perun.core.api.PerunBean;
 import cz.metacentrum.perun.core.api.PerunClient;
-import cz.metacentrum.perun.core.api.PerunPolicy;
 import cz.metacentrum.perun.core.api.PerunPrincipal;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.Resource;
@@ -67,6 +66,8 @@ import cz.metacentrum.perun.core.bl.PerunBl;
 import cz.metacentrum.perun.core.bl.VosManagerBl;
 import cz.metacentrum.perun.core.impl.AuthzResolverImpl;
 import cz.metacentrum.perun.core.impl.AuthzRoles;
+import cz.metacentrum.perun.core.impl.AuthzRolesCache;
+import cz.metacentrum.perun.core.impl.CompiledPerunPolicy;
 import cz.metacentrum.perun.core.impl.Utils;
 import cz.metacentrum.perun.core.implApi.AuthzResolverImplApi;
 import org.slf4j.Logger;
@@ -92,6 +93,7 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 	private final static Logger log = LoggerFactory.getLogger(AuthzResolverBlImpl.class);
 	private static AuthzResolverImplApi authzResolverImpl;
 	private static PerunBl perunBl;
+	private static final AuthzRolesCache rolesCache = AuthzRolesCache.getInstance();
 
 	private static final String UNSET_ROLE = "UNSET";
 	private static final String SET_ROLE = "SET";
@@ -118,15 +120,61 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 			return false;
 		}
 
-		List<PerunPolicy> allPolicies = AuthzResolverImpl.fetchPolicyWithAllIncludedPolicies(policyDefinition);
-
-		List<Map<String, String>> policyRoles = new ArrayList<>();
-		for (PerunPolicy policy : allPolicies) policyRoles.addAll(policy.getPerunRoles());
+		CompiledPerunPolicy policy = AuthzResolverImpl.getCompiledPolicy(policyDefinition);
 
 		//Fetch super objects like Vo for group etc.
 		Map <String, Set<Integer>> mapOfBeans = fetchAllRelatedObjects(objects);
 
-		return resolveAuthorization(sess, policyRoles, mapOfBeans);
+		return resolveAuthorization(sess, policy.getRules(), mapOfBeans);
+	}
+
+	/**
+	 * Filter objects on which the session's principal is authorized, each object is checked separately
+	 * the same way as by authorized() with just that object.
+	 * <p>
+	 * Rules of the policy whose roles without objects the principal doesn't have are left out once for the whole list.
+	 *
+	 * @param sess perunSession which contains the principal.
+	 * @param policyDefinition is a definition of a policy which will define authorization rules.
+	 * @param objects PerunBeans to filter (e.g. groups, Vos, etc...)
+	 * @return objects on which the principal is authorized, in the original order
+	 * @throws PolicyNotExistsException when the given policyDefinition does not exist in the PerunPoliciesContainer.
+	 */
+	public static <T extends PerunBean> List<T> authorizedFilter(PerunSession sess, String policyDefinition, List<T> objects) throws PolicyNotExistsException {
+		// We need to load additional information about the principal
+		if (!sess.getPerunPrincipal().isAuthzInitialized()) {
+			refreshAuthz(sess);
+		}
+
+		CompiledPerunPolicy policy = AuthzResolverImpl.getCompiledPolicy(policyDefinition);
+
+		// If the user has no roles, deny access
+		AuthzRoles roles = sess.getPerunPrincipal().getRoles();
+		if (roles == null) {
+			return new ArrayList<>();
+		}
+
+		//Keep only rules which can be satisfied by some objects
+		List<CompiledPerunPolicy.Rule> rules = new ArrayList<>();
+		for (CompiledPerunPolicy.Rule rule : policy.getRules()) {
+			if (!hasRolesWithoutObject(roles, rule)) continue;
+			//Rule is satisfied for all objects
+			if (rule.getRolesWithObject().isEmpty()) return new ArrayList<>(objects);
+			rules.add(rule);
+		}
+
+		List<T> authorizedObjects = new ArrayList<>();
+		if (rules.isEmpty()) return authorizedObjects;
+		for (T object : objects) {
+			Map<String, Set<Integer>> mapOfBeans = fetchAllRelatedObjects(Collections.singletonList(object));
+			for (CompiledPerunPolicy.Rule rule : rules) {
+				if (hasRolesWithObject(roles, rule, mapOfBeans)) {
+					authorizedObjects.add(object);
+					break;
+				}
+			}
+		}
+		return authorizedObjects;
 	}
 
 	/**
@@ -258,19 +306,52 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 	 */
 	public static List<Attribute> filterNotAllowedAttributes(PerunSession sess, PerunBean bean, List<Attribute> attributes) {
 		List<Attribute> allowedAttributes = new ArrayList<>();
-		for(Attribute attribute: attributes) {
-			try {
-				if(AuthzResolver.isAuthorizedForAttribute(sess, ActionType.READ, attribute, bean)) {
-					attribute.setWritable(AuthzResolver.isAuthorizedForAttribute(sess, ActionType.WRITE, attribute, bean));
+		try {
+			// rights to read and write all the attributes are taken from the same snapshot
+			Map<Integer, Map<ActionType, Map<String, Set<ActionType>>>> rolesByAttribute =
+				AuthzResolverImpl.getRolesWhichCanWorkWithAttributes(Arrays.asList(ActionType.READ, ActionType.WRITE), attributes);
+			for (Attribute attribute : attributes) {
+				Map<ActionType, Map<String, Set<ActionType>>> roles = rolesByAttribute.get(attribute.getId());
+				if (isAuthorizedForAttribute(sess, ActionType.READ, attribute, bean, roles.get(ActionType.READ))) {
+					attribute.setWritable(isAuthorizedForAttribute(sess, ActionType.WRITE, attribute, bean, roles.get(ActionType.WRITE)));
 					allowedAttributes.add(attribute);
 				}
-			} catch (InternalErrorException e) {
-				throw new RuntimeException(e);
 			}
+		} catch (AttributeNotExistsException | WrongAttributeAssignmentException e) {
+			throw new InternalErrorException(e);
 		}
 		return allowedAttributes;
 	}
 
+	/**
+	 * Checks if the principal is authorized to do the action on attribute of the bean, when it can be done by given roles.
+	 *
+	 * @param sess session
+	 * @param actionType action type
+	 * @param attrDef attribute definition
+	 * @param bean primary holder of the attribute
+	 * @param roles roles which can do the action on the attribute
+	 * @return true, if principal is authorized for attribute and action
+	 */
+	private static boolean isAuthorizedForAttribute(PerunSession sess, ActionType actionType, AttributeDefinition attrDef, PerunBean bean, Map<String, Set<ActionType>> roles) throws InternalErrorException, AttributeNotExistsException, WrongAttributeAssignmentException {
+		Boolean isAuthorized = doBeforeAttributeRightsCheck(sess, actionType, attrDef);
+
+		if (isAuthorized != null) {
+			return isAuthorized;
+		}
+
+		if (bean instanceof Vo) return isAuthorizedForAttribute(sess, actionType, attrDef, (Vo) bean, roles);
+		if (bean instanceof User) return isAuthorizedForAttribute(sess, actionType, attrDef, (User) bean, roles);
+		if (bean instanceof Member) return isAuthorizedForAttribute(sess, actionType, attrDef, (Member) bean, roles);
+		if (bean instanceof Group) return isAuthorizedForAttribute(sess, actionType, attrDef, (Group) bean, roles);
+		if (bean instanceof Resource) return isAuthorizedForAttribute(sess, actionType, attrDef, (Resource) bean, roles);
+		if (bean instanceof Facility) return isAuthorizedForAttribute(sess, actionType, attrDef, (Facility) bean, roles);
+		if (bean instanceof Host) return isAuthorizedForAttribute(sess, actionType, attrDef, (Host) bean, roles);
+		if (bean instanceof UserExtSource) return isAuthorizedForAttribute(sess, actionType, attrDef, (UserExtSource) bean, roles);
+		throw new UnsupportedOperationException(
+			"method - isAuthorizedForAttribute - called with unsupported PerunBean type - " + bean.getBeanName());
+	}
+
 	public static boolean isAuthorizedForAttribute(PerunSession sess, ActionType actionType, AttributeDefinition attrDef, Member member, Resource resource) throws InternalErrorException, AttributeNotExistsException, WrongAttributeAssignmentException {
 
 		log.trace("Entering isAuthorizedForAttribute: sess='{}', actionType='{}', attrDef='{}', primaryHolder='{}', " +
@@ -493,6 +574,14 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 		//This method get all possible roles which can do action on attribute
 		Map<String, Set<ActionType>> roles = AuthzResolverImpl.getRolesWhichCanWorkWithAttribute(actionType, attrDef);
 
+		return isAuthorizedForAttribute(sess, actionType, attrDef, user, roles);
+	}
+
+	/**
+	 * Checks if the principal is authorized to do the action on the user attribute, when it can be done by given roles.
+	 */
+	private static boolean isAuthorizedForAttribute(PerunSession sess, ActionType actionType, AttributeDefinition attrDef, User user, Map<String, Set<ActionType>> roles) throws InternalErrorException, WrongAttributeAssignmentException {
+
 		//Test if handlers are correct for attribute namespace
 		getPerunBl().getAttributesManagerBl().checkAttributeAssignment(sess, attrDef, user);
 
@@ -554,6 +643,14 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 		//This method get all possible roles which can do action on attribute
 		Map<String, Set<ActionType>> roles = AuthzResolverImpl.getRolesWhichCanWorkWithAttribute(actionType, attrDef);
 
+		return isAuthorizedForAttribute(sess, actionType, attrDef, member, roles);
+	}
+
+	/**
+	 * Checks if the principal is authorized to do the action on the member attribute, when it can be done by given roles.
+	 */
+	private static boolean isAuthorizedForAttribute(PerunSession sess, ActionType actionType, AttributeDefinition attrDef, Member member, Map<String, Set<ActionType>> roles) throws InternalErrorException, WrongAttributeAssignmentException {
+
 		//Test if handlers are correct for attribute namespace
 		getPerunBl().getAttributesManagerBl().checkAttributeAssignment(sess, attrDef, member);
 
@@ -601,6 +698,14 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 		//This method get all possible roles which can do action on attribute
 		Map<String, Set<ActionType>> roles = AuthzResolverImpl.getRolesWhichCanWorkWithAttribute(actionType, attrDef);
 
+		return isAuthorizedForAttribute(sess, actionType, attrDef, vo, roles);
+	}
+
+	/**
+	 * Checks if the principal is authorized to do the action on the vo attribute, when it can be done by given roles.
+	 */
+	private static boolean isAuthorizedForAttribute(PerunSession sess, ActionType actionType, AttributeDefinition attrDef, Vo vo, Map<String, Set<ActionType>> roles) throws InternalErrorException, WrongAttributeAssignmentException {
+
 		//Test if handlers are correct for attribute namespace
 		getPerunBl().getAttributesManagerBl().checkAttributeAssignment(sess, attrDef, vo);
 
@@ -662,6 +767,14 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 		//This method get all possible roles which can do action on attribute
 		Map<String, Set<ActionType>> roles = AuthzResolverImpl.getRolesWhichCanWorkWithAttribute(actionType, attrDef);
 
+		return isAuthorizedForAttribute(sess, actionType, attrDef, group, roles);
+	}
+
+	/**
+	 * Checks if the principal is authorized to do the action on the group attribute, when it can be done by given roles.
+	 */
+	private static boolean isAuthorizedForAttribute(PerunSession sess, ActionType actionType, AttributeDefinition attrDef, Group group, Map<String, Set<ActionType>> roles) throws InternalErrorException, WrongAttributeAssignmentException {
+
 		//Test if handlers are correct for attribute namespace
 		getPerunBl().getAttributesManagerBl().checkAttributeAssignment(sess, attrDef, group);
 
@@ -717,6 +830,14 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 		//This method get all possible roles which can do action on attribute
 		Map<String, Set<ActionType>> roles = AuthzResolverImpl.getRolesWhichCanWorkWithAttribute(actionType, attrDef);
 
+		return isAuthorizedForAttribute(sess, actionType, attrDef, resource, roles);
+	}
+
+	/**
+	 * Checks if the principal is authorized to do the action on the resource attribute, when it can be done by given roles.
+	 */
+	private static boolean isAuthorizedForAttribute(PerunSession sess, ActionType actionType, AttributeDefinition attrDef, Resource resource, Map<String, Set<ActionType>> roles) throws InternalErrorException, WrongAttributeAssignmentException {
+
 		//Test if handlers are correct for attribute namespace
 		getPerunBl().getAttributesManagerBl().checkAttributeAssignment(sess, attrDef, resource);
 
@@ -756,6 +877,14 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 		//This method get all possible roles which can do action on attribute
 		Map<String, Set<ActionType>> roles = AuthzResolverImpl.getRolesWhichCanWorkWithAttribute(actionType, attrDef);
 
+		return isAuthorizedForAttribute(sess, actionType, attrDef, facility, roles);
+	}
+
+	/**
+	 * Checks if the principal is authorized to do the action on the facility attribute, when it can be done by given roles.
+	 */
+	private static boolean isAuthorizedForAttribute(PerunSession sess, ActionType actionType, AttributeDefinition attrDef, Facility facility, Map<String, Set<ActionType>> roles) throws InternalErrorException, WrongAttributeAssignmentException {
+
 		//Test if handlers are correct for attribute namespace
 		getPerunBl().getAttributesManagerBl().checkAttributeAssignment(sess, attrDef, facility);
 
@@ -816,6 +945,14 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 		//This method get all possible roles which can do action on attribute
 		Map<String, Set<ActionType>> roles = AuthzResolverImpl.getRolesWhichCanWorkWithAttribute(actionType, attrDef);
 
+		return isAuthorizedForAttribute(sess, actionType, attrDef, host, roles);
+	}
+
+	/**
+	 * Checks if the principal is authorized to do the action on the host attribute, when it can be done by given roles.
+	 */
+	private static boolean isAuthorizedForAttribute(PerunSession sess, ActionType actionType, AttributeDefinition attrDef, Host host, Map<String, Set<ActionType>> roles) throws InternalErrorException, WrongAttributeAssignmentException {
+
 		//Test if handlers are correct for attribute namespace
 		getPerunBl().getAttributesManagerBl().checkAttributeAssignment(sess, attrDef, host);
 //			if (roles.containsKey(Role.VOADMIN)) ; //Not allowed
@@ -843,6 +980,14 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 		//This method get all possible roles which can do action on attribute
 		Map<String, Set<ActionType>> roles = AuthzResolverImpl.getRolesWhichCanWorkWithAttribute(actionType, attrDef);
 
+		return isAuthorizedForAttribute(sess, actionType, attrDef, ues, roles);
+	}
+
+	/**
+	 * Checks if the principal is authorized to do the action on the user ext source attribute, when it can be done by given roles.
+	 */
+	private static boolean isAuthorizedForAttribute(PerunSession sess, ActionType actionType, AttributeDefinition attrDef, UserExtSource ues, Map<String, Set<ActionType>> roles) throws InternalErrorException, WrongAttributeAssignmentException {
+
 		//Test if handlers are correct for attribute namespace
 		getPerunBl().getAttributesManagerBl().checkAttributeAssignment(sess, attrDef, ues);
 
@@ -1130,6 +1275,7 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 	public static void makeUserPerunAdmin(PerunSession sess, User user) throws InternalErrorException {
 		getPerunBl().getAuditer().log(sess, new UserPromotedToPerunAdmin(user));
 		authzResolverImpl.makeUserPerunAdmin(sess, user);
+		rolesCache.invalidateUser(user.getId());
 	}
 
 	/**
@@ -1378,6 +1524,13 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 				throw new InternalErrorException("Unsupported operation. Only set and unset are correct. Operation: " + operation);
 		}
 
+		//Roles shared by sessions are not valid anymore, the refresh below already loads them from the database
+		if (user != null) {
+			rolesCache.invalidateUser(user.getId());
+		} else {
+			invalidateRolesOfGroup(sess, authorizedGroup);
+		}
+
 		//After set or unset role without exception, refresh authz if user in session is the same like user in parameter
 		if (user != null && sess.getPerunPrincipal() != null) {
 			if (user.getId() == sess.getPerunPrincipal().getUserId()) {
@@ -1538,6 +1691,9 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 	 */
 	public static AuthzRoles getGroupRoles(PerunSession sess, Group group) throws InternalErrorException {
 
+		if (canUseRolesCache()) {
+			return new AuthzRoles(rolesCache.getGroupRoles(group.getId(), () -> authzResolverImpl.getRoles(group)));
+		}
 		return authzResolverImpl.getRoles(group);
 	}
 
@@ -1679,27 +1835,29 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 	 * <p>
 	 * Fill in proper roles and their relative entities (vos, groups, ....).
 	 * User itself or ext source data is NOT updated.
+	 * <p>
+	 * Roles are computed aside and published to the principal at the end as unmodifiable, so the method
+	 * can be called for more sessions at once and readers of the principal always see complete roles.
 	 *
 	 * @param sess perun session to refresh authz for
 	 */
-	public static synchronized void refreshAuthz(PerunSession sess) throws InternalErrorException {
+	public static void refreshAuthz(PerunSession sess) throws InternalErrorException {
 		Utils.checkPerunSession(sess);
 		log.trace("Refreshing authz roles for session {}.", sess);
 
-		//set empty set of roles
-		sess.getPerunPrincipal().setRoles(new AuthzRoles());
 		//Prepare service roles like engine, service, registrar, perunAdmin etc.
-		prepareServiceRoles(sess);
+		AuthzRoles roles = prepareServiceRoles(sess);
 
 		// if have some of the service principal, we do not need to search further
-		if (sess.getPerunPrincipal().getRoles().isEmpty()) {
+		if (roles.isEmpty()) {
 			User user = sess.getPerunPrincipal().getUser();
-			AuthzRoles roles;
-			if (user == null) {
-				roles = new AuthzRoles();
-			} else {
+			if (user != null) {
 				// Load all user's roles with all possible subgroups
-				roles = addAllSubgroupsToAuthzRoles(sess, authzResolverImpl.getRoles(user));
+				if (canUseRolesCache()) {
+					roles = new AuthzRoles(rolesCache.getUserRoles(user.getId(), () -> addAllSubgroupsToAuthzRoles(sess, authzResolverImpl.getRoles(user))));
+				} else {
+					roles = addAllSubgroupsToAuthzRoles(sess, authzResolverImpl.getRoles(user));
+				}
 				// Add self role for the user
 				roles.putAuthzRole(Role.SELF, user);
 				// Add service user role
@@ -1707,7 +1865,6 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 					roles.putAuthzRole(Role.SERVICEUSER);
 				}
 			}
-			sess.getPerunPrincipal().setRoles(roles);
 		}
 
 		//for OAuth clients, do not allow delegating roles not allowed by scopes
@@ -1716,15 +1873,16 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 			log.trace("refreshAuthz({}) oauthScopes={}",sess.getLogId(),oauthScopes);
 			if(!oauthScopes.contains(PerunClient.PERUN_ADMIN_SCOPE)) {
 				log.debug("removing PERUNADMIN role from session of user {}",sess.getPerunPrincipal().getUserId());
-				log.trace("original roles: {}", sess.getPerunPrincipal().getRoles());
-				sess.getPerunPrincipal().getRoles().remove(Role.PERUNADMIN);
+				log.trace("original roles: {}", roles);
+				roles.remove(Role.PERUNADMIN);
 			}
 			if(!oauthScopes.contains(PerunClient.PERUN_API_SCOPE)) {
 				log.debug("removing all roles from session {}",sess);
-				sess.getPerunPrincipal().getRoles().clear();
+				roles.clear();
 			}
 		}
-		log.trace("Refreshed roles: {}", sess.getPerunPrincipal().getRoles());
+		log.trace("Refreshed roles: {}", roles);
+		sess.getPerunPrincipal().setRoles(roles.makeUnmodifiable());
 		sess.getPerunPrincipal().setAuthzInitialized(true);
 	}
 
@@ -1736,7 +1894,7 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 	 *
 	 * @param sess Perun session to refresh data for
 	 */
-	public static synchronized void refreshSession(PerunSession sess) throws InternalErrorException {
+	public static void refreshSession(PerunSession sess) throws InternalErrorException {
 		Utils.checkPerunSession(sess);
 		log.trace("Refreshing session data for session {}.", sess);
 
@@ -1796,6 +1954,7 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 
 	public static void removeAllAuthzForVo(PerunSession sess, Vo vo) throws InternalErrorException {
 		authzResolverImpl.removeAllAuthzForVo(sess, vo);
+		rolesCache.invalidateAll();
 	}
 
 	static List<Vo> getVosForGroupInRole(PerunSession sess, Group group, String role) throws InternalErrorException {
@@ -1823,10 +1982,13 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 		}
 		//remove all roles from the user
 		authzResolverImpl.removeAllUserAuthz(sess, user);
+		rolesCache.invalidateUser(user.getId());
 	}
 
 	static void removeAllSponsoredUserAuthz(PerunSession sess, User sponsoredUser) throws InternalErrorException {
 		authzResolverImpl.removeAllSponsoredUserAuthz(sess, sponsoredUser);
+		//sponsors of the user are not known here
+		rolesCache.invalidateAll();
 	}
 
 	public static void removeAllAuthzForGroup(PerunSession sess, Group group) throws InternalErrorException {
@@ -1836,38 +1998,47 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 		}
 		//remove all roles from the group
 		authzResolverImpl.removeAllAuthzForGroup(sess, group);
+		rolesCache.invalidateAll();
 	}
 
 	public static void removeAllAuthzForFacility(PerunSession sess, Facility facility) throws InternalErrorException {
 		authzResolverImpl.removeAllAuthzForFacility(sess, facility);
+		rolesCache.invalidateAll();
 	}
 
 	public static void removeAllAuthzForResource(PerunSession sess, Resource resource) throws InternalErrorException {
 		authzResolverImpl.removeAllAuthzForResource(sess, resource);
+		rolesCache.invalidateAll();
 	}
 
 	public static void removeAllAuthzForService(PerunSession sess, Service service) throws InternalErrorException {
 		authzResolverImpl.removeAllAuthzForService(sess, service);
+		rolesCache.invalidateAll();
 	}
 
 	public static void removeAllAuthzForSecurityTeam(PerunSession sess, SecurityTeam securityTeam) throws InternalErrorException {
 		authzResolverImpl.removeAllAuthzForSecurityTeam(sess, securityTeam);
+		rolesCache.invalidateAll();
 	}
 
 	public static void addAdmin(PerunSession sess, SecurityTeam securityTeam, User user) throws InternalErrorException, AlreadyAdminException {
 		authzResolverImpl.addAdmin(sess, securityTeam, user);
+		rolesCache.invalidateUser(user.getId());
 	}
 
 	public static void addAdmin(PerunSession sess, SecurityTeam securityTeam, Group group) throws InternalErrorException, AlreadyAdminException {
 		authzResolverImpl.addAdmin(sess, securityTeam, group);
+		invalidateRolesOfGroup(sess, group);
 	}
 
 	public static void removeAdmin(PerunSession sess, SecurityTeam securityTeam, User user) throws InternalErrorException, UserNotAdminException {
 		authzResolverImpl.removeAdmin(sess, securityTeam, user);
+		rolesCache.invalidateUser(user.getId());
 	}
 
 	public static void removeAdmin(PerunSession sess, SecurityTeam securityTeam, Group group) throws InternalErrorException, GroupNotAdminException {
 		authzResolverImpl.removeAdmin(sess, securityTeam, group);
+		invalidateRolesOfGroup(sess, group);
 	}
 
 	public static boolean roleExists(String role) {
@@ -1914,118 +2085,160 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 		return perunBl;
 	}
 
+	/**
+	 * Roles shared by sessions can be used only if nothing was changed in the current transaction yet,
+	 * otherwise they could miss its changes.
+	 *
+	 * @return true if roles can be taken from the roles cache and stored to it
+	 */
+	private static boolean canUseRolesCache() {
+		return rolesCache.isEnabled() && !rolesCache.isChangedInTransaction() && !getPerunBl().getAuditer().hasMessagesInTransaction();
+	}
+
+	/**
+	 * Invalidate shared roles of the authorized group and of all users who get roles of the group as its members.
+	 *
+	 * @param sess perun session
+	 * @param authorizedGroup group whose roles have changed
+	 */
+	private static void invalidateRolesOfGroup(PerunSession sess, Group authorizedGroup) throws InternalErrorException {
+		rolesCache.invalidateGroup(authorizedGroup.getId());
+		Set<Integer> userIds = new HashSet<>();
+		for (Member member : getPerunBl().getGroupsManagerBl().getGroupMembers(sess, authorizedGroup)) {
+			userIds.add(member.getUserId());
+		}
+		rolesCache.invalidateUsers(userIds);
+	}
+
+	/**
+	 * Get statistics of roles of users and groups shared by their sessions.
+	 *
+	 * @return hits, misses, invalidations and number of stored users and groups
+	 */
+	public static String getRolesCacheStatistics() {
+		return rolesCache.getStatistics();
+	}
+
 	private static PerunBl getPerunBl() {
 		return perunBl;
 	}
 
 	/**
-	 * Prepare service roles to session AuthzRoles (PERUNADMIN, SERVICE, RPC, ENGINE etc.)
+	 * Prepare service roles of session principal (PERUNADMIN, SERVICE, RPC, ENGINE etc.)
 	 *
-	 * @param sess use session to add roles
+	 * @param sess use session to get principal
+	 * @return new AuthzRoles with service roles of the principal
 	 */
-	private static void prepareServiceRoles(PerunSession sess) {
+	private static AuthzRoles prepareServiceRoles(PerunSession sess) {
+		AuthzRoles roles = new AuthzRoles();
+
 		// Load list of perunAdmins from the configuration, split the list by the comma
 		List<String> perunAdmins = BeansUtils.getCoreConfig().getAdmins();
 
 		// Check if the PerunPrincipal is in a group of Perun Admins
 		if (perunAdmins.contains(sess.getPerunPrincipal().getActor())) {
-			sess.getPerunPrincipal().getRoles().putAuthzRole(Role.PERUNADMIN);
-			sess.getPerunPrincipal().setAuthzInitialized(true);
+			roles.putAuthzRole(Role.PERUNADMIN);
 			// We can quit, because perun admin has all privileges
 			log.trace("AuthzResolver.init: Perun Admin {} loaded", sess.getPerunPrincipal().getActor());
-			return;
+			return roles;
 		}
 
 		String perunRpcAdmin = BeansUtils.getCoreConfig().getRpcPrincipal();
 		if (sess.getPerunPrincipal().getActor().equals(perunRpcAdmin)) {
-			sess.getPerunPrincipal().getRoles().putAuthzRole(Role.RPC);
+			roles.putAuthzRole(Role.RPC);
 			log.trace("AuthzResolver.init: Perun RPC {} loaded", perunRpcAdmin);
 		}
 
 		List<String> perunEngineAdmins = BeansUtils.getCoreConfig().getEnginePrincipals();
 		if (perunEngineAdmins.contains(sess.getPerunPrincipal().getActor())) {
-			sess.getPerunPrincipal().getRoles().putAuthzRole(Role.ENGINE);
+			roles.putAuthzRole(Role.ENGINE);
 			log.trace("AuthzResolver.init: Perun Engine {} loaded", perunEngineAdmins);
 		}
 
 		List<String> perunNotifications = BeansUtils.getCoreConfig().getNotificationPrincipals();
 		if (perunNotifications.contains(sess.getPerunPrincipal().getActor())) {
-			sess.getPerunPrincipal().getRoles().putAuthzRole(Role.NOTIFICATIONS);
+			roles.putAuthzRole(Role.NOTIFICATIONS);
 
 			log.trace("AuthzResolver.init: Perun Notifications {} loaded", perunNotifications);
 		}
 
 		List<String> perunRegistrars = BeansUtils.getCoreConfig().getRegistrarPrincipals();
 		if (perunRegistrars.contains(sess.getPerunPrincipal().getActor())) {
-			sess.getPerunPrincipal().getRoles().putAuthzRole(Role.REGISTRAR);
+			roles.putAuthzRole(Role.REGISTRAR);
 
 			//FIXME ted pridame i roli plneho admina
-			sess.getPerunPrincipal().getRoles().putAuthzRole(Role.PERUNADMIN);
+			roles.putAuthzRole(Role.PERUNADMIN);
 
 			log.trace("AuthzResolver.init: Perun Registrar {} loaded", perunRegistrars);
 		}
+
+		return roles;
 	}
 
 	/**
-	 * Decide whether a principal has sufficient rights according the the given roles and objects.
+	 * Decide whether a principal has sufficient rights according the the given rules and objects.
 	 *
 	 * @param sess perunSession which contains the principal.
-	 * @param policyRoles is a list of maps where each map entry consists from a role name as a key and a role object as a value.
-	 *                    Relation between each map in the list is logical OR and relation between each entry in the map is logical AND.
-	 *                    Example list - (Map1, Map2...)
-	 *                    Example map - key: VOADMIN ; value: Vo
-	 *                                 key: GROUPADMIN ; value: Group
+	 * @param rules are rules of a compiled policy. Relation between the rules is logical OR and relation between
+	 *              roles of each rule is logical AND.
+	 *              Example rule - roles with object: VOADMIN -> Vo, GROUPADMIN -> Group
 	 * @param mapOfBeans is a map of objects against which will be authorization done.
 	 *                    Example map entry - key: Member ; values: (10,15,26)
 	 * @return true if the principal has particular rights, false otherwise.
 	 */
-	private static boolean resolveAuthorization(PerunSession sess, List<Map<String, String>> policyRoles, Map <String, Set<Integer>> mapOfBeans) {
-		//Traverse through outer role list which works like logical OR
-		for (Map<String, String> roleArray: policyRoles) {
-
-			boolean authorized = true;
-			//Traverse through inner role list which works like logical AND
-			Set<String> roleArrayKeys = roleArray.keySet();
-			for (String role : roleArrayKeys) {
-
-				//fetch the object which is connected with the role
-				String roleObject = roleArray.get(role);
-
-				// If policy role is not connected to any object
-				if (roleObject == null) {
-					//If principal does not have the role, this inner list's result is false
-					if (!sess.getPerunPrincipal().getRoles().hasRole(role)) authorized = false;
-				//If there is no corresponding type of object in the perunBeans map
-				} else if (!mapOfBeans.containsKey(roleObject)) {
-					authorized = false;
-				// If policy role is connected to some object, like VOADMIN->Vo
-				} else {
-					//traverse all related objects from perun which are relevant for the authorized method
-					for (Integer objectId : mapOfBeans.get(roleObject)) {
-						//If the principal does not have rights on role-object, this inner list's result is false
-						if (!sess.getPerunPrincipal().getRoles().hasRole(role, roleObject, objectId)) {
-							authorized = false;
-							break;
-						}
-					}
-				}
-				//Some inner role check failed so jump out of the while loop
-				if (!authorized) break;
-			}
-			// If all checks for inner role list pass, return true. Otherwise proceed to another inner role list
-			if (authorized) return true;
+	private static boolean resolveAuthorization(PerunSession sess, List<CompiledPerunPolicy.Rule> rules, Map <String, Set<Integer>> mapOfBeans) {
+		AuthzRoles roles = sess.getPerunPrincipal().getRoles();
+		//Traverse through rules which work like logical OR
+		for (CompiledPerunPolicy.Rule rule : rules) {
+			// If all roles of the rule pass, return true. Otherwise proceed to another rule
+			if (hasRolesWithoutObject(roles, rule) && hasRolesWithObject(roles, rule, mapOfBeans)) return true;
 		}
 		//If no check passed, return false. The principal doesn't have sufficient rights.
 		return false;
 	}
 
+	/**
+	 * Check roles of the rule which are not connected to any object.
+	 *
+	 * @param roles roles of the principal
+	 * @param rule rule of a compiled policy
+	 * @return true if the principal has all the roles
+	 */
+	private static boolean hasRolesWithoutObject(AuthzRoles roles, CompiledPerunPolicy.Rule rule) {
+		for (String role : rule.getRolesWithoutObject()) {
+			if (!roles.hasRole(role)) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Check roles of the rule which are connected to an object, like VOADMIN->Vo.
+	 *
+	 * @param roles roles of the principal
+	 * @param rule rule of a compiled policy
+	 * @param mapOfBeans objects and their related objects as a map of PerunBean names and ids
+	 * @return true if the principal has each role on all objects of the connected type, false also when there are none
+	 */
+	private static boolean hasRolesWithObject(AuthzRoles roles, CompiledPerunPolicy.Rule rule, Map<String, Set<Integer>> mapOfBeans) {
+		for (Pair<String, String> roleWithObject : rule.getRolesWithObject()) {
+			Set<Integer> objectIds = mapOfBeans.get(roleWithObject.getRight());
+			//If there is no corresponding type of object in the perunBeans map
+			if (objectIds == null) return false;
+			//traverse all related objects from perun which are relevant for the authorized method
+			for (Integer objectId : objectIds) {
+				if (!roles.hasRole(roleWithObject.getLeft(), roleWithObject.getRight(), objectId)) return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Fetch all possible PerunBeans for each of the objects from the list according to the id of the bean in the object.
 	 *
 	 * @param objects for which will be related objects fetched.
 	 * @return all related objects together with the objects from the input as a map of PerunBean names and ids.
 	 */
-	private static Map<String, Set<Integer>> fetchAllRelatedObjects(List<PerunBean> objects) {
+	private static Map<String, Set<Integer>> fetchAllRelatedObjects(List<? extends PerunBean> objects) {
 		List<PerunBean> relatedObjects = new ArrayList<>();
 		//Create a map from objects for easier manipulation and duplicity prevention
 		Map<String, Set<Integer>> mapOfBeans = new HashMap<>();
@@ -2096,6 +2309,13 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 			return Collections.emptyList();
 		});
 
+		// looked up for each authorized object, so unknown names should not cost an exception
+		private static final Map<String, RelatedObjectsResolver> VALUES_BY_NAME = new HashMap<>();
+
+		static {
+			for (RelatedObjectsResolver value : values()) VALUES_BY_NAME.put(value.name(), value);
+		}
+
 		private Function<PerunBean, List<PerunBean>> function;
 
 		RelatedObjectsResolver(final Function<PerunBean, List<PerunBean>> function) {
@@ -2109,11 +2329,7 @@ public class AuthzResolverBlImpl implements AuthzResolverBl {
 		 * @return RelatedObjectsResolver value.
 		 */
 		public static RelatedObjectsResolver getValue(String name) {
-			try {
-				return RelatedObjectsResolver.valueOf(name);
-			} catch (IllegalArgumentException ex) {
-				return RelatedObjectsResolver.Default;
-			}
+			return VALUES_BY_NAME.getOrDefault(name, RelatedObjectsResolver.Default);
 		}
 
 		@Override
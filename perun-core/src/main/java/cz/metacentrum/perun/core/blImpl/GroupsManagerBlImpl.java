@@ -132,10 +132,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -1403,18 +1401,19 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 
 	@Override
 	public List<Group> getAllSubGroups(PerunSession sess, Group parentGroup) throws InternalErrorException {
-		Queue<Group> groupsInQueue = new ConcurrentLinkedQueue<>(getGroupsManagerImpl().getSubGroups(sess, parentGroup));
-		List<Group> allSubGroups = new ArrayList<>();
-		while(groupsInQueue.peek() != null) {
-			groupsInQueue.addAll(getGroupsManagerImpl().getSubGroups(sess, groupsInQueue.peek()));
-			allSubGroups.add(groupsInQueue.poll());
-		}
+		List<Group> allSubGroups = getGroupsManagerImpl().getAllSubGroups(sess, parentGroup);
 
 		// Sort
 		Collections.sort(allSubGroups);
 		return allSubGroups;
 	}
 
+	@Override
+	public List<Group> getAllParentGroups(PerunSession sess, Group group) throws InternalErrorException {
+		if (group.getParentGroupId() == null) return new ArrayList<>();
+		return getGroupsManagerImpl().getAllParentGroups(sess, group);
+	}
+
 	@Override
 	public Group getParentGroup(PerunSession sess, Group group) throws InternalErrorException, ParentGroupNotExistsException {
 		if(group.getParentGroupId() == null) {
@@ -4195,27 +4194,20 @@ public class GroupsManagerBlImpl implements GroupsManagerBl {
 	@Override
 	public boolean isGroupSynchronizedFromExternallSource(PerunSession session, Group group) throws InternalErrorException {
 		Attribute attrSynchronizeEnabled;
-		Group parentGroup;
-
-		if (group.getParentGroupId() == null) {
-			return false;
-		}
-		try {
-			parentGroup = getParentGroup(session, group);
-		} catch (ParentGroupNotExistsException e) {
-			throw new InternalErrorException(e);
-		}
 
-		try {
-			attrSynchronizeEnabled = getPerunBl().getAttributesManagerBl().getAttribute(session, parentGroup, getPerunBl().getGroupsManager().GROUPS_STRUCTURE_SYNCHRO_ENABLED_ATTRNAME);
-		} catch (WrongAttributeAssignmentException | AttributeNotExistsException e) {
-			throw new InternalErrorException(e);
-		}
+		// group is synchronized if structure of any group above it is synchronized
+		for (Group parentGroup : getAllParentGroups(session, group)) {
+			try {
+				attrSynchronizeEnabled = getPerunBl().getAttributesManagerBl().getAttribute(session, parentGroup, getPerunBl().getGroupsManager().GROUPS_STRUCTURE_SYNCHRO_ENABLED_ATTRNAME);
+			} catch (WrongAttributeAssignmentException | AttributeNotExistsException e) {
+				throw new InternalErrorException(e);
+			}
 
-		if (attrSynchronizeEnabled.getValue() != null && attrSynchronizeEnabled.getValue().equals(true)) {
-			return true;
+			if (attrSynchronizeEnabled.getValue() != null && attrSynchronizeEnabled.getValue().equals(true)) {
+				return true;
+			}
 		}
-		return isGroupInStructureSynchronizationTree(session, parentGroup);
+		return false;
 	}
 
 	@Override
@@ -26,7 +26,10 @@ import cz.metacentrum.perun.core.api.Group;
 import cz.metacentrum.perun.core.api.Member;
 import cz.metacentrum.perun.core.api.MemberGroupStatus;
 import cz.metacentrum.perun.core.api.MembersManager;
+import cz.metacentrum.perun.core.api.MembersOrderColumn;
+import cz.metacentrum.perun.core.api.MembersPageQuery;
 import cz.metacentrum.perun.core.api.MembershipType;
+import cz.metacentrum.perun.core.api.Paginated;
 import cz.metacentrum.perun.core.api.Pair;
 import cz.metacentrum.perun.core.api.PerunBean;
 import cz.metacentrum.perun.core.api.PerunSession;
@@ -88,6 +91,7 @@ import cz.metacentrum.perun.core.implApi.modules.pwdmgr.PasswordManagerModule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -96,6 +100,8 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -802,6 +808,82 @@ public class MembersManagerBlImpl implements MembersManagerBl {
 		return getOnlyRichMembersWithAllowedStatuses(sess, this.getCompleteRichMembers(sess, vo, attrsNames), allowedStatuses);
 	}
 
+	@Override
+	public Paginated<RichMember> getMembersPage(PerunSession sess, Vo vo, MembersPageQuery query, List<String> attrsNames) throws InternalErrorException, AttributeNotExistsException {
+		if (query.getPageSize() <= 0) {
+			throw new IllegalArgumentException("Page size must be positive, but was " + query.getPageSize() + ".");
+		}
+		if (query.getSortColumn() == null) {
+			throw new IllegalArgumentException("Sort column of the page must be set.");
+		}
+		for (String status : query.getStatuses()) {
+			try {
+				Status.valueOf(status);
+			} catch (java.lang.IllegalArgumentException ex) {
+				throw new IllegalArgumentException("Unknown status of member: " + status + ".");
+			}
+		}
+
+		// read one more member to know whether there is a next page
+		List<Member> members = getMembersManagerImpl().getMembersPage(sess, vo, query, decodePageToken(query), query.getPageSize() + 1);
+		boolean hasNextPage = members.size() > query.getPageSize();
+		if (hasNextPage) {
+			members = members.subList(0, query.getPageSize());
+		}
+
+		List<RichMember> richMembers = this.convertMembersToRichMembers(sess, members);
+		if (attrsNames == null || attrsNames.isEmpty()) {
+			this.convertMembersToRichMembersWithAttributes(sess, richMembers);
+		} else {
+			this.convertMembersToRichMembersWithAttributes(sess, richMembers, getPerunBl().getAttributesManagerBl().getAttributesDefinition(sess, attrsNames));
+		}
+
+		String nextPageToken = hasNextPage ? encodePageToken(query.getSortColumn(), richMembers.get(richMembers.size() - 1)) : null;
+		int totalCount = getMembersManagerImpl().getMembersPageCount(sess, vo, query);
+
+		return new Paginated<>(richMembers, query.getPageSize(), totalCount, nextPageToken);
+	}
+
+	/**
+	 * Encodes sort column and its values of the last member of the page to the token of the next page.
+	 * Missing and empty names are both encoded as empty string, they are sorted the same way.
+	 */
+	private static String encodePageToken(MembersOrderColumn sortColumn, RichMember lastMember) {
+		List<String> parts = new ArrayList<>();
+		parts.add(sortColumn.name());
+		if (sortColumn == MembersOrderColumn.NAME) {
+			parts.add(lastMember.getUser().getLastName() == null ? "" : lastMember.getUser().getLastName());
+			parts.add(lastMember.getUser().getFirstName() == null ? "" : lastMember.getUser().getFirstName());
+		}
+		parts.add(String.valueOf(lastMember.getId()));
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(String.join("\u0000", parts).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decodes token of the page from the query to the values of the sort column and id of the last member
+	 * of the previous page.
+	 *
+	 * @return values of the last member, with null for missing names, or null for the first page
+	 * @throws IllegalArgumentException when the token is malformed or it was created for another sort column
+	 */
+	private static List<String> decodePageToken(MembersPageQuery query) throws IllegalArgumentException {
+		if (query.getPageToken() == null || query.getPageToken().isEmpty()) return null;
+
+		List<String> parts;
+		try {
+			parts = new ArrayList<>(Arrays.asList(new String(Base64.getUrlDecoder().decode(query.getPageToken()), StandardCharsets.UTF_8).split("\u0000", -1)));
+		} catch (java.lang.IllegalArgumentException ex) {
+			throw new IllegalArgumentException("Malformed page token: " + query.getPageToken(), ex);
+		}
+
+		int expectedSize = query.getSortColumn() == MembersOrderColumn.NAME ? 4 : 2;
+		if (parts.size() != expectedSize || !parts.get(0).equals(query.getSortColumn().name()) || !parts.get(expectedSize - 1).matches("\\d+")) {
+			throw new IllegalArgumentException("Page token " + query.getPageToken() + " doesn't match the query " + query + ".");
+		}
+		parts.replaceAll(part -> part.isEmpty() ? null : part);
+		return parts.subList(1, expectedSize);
+	}
+
 	@Override
 	public List<RichMember> getCompleteRichMembers(PerunSession sess, Group group, Resource resource, List<String> attrsNames, List<String> allowedStatuses) throws InternalErrorException, AttributeNotExistsException, GroupResourceMismatchException {
 		return getOnlyRichMembersWithAllowedStatuses(sess, this.getRichMembersWithAttributesByNames(sess, group, resource, attrsNames), allowedStatuses);
@@ -995,12 +1077,19 @@ public class MembersManagerBlImpl implements MembersManagerBl {
 	 */
 	@Override
 	public List<RichMember> convertMembersToRichMembersWithAttributes(PerunSession sess, List<RichMember> richMembers)  throws InternalErrorException {
-		for (RichMember richMember: richMembers) {
-			List<Attribute> userAttributes = getPerunBl().getAttributesManagerBl().getAttributes(sess, richMember.getUser());
-			List<Attribute> memberAttributes = getPerunBl().getAttributesManagerBl().getAttributes(sess, richMember);
+		List<AttributeDefinition> attrsDef = new ArrayList<>();
+		for (String namespace : Arrays.asList(AttributesManager.NS_USER_ATTR_CORE, AttributesManager.NS_USER_ATTR_DEF,
+				AttributesManager.NS_USER_ATTR_OPT, AttributesManager.NS_USER_ATTR_VIRT, AttributesManager.NS_MEMBER_ATTR_CORE,
+				AttributesManager.NS_MEMBER_ATTR_DEF, AttributesManager.NS_MEMBER_ATTR_OPT, AttributesManager.NS_MEMBER_ATTR_VIRT)) {
+			attrsDef.addAll(getPerunBl().getAttributesManagerBl().getAttributesDefinitionByNamespace(sess, namespace));
+		}
 
-			richMember.setUserAttributes(userAttributes);
-			richMember.setMemberAttributes(memberAttributes);
+		convertMembersToRichMembersWithAttributes(sess, richMembers, attrsDef);
+
+		// same as getAttributes(sess, user) and getAttributes(sess, member), only core attributes are returned even when empty
+		for (RichMember richMember : richMembers) {
+			richMember.getUserAttributes().removeIf(attribute -> attribute.getValue() == null && !attribute.getNamespace().equals(AttributesManager.NS_USER_ATTR_CORE));
+			richMember.getMemberAttributes().removeIf(attribute -> attribute.getValue() == null && !attribute.getNamespace().equals(AttributesManager.NS_MEMBER_ATTR_CORE));
 		}
 
 		return richMembers;
@@ -1117,22 +1206,28 @@ public class MembersManagerBlImpl implements MembersManagerBl {
 			else if(attrd.getName().startsWith(AttributesManager.NS_MEMBER_ATTR)) membersAttributesDef.add(attrd);
 		}
 
-		for (RichMember richMember: richMembers) {
-
-			List<String> userAttrNames = new ArrayList<>();
-			for(AttributeDefinition ad: usersAttributesDef) {
-				userAttrNames.add(ad.getName());
-			}
-			List<Attribute> userAttributes = new ArrayList<>(getPerunBl().getAttributesManagerBl().getAttributes(sess, richMember.getUser(), userAttrNames));
+		List<String> userAttrNames = new ArrayList<>();
+		for(AttributeDefinition ad: usersAttributesDef) {
+			userAttrNames.add(ad.getName());
+		}
+		List<String> memberAttrNames = new ArrayList<>();
+		for(AttributeDefinition ad: membersAttributesDef) {
+			memberAttrNames.add(ad.getName());
+		}
 
-			List<String> memberAttrNames = new ArrayList<>();
-			for(AttributeDefinition ad: membersAttributesDef) {
-				memberAttrNames.add(ad.getName());
-			}
-			List<Attribute> memberAttributes = new ArrayList<>(getPerunBl().getAttributesManagerBl().getAttributes(sess, richMember, memberAttrNames));
+		// read attributes of all members and users at once instead of querying them one by one
+		List<User> users = new ArrayList<>(richMembers.size());
+		List<Member> members = new ArrayList<>(richMembers.size());
+		for (RichMember richMember: richMembers) {
+			users.add(richMember.getUser());
+			members.add(richMember);
+		}
+		HashMap<User, List<Attribute>> usersAttributes = getPerunBl().getAttributesManagerBl().getUsersAttributes(sess, users, userAttrNames);
+		HashMap<Member, List<Attribute>> membersAttributes = getPerunBl().getAttributesManagerBl().getMembersAttributes(sess, members, memberAttrNames);
 
-			richMember.setUserAttributes(userAttributes);
-			richMember.setMemberAttributes(memberAttributes);
+		for (RichMember richMember: richMembers) {
+			richMember.setUserAttributes(new ArrayList<>(usersAttributes.get(richMember.getUser())));
+			richMember.setMemberAttributes(new ArrayList<>(membersAttributes.get(richMember)));
 		}
 
 		return richMembers;
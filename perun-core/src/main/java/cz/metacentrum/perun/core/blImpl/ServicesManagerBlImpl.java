@@ -32,13 +32,20 @@ import cz.metacentrum.perun.controller.model.ServiceForGUI;
 import cz.metacentrum.perun.core.api.MemberGroupStatus;
 import cz.metacentrum.perun.core.api.exceptions.PrivilegeException;
 import cz.metacentrum.perun.core.api.exceptions.ServiceAlreadyBannedException;
+import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import cz.metacentrum.perun.core.api.Attribute;
 import cz.metacentrum.perun.core.api.AttributeDefinition;
+import cz.metacentrum.perun.core.api.BeansUtils;
 import cz.metacentrum.perun.core.api.Destination;
 import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Group;
+import cz.metacentrum.perun.core.api.HashedServiceAttributes;
 import cz.metacentrum.perun.core.api.Host;
 import cz.metacentrum.perun.core.api.Member;
 import cz.metacentrum.perun.core.api.PerunSession;
@@ -46,6 +53,8 @@ import cz.metacentrum.perun.core.api.Resource;
 import cz.metacentrum.perun.core.api.RichDestination;
 import cz.metacentrum.perun.core.api.Service;
 import cz.metacentrum.perun.core.api.ServiceAttributes;
+import cz.metacentrum.perun.core.api.ServiceAttributesDelta;
+import cz.metacentrum.perun.core.api.ServiceAttributesSink;
 import cz.metacentrum.perun.core.api.ServicesPackage;
 import cz.metacentrum.perun.core.api.User;
 import cz.metacentrum.perun.core.api.Vo;
@@ -72,28 +81,83 @@ import cz.metacentrum.perun.core.api.exceptions.UserNotExistsException;
 import cz.metacentrum.perun.core.api.exceptions.VoNotExistsException;
 import cz.metacentrum.perun.core.bl.PerunBl;
 import cz.metacentrum.perun.core.bl.ServicesManagerBl;
+import cz.metacentrum.perun.core.impl.PerunSessionImpl;
 import cz.metacentrum.perun.core.impl.Utils;
 import cz.metacentrum.perun.core.implApi.ServicesManagerImplApi;
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * @author Michal Prochazka <michalp@ics.muni.cz>
  * @author Slavek Licehammer <glory@ics.muni.cz>
  */
-public class ServicesManagerBlImpl implements ServicesManagerBl {
+public class ServicesManagerBlImpl implements ServicesManagerBl, DisposableBean {
 
 	final static Logger log = LoggerFactory.getLogger(ServicesManagerBlImpl.class);
 
+	// number of users, for which flat data are read at once
+	private final static int USERS_CHUNK_SIZE = 1000;
+
 	private final ServicesManagerImplApi servicesManagerImpl;
 	private PerunBl perunBl;
+	private PlatformTransactionManager transactionManager;
+	private DataSource dataSource;
+	// workers and permits for callers generating GEN data in parallel, null if GEN data are generated sequentially
+	private final int maxGenDataParallelism;
+	private final ExecutorService genDataExecutor;
+	private final Semaphore parallelGenDataPermits;
+	// hashes of nodes of known generations of GEN data by their keys, kept by service, facility and generation
+	// in memory of this instance only, least recently used generations are dropped
+	private final Map<String, Map<String, String>> genDataGenerations = Collections.synchronizedMap(new LinkedHashMap<String, Map<String, String>>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Map<String, String>> eldest) {
+			return size() > BeansUtils.getCoreConfig().getGenDataDeltaCacheSize();
+		}
+	});
 
-	public ServicesManagerBlImpl(ServicesManagerImplApi servicesManagerImpl) {
+	/**
+	 * Create ServicesManagerBlImpl.
+	 *
+	 * @param servicesManagerImpl services manager implementation
+	 * @param maxGenDataParallelism perun.gen.data.parallelism at the start, number of workers generating GEN data
+	 *                              in parallel and of callers using them, it is never exceeded when the property changes
+	 */
+	public ServicesManagerBlImpl(ServicesManagerImplApi servicesManagerImpl, int maxGenDataParallelism) {
 		this.servicesManagerImpl = servicesManagerImpl;
+		this.maxGenDataParallelism = Math.max(1, maxGenDataParallelism);
+		if (this.maxGenDataParallelism > 1) {
+			AtomicInteger threadNumber = new AtomicInteger();
+			this.genDataExecutor = Executors.newFixedThreadPool(this.maxGenDataParallelism, runnable -> {
+				Thread thread = new Thread(runnable, "perun-gen-data-" + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.parallelGenDataPermits = new Semaphore(this.maxGenDataParallelism);
+		} else {
+			this.genDataExecutor = null;
+			this.parallelGenDataPermits = null;
+		}
 	}
 
 	@Override
@@ -320,9 +384,8 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 		return resourceServiceAttributes;
 	}
 
-	private ServiceAttributes getData(PerunSession sess, Service service, Facility facility, Resource resource, boolean filterExpiredMembers) throws InternalErrorException {
-		ServiceAttributes resourceServiceAttributes = new ServiceAttributes();
-		resourceServiceAttributes.addAttributes(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, resource));
+	private void streamData(PerunSession sess, Service service, Facility facility, Resource resource, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException {
+		sink.startElement("resource:" + resource.getId(), getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, resource));
 
 		List<Member> members;
 		if (filterExpiredMembers) {
@@ -340,31 +403,27 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 		}
 
 		for (Member mem : attributes.keySet()) {
-			ServiceAttributes serviceAttributes = new ServiceAttributes();
-			serviceAttributes.addAttributes(attributes.get(mem));
-			resourceServiceAttributes.addChildElement(serviceAttributes);
+			sink.startElement("member:" + mem.getId(), attributes.get(mem));
+			sink.endElement();
 		}
 
-		return resourceServiceAttributes;
-
+		sink.endElement();
 	}
 
-	private ServiceAttributes getDataWithGroups(PerunSession sess, Service service, Facility facility, Resource resource, boolean filterExpiredMembers) throws InternalErrorException {
+	private void streamDataWithGroups(PerunSession sess, Service service, Facility facility, Resource resource, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException {
 
 		// append resource attributes
-		ServiceAttributes resourceServiceAttributes = new ServiceAttributes();
-		resourceServiceAttributes.addAttributes(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, resource));
+		List<Attribute> resourceAttributes = new ArrayList<>(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, resource));
 
 		// append also vo attributes to resource object
 		try {
 			Vo resourceVo = getPerunBl().getVosManagerBl().getVoById(sess, resource.getVoId());
-			resourceServiceAttributes.addAttributes(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, resourceVo));
+			resourceAttributes.addAll(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, resourceVo));
 		} catch (VoNotExistsException ex) {
 			throw new ConsistencyErrorException("There is missing Vo for existing resource " + resource);
 		}
 
-		ServiceAttributes membersAbstractSA = new ServiceAttributes();
-		Map<Member, ServiceAttributes> memberAttributes = new HashMap<>();
+		sink.startElement("resource:" + resource.getId(), resourceAttributes);
 
 		List<Member> members;
 		if (filterExpiredMembers) {
@@ -373,66 +432,60 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 			members = getPerunBl().getResourcesManagerBl().getAllowedMembers(sess, resource);
 		}
 
-		HashMap<Member, List<Attribute>> attributes;
+		HashMap<Member, List<Attribute>> memberAttributes;
 
 		try {
 			// append all member/member_resource/user/user_facility attributes
-			attributes = getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility, resource, members, true);
+			// they are kept for the whole resource, since they are appended to members of each group too
+			memberAttributes = getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility, resource, members, true);
 		} catch(MemberResourceMismatchException ex) {
 			throw new InternalErrorException(ex);
 		}
 
-		for (Member mem : attributes.keySet()) {
-			ServiceAttributes tmpAttributes = new ServiceAttributes();
-			tmpAttributes.addAttributes(attributes.get(mem));
-			memberAttributes.put(mem, tmpAttributes);
-			membersAbstractSA.addChildElement(tmpAttributes);
-		}
-
 		// get all groups and append their sub structure
-		ServiceAttributes groupsAbstractSA = new ServiceAttributes();
+		sink.startElement("groups", Collections.emptyList());
 		List<Group> groups = getPerunBl().getResourcesManagerBl().getAssignedGroups(sess, resource);
 		for(Group group: groups) {
-			groupsAbstractSA.addChildElement(getData(sess, service, facility, resource, group, memberAttributes, filterExpiredMembers));
+			streamData(sess, service, facility, resource, group, memberAttributes, filterExpiredMembers, sink);
 		}
+		sink.endElement();
 
-		//assign abstract services attributes to resource service attributes
-		resourceServiceAttributes.addChildElement(groupsAbstractSA);
-		resourceServiceAttributes.addChildElement(membersAbstractSA);
+		sink.startElement("members", Collections.emptyList());
+		for (Member mem : memberAttributes.keySet()) {
+			sink.startElement("member:" + mem.getId(), memberAttributes.get(mem));
+			sink.endElement();
+		}
+		sink.endElement();
 
-		return resourceServiceAttributes;
+		sink.endElement();
 	}
 
-	private ServiceAttributes getDataWithVo(PerunSession sess, Service service, Facility facility, Vo vo, List<Resource> resources, boolean filterExpiredMembers) throws InternalErrorException {
-		ServiceAttributes voServiceAttributes = new ServiceAttributes();
-		voServiceAttributes.addAttributes(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, vo));
+	private void streamDataWithVo(PerunSession sess, Service service, Facility facility, Vo vo, List<Resource> resources, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException {
+		sink.startElement("vo:" + vo.getId(), getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, vo));
 
-		for(Resource resource: resources) {
-			ServiceAttributes resourceServiceAttributes = getDataWithGroups(sess, service, facility, resource, filterExpiredMembers);
-			voServiceAttributes.addChildElement(resourceServiceAttributes);
-		}
+		streamResourcesData(sess, resources, sink, (resourceSess, resource, resourceSink) -> streamDataWithGroups(resourceSess, service, facility, resource, filterExpiredMembers, resourceSink));
 
-		return voServiceAttributes;
+		sink.endElement();
 	}
 
-	private ServiceAttributes getData(PerunSession sess, Service service, Facility facility, Resource resource, Group group, Map<Member, ServiceAttributes> memberAttributes, boolean filterExpiredMembers) throws InternalErrorException {
-		ServiceAttributes groupServiceAttributes = new ServiceAttributes();
+	private void streamData(PerunSession sess, Service service, Facility facility, Resource resource, Group group, Map<Member, List<Attribute>> memberAttributes, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException {
 		try {
 			// add group and group_resource attributes
-			groupServiceAttributes.addAttributes(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, resource, group, true));
+			sink.startElement("group:" + group.getId(), getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, resource, group, true));
 		} catch (GroupResourceMismatchException ex) {
 			throw new InternalErrorException(ex);
 		}
-		ServiceAttributes groupsSubGroupsElement = new ServiceAttributes();
+
+		sink.startElement("groups", Collections.emptyList());
 		// FIXME Do not get subgroups of the members group
 		if (!group.getName().equals(VosManager.MEMBERS_GROUP)) {
 			List<Group> subGroups = getPerunBl().getGroupsManagerBl().getSubGroups(sess, group);
 			for(Group subGroup : subGroups) {
-				groupsSubGroupsElement.addChildElement(getData(sess, service, facility, resource, subGroup, memberAttributes, filterExpiredMembers));
+				streamData(sess, service, facility, resource, subGroup, memberAttributes, filterExpiredMembers, sink);
 			}
 		}
+		sink.endElement();
 
-		ServiceAttributes groupsMembersElement = new ServiceAttributes();
 		//Invalid and disabled are not allowed here
 		List<Member> members = getPerunBl().getGroupsManagerBl().getGroupMembersExceptInvalidAndDisabled(sess, group);
 
@@ -446,20 +499,21 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 			members.removeAll(membersToRemove);
 		}
 
+		sink.startElement("members", Collections.emptyList());
 		for(Member member : members) {
 			// append also member_group attributes for each member in a group
 			// rest of member/user attributes was passed in a param if present
-			ServiceAttributes tempAttrs = new ServiceAttributes();
+			List<Attribute> tempAttrs = new ArrayList<>();
 			if (memberAttributes.get(member) != null) {
-				tempAttrs.addAttributes(memberAttributes.get(member).getAttributes());
+				tempAttrs.addAll(memberAttributes.get(member));
 			}
-			tempAttrs.addAttributes(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, member, group));
-			groupsMembersElement.addChildElement(tempAttrs);
+			tempAttrs.addAll(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, member, group));
+			sink.startElement("member:" + member.getId(), tempAttrs);
+			sink.endElement();
 		}
+		sink.endElement();
 
-		groupServiceAttributes.addChildElement(groupsSubGroupsElement);
-		groupServiceAttributes.addChildElement(groupsMembersElement);
-		return groupServiceAttributes;
+		sink.endElement();
 	}
 
 	private ServiceAttributes getData(PerunSession sess, Service service, Resource resource, Member member) throws InternalErrorException {
@@ -488,35 +542,124 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 		return memberServiceAttributes;
 	}
 
+	/**
+	 * Streams data of each resource to the sink in the order of resources.
+	 *
+	 * When perun.gen.data.parallelism is greater than 1, data of that many resources are generated in parallel,
+	 * each resource in its own read-only transaction and with its own session. Subtree of each resource is kept
+	 * in memory until all previous resources are written to the sink.
+	 *
+	 * The caller keeps its connection while waiting for the workers. To always leave connections for the workers,
+	 * only as many callers as there are workers generate data in parallel at the same time, others generate them
+	 * sequentially in their own transaction, and the parallelism is limited to the half of the connection pool.
+	 *
+	 * @param sess perun session of the caller
+	 * @param resources resources to stream data of
+	 * @param sink sink to write the data to
+	 * @param resourceData writes data of one resource to the given sink
+	 * @throws InternalErrorException
+	 */
+	private void streamResourcesData(PerunSession sess, List<Resource> resources, ServiceAttributesSink sink, ResourceDataWriter resourceData) throws InternalErrorException {
+		int parallelism = getGenDataParallelism();
+		if (parallelism <= 1 || resources.size() <= 1 || transactionManager == null || !parallelGenDataPermits.tryAcquire()) {
+			for (Resource resource : resources) {
+				resourceData.write(sess, resource, sink);
+			}
+			return;
+		}
+
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		transactionTemplate.setReadOnly(true);
+
+		Deque<Future<RecordingServiceAttributesSink>> pending = new ArrayDeque<>();
+		Iterator<Resource> resourcesIterator = resources.iterator();
+		try {
+			while (resourcesIterator.hasNext() || !pending.isEmpty()) {
+				// keep at most parallelism resources generated ahead of the sink
+				while (resourcesIterator.hasNext() && pending.size() < parallelism) {
+					Resource resource = resourcesIterator.next();
+					pending.add(genDataExecutor.submit(() -> transactionTemplate.execute(status -> {
+						PerunSession workerSession = new PerunSessionImpl(getPerunBl(), sess.getPerunPrincipal(), sess.getPerunClient());
+						RecordingServiceAttributesSink recording = new RecordingServiceAttributesSink();
+						resourceData.write(workerSession, resource, recording);
+						return recording;
+					})));
+				}
+				pending.poll().get().writeTo(sink);
+			}
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException) throw (RuntimeException) ex.getCause();
+			throw new InternalErrorException(ex.getCause());
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InternalErrorException(ex);
+		} finally {
+			for (Future<RecordingServiceAttributesSink> future : pending) {
+				future.cancel(true);
+			}
+			parallelGenDataPermits.release();
+		}
+	}
+
+	/**
+	 * Writes data of one resource to the sink.
+	 */
+	private interface ResourceDataWriter {
+		void write(PerunSession sess, Resource resource, ServiceAttributesSink sink) throws InternalErrorException;
+	}
+
+	/**
+	 * Returns perun.gen.data.parallelism limited to the number of workers created at the start
+	 * and to the half of the connection pool, since each worker and each caller waiting for it hold one connection.
+	 */
+	private int getGenDataParallelism() {
+		int parallelism = Math.min(BeansUtils.getCoreConfig().getGenDataParallelism(), maxGenDataParallelism);
+		if (dataSource instanceof HikariDataSource) {
+			parallelism = Math.min(parallelism, ((HikariDataSource) dataSource).getMaximumPoolSize() / 2);
+		}
+		return parallelism;
+	}
+
 	@Override
 	public ServiceAttributes getHierarchicalData(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException {
-		ServiceAttributes serviceAttributes = new ServiceAttributes();
-		serviceAttributes.addAttributes(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility));
+		ServiceAttributesBuilder builder = new ServiceAttributesBuilder();
+		streamHierarchicalData(sess, service, facility, filterExpiredMembers, builder);
+		return builder.getServiceAttributes();
+	}
+
+	@Override
+	public void streamHierarchicalData(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException {
+		sink.startElement("facility:" + facility.getId(), getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility));
 
 		List<Resource> resources = getPerunBl().getFacilitiesManagerBl().getAssignedResources(sess, facility);
 		resources.retainAll(getAssignedResources(sess, service));
-		for(Resource resource: resources) {
-			ServiceAttributes resourceServiceAttributes = getData(sess, service, facility, resource, filterExpiredMembers);
-			serviceAttributes.addChildElement(resourceServiceAttributes);
-		}
-		return serviceAttributes;
+		streamResourcesData(sess, resources, sink, (resourceSess, resource, resourceSink) -> streamData(resourceSess, service, facility, resource, filterExpiredMembers, resourceSink));
+
+		sink.endElement();
 	}
 
 	@Override
 	public ServiceAttributes getFlatData(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException {
-		ServiceAttributes serviceAttributes = new ServiceAttributes();
-		serviceAttributes.addAttributes(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility));
+		ServiceAttributesBuilder builder = new ServiceAttributesBuilder();
+		streamFlatData(sess, service, facility, filterExpiredMembers, builder);
+		return builder.getServiceAttributes();
+	}
 
-		ServiceAttributes allResourcesServiceAttributes = new ServiceAttributes();
+	@Override
+	public void streamFlatData(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException {
+		sink.startElement("facility:" + facility.getId(), getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility));
+
+		sink.startElement("resources", Collections.emptyList());
 		List<Resource> facilityResources = getPerunBl().getFacilitiesManagerBl().getAssignedResources(sess, facility);
 		facilityResources.retainAll(getAssignedResources(sess, service));
 		for(Resource resource : facilityResources) {
-			ServiceAttributes resourceServiceAttributes = new ServiceAttributes();
-			resourceServiceAttributes.addAttributes(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, resource));
-			allResourcesServiceAttributes.addChildElement(resourceServiceAttributes);
+			sink.startElement("resource:" + resource.getId(), getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, resource));
+			sink.endElement();
 		}
+		sink.endElement();
 
-		ServiceAttributes allUsersServiceAttributes = new ServiceAttributes();
+		sink.startElement("users", Collections.emptyList());
 		List<User> facilityUsers;
 		if (filterExpiredMembers) {
 			facilityUsers = getPerunBl().getFacilitiesManagerBl().getAllowedUsersNotExpired(sess, facility, null, service);
@@ -524,30 +667,36 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 			facilityUsers = getPerunBl().getFacilitiesManagerBl().getAllowedUsers(sess, facility, null, service);
 		}
 
-		// get attributes for all users at once !
-		HashMap<User, List<Attribute>> userFacilityAttributes = getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility, facilityUsers);
-		HashMap<User, List<Attribute>> userAttributes = getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facilityUsers);
-
-		for (User user : facilityUsers) {
-			ServiceAttributes userServiceAttributes = new ServiceAttributes();
-			// Depending on a service requirements we might get null user or user-facility attributes
-			if (userAttributes.get(user) != null) userServiceAttributes.addAttributes(userAttributes.get(user));
-			if (userFacilityAttributes.get(user) != null) userServiceAttributes.addAttributes(userFacilityAttributes.get(user));
-			allUsersServiceAttributes.addChildElement(userServiceAttributes);
+		// get attributes for whole chunk of users at once !
+		for (int from = 0; from < facilityUsers.size(); from += USERS_CHUNK_SIZE) {
+			List<User> users = facilityUsers.subList(from, Math.min(from + USERS_CHUNK_SIZE, facilityUsers.size()));
+			HashMap<User, List<Attribute>> userFacilityAttributes = getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility, users);
+			HashMap<User, List<Attribute>> userAttributes = getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, users);
+
+			for (User user : users) {
+				List<Attribute> attributes = new ArrayList<>();
+				// Depending on a service requirements we might get null user or user-facility attributes
+				if (userAttributes.get(user) != null) attributes.addAll(userAttributes.get(user));
+				if (userFacilityAttributes.get(user) != null) attributes.addAll(userFacilityAttributes.get(user));
+				sink.startElement("user:" + user.getId(), attributes);
+				sink.endElement();
+			}
 		}
+		sink.endElement();
 
-		serviceAttributes.addChildElement(allResourcesServiceAttributes);
-		serviceAttributes.addChildElement(allUsersServiceAttributes);
-
-		return serviceAttributes;
-
-
+		sink.endElement();
 	}
 
 	@Override
 	public ServiceAttributes getDataWithVos(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException, VoNotExistsException {
-		ServiceAttributes serviceAttributes = new ServiceAttributes();
-		serviceAttributes.addAttributes(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility));
+		ServiceAttributesBuilder builder = new ServiceAttributesBuilder();
+		streamDataWithVos(sess, service, facility, filterExpiredMembers, builder);
+		return builder.getServiceAttributes();
+	}
+
+	@Override
+	public void streamDataWithVos(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException, VoNotExistsException {
+		List<Attribute> facilityAttributes = getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility);
 
 		//Get resources only for facility and service
 		List<Resource> resources = getPerunBl().getFacilitiesManagerBl().getAssignedResources(sess, facility);
@@ -564,28 +713,104 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 			vos.add(getPerunBl().getVosManagerBl().getVoById(sess, voId));
 		}
 
+		sink.startElement("facility:" + facility.getId(), facilityAttributes);
+
 		for(Vo vo: vos) {
 			List<Resource> voResources = getPerunBl().getResourcesManagerBl().getResources(sess, vo);
 			voResources.retainAll(resources);
-			ServiceAttributes voServiceAttributes = getDataWithVo(sess, service, facility, vo, voResources, filterExpiredMembers);
-			serviceAttributes.addChildElement(voServiceAttributes);
+			streamDataWithVo(sess, service, facility, vo, voResources, filterExpiredMembers, sink);
 		}
 
-		return serviceAttributes;
+		sink.endElement();
 	}
 
 	@Override
 	public ServiceAttributes getDataWithGroups(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException {
-		ServiceAttributes serviceAttributes = new ServiceAttributes();
-		serviceAttributes.addAttributes(getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility));
+		ServiceAttributesBuilder builder = new ServiceAttributesBuilder();
+		streamDataWithGroups(sess, service, facility, filterExpiredMembers, builder);
+		return builder.getServiceAttributes();
+	}
+
+	@Override
+	public void streamDataWithGroups(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException {
+		sink.startElement("facility:" + facility.getId(), getPerunBl().getAttributesManagerBl().getRequiredAttributes(sess, service, facility));
 
 		List<Resource> resources = getPerunBl().getFacilitiesManagerBl().getAssignedResources(sess, facility);
 		resources.retainAll(getAssignedResources(sess, service));
-		for(Resource resource: resources) {
-			ServiceAttributes resourceServiceAttributes = getDataWithGroups(sess, service, facility, resource, filterExpiredMembers);
-			serviceAttributes.addChildElement(resourceServiceAttributes);
+		streamResourcesData(sess, resources, sink, (resourceSess, resource, resourceSink) -> streamDataWithGroups(resourceSess, service, facility, resource, filterExpiredMembers, resourceSink));
+
+		sink.endElement();
+	}
+
+	@Override
+	public ServiceAttributesDelta getHierarchicalDataDelta(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, String generation) throws InternalErrorException {
+		HashingServiceAttributesBuilder builder = new HashingServiceAttributesBuilder();
+		streamHierarchicalData(sess, service, facility, filterExpiredMembers, builder);
+		return getDataDelta(service, facility, generation, builder.getRoot());
+	}
+
+	@Override
+	public ServiceAttributesDelta getFlatDataDelta(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, String generation) throws InternalErrorException {
+		HashingServiceAttributesBuilder builder = new HashingServiceAttributesBuilder();
+		streamFlatData(sess, service, facility, filterExpiredMembers, builder);
+		return getDataDelta(service, facility, generation, builder.getRoot());
+	}
+
+	@Override
+	public ServiceAttributesDelta getDataWithVosDelta(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, String generation) throws InternalErrorException, VoNotExistsException {
+		HashingServiceAttributesBuilder builder = new HashingServiceAttributesBuilder();
+		streamDataWithVos(sess, service, facility, filterExpiredMembers, builder);
+		return getDataDelta(service, facility, generation, builder.getRoot());
+	}
+
+	@Override
+	public ServiceAttributesDelta getDataWithGroupsDelta(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, String generation) throws InternalErrorException {
+		HashingServiceAttributesBuilder builder = new HashingServiceAttributesBuilder();
+		streamDataWithGroups(sess, service, facility, filterExpiredMembers, builder);
+		return getDataDelta(service, facility, generation, builder.getRoot());
+	}
+
+	/**
+	 * Compares hashed structure with the requested generation of the same service and facility
+	 * and remembers it as a known generation.
+	 *
+	 * @param service service the structure was generated for
+	 * @param facility facility the structure was generated for
+	 * @param generation generation requested by the caller or null
+	 * @param root root of the generated structure
+	 * @return changes since requested generation
+	 */
+	private ServiceAttributesDelta getDataDelta(Service service, Facility facility, String generation, HashedElement root) {
+		Map<String, String> hashes = new HashMap<>();
+		root.collectHashes(hashes);
+
+		// read the requested generation first, remembering the current one could drop it
+		Map<String, String> previousHashes = generation == null ? null : genDataGenerations.get(getGenerationKey(service, facility, generation));
+		genDataGenerations.put(getGenerationKey(service, facility, root.hash), hashes);
+
+		if (root.hash.equals(generation)) {
+			return new ServiceAttributesDelta(root.hash, generation, false, new ArrayList<>(), null);
+		}
+		if (previousHashes != null) {
+			List<String> removedElements = new ArrayList<>();
+			for (String key : previousHashes.keySet()) {
+				// list only roots of removed subtrees
+				int parentEnd = key.lastIndexOf('/');
+				if (!hashes.containsKey(key) && (parentEnd < 0 || hashes.containsKey(key.substring(0, parentEnd)))) {
+					removedElements.add(key);
+				}
+			}
+			Collections.sort(removedElements);
+			return new ServiceAttributesDelta(root.hash, generation, false, removedElements, root.toChangedServiceAttributes(previousHashes));
 		}
-		return serviceAttributes;
+		return new ServiceAttributesDelta(root.hash, null, true, new ArrayList<>(), root.toChangedServiceAttributes(Collections.emptyMap()));
+	}
+
+	/**
+	 * Key of the generation of GEN data, the same structure generated for another service or facility is another generation.
+	 */
+	private static String getGenerationKey(Service service, Facility facility, String generation) {
+		return service.getId() + ":" + facility.getId() + ":" + generation;
 	}
 
 	@Override
@@ -886,6 +1111,21 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 		this.perunBl = perunBl;
 	}
 
+	public void setTransactionManager(PlatformTransactionManager transactionManager) {
+		this.transactionManager = transactionManager;
+	}
+
+	public void setDataSource(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	@Override
+	public void destroy() {
+		if (genDataExecutor != null) {
+			genDataExecutor.shutdownNow();
+		}
+	}
+
 	@Override
 	public List<Destination> addDestinationsForAllServicesOnFacility(PerunSession sess, Facility facility, Destination destination)
 	throws InternalErrorException, DestinationAlreadyAssignedException {
@@ -953,4 +1193,167 @@ public class ServicesManagerBlImpl implements ServicesManagerBl {
 	public int getDestinationsCount(PerunSession sess) throws InternalErrorException {
 		return getServicesManagerImpl().getDestinationsCount(sess);
 	}
+
+	/**
+	 * Builds whole ServiceAttributes structure from the streamed nodes.
+	 */
+	private static class ServiceAttributesBuilder implements ServiceAttributesSink {
+
+		private final Deque<ServiceAttributes> elements = new ArrayDeque<>();
+		private ServiceAttributes root;
+
+		@Override
+		public void startElement(List<Attribute> attributes) {
+			ServiceAttributes element = new ServiceAttributes();
+			element.addAttributes(attributes);
+			if (elements.isEmpty()) {
+				root = element;
+			} else {
+				elements.peek().addChildElement(element);
+			}
+			elements.push(element);
+		}
+
+		@Override
+		public void endElement() {
+			elements.pop();
+		}
+
+		ServiceAttributes getServiceAttributes() {
+			return root;
+		}
+	}
+
+	/**
+	 * Keeps the streamed nodes in memory, so they can be written to another sink later.
+	 */
+	private static class RecordingServiceAttributesSink implements ServiceAttributesSink {
+
+		private final List<Consumer<ServiceAttributesSink>> events = new ArrayList<>();
+
+		@Override
+		public void startElement(List<Attribute> attributes) {
+			events.add(sink -> sink.startElement(attributes));
+		}
+
+		@Override
+		public void startElement(String key, List<Attribute> attributes) {
+			events.add(sink -> sink.startElement(key, attributes));
+		}
+
+		@Override
+		public void endElement() {
+			events.add(ServiceAttributesSink::endElement);
+		}
+
+		void writeTo(ServiceAttributesSink sink) {
+			for (Consumer<ServiceAttributesSink> event : events) {
+				event.accept(sink);
+			}
+		}
+	}
+
+	/**
+	 * Node of the structure with its key and content hash of its whole subtree.
+	 */
+	private static class HashedElement {
+
+		private final String key;
+		private final List<Attribute> attributes;
+		private final List<HashedElement> childElements = new ArrayList<>();
+		private String hash;
+
+		HashedElement(String key, List<Attribute> attributes) {
+			this.key = key;
+			this.attributes = attributes;
+		}
+
+		void collectHashes(Map<String, String> hashes) {
+			hashes.put(key, hash);
+			for (HashedElement childElement : childElements) {
+				childElement.collectHashes(hashes);
+			}
+		}
+
+		/**
+		 * Converts the subtree to HashedServiceAttributes leaving out child subtrees,
+		 * which were present with the same hash in the previous generation.
+		 */
+		HashedServiceAttributes toChangedServiceAttributes(Map<String, String> previousHashes) {
+			HashedServiceAttributes element = new HashedServiceAttributes(key, hash);
+			element.addAttributes(attributes);
+			for (HashedElement childElement : childElements) {
+				if (!childElement.hash.equals(previousHashes.get(childElement.key))) {
+					element.addChildElement(childElement.toChangedServiceAttributes(previousHashes));
+				}
+			}
+			return element;
+		}
+	}
+
+	/**
+	 * Builds the structure from the streamed nodes and computes SHA-256 hash of each subtree
+	 * from the key and attributes of the node and the hashes of its child elements.
+	 *
+	 * Key of each node is the path of keys from the root. Nodes started without key get their position
+	 * among siblings as the key.
+	 */
+	private static class HashingServiceAttributesBuilder implements ServiceAttributesSink {
+
+		private final Deque<HashedElement> elements = new ArrayDeque<>();
+		private final MessageDigest digest;
+		private HashedElement root;
+
+		HashingServiceAttributesBuilder() {
+			try {
+				digest = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException ex) {
+				throw new InternalErrorException(ex);
+			}
+		}
+
+		@Override
+		public void startElement(List<Attribute> attributes) {
+			startElement(String.valueOf(elements.isEmpty() ? 0 : elements.peek().childElements.size()), attributes);
+		}
+
+		@Override
+		public void startElement(String key, List<Attribute> attributes) {
+			HashedElement element;
+			if (elements.isEmpty()) {
+				element = new HashedElement(key, attributes);
+				root = element;
+			} else {
+				element = new HashedElement(elements.peek().key + "/" + key, attributes);
+				elements.peek().childElements.add(element);
+			}
+			elements.push(element);
+		}
+
+		@Override
+		public void endElement() {
+			HashedElement element = elements.pop();
+			update(element.key);
+			for (Attribute attribute : element.attributes) {
+				String value = BeansUtils.attributeValueToString(attribute);
+				update(attribute.getName());
+				update(attribute.getType());
+				update(value == null ? "\u0001" : value);
+			}
+			for (HashedElement childElement : element.childElements) {
+				update(childElement.hash);
+			}
+			element.hash = Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+		}
+
+		private void update(String value) {
+			digest.update(value.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+
+		HashedElement getRoot() {
+			return root;
+		}
+	}
+
 }
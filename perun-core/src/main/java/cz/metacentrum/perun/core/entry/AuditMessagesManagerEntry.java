@@ -61,6 +61,24 @@ public class AuditMessagesManagerEntry implements AuditMessagesManager {
 		return getAuditMessagesManagerBl().pollConsumerEvents(perunSession, consumerName);
 	}
 
+	@Override
+	public List<AuditMessage> pollConsumerMessages(PerunSession perunSession, String consumerName, int batchSize) throws InternalErrorException, PrivilegeException {
+		if (!AuthzResolver.isAuthorized(perunSession, Role.PERUNADMIN)) {
+			throw new PrivilegeException(perunSession, "pollConsumerMessages");
+		}
+		if(batchSize<1) throw new WrongRangeOfCountException("Batch size is less than 1. Can't be returned less than 1 message.");
+		return getAuditMessagesManagerBl().pollConsumerMessages(perunSession, consumerName, batchSize);
+	}
+
+	@Override
+	public List<AuditEvent> pollConsumerEvents(PerunSession perunSession, String consumerName, int batchSize) throws InternalErrorException, PrivilegeException {
+		if (!AuthzResolver.isAuthorized(perunSession, Role.PERUNADMIN)) {
+			throw new PrivilegeException(perunSession, "pollConsumerEvents");
+		}
+		if(batchSize<1) throw new WrongRangeOfCountException("Batch size is less than 1. Can't be returned less than 1 event.");
+		return getAuditMessagesManagerBl().pollConsumerEvents(perunSession, consumerName, batchSize);
+	}
+
 	@Override
 	public void createAuditerConsumer(PerunSession perunSession, String consumerName) throws InternalErrorException, PrivilegeException {
 		if (!AuthzResolver.isAuthorized(perunSession, Role.PERUNADMIN)) {
@@ -83,6 +101,12 @@ public class AuditMessagesManagerEntry implements AuditMessagesManager {
 		return getAuditMessagesManagerBl().getAllAuditerConsumers(perunSession);
 	}
 
+	@Override
+	public Map<String, Integer> getAuditerConsumersLag(PerunSession perunSession) throws InternalErrorException {
+		// anybody can call this method
+		return getAuditMessagesManagerBl().getAuditerConsumersLag(perunSession);
+	}
+
 	@Override
 	public int getLastMessageId(PerunSession perunSession) throws InternalErrorException {
 		// anybody can call this method
@@ -8,6 +8,8 @@ import cz.metacentrum.perun.core.api.ExtSource;
 import cz.metacentrum.perun.core.api.Group;
 import cz.metacentrum.perun.core.api.Member;
 import cz.metacentrum.perun.core.api.MembersManager;
+import cz.metacentrum.perun.core.api.MembersPageQuery;
+import cz.metacentrum.perun.core.api.Paginated;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.Resource;
 import cz.metacentrum.perun.core.api.RichMember;
@@ -25,6 +27,7 @@ import cz.metacentrum.perun.core.api.exceptions.ExtSourceNotExistsException;
 import cz.metacentrum.perun.core.api.exceptions.ExtendMembershipException;
 import cz.metacentrum.perun.core.api.exceptions.GroupNotExistsException;
 import cz.metacentrum.perun.core.api.exceptions.GroupResourceMismatchException;
+import cz.metacentrum.perun.core.api.exceptions.IllegalArgumentException;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.core.api.exceptions.LoginNotExistsException;
 import cz.metacentrum.perun.core.api.exceptions.MemberAlreadyRemovedException;
@@ -598,6 +601,43 @@ public class MembersManagerEntry implements MembersManager {
 		return getPerunBl().getMembersManagerBl().filterOnlyAllowedAttributes(sess, getMembersManagerBl().getCompleteRichMembers(sess, vo, attrsNames, allowedStatuses), null, true);
 	}
 
+	@Override
+	public Paginated<RichMember> getMembersPage(PerunSession sess, Vo vo, MembersPageQuery query, List<String> attrsNames) throws InternalErrorException, PrivilegeException, VoNotExistsException, GroupNotExistsException, AttributeNotExistsException {
+		Utils.checkPerunSession(sess);
+		Utils.notNull(query, "query");
+
+		perunBl.getVosManagerBl().checkVoExists(sess, vo);
+
+		Group group = null;
+		if (query.getGroupId() != null) {
+			group = getPerunBl().getGroupsManagerBl().getGroupById(sess, query.getGroupId());
+			if (group.getVoId() != vo.getId()) {
+				throw new IllegalArgumentException("Group " + group + " is not from the " + vo + ".");
+			}
+		}
+
+		// Authorization
+		if (group == null) {
+			if (!AuthzResolver.isAuthorized(sess, Role.VOADMIN, vo) &&
+					!AuthzResolver.isAuthorized(sess, Role.VOOBSERVER, vo) &&
+					!AuthzResolver.isAuthorized(sess, Role.GROUPADMIN, vo) &&
+					!AuthzResolver.isAuthorized(sess, Role.PERUNOBSERVER)) {
+				throw new PrivilegeException(sess, "getMembersPage");
+			}
+		} else {
+			if (!AuthzResolver.isAuthorized(sess, Role.VOADMIN, group) &&
+					!AuthzResolver.isAuthorized(sess, Role.VOOBSERVER, group) &&
+					!AuthzResolver.isAuthorized(sess, Role.GROUPADMIN, group) &&
+					!AuthzResolver.isAuthorized(sess, Role.PERUNOBSERVER)) {
+				throw new PrivilegeException(sess, "getMembersPage");
+			}
+		}
+
+		Paginated<RichMember> page = getMembersManagerBl().getMembersPage(sess, vo, query, attrsNames);
+		page.setData(getPerunBl().getMembersManagerBl().filterOnlyAllowedAttributes(sess, page.getData(), group, true));
+		return page;
+	}
+
 	@Override
 	public List<RichMember> getCompleteRichMembers(PerunSession sess, Group group, List<String> attrsNames, boolean lookingInParentGroup) throws InternalErrorException, PrivilegeException, ParentGroupNotExistsException, GroupNotExistsException, AttributeNotExistsException {
 		Utils.checkPerunSession(sess);
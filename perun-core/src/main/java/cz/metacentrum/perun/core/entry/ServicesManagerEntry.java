@@ -11,6 +11,8 @@ import cz.metacentrum.perun.core.api.RichDestination;
 import cz.metacentrum.perun.core.api.Role;
 import cz.metacentrum.perun.core.api.Service;
 import cz.metacentrum.perun.core.api.ServiceAttributes;
+import cz.metacentrum.perun.core.api.ServiceAttributesDelta;
+import cz.metacentrum.perun.core.api.ServiceAttributesSink;
 import cz.metacentrum.perun.core.api.ServicesManager;
 import cz.metacentrum.perun.core.api.ServicesPackage;
 import cz.metacentrum.perun.core.api.Vo;
@@ -448,6 +450,40 @@ public class ServicesManagerEntry implements ServicesManager {
 		return getServicesManagerBl().getHierarchicalData(sess, service, facility, filterExpiredMembers);
 	}
 
+	@Override
+	public void streamHierarchicalData(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException {
+		Utils.checkPerunSession(sess);
+
+		// Authorization
+		if (!AuthzResolver.isAuthorized(sess, Role.ENGINE) &&
+				!AuthzResolver.isAuthorized(sess, Role.FACILITYADMIN, facility) &&
+				!AuthzResolver.isAuthorized(sess, Role.PERUNOBSERVER)) {
+			throw new PrivilegeException(sess, "streamHierarchicalData");
+		}
+
+		getServicesManagerBl().checkServiceExists(sess, service);
+		getPerunBl().getFacilitiesManagerBl().checkFacilityExists(sess, facility);
+
+		getServicesManagerBl().streamHierarchicalData(sess, service, facility, filterExpiredMembers, sink);
+	}
+
+	@Override
+	public ServiceAttributesDelta getHierarchicalDataDelta(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, String generation) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException {
+		Utils.checkPerunSession(sess);
+
+		// Authorization
+		if (!AuthzResolver.isAuthorized(sess, Role.ENGINE) &&
+				!AuthzResolver.isAuthorized(sess, Role.FACILITYADMIN, facility) &&
+				!AuthzResolver.isAuthorized(sess, Role.PERUNOBSERVER)) {
+			throw new PrivilegeException(sess, "getHierarchicalDataDelta");
+		}
+
+		getServicesManagerBl().checkServiceExists(sess, service);
+		getPerunBl().getFacilitiesManagerBl().checkFacilityExists(sess, facility);
+
+		return getServicesManagerBl().getHierarchicalDataDelta(sess, service, facility, filterExpiredMembers, generation);
+	}
+
 	@Override
 	public ServiceAttributes getFlatData(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException {
 		Utils.checkPerunSession(sess);
@@ -465,6 +501,40 @@ public class ServicesManagerEntry implements ServicesManager {
 		return getServicesManagerBl().getFlatData(sess, service, facility, filterExpiredMembers);
 	}
 
+	@Override
+	public void streamFlatData(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException {
+		Utils.checkPerunSession(sess);
+
+		// Authorization
+		if (!AuthzResolver.isAuthorized(sess, Role.ENGINE) &&
+				!AuthzResolver.isAuthorized(sess, Role.FACILITYADMIN, facility) &&
+				!AuthzResolver.isAuthorized(sess, Role.PERUNOBSERVER)) {
+			throw new PrivilegeException(sess, "streamFlatData");
+		}
+
+		getServicesManagerBl().checkServiceExists(sess, service);
+		getPerunBl().getFacilitiesManagerBl().checkFacilityExists(sess, facility);
+
+		getServicesManagerBl().streamFlatData(sess, service, facility, filterExpiredMembers, sink);
+	}
+
+	@Override
+	public ServiceAttributesDelta getFlatDataDelta(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, String generation) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException {
+		Utils.checkPerunSession(sess);
+
+		// Authorization
+		if (!AuthzResolver.isAuthorized(sess, Role.ENGINE) &&
+				!AuthzResolver.isAuthorized(sess, Role.FACILITYADMIN, facility) &&
+				!AuthzResolver.isAuthorized(sess, Role.PERUNOBSERVER)) {
+			throw new PrivilegeException(sess, "getFlatDataDelta");
+		}
+
+		getServicesManagerBl().checkServiceExists(sess, service);
+		getPerunBl().getFacilitiesManagerBl().checkFacilityExists(sess, facility);
+
+		return getServicesManagerBl().getFlatDataDelta(sess, service, facility, filterExpiredMembers, generation);
+	}
+
 	@Override
 	public ServiceAttributes getDataWithGroups(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException {
 		Utils.checkPerunSession(sess);
@@ -482,6 +552,40 @@ public class ServicesManagerEntry implements ServicesManager {
 		return getServicesManagerBl().getDataWithGroups(sess, service, facility, filterExpiredMembers);
 	}
 
+	@Override
+	public void streamDataWithGroups(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException {
+		Utils.checkPerunSession(sess);
+
+		// Authorization
+		if (!AuthzResolver.isAuthorized(sess, Role.ENGINE) &&
+				!AuthzResolver.isAuthorized(sess, Role.FACILITYADMIN, facility) &&
+				!AuthzResolver.isAuthorized(sess, Role.PERUNOBSERVER)) {
+			throw new PrivilegeException(sess, "streamDataWithGroups");
+		}
+
+		getServicesManagerBl().checkServiceExists(sess, service);
+		getPerunBl().getFacilitiesManagerBl().checkFacilityExists(sess, facility);
+
+		getServicesManagerBl().streamDataWithGroups(sess, service, facility, filterExpiredMembers, sink);
+	}
+
+	@Override
+	public ServiceAttributesDelta getDataWithGroupsDelta(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, String generation) throws InternalErrorException, FacilityNotExistsException, ServiceNotExistsException, PrivilegeException {
+		Utils.checkPerunSession(sess);
+
+		// Authorization
+		if (!AuthzResolver.isAuthorized(sess, Role.ENGINE) &&
+				!AuthzResolver.isAuthorized(sess, Role.FACILITYADMIN, facility) &&
+				!AuthzResolver.isAuthorized(sess, Role.PERUNOBSERVER)) {
+			throw new PrivilegeException(sess, "getDataWithGroupsDelta");
+		}
+
+		getServicesManagerBl().checkServiceExists(sess, service);
+		getPerunBl().getFacilitiesManagerBl().checkFacilityExists(sess, facility);
+
+		return getServicesManagerBl().getDataWithGroupsDelta(sess, service, facility, filterExpiredMembers, generation);
+	}
+
 	@Override
 	public ServiceAttributes getDataWithVos(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers) throws InternalErrorException, FacilityNotExistsException, VoNotExistsException, ServiceNotExistsException, PrivilegeException {
 		Utils.checkPerunSession(sess);
@@ -499,6 +603,40 @@ public class ServicesManagerEntry implements ServicesManager {
 		return getServicesManagerBl().getDataWithVos(sess, service, facility, filterExpiredMembers);
 	}
 
+	@Override
+	public void streamDataWithVos(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, ServiceAttributesSink sink) throws InternalErrorException, FacilityNotExistsException, VoNotExistsException, ServiceNotExistsException, PrivilegeException {
+		Utils.checkPerunSession(sess);
+
+		// Authorization
+		if (!AuthzResolver.isAuthorized(sess, Role.ENGINE) &&
+				!AuthzResolver.isAuthorized(sess, Role.FACILITYADMIN, facility) &&
+				!AuthzResolver.isAuthorized(sess, Role.PERUNOBSERVER)) {
+			throw new PrivilegeException(sess, "streamDataWithVos");
+		}
+
+		getServicesManagerBl().checkServiceExists(sess, service);
+		getPerunBl().getFacilitiesManagerBl().checkFacilityExists(sess, facility);
+
+		getServicesManagerBl().streamDataWithVos(sess, service, facility, filterExpiredMembers, sink);
+	}
+
+	@Override
+	public ServiceAttributesDelta getDataWithVosDelta(PerunSession sess, Service service, Facility facility, boolean filterExpiredMembers, String generation) throws InternalErrorException, FacilityNotExistsException, VoNotExistsException, ServiceNotExistsException, PrivilegeException {
+		Utils.checkPerunSession(sess);
+
+		// Authorization
+		if (!AuthzResolver.isAuthorized(sess, Role.ENGINE) &&
+				!AuthzResolver.isAuthorized(sess, Role.FACILITYADMIN, facility) &&
+				!AuthzResolver.isAuthorized(sess, Role.PERUNOBSERVER)) {
+			throw new PrivilegeException(sess, "getDataWithVosDelta");
+		}
+
+		getServicesManagerBl().checkServiceExists(sess, service);
+		getPerunBl().getFacilitiesManagerBl().checkFacilityExists(sess, facility);
+
+		return getServicesManagerBl().getDataWithVosDelta(sess, service, facility, filterExpiredMembers, generation);
+	}
+
 	@Override
 	public List<ServicesPackage> getServicesPackages(PerunSession sess) throws InternalErrorException, PrivilegeException {
 		Utils.checkPerunSession(sess);
@@ -0,0 +1,295 @@
+package cz.metacentrum.perun.core.impl;
+
+import cz.metacentrum.perun.core.api.AttributeHolders;
+import cz.metacentrum.perun.core.api.AttributeIdWithHolders;
+import cz.metacentrum.perun.core.api.Holder;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Index of the attributes stored in the cache of CacheManager, which replaces queries over string fields
+ * of AttributeHolders by hash lookups.
+ *
+ * For each holder (or pair of holders) it keeps ids of attributes stored for it, for each namespace ids of attribute
+ * definitions. Types of holders select one of the maps, ids of holders are packed to one long key of the map.
+ * Attribute ids are kept in sorted int arrays, which are never modified, only replaced, so they can be returned
+ * to readers without copying.
+ *
+ * Index may contain more ids than the cache (e.g. ids of attributes removed in a transaction before its commit),
+ * so each found id has to be looked up in the cache. Attributes stored for a subject (entityless attributes)
+ * are not indexed.
+ *
+ * @see CacheManager
+ */
+public class AttributeHoldersIndex {
+
+	private static final int[] NO_IDS = new int[0];
+	private static final int HOLDER_TYPES = Holder.HolderType.values().length;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	// maps for each combination of primary and secondary holder types, secondary holder type can be missing
+	private final LongKeyMap[] attributeIds = new LongKeyMap[HOLDER_TYPES * (HOLDER_TYPES + 1)];
+	private final Map<String, int[]> definitionIds = new HashMap<>();
+
+	/**
+	 * Get ids of attributes stored for the primary holder, or for the primary and secondary holder.
+	 *
+	 * @param primaryHolder primary holder
+	 * @param secondaryHolder secondary holder or null
+	 * @return sorted ids of attributes, must not be modified
+	 */
+	public int[] getAttributeIds(Holder primaryHolder, Holder secondaryHolder) {
+		// holders are ordered the same way as in keys of the cache
+		AttributeIdWithHolders holders = new AttributeIdWithHolders((Integer) null, primaryHolder, secondaryHolder);
+		lock.readLock().lock();
+		try {
+			LongKeyMap map = attributeIds[getMapIndex(holders.getPrimaryHolder(), holders.getSecondaryHolder())];
+			int[] ids = map == null ? null : map.get(getKey(holders.getPrimaryHolder(), holders.getSecondaryHolder()));
+			return ids == null ? NO_IDS : ids;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get ids of attribute definitions from the namespace.
+	 *
+	 * @param namespace namespace of attribute definitions
+	 * @return sorted ids of attribute definitions, must not be modified
+	 */
+	public int[] getDefinitionIds(String namespace) {
+		lock.readLock().lock();
+		try {
+			int[] ids = definitionIds.get(namespace);
+			return ids == null ? NO_IDS : ids;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get ids of all attribute definitions.
+	 *
+	 * @return sorted ids of attribute definitions
+	 */
+	public int[] getDefinitionIds() {
+		lock.readLock().lock();
+		try {
+			// each definition belongs to just one namespace
+			int[] allIds = new int[definitionIds.values().stream().mapToInt(ids -> ids.length).sum()];
+			int length = 0;
+			for (int[] ids : definitionIds.values()) {
+				System.arraycopy(ids, 0, allIds, length, ids.length);
+				length += ids.length;
+			}
+			Arrays.sort(allIds);
+			return allIds;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Add attribute or attribute definition identified by the cache key to the index.
+	 * Keys by name and keys with subject are ignored.
+	 *
+	 * @param key key of attribute in the cache
+	 * @param namespace namespace of the attribute
+	 */
+	public void add(AttributeIdWithHolders key, String namespace) {
+		if (!isIndexed(key)) return;
+		lock.writeLock().lock();
+		try {
+			addUnderLock(key, namespace);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Update index for the cache keys by what is actually stored under them. Stored values are read while
+	 * the index is locked, so updates based on older values can't overwrite the newer ones.
+	 * Keys by name and keys with subject are ignored.
+	 *
+	 * @param keys keys of attributes in the cache
+	 * @param storedValues gets attribute stored under the key, null if nothing is stored
+	 */
+	public void refresh(Collection<AttributeIdWithHolders> keys, Function<AttributeIdWithHolders, AttributeHolders> storedValues) {
+		lock.writeLock().lock();
+		try {
+			for (AttributeIdWithHolders key : keys) {
+				if (!isIndexed(key)) continue;
+				AttributeHolders stored = storedValues.apply(key);
+				if (stored != null) {
+					addUnderLock(key, stored.getNamespace());
+				} else {
+					removeUnderLock(key);
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Remove everything from the index.
+	 */
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			Arrays.fill(attributeIds, null);
+			definitionIds.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void addUnderLock(AttributeIdWithHolders key, String namespace) {
+		if (key.getPrimaryHolder() == null) {
+			definitionIds.put(namespace, addId(definitionIds.getOrDefault(namespace, NO_IDS), key.getAttributeId()));
+			return;
+		}
+		int mapIndex = getMapIndex(key.getPrimaryHolder(), key.getSecondaryHolder());
+		if (attributeIds[mapIndex] == null) attributeIds[mapIndex] = new LongKeyMap();
+		LongKeyMap map = attributeIds[mapIndex];
+		long holdersKey = getKey(key.getPrimaryHolder(), key.getSecondaryHolder());
+		int[] ids = map.get(holdersKey);
+		map.put(holdersKey, addId(ids == null ? NO_IDS : ids, key.getAttributeId()));
+	}
+
+	private void removeUnderLock(AttributeIdWithHolders key) {
+		if (key.getPrimaryHolder() == null) {
+			// namespace of removed definition is not known, but there are not many namespaces
+			definitionIds.replaceAll((namespace, ids) -> removeId(ids, key.getAttributeId()));
+			definitionIds.values().removeIf(ids -> ids.length == 0);
+			return;
+		}
+		LongKeyMap map = attributeIds[getMapIndex(key.getPrimaryHolder(), key.getSecondaryHolder())];
+		if (map == null) return;
+		long holdersKey = getKey(key.getPrimaryHolder(), key.getSecondaryHolder());
+		int[] ids = map.get(holdersKey);
+		if (ids == null) return;
+		ids = removeId(ids, key.getAttributeId());
+		if (ids.length == 0) {
+			map.remove(holdersKey);
+		} else {
+			map.put(holdersKey, ids);
+		}
+	}
+
+	private static boolean isIndexed(AttributeIdWithHolders key) {
+		return key.getAttributeId() != null && key.getSubject() == null;
+	}
+
+	private static int getMapIndex(Holder primaryHolder, Holder secondaryHolder) {
+		int secondaryType = secondaryHolder == null ? HOLDER_TYPES : secondaryHolder.getType().ordinal();
+		return primaryHolder.getType().ordinal() * (HOLDER_TYPES + 1) + secondaryType;
+	}
+
+	private static long getKey(Holder primaryHolder, Holder secondaryHolder) {
+		int secondaryId = secondaryHolder == null ? 0 : secondaryHolder.getId();
+		return ((long) primaryHolder.getId() << 32) | (secondaryId & 0xFFFFFFFFL);
+	}
+
+	private static int[] addId(int[] ids, int id) {
+		int position = Arrays.binarySearch(ids, id);
+		if (position >= 0) return ids;
+		position = -position - 1;
+		int[] newIds = new int[ids.length + 1];
+		System.arraycopy(ids, 0, newIds, 0, position);
+		newIds[position] = id;
+		System.arraycopy(ids, position, newIds, position + 1, ids.length - position);
+		return newIds;
+	}
+
+	private static int[] removeId(int[] ids, int id) {
+		int position = Arrays.binarySearch(ids, id);
+		if (position < 0) return ids;
+		int[] newIds = new int[ids.length - 1];
+		System.arraycopy(ids, 0, newIds, 0, position);
+		System.arraycopy(ids, position + 1, newIds, position, ids.length - position - 1);
+		return newIds;
+	}
+
+	/**
+	 * Hash map from long keys to int arrays with open addressing and linear probing.
+	 * Empty slots are those without value.
+	 */
+	private static final class LongKeyMap {
+
+		private long[] keys = new long[16];
+		private int[][] values = new int[16][];
+		private int size;
+
+		int[] get(long key) {
+			int mask = keys.length - 1;
+			for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+				if (keys[i] == key) return values[i];
+			}
+			return null;
+		}
+
+		void put(long key, int[] value) {
+			int mask = keys.length - 1;
+			int i = slot(key, mask);
+			while (values[i] != null) {
+				if (keys[i] == key) {
+					values[i] = value;
+					return;
+				}
+				i = (i + 1) & mask;
+			}
+			keys[i] = key;
+			values[i] = value;
+			size++;
+			// keep the load factor under 2/3
+			if (size * 3 > keys.length * 2) resize();
+		}
+
+		void remove(long key) {
+			int mask = keys.length - 1;
+			int i = slot(key, mask);
+			while (values[i] != null && keys[i] != key) {
+				i = (i + 1) & mask;
+			}
+			if (values[i] == null) return;
+			values[i] = null;
+			size--;
+			// shift following entries of the same run back, so no entry is behind an empty slot
+			int j = i;
+			while (true) {
+				j = (j + 1) & mask;
+				if (values[j] == null) return;
+				int home = slot(keys[j], mask);
+				boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+				if (stays) continue;
+				keys[i] = keys[j];
+				values[i] = values[j];
+				values[j] = null;
+				i = j;
+			}
+		}
+
+		private void resize() {
+			long[] oldKeys = keys;
+			int[][] oldValues = values;
+			keys = new long[oldKeys.length * 2];
+			values = new int[oldKeys.length * 2][];
+			size = 0;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldValues[i] != null) put(oldKeys[i], oldValues[i]);
+			}
+		}
+
+		private static int slot(long key, int mask) {
+			long hash = key * 0x9E3779B97F4A7C15L;
+			return (int) (hash ^ (hash >>> 32)) & mask;
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package cz.metacentrum.perun.core.impl;
+
+import cz.metacentrum.perun.core.api.ActionType;
+import cz.metacentrum.perun.core.api.Pair;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the attributes_authz table. For each attribute and action type it keeps the roles
+ * which can work with the attribute together with their action types, the same as
+ * AuthzResolverImpl.getRolesWhichCanWorkWithAttribute() would read from the database.
+ *
+ * Snapshot is never modified. When attribute rights are changed, a new one is loaded and replaces it.
+ *
+ * @see AuthzResolverImpl
+ */
+public class AttributeRightsMatrix {
+
+	private final Map<Integer, Map<ActionType, Map<String, Set<ActionType>>>> rights;
+	private final long generation;
+	private final long loadedAt;
+
+	/**
+	 * Create snapshot from rows of attributes_authz.
+	 *
+	 * @param rows pairs of attribute id and pair of role name (upper case) and action type
+	 * @param generation generation of attribute rights the rows were read in
+	 */
+	public AttributeRightsMatrix(List<Pair<Integer, Pair<String, ActionType>>> rows, long generation) {
+		// roles and their action types for each attribute
+		Map<Integer, Map<String, Set<ActionType>>> rolesByAttribute = new HashMap<>();
+		for (Pair<Integer, Pair<String, ActionType>> row : rows) {
+			rolesByAttribute.computeIfAbsent(row.getLeft(), id -> new HashMap<>())
+					.computeIfAbsent(row.getRight().getLeft(), role -> new HashSet<>())
+					.add(row.getRight().getRight());
+		}
+
+		Map<Integer, Map<ActionType, Map<String, Set<ActionType>>>> rights = new HashMap<>();
+		for (Map.Entry<Integer, Map<String, Set<ActionType>>> attributeRoles : rolesByAttribute.entrySet()) {
+			Map<ActionType, Map<String, Set<ActionType>>> rolesByActionType = new EnumMap<>(ActionType.class);
+			for (ActionType actionType : ActionType.values()) {
+				Map<String, Set<ActionType>> roles = new HashMap<>();
+				for (Map.Entry<String, Set<ActionType>> roleRights : attributeRoles.getValue().entrySet()) {
+					Set<ActionType> matchingRights = new HashSet<>();
+					for (ActionType right : roleRights.getValue()) {
+						if (matches(actionType, right)) matchingRights.add(right);
+					}
+					if (!matchingRights.isEmpty()) roles.put(roleRights.getKey(), Collections.unmodifiableSet(matchingRights));
+				}
+				if (!roles.isEmpty()) rolesByActionType.put(actionType, Collections.unmodifiableMap(roles));
+			}
+			rights.put(attributeRoles.getKey(), rolesByActionType);
+		}
+
+		this.rights = rights;
+		this.generation = generation;
+		this.loadedAt = System.currentTimeMillis();
+	}
+
+	/**
+	 * Get roles which can work with the attribute, each with all its action types matching the requested one.
+	 *
+	 * @param attributeId id of the attribute
+	 * @param actionType requested action type, e.g. READ matches also READ_VO and READ_PUBLIC
+	 * @return map of roles to their action types, must not be modified
+	 */
+	public Map<String, Set<ActionType>> getRoles(int attributeId, ActionType actionType) {
+		Map<ActionType, Map<String, Set<ActionType>>> rolesByActionType = rights.get(attributeId);
+		if (rolesByActionType == null) return Collections.emptyMap();
+		return rolesByActionType.getOrDefault(actionType, Collections.emptyMap());
+	}
+
+	/**
+	 * @return generation of attribute rights the snapshot was loaded in
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * @return time in milliseconds when the snapshot was loaded
+	 */
+	public long getLoadedAt() {
+		return loadedAt;
+	}
+
+	/**
+	 * Action types are matched by prefix, same as by "like 'read%'" in the database.
+	 */
+	private static boolean matches(ActionType requested, ActionType right) {
+		return right.getActionType().startsWith(requested.getActionType());
+	}
+}
@@ -93,6 +93,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
@@ -717,6 +718,44 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		return attributesToReturn;
 	}
 
+	/**
+	 * Sets values of user-facility virtual attributes of all users at once, so each attribute module
+	 * is called only once for all the users. Other attributes are left untouched.
+	 *
+	 * @param sess perun session
+	 * @param attributesByUser attributes of users, virtual attributes are replaced by ones with computed value
+	 * @param facility facility for which you want the attribute values
+	 */
+	private void setValuesOfUserFacilityVirtualAttributes(PerunSession sess, Map<User, List<Attribute>> attributesByUser, Facility facility) {
+		Map<Integer, AttributeDefinition> definitions = new LinkedHashMap<>();
+		Map<Integer, List<User>> usersByAttribute = new HashMap<>();
+		for (Map.Entry<User, List<Attribute>> entry : attributesByUser.entrySet()) {
+			for (Attribute attribute : entry.getValue()) {
+				if (isFromNamespace(attribute, AttributesManager.NS_USER_FACILITY_ATTR_VIRT)) {
+					definitions.putIfAbsent(attribute.getId(), attribute);
+					usersByAttribute.computeIfAbsent(attribute.getId(), k -> new ArrayList<>()).add(entry.getKey());
+				}
+			}
+		}
+		if (definitions.isEmpty()) return;
+
+		Map<Integer, Map<User, Attribute>> values = new HashMap<>();
+		for (AttributeDefinition definition : definitions.values()) {
+			UserFacilityVirtualAttributesModuleImplApi attributeModule = getFacilityUserVirtualAttributeModule(sess, definition);
+			values.put(definition.getId(), attributeModule.getAttributeValues((PerunSessionImpl) sess, usersByAttribute.get(definition.getId()), facility, definition));
+		}
+
+		for (Map.Entry<User, List<Attribute>> entry : attributesByUser.entrySet()) {
+			ListIterator<Attribute> iterator = entry.getValue().listIterator();
+			while (iterator.hasNext()) {
+				Attribute attribute = iterator.next();
+				if (isFromNamespace(attribute, AttributesManager.NS_USER_FACILITY_ATTR_VIRT)) {
+					iterator.set(values.get(attribute.getId()).get(entry.getKey()));
+				}
+			}
+		}
+	}
+
 	/**
 	 * Sets value of attribute. If attribute is not virtual or core, it returns it without doing anything.
 	 *
@@ -839,7 +878,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getAttributes(PerunSession sess, Facility facility) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getAllNonEmptyAttributes(new Holder(facility.getId(), Holder.HolderType.FACILITY));
 			return this.setValuesOfAttributes(sess, attrs, facility, null);
 		}
@@ -906,7 +945,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getVirtualAttributes(PerunSession sess, Facility facility) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getVirtualAttributes(Holder.HolderType.FACILITY, null);
 			return this.setValuesOfAttributes(sess, attrs, facility, null);
 		}
@@ -915,7 +954,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getVirtualAttributes(PerunSession sess, Member member) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getVirtualAttributes(Holder.HolderType.MEMBER, null);
 			return this.setValuesOfAttributes(sess, attrs, member, null);
 		}
@@ -924,7 +963,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getVirtualAttributes(PerunSession sess, Vo vo) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getVirtualAttributes(Holder.HolderType.VO, null);
 			return this.setValuesOfAttributes(sess, attrs, vo, null);
 		}
@@ -933,7 +972,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getVirtualAttributes(PerunSession sess, Group group) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getVirtualAttributes(Holder.HolderType.GROUP, null);
 			return this.setValuesOfAttributes(sess, attrs, group, null);
 		}
@@ -942,7 +981,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getVirtualAttributes(PerunSession sess, Host host) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getVirtualAttributes(Holder.HolderType.HOST, null);
 			return this.setValuesOfAttributes(sess, attrs, host, null);
 		}
@@ -951,7 +990,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getVirtualAttributes(PerunSession sess, Resource resource) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getVirtualAttributes(Holder.HolderType.RESOURCE, null);
 			return this.setValuesOfAttributes(sess, attrs, resource, null);
 		}
@@ -960,7 +999,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getVirtualAttributes(PerunSession sess, User user) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getVirtualAttributes(Holder.HolderType.USER, null);
 			return this.setValuesOfAttributes(sess, attrs, user, null);
 		}
@@ -969,7 +1008,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getVirtualAttributes(PerunSession sess, UserExtSource ues) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getVirtualAttributes(Holder.HolderType.UES, null);
 			return this.setValuesOfAttributes(sess, attrs, ues, null);
 		}
@@ -978,7 +1017,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getVirtualAttributes(PerunSession sess, Member member, Resource resource) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getVirtualAttributes(Holder.HolderType.MEMBER, Holder.HolderType.RESOURCE);
 			return this.setValuesOfAttributes(sess, attrs, member, resource);
 		}
@@ -987,7 +1026,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getVirtualAttributes(PerunSession sess, Facility facility, User user) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getVirtualAttributes(Holder.HolderType.USER, Holder.HolderType.FACILITY);
 			return this.setValuesOfAttributes(sess, attrs, user, facility);
 		}
@@ -996,7 +1035,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getVirtualAttributes(PerunSession sess, Member member, Group group) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getVirtualAttributes(Holder.HolderType.MEMBER, Holder.HolderType.GROUP);
 			return this.setValuesOfAttributes(sess, attrs, member, group);
 		}
@@ -1006,7 +1045,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getAttributes(PerunSession sess, Vo vo) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getAllNonEmptyAttributes(new Holder(vo.getId(), Holder.HolderType.VO));
 			return this.setValuesOfAttributes(sess, attrs, vo, null);
 		}
@@ -1025,7 +1064,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getAttributes(PerunSession sess, Group group) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getAllNonEmptyAttributes(new Holder(group.getId(), Holder.HolderType.GROUP));
 			return this.setValuesOfAttributes(sess, attrs, group, null);
 		}
@@ -1044,7 +1083,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getAttributes(PerunSession sess, Host host) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getAllNonEmptyAttributes(new Holder(host.getId(), Holder.HolderType.HOST));
 			return this.setValuesOfAttributes(sess, attrs, host, null);
 		}
@@ -1064,7 +1103,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getAttributes(PerunSession sess, Resource resource) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getAllNonEmptyAttributes(new Holder(resource.getId(), Holder.HolderType.RESOURCE));
 			return this.setValuesOfAttributes(sess, attrs, resource, null);
 		}
@@ -1085,7 +1124,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getAttributes(PerunSession sess, Member member, Resource resource) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction())
+		if(!CacheManager.isCacheDisabled())
 			return perun.getCacheManager().getAllNonEmptyAttributes(new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(resource.getId(), Holder.HolderType.RESOURCE));
 
 		try {
@@ -1106,7 +1145,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getAttributes(PerunSession sess, Member member, Group group) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction())
+		if(!CacheManager.isCacheDisabled())
 			return perun.getCacheManager().getAllNonEmptyAttributes(new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(group.getId(), Holder.HolderType.GROUP));
 
 		try {
@@ -1262,7 +1301,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getAttributes(PerunSession sess, Member member) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getAllNonEmptyAttributes(new Holder(member.getId(), Holder.HolderType.MEMBER));
 			return this.setValuesOfAttributes(sess, attrs, member, null);
 		}
@@ -1471,7 +1510,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getAttributes(PerunSession sess, Facility facility, User user) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction())
+		if(!CacheManager.isCacheDisabled())
 			return perun.getCacheManager().getAllNonEmptyAttributes(new Holder(user.getId(), Holder.HolderType.USER), new Holder(facility.getId(), Holder.HolderType.FACILITY));
 
 		try {
@@ -1509,7 +1548,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getAttributes(PerunSession sess, User user) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getAllNonEmptyAttributes(new Holder(user.getId(), Holder.HolderType.USER));
 			return this.setValuesOfAttributes(sess, attrs, user, null);
 		}
@@ -1601,7 +1640,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getAttributes(PerunSession sess, Resource resource, Group group) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction())
+		if(!CacheManager.isCacheDisabled())
 			return perun.getCacheManager().getAllNonEmptyAttributes(new Holder(group.getId(), Holder.HolderType.GROUP), new Holder(resource.getId(), Holder.HolderType.RESOURCE));
 
 		try {
@@ -1635,7 +1674,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getAttributes(PerunSession sess, UserExtSource ues) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Attribute> attrs = perun.getCacheManager().getAllNonEmptyAttributes(new Holder(ues.getId(), Holder.HolderType.UES));
 			return this.setValuesOfAttributes(sess, attrs, ues, null);
 		}
@@ -2032,7 +2071,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<AttributeDefinition> getAttributesDefinition(PerunSession sess) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) return perun.getCacheManager().getAttributesDefinitions();
+		if(!CacheManager.isCacheDisabled()) return perun.getCacheManager().getAttributesDefinitions();
 
 		try {
 			return jdbc.query("SELECT " + attributeDefinitionMappingSelectQuery + ", NULL AS attr_value FROM attr_names", ATTRIBUTE_DEFINITION_MAPPER);
@@ -2046,7 +2085,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<AttributeDefinition> getAttributesDefinitionByNamespace(PerunSession sess, String namespace) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) return perun.getCacheManager().getAttributesDefinitionsByNamespace(namespace);
+		if(!CacheManager.isCacheDisabled()) return perun.getCacheManager().getAttributesDefinitionsByNamespace(namespace);
 
 		try {
 			return jdbc.query("SELECT " + attributeDefinitionMappingSelectQuery + ", NULL AS attr_value FROM attr_names WHERE namespace=?", ATTRIBUTE_DEFINITION_MAPPER, namespace);
@@ -2753,6 +2792,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 	public void deleteAllAttributeAuthz(PerunSession sess, AttributeDefinition attribute) throws InternalErrorException {
 		try {
 			if (0 < jdbc.update("DELETE FROM attributes_authz WHERE attr_id=?", attribute.getId())) {
+				AuthzResolverImpl.attributeRightsChanged();
 				log.debug("All attribute_authz were deleted for {}.", attribute);
 			}
 		} catch (RuntimeException ex) {
@@ -2807,7 +2847,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Resource resource, Facility facility) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(resource);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(facility.getId(), Holder.HolderType.FACILITY));
 			if(attrs.isEmpty()) log.debug("None required attributes found for facility: {} and services from resource: {}.", facility, resource);
@@ -2832,7 +2872,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Resource resourceToGetServicesFrom, Resource resource) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(resourceToGetServicesFrom);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(resource.getId(), Holder.HolderType.RESOURCE));
 			if(attrs.isEmpty()) log.debug("None required attributes found for resource: {} and services from resource to get services from: {}.", resource, resourceToGetServicesFrom);
@@ -2857,7 +2897,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Resource resourceToGetServicesFrom, Member member) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(resourceToGetServicesFrom);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(member.getId(), Holder.HolderType.MEMBER));
 			if(attrs.isEmpty()) log.debug("None required attributes found for member: {} and services from resource: {}.", member, resourceToGetServicesFrom);
@@ -2882,7 +2922,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Resource resourceToGetServicesFrom, Member member, Resource resource) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(resourceToGetServicesFrom);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(resource.getId(), Holder.HolderType.RESOURCE));
 			return this.setValuesOfAttributes(sess, attrs, member, resource);
@@ -2904,7 +2944,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Resource resource, Facility facility, User user) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(resource);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(user.getId(), Holder.HolderType.USER), new Holder(facility.getId(), Holder.HolderType.FACILITY));
 			return this.setValuesOfAttributes(sess, attrs, user, facility);
@@ -2926,7 +2966,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Resource resourceToGetServicesFrom, Resource resource, Group group) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(resourceToGetServicesFrom);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(group.getId(), Holder.HolderType.GROUP), new Holder(resource.getId(), Holder.HolderType.RESOURCE));
 			return this.setValuesOfAttributes(sess, attrs, group, resource);
@@ -2948,7 +2988,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Resource resource, User user) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(resource);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(user.getId(), Holder.HolderType.USER));
 			return this.setValuesOfAttributes(sess, attrs, user, null);
@@ -2971,7 +3011,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Resource resourceToGetServicesFrom, Host host) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(resourceToGetServicesFrom);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(host.getId(), Holder.HolderType.HOST));
 			return this.setValuesOfAttributes(sess, attrs, host, null);
@@ -2993,7 +3033,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Resource resourceToGetServicesFrom, Group group) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(resourceToGetServicesFrom);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(group.getId(), Holder.HolderType.GROUP));
 			return this.setValuesOfAttributes(sess, attrs, group, null);
@@ -3032,7 +3072,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Service service, Facility facility) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(service);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(facility.getId(), Holder.HolderType.FACILITY));
 			if(attrs.isEmpty()) log.debug("None required attributes found for facility: {} and service: {}.", facility, service);
@@ -3056,7 +3096,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Service service, Vo vo) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(service);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(vo.getId(), Holder.HolderType.VO));
 			if(attrs.isEmpty()) log.debug("None required attributes found for vo: {} and service: {}.", vo, service);
@@ -3080,7 +3120,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Service service, Resource resource) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(service);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(resource.getId(), Holder.HolderType.RESOURCE));
 			if(attrs.isEmpty()) log.debug("None required attributes found for resource: {} and service {} ", resource, service);
@@ -3107,7 +3147,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		MapSqlParameterSource parameters = new MapSqlParameterSource();
 		parameters.addValue("serviceIds", serviceIds);
 
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = this.namedParameterJdbcTemplate.queryForList("select distinct service_required_attrs.attr_id from service_required_attrs " +
 							"where service_required_attrs.service_id in (:serviceIds)",
 					parameters, Integer.class);
@@ -3142,7 +3182,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Service service, Member member, Resource resource) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(service);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(resource.getId(), Holder.HolderType.RESOURCE));
 			return this.setValuesOfAttributes(sess, attrs, member, resource);
@@ -3163,7 +3203,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Service service, Member member, Group group) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(service);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(group.getId(), Holder.HolderType.GROUP));
 			return this.setValuesOfAttributes(sess, attrs, member, group);
@@ -3182,7 +3222,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Resource resourceToGetServicesFrom, Member member, Group group) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(resourceToGetServicesFrom);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(member.getId(), Holder.HolderType.MEMBER), new Holder(group.getId(), Holder.HolderType.GROUP));
 			return this.setValuesOfAttributes(sess, attrs, member, group);
@@ -3204,7 +3244,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Service service, Member member) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(service);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(member.getId(), Holder.HolderType.MEMBER));
 			return this.setValuesOfAttributes(sess, attrs, member, null);
@@ -3226,7 +3266,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Service service, Facility facility, User user) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(service);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(user.getId(), Holder.HolderType.USER), new Holder(facility.getId(), Holder.HolderType.FACILITY));
 			return this.setValuesOfAttributes(sess, attrs, user, facility);
@@ -3247,7 +3287,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Service service, Resource resource, Group group) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(service);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(group.getId(), Holder.HolderType.GROUP), new Holder(resource.getId(), Holder.HolderType.RESOURCE));
 			return this.setValuesOfAttributes(sess, attrs, group, resource);
@@ -3268,7 +3308,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Service service, User user) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(service);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(user.getId(), Holder.HolderType.USER));
 			return this.setValuesOfAttributes(sess, attrs, user, null);
@@ -3398,6 +3438,15 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 				map.computeIfAbsent(user, k -> new ArrayList<>());
 				// if not preset, put in map
 
+				if (facility != null) {
+					AttributeDefinition attributeDefinition = ATTRIBUTE_DEFINITION_MAPPER.mapRow(rs, rs.getRow());
+					if (attributesManager.isFromNamespace(attributeDefinition, AttributesManager.NS_USER_FACILITY_ATTR_VIRT)) {
+						// value is computed for all users at once below
+						map.get(user).add(new Attribute(attributeDefinition));
+						continue;
+					}
+				}
+
 				AttributeRowMapper attributeRowMapper = new UserFacilityAttributeRowMapper(sess, attributesManager, user, facility);
 				Attribute attribute = attributeRowMapper.mapRow(rs, rs.getRow());
 
@@ -3406,13 +3455,16 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 					map.get(user).add(attribute);
 				}
 			}
+			if (facility != null) {
+				attributesManager.setValuesOfUserFacilityVirtualAttributes(sess, map, facility);
+			}
 			return map;
 		}
 	}
 
 	@Override
 	public HashMap<Member, List<Attribute>> getRequiredAttributes(PerunSession sess, Service service, Resource resource, List<Member> members) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(service);
 			HashMap<Member, List<Attribute>> hashMap = new HashMap<>();
 			for (Member member: members) {
@@ -3447,7 +3499,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public HashMap<Member, List<Attribute>> getRequiredAttributes(PerunSession sess, Resource resource, Service service, List<Member> members) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(service);
 			HashMap<Member, List<Attribute>> hashMap = new HashMap<>();
 			for (Member member: members) {
@@ -3482,14 +3534,19 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public HashMap<User, List<Attribute>> getRequiredAttributes(PerunSession sess, Service service, Facility facility, List<User> users) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(service);
 			HashMap<User, List<Attribute>> hashMap = new HashMap<>();
 			for (User user: users) {
 				List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(user.getId(), Holder.HolderType.USER), new Holder(facility.getId(), Holder.HolderType.FACILITY));
-				List<Attribute> setAttrs = this.setValuesOfAttributes(sess, attrs, user, facility);
+				List<Attribute> setAttrs = new ArrayList<>();
+				for (Attribute attr : attrs) {
+					// virtual attributes are computed for all users at once below
+					setAttrs.add(isFromNamespace(attr, AttributesManager.NS_USER_FACILITY_ATTR_VIRT) ? attr : setValueOfAttribute(sess, attr, user, facility));
+				}
 				hashMap.put(user, setAttrs);
 			}
+			setValuesOfUserFacilityVirtualAttributes(sess, hashMap, facility);
 			return hashMap;
 		}
 
@@ -3517,7 +3574,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public HashMap<User, List<Attribute>> getRequiredAttributes(PerunSession sess, Service service, List<User> users) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(service);
 			HashMap<User, List<Attribute>> hashMap = new HashMap<>();
 			for (User user: users) {
@@ -3550,9 +3607,85 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		}
 	}
 
+	@Override
+	public HashMap<User, List<Attribute>> getUsersAttributes(PerunSession sess, List<User> users, List<String> attrNames) throws InternalErrorException {
+		if(!CacheManager.isCacheDisabled()) {
+			HashMap<User, List<Attribute>> hashMap = new HashMap<>();
+			for (User user: users) {
+				hashMap.put(user, this.getAttributes(sess, user, attrNames));
+			}
+			return hashMap;
+		}
+
+		try {
+			return jdbc.execute("SELECT " + getAttributeMappingSelectQuery("usr") + ", users.id FROM attr_names " +
+				"JOIN users ON users.id " + Compatibility.getStructureForInClause() +
+				"LEFT JOIN user_attr_values usr ON attr_names.id=usr.attr_id AND user_id=users.id " +
+				"WHERE namespace IN (?,?,?,?) AND attr_names.attr_name IN (" + getPlaceholders(attrNames.size()) + ")", (PreparedStatementCallback<HashMap<User, List<Attribute>>>) preparedStatement -> {
+				Array sqlArray = DatabaseManagerBl.prepareSQLArrayOfNumbers(users, preparedStatement);
+				preparedStatement.setArray(1, sqlArray);
+				preparedStatement.setString(2, AttributesManager.NS_USER_ATTR_CORE);
+				preparedStatement.setString(3, AttributesManager.NS_USER_ATTR_DEF);
+				preparedStatement.setString(4, AttributesManager.NS_USER_ATTR_OPT);
+				preparedStatement.setString(5, AttributesManager.NS_USER_ATTR_VIRT);
+				for (int i = 0; i < attrNames.size(); i++) {
+					preparedStatement.setString(6 + i, attrNames.get(i));
+				}
+				UserAttributeExtractor userAttributeExtractor = new UserAttributeExtractor(sess, this, users);
+				return userAttributeExtractor.extractData(preparedStatement.executeQuery());
+			});
+		} catch (InternalErrorException ex) {
+			//Finding or invoking oracle array method was unsuccessful
+			throw new InternalErrorException(ex);
+		}
+	}
+
+	@Override
+	public HashMap<Member, List<Attribute>> getMembersAttributes(PerunSession sess, List<Member> members, List<String> attrNames) throws InternalErrorException {
+		if(!CacheManager.isCacheDisabled()) {
+			HashMap<Member, List<Attribute>> hashMap = new HashMap<>();
+			for (Member member: members) {
+				hashMap.put(member, this.getAttributes(sess, member, attrNames));
+			}
+			return hashMap;
+		}
+
+		try {
+			return jdbc.execute("SELECT " + getAttributeMappingSelectQuery("mem") + ", members.id FROM attr_names " +
+				"JOIN members ON members.id " + Compatibility.getStructureForInClause() +
+				"LEFT JOIN member_attr_values mem ON attr_names.id=mem.attr_id AND member_id=members.id " +
+				"WHERE namespace IN (?,?,?,?) AND attr_names.attr_name IN (" + getPlaceholders(attrNames.size()) + ")", (PreparedStatementCallback<HashMap<Member, List<Attribute>>>) preparedStatement -> {
+				Array sqlArray = DatabaseManagerBl.prepareSQLArrayOfNumbers(members, preparedStatement);
+				preparedStatement.setArray(1, sqlArray);
+				preparedStatement.setString(2, AttributesManager.NS_MEMBER_ATTR_CORE);
+				preparedStatement.setString(3, AttributesManager.NS_MEMBER_ATTR_DEF);
+				preparedStatement.setString(4, AttributesManager.NS_MEMBER_ATTR_OPT);
+				preparedStatement.setString(5, AttributesManager.NS_MEMBER_ATTR_VIRT);
+				for (int i = 0; i < attrNames.size(); i++) {
+					preparedStatement.setString(6 + i, attrNames.get(i));
+				}
+				MemberAttributeExtractor memberAttributeExtractor = new MemberAttributeExtractor(sess, this, members);
+				return memberAttributeExtractor.extractData(preparedStatement.executeQuery());
+			});
+		} catch (InternalErrorException ex) {
+			//Finding or invoking oracle array method was unsuccessful
+			throw new InternalErrorException(ex);
+		}
+	}
+
+	/**
+	 * Returns comma separated placeholders of prepared statement.
+	 *
+	 * @param count number of placeholders
+	 * @return placeholders like "?,?,?"
+	 */
+	private static String getPlaceholders(int count) {
+		return String.join(",", Collections.nCopies(count, "?"));
+	}
+
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Service service, Host host) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(service);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(host.getId(), Holder.HolderType.HOST));
 			return this.setValuesOfAttributes(sess, attrs, host, null);
@@ -3573,7 +3706,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Service service, Group group) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = getRequiredAttributeIds(service);
 			List<Attribute> attrs = perun.getCacheManager().getAttributesByIds(attrIds, new Holder(group.getId(), Holder.HolderType.GROUP));
 			return this.setValuesOfAttributes(sess, attrs, group, null);
@@ -3594,7 +3727,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 
 	@Override
 	public List<Attribute> getRequiredAttributes(PerunSession sess, Facility facility) throws InternalErrorException {
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			List<Integer> attrIds = jdbc.queryForList("select distinct service_required_attrs.attr_id from service_required_attrs " +
 					"join resource_services on service_required_attrs.service_id=resource_services.service_id " +
 					"join resources on resource_services.resource_id=resources.id and resources.facility_id=?", new Object[] {facility.getId()}, Integer.class);
@@ -4520,7 +4653,7 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 		Utils.notNull(attribute.getNamespace(), "attribute.namespace");
 		Utils.notNull(attribute.getType(), "attribute.type");
 
-		if(!CacheManager.isCacheDisabled() && !perun.getCacheManager().wasCacheUpdatedInTransaction()) {
+		if(!CacheManager.isCacheDisabled()) {
 			return perun.getCacheManager().checkAttributeExists(attribute);
 		}
 
@@ -5567,6 +5700,9 @@ public class AttributesManagerImpl implements AttributesManagerImplApi {
 							+ rights.getAttributeId() + " role=" + rights.getRole().toLowerCase() + " actionType=" + actionType.getActionType());
 				}
 			}
+			if (!actionTypesToInsert.isEmpty() || !actionTypesToDelete.isEmpty()) {
+				AuthzResolverImpl.attributeRightsChanged();
+			}
 		} catch (RuntimeException e) {
 			throw new InternalErrorException(e);
 		}
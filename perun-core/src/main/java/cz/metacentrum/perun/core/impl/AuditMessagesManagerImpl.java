@@ -3,6 +3,7 @@ package cz.metacentrum.perun.core.impl;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import cz.metacentrum.perun.audit.events.AuditEvent;
 import cz.metacentrum.perun.cabinet.model.Author;
 import cz.metacentrum.perun.cabinet.model.Category;
@@ -57,16 +58,21 @@ public class AuditMessagesManagerImpl implements AuditMessagesManagerImplApi {
 
 	private final static Logger log = LoggerFactory.getLogger(AuditMessagesManagerImpl.class);
 	private final static ObjectMapper mapper = new ObjectMapper();
+	private final static ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
 	private static final Map<Class<?>,Class<?>> mixinMap = new HashMap<>();
-	private final static String auditMessageMappingSelectQuery = "id, msg, actor, created_at, created_by_uid";
+	private final static String auditMessageMappingSelectQuery = "id, msg, msg_format, msg_binary, actor, created_at, created_by_uid";
+	// number of rows fetched from auditer_log by the JDBC driver at once, so large reads are not buffered whole
+	private final static int AUDITER_LOG_FETCH_SIZE = 1000;
 
 	private final JdbcPerunTemplate jdbc;
 
 	static {
 
-		// configure JSON deserializer for auditer log
-		mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
-		mapper.enableDefaultTyping();
+		// configure JSON and Smile deserializers for auditer log
+		for (ObjectMapper objectMapper : new ObjectMapper[] { mapper, smileMapper }) {
+			objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+			objectMapper.enableDefaultTyping();
+		}
 
 		mixinMap.put(Attribute.class, JsonDeserializer.AttributeMixIn.class);
 		mixinMap.put(AttributeDefinition.class, JsonDeserializer.AttributeDefinitionMixIn.class);
@@ -96,6 +102,7 @@ public class AuditMessagesManagerImpl implements AuditMessagesManagerImplApi {
 		mixinMap.put(ThanksForGUI.class, JsonDeserializer.PerunBeanMixIn.class);
 
 		mapper.setMixIns(mixinMap);
+		smileMapper.setMixIns(mixinMap);
 
 	}
 
@@ -103,6 +110,9 @@ public class AuditMessagesManagerImpl implements AuditMessagesManagerImplApi {
 		@Override
 		public AuditEvent mapRow(ResultSet resultSet, int i) throws SQLException {
 			try {
+				if (resultSet.getInt("msg_format") == Auditer.MESSAGE_FORMAT_SMILE) {
+					return smileMapper.readValue(resultSet.getBytes("msg_binary"), AuditEvent.class);
+				}
 				return mapper.readValue(resultSet.getString("msg"), AuditEvent.class);
 			} catch (JsonParseException | JsonMappingException ex) {
 				log.error("Can't parse JSON auditer log!", ex);
@@ -141,6 +151,7 @@ public class AuditMessagesManagerImpl implements AuditMessagesManagerImplApi {
 
 	public AuditMessagesManagerImpl(DataSource perunPool) {
 		this.jdbc = new JdbcPerunTemplate(perunPool);
+		this.jdbc.setFetchSize(AUDITER_LOG_FETCH_SIZE);
 	}
 
 	@Override
@@ -254,6 +265,34 @@ public class AuditMessagesManagerImpl implements AuditMessagesManagerImplApi {
 
 	}
 
+	@Override
+	public List<AuditMessage> pollConsumerMessages(PerunSession perunSession, String consumerName, int batchSize) throws InternalErrorException {
+
+		checkAuditerConsumerExists(perunSession, consumerName);
+
+		try {
+			return pollConsumerMessagesChunk(perunSession, consumerName, batchSize);
+		} catch (Exception ex) {
+			throw new InternalErrorException(ex);
+		}
+	}
+
+	@Override
+	public List<AuditEvent> pollConsumerEvents(PerunSession perunSession, String consumerName, int batchSize) throws InternalErrorException {
+
+		checkAuditerConsumerExists(perunSession, consumerName);
+
+		try {
+			List<AuditEvent> eventList = new ArrayList<>();
+			for (AuditMessage message : pollConsumerMessagesChunk(perunSession, consumerName, batchSize)) {
+				eventList.add(message.getEvent());
+			}
+			return eventList;
+		} catch (Exception ex) {
+			throw new InternalErrorException(ex);
+		}
+	}
+
 	@Override
 	public Map<String, Integer> getAllAuditerConsumers(PerunSession sess) throws InternalErrorException {
 		try {
@@ -273,6 +312,27 @@ public class AuditMessagesManagerImpl implements AuditMessagesManagerImplApi {
 		}
 	}
 
+	/**
+	 * Reads at most batchSize oldest messages after last processed ID of consumer
+	 * and moves last processed ID of consumer to the last of them.
+	 *
+	 * @param perunSession perun session
+	 * @param consumerName Name of consumer
+	 * @param batchSize maximal number of read messages
+	 * @return List of audit messages ordered by ID
+	 * @throws InternalErrorException When implementation fails
+	 */
+	private List<AuditMessage> pollConsumerMessagesChunk(PerunSession perunSession, String consumerName, int batchSize) throws InternalErrorException {
+		int lastProcessedId = getLastProcessedId(consumerName);
+		List<AuditMessage> messages = jdbc.query(Compatibility.limitRows("select " + auditMessageMappingSelectQuery + " from auditer_log where id > ? order by id", "?"),
+				AUDIT_MESSAGE_MAPPER, lastProcessedId, batchSize);
+		if (!messages.isEmpty()) {
+			// update counter
+			setLastProcessedId(perunSession, consumerName, messages.get(messages.size() - 1).getId());
+		}
+		return messages;
+	}
+
 	/**
 	 * Return last processed ID of audit message for specified consumer.
 	 *
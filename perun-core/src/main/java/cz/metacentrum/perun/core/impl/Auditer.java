@@ -10,10 +10,13 @@ import cz.metacentrum.perun.core.api.exceptions.WrongReferenceAttributeValueExce
 import cz.metacentrum.perun.core.implApi.modules.attributes.AttributesModuleImplApi;
 import net.jcip.annotations.GuardedBy;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcPerunTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.sql.DataSource;
@@ -22,13 +25,17 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This class is responsible for runtime logging of audit events. It gets messages and assocaites them with current transaction.
@@ -54,6 +61,13 @@ public class Auditer {
 
 	public final static String engineForceKeyword = "forceit";
 
+	/**
+	 * Values of auditer_log.msg_format column.
+	 * JSON messages are stored as text in msg column, SMILE (binary JSON) messages in msg_binary column.
+	 */
+	public final static int MESSAGE_FORMAT_JSON = 0;
+	public final static int MESSAGE_FORMAT_SMILE = 1;
+
 	private final static Logger log = LoggerFactory.getLogger(Auditer.class);
 	private final static Logger transactionLogger = LoggerFactory.getLogger("transactionLogger");
 	private JdbcPerunTemplate jdbc;
@@ -61,14 +75,25 @@ public class Auditer {
 	private int lastProcessedId;
 	private static final Map<Class<?>,Class<?>> mixinMap = new HashMap<>();
 	private static final ObjectMapper mapper = new ObjectMapper();
+	private static final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory()
+			.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES));
 
 	static {
-		mapper.enableDefaultTyping();
-		// TODO - skip any problematic properties using interfaces for mixins
-		mapper.setMixIns(mixinMap);
+		for (ObjectMapper objectMapper : new ObjectMapper[] { mapper, smileMapper }) {
+			objectMapper.enableDefaultTyping();
+			// TODO - skip any problematic properties using interfaces for mixins
+			objectMapper.setMixIns(mixinMap);
+		}
 	}
 
-	private static final Object LOCK_DB_TABLE_AUDITER_LOG = new Object();
+	// batches of messages waiting to be written, one storing thread at a time writes all of them
+	private final Queue<PendingAuditerBatch> pendingBatches = new ConcurrentLinkedQueue<>();
+	// held by the thread writing messages, so messages are inserted in order and never interleaved
+	private final ReentrantLock writeLock = new ReentrantLock();
+
+	private final Object storedMessagesMonitor = new Object();
+	@GuardedBy("storedMessagesMonitor")
+	private long storedBatchesCount = 0;
 
 	private static final Set<AttributesModuleImplApi> registeredAttributesModules = new HashSet<>();
 
@@ -199,16 +224,29 @@ public class Auditer {
 	 *
 	 */
 	public void flush() {
+		storeMessagesToDb(takeMessages());
+	}
+
+	/**
+	 * Removes stored messages of the last top-level transaction without storing them.
+	 *
+	 * Transaction manager takes messages of the committed transaction this way and stores them
+	 * by {@link #storeMessagesToDb(List)} after the connection of the transaction is released,
+	 * so they are written together with messages of other committed transactions.
+	 *
+	 * @return messages of the last top-level transaction
+	 */
+	public List<AuditerMessage> takeMessages() {
 		List<List<List<AuditerMessage>>> topLevelTransactions = getTopLevelTransactions();
 		if (topLevelTransactions.isEmpty()) {
 			log.trace("No messages to flush");
-			return;
+			return new ArrayList<>();
 		}
 		List<List<AuditerMessage>> transactionChain = topLevelTransactions.get(topLevelTransactions.size() - 1);
 		if (transactionChain.isEmpty()) {
 			log.trace("No messages to flush");
 			topLevelTransactions.remove(topLevelTransactions.size() - 1);
-			return;
+			return new ArrayList<>();
 		}
 
 		if (transactionChain.size() != 1) {
@@ -221,9 +259,7 @@ public class Auditer {
 			TransactionSynchronizationManager.unbindResourceIfPossible(this);
 		}
 		log.trace("Audit messages was flushed for current transaction.");
-		synchronized (LOCK_DB_TABLE_AUDITER_LOG) {
-			storeMessagesToDb(messages);
-		}
+		return messages;
 	}
 
 	/**
@@ -275,6 +311,22 @@ public class Auditer {
 		return messages;
 	}
 
+	/**
+	 * Check if there are any stored (not flushed) messages in the current top-level transaction
+	 * or in any of its nested transactions. Since every change is audited, it tells whether
+	 * anything was changed in the current transaction so far.
+	 *
+	 * @return true if there are stored messages in the current transaction
+	 */
+	public boolean hasMessagesInTransaction() {
+		List<List<List<AuditerMessage>>> topLevelTransactions = (List<List<List<AuditerMessage>>>) TransactionSynchronizationManager.getResource(this);
+		if (topLevelTransactions == null || topLevelTransactions.isEmpty()) return false;
+		for (List<AuditerMessage> messages : topLevelTransactions.get(topLevelTransactions.size() - 1)) {
+			if (!messages.isEmpty()) return true;
+		}
+		return false;
+	}
+
 	private List<List<List<AuditerMessage>>> getTopLevelTransactions() {
 		List<List<List<AuditerMessage>>> topLevelTransactions = (List<List<List<AuditerMessage>>>) TransactionSynchronizationManager.getResource(this);
 		if (topLevelTransactions == null) {
@@ -290,6 +342,16 @@ public class Auditer {
 	 * It also checks if there are any messages which can be resolved by registered attribute modules.
 	 * Store these resolved messages too.
 	 *
+	 * Messages are resolved and serialized by the calling thread. Then they are queued and written
+	 * by one of the storing threads together with messages queued by other threads (group commit).
+	 * Method returns after messages are written, they are stored in the same order as they were queued
+	 * and messages of one call are never interleaved with others.
+	 *
+	 * When connection of a running transaction is bound to the calling thread, messages are written
+	 * by it as a part of the transaction, still one writing thread at a time, and waiting consumers are
+	 * signaled only after the transaction commits.
+	 * Roles of users and groups affected by the stored changes are invalidated in AuthzRolesCache.
+	 *
 	 * @param auditerMessages list of AuditerMessages
 	 */
 	public void storeMessagesToDb(final List<AuditerMessage> auditerMessages) {
@@ -300,56 +362,189 @@ public class Auditer {
 			return;
 		}
 
-		synchronized (LOCK_DB_TABLE_AUDITER_LOG) {
+		// Resolve all additional message from attribute modules and add them to the bulk
+		try {
+
+			//Get perun session from the first message (all sessions should be same from the same principal)
+			PerunSessionImpl session = (PerunSessionImpl) auditerMessages.get(0).getOriginatingSession();
+
+			//Check recursively all messages if they can create any resolving message
+			auditerMessages.addAll(checkRegisteredAttributesModules(session, auditerMessages, new LinkedHashSet<>()));
+
+		} catch (Throwable ex) {
+			log.error("There is a problem with processing resolving messages! It will be forcibly skipped to prevent unexpected behavior of auditer log!", ex);
+		}
+
+		PendingAuditerBatch batch = new PendingAuditerBatch(auditerMessages, getMessageFormat());
+
+		if (TransactionSynchronizationManager.hasResource(jdbc.getDataSource())) {
+			// connection of running transaction is bound to this thread, messages of other threads can't be written by it
+			writeLock.lock();
+			try {
+				insertBatches(Collections.singletonList(batch));
+			} finally {
+				writeLock.unlock();
+			}
+			notifyMessagesStoredAfterCommit();
+		} else {
+			pendingBatches.add(batch);
+			writePendingBatches(batch);
+		}
+
+		// roles shared by sessions may depend on the changes
+		AuthzRolesCache.getInstance().messagesStored(auditerMessages);
+	}
 
-			// Resolve all additional message from attribute modules and add them to the bulk
+	/**
+	 * Waits for the write lock and writes all queued batches of messages to the DB, unless the passed batch
+	 * was already written meanwhile by the thread holding the lock.
+	 *
+	 * @param batch batch queued by the calling thread
+	 */
+	private void writePendingBatches(PendingAuditerBatch batch) {
+		writeLock.lock();
+		try {
+			if (batch.stored) return;
+			List<PendingAuditerBatch> batches = new ArrayList<>();
+			PendingAuditerBatch pendingBatch;
+			while ((pendingBatch = pendingBatches.poll()) != null) {
+				batches.add(pendingBatch);
+			}
 			try {
+				insertBatches(batches);
+			} finally {
+				for (PendingAuditerBatch writtenBatch : batches) {
+					writtenBatch.stored = true;
+				}
+			}
+			// messages written without transaction are committed already
+			notifyMessagesStored();
+		} finally {
+			writeLock.unlock();
+		}
+	}
 
-				//Get perun session from the first message (all sessions should be same from the same principal)
-				PerunSessionImpl session = (PerunSessionImpl) auditerMessages.get(0).getOriginatingSession();
+	/**
+	 * Inserts messages of all passed batches into the DB as one JDBC batch.
+	 * If that fails, batches are inserted one by one, so only messages of the failing batch are lost.
+	 *
+	 * @param batches batches of messages to insert in given order
+	 */
+	private void insertBatches(List<PendingAuditerBatch> batches) {
 
-				//Check recursively all messages if they can create any resolving message
-				auditerMessages.addAll(checkRegisteredAttributesModules(session, auditerMessages, new LinkedHashSet<>()));
+		final List<PendingAuditerBatch.Row> rows = new ArrayList<>();
+		for (PendingAuditerBatch batch : batches) {
+			rows.addAll(batch.rows);
+		}
 
-			} catch (Throwable ex) {
-				log.error("There is a problem with processing resolving messages! It will be forcibly skipped to prevent unexpected behavior of auditer log!", ex);
+		try {
+			insertRows(rows);
+			return;
+		} catch (RuntimeException e) {
+			if (batches.size() == 1) {
+				log.error("Cannot store auditer log json message in batch for list ['{}'], exception: {}", rows, e);
+				return;
 			}
+			log.warn("Cannot store {} batches of auditer messages together, storing them one by one.", batches.size(), e);
+		}
 
-			//Write all messages to the database
+		for (PendingAuditerBatch batch : batches) {
 			try {
-				jdbc.batchUpdate("insert into auditer_log (id, msg, actor, created_at, created_by_uid) values ("+Compatibility.getSequenceNextval("auditer_log_id_seq")+",?,?," + Compatibility.getSysdate() + ",?)",
-						new BatchPreparedStatementSetter() {
-							@Override
-							public void setValues(PreparedStatement ps, int i) throws SQLException {
-
-								final AuditerMessage auditerMessage = auditerMessages.get(i);
-								final PerunSession session = auditerMessage.getOriginatingSession();
-								String jsonString = "";
-								try {
-									jsonString = mapper.writeValueAsString(auditerMessage.getEvent());
-								} catch (IOException e) {
-									log.error("Could not map event {} to JSON: {}", auditerMessage.getEvent().getClass().getSimpleName(), auditerMessage.getEvent().getMessage());
-								}
-								log.info("AUDIT_JSON: {}", jsonString);
-								ps.setString(1, jsonString);
-								ps.setString(2, session.getPerunPrincipal().getActor());
-								ps.setInt(3, session.getPerunPrincipal().getUserId());
-							}
-
-							@Override
-							public int getBatchSize() {
-								return auditerMessages.size();
-							}
-						});
-
-			} catch (InternalErrorException e) {
-				log.error("Could not get system date identifier for the DB", e);
+				insertRows(batch.rows);
 			} catch (RuntimeException e) {
-				log.error("Cannot store auditer log json message in batch for list ['{}'], exception: {}", auditerMessages, e);
+				log.error("Cannot store auditer log json message in batch for list ['{}'], exception: {}", batch.rows, e);
+			}
+		}
+	}
+
+	/**
+	 * Writes the messages to the database as one JDBC batch.
+	 *
+	 * @param rows serialized messages to insert in given order
+	 */
+	private void insertRows(List<PendingAuditerBatch.Row> rows) {
+		jdbc.batchUpdate("insert into auditer_log (id, msg, msg_format, msg_binary, actor, created_at, created_by_uid) values ("+Compatibility.getSequenceNextval("auditer_log_id_seq")+",?,?,?,?," + Compatibility.getSysdate() + ",?)",
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						final PendingAuditerBatch.Row row = rows.get(i);
+						// only the column matching message format is filled, the other one stays null
+						ps.setString(1, row.json);
+						ps.setInt(2, row.format);
+						ps.setBytes(3, row.binary);
+						ps.setString(4, row.actor);
+						ps.setInt(5, row.userId);
+					}
+
+					@Override
+					public int getBatchSize() {
+						return rows.size();
+					}
+				});
+	}
+
+	/**
+	 * Returns number of message batches stored to the DB by this Auditer since its creation.
+	 * Value can be passed to {@link #awaitStoredMessages(long, long)} to wait for any newer batch.
+	 *
+	 * @return number of stored batches
+	 */
+	public long getStoredBatchesCount() {
+		synchronized (storedMessagesMonitor) {
+			return storedBatchesCount;
+		}
+	}
+
+	/**
+	 * Blocks calling thread until this Auditer stores any new batch of messages to the DB
+	 * or until timeout elapses. New batch is any batch stored after the passed count was observed.
+	 *
+	 * Batch is signaled only after the transaction, which wrote it, commits, so consumers woken up
+	 * can read its messages. Only messages stored by this JVM are signaled, consumers of messages
+	 * written by other instances still depend on the timeout.
+	 *
+	 * @param lastSeenBatchesCount batches count previously returned by {@link #getStoredBatchesCount()}
+	 * @param timeout maximum time to wait in milliseconds
+	 * @return TRUE if new messages were stored / FALSE if timeout elapsed
+	 * @throws InterruptedException when waiting thread is interrupted
+	 */
+	public boolean awaitStoredMessages(long lastSeenBatchesCount, long timeout) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeout;
+		synchronized (storedMessagesMonitor) {
+			while (storedBatchesCount <= lastSeenBatchesCount) {
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) return false;
+				storedMessagesMonitor.wait(remaining);
 			}
+			return true;
+		}
+	}
 
+	/**
+	 * Wakes up consumers waiting in {@link #awaitStoredMessages(long, long)} after the running transaction commits.
+	 * Consumers are woken up immediately if there is no transaction synchronization active.
+	 */
+	private void notifyMessagesStoredAfterCommit() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			notifyMessagesStored();
+			return;
 		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				notifyMessagesStored();
+			}
+		});
+	}
 
+	/**
+	 * Wakes up all consumers waiting in {@link #awaitStoredMessages(long, long)}.
+	 */
+	private void notifyMessagesStored() {
+		synchronized (storedMessagesMonitor) {
+			storedBatchesCount++;
+			storedMessagesMonitor.notifyAll();
+		}
 	}
 
 	/**
@@ -368,6 +563,21 @@ public class Auditer {
 		this.storeMessagesToDb(auditerMessages);
 	}
 
+	/**
+	 * Returns format in which new messages are stored, as configured by perun.auditer.messageFormat property.
+	 * Unknown values fall back to JSON.
+	 *
+	 * @return MESSAGE_FORMAT_JSON or MESSAGE_FORMAT_SMILE
+	 */
+	private static int getMessageFormat() {
+		String format = BeansUtils.getCoreConfig().getAuditerMessageFormat();
+		if ("smile".equalsIgnoreCase(format)) return MESSAGE_FORMAT_SMILE;
+		if (format != null && !format.isEmpty() && !"json".equalsIgnoreCase(format)) {
+			log.warn("Unknown auditer message format '{}', messages are stored as JSON.", format);
+		}
+		return MESSAGE_FORMAT_JSON;
+	}
+
 	public void initialize() throws InternalErrorException {
 		try {
 			this.lastProcessedId = jdbc.queryForInt("select max(id) from auditer_log");
@@ -441,4 +651,71 @@ public class Auditer {
 		return addedResolvedMessages;
 	}
 
+	/**
+	 * Messages of one storing call serialized to the form inserted into auditer_log.
+	 * Batch is marked as stored when its messages were written (or writing failed and was logged).
+	 */
+	private static class PendingAuditerBatch {
+
+		private final List<Row> rows = new ArrayList<>();
+		@GuardedBy("writeLock")
+		private boolean stored = false;
+
+		PendingAuditerBatch(List<AuditerMessage> auditerMessages, int format) {
+			for (AuditerMessage auditerMessage : auditerMessages) {
+				final PerunSession session = auditerMessage.getOriginatingSession();
+				final String actor = session.getPerunPrincipal().getActor();
+				final int userId = session.getPerunPrincipal().getUserId();
+				if (format == MESSAGE_FORMAT_SMILE) {
+					byte[] binary = null;
+					try {
+						binary = smileMapper.writeValueAsBytes(auditerMessage.getEvent());
+					} catch (IOException e) {
+						log.error("Could not map event {} to Smile: {}", auditerMessage.getEvent().getClass().getSimpleName(), auditerMessage.getEvent().getMessage());
+					}
+					if (binary != null) {
+						// text form would be a second serialization, so it is logged only when debugging
+						if (log.isDebugEnabled()) log.debug("AUDIT_JSON: {}", toJson(auditerMessage.getEvent()));
+						rows.add(new Row(null, binary, MESSAGE_FORMAT_SMILE, actor, userId));
+						continue;
+					}
+				}
+				String jsonString = toJson(auditerMessage.getEvent());
+				log.info("AUDIT_JSON: {}", jsonString);
+				rows.add(new Row(jsonString, null, MESSAGE_FORMAT_JSON, actor, userId));
+			}
+		}
+
+		private static String toJson(AuditEvent event) {
+			try {
+				return mapper.writeValueAsString(event);
+			} catch (IOException e) {
+				log.error("Could not map event {} to JSON: {}", event.getClass().getSimpleName(), event.getMessage());
+				return "";
+			}
+		}
+
+		private static class Row {
+
+			private final String json;
+			private final byte[] binary;
+			private final int format;
+			private final String actor;
+			private final int userId;
+
+			Row(String json, byte[] binary, int format, String actor, int userId) {
+				this.json = json;
+				this.binary = binary;
+				this.format = format;
+				this.actor = actor;
+				this.userId = userId;
+			}
+
+			@Override
+			public String toString() {
+				return format == MESSAGE_FORMAT_SMILE ? "smile[" + binary.length + " bytes]" : json;
+			}
+		}
+	}
+
 }
@@ -29,14 +29,19 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcPerunTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.sql.DataSource;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -50,6 +55,12 @@ public class AuthzResolverImpl implements AuthzResolverImplApi {
 	//http://static.springsource.org/spring/docs/3.0.x/spring-framework-reference/html/jdbc.html
 	private static JdbcPerunTemplate jdbc;
 
+	// snapshot of attributes_authz and generation of attribute rights, which is increased whenever they are changed
+	private static final AtomicReference<AttributeRightsMatrix> attributeRightsMatrix = new AtomicReference<>();
+	private static final AtomicLong attributeRightsGeneration = new AtomicLong();
+	// key of the transaction resource marking transaction which changed attribute rights
+	private static final String attributeRightsChangedKey = AuthzResolverImpl.class.getName() + ".attributeRightsChanged";
+
 	private final static Pattern patternForExtractingPerunBean = Pattern.compile("^pb_([a-z_]+)_id$");
 
 	private final static String authzRoleMappingSelectQuery = " authz.user_id as authz_user_id, authz.role_id as authz_role_id," +
@@ -183,7 +194,97 @@ public class AuthzResolverImpl implements AuthzResolverImplApi {
 		perunPoliciesContainer.setPerunPolicies(this.perunRolesLoader.loadPerunPolicies());
 	}
 
+	/**
+	 * Get roles which can work with the attribute, each with its action types matching the requested one.
+	 * Rights are read from the in-memory snapshot of attributes_authz, unless they were changed in the current
+	 * transaction, in which case they are read from the database.
+	 *
+	 * @param actionType requested action type, e.g. READ matches also READ_VO and READ_PUBLIC
+	 * @param attrDef attribute
+	 * @return map of roles to their action types
+	 * @throws InternalErrorException
+	 */
 	public static Map<String, Set<ActionType>> getRolesWhichCanWorkWithAttribute(ActionType actionType, AttributeDefinition attrDef) throws InternalErrorException {
+		if (TransactionSynchronizationManager.hasResource(attributeRightsChangedKey)) {
+			return loadRolesWhichCanWorkWithAttribute(actionType, attrDef);
+		}
+		return getAttributeRightsMatrix().getRoles(attrDef.getId(), actionType);
+	}
+
+	/**
+	 * Get all roles which can work with each of the attributes for each of the action types,
+	 * the same as {@link #getRolesWhichCanWorkWithAttribute(ActionType, AttributeDefinition)} would return.
+	 * Rights of all the attributes are read from the same snapshot of attribute rights.
+	 *
+	 * @param actionTypes requested action types
+	 * @param attrDefs attributes
+	 * @return map of attribute ids to maps of requested action types to maps of roles to their action types
+	 * @throws InternalErrorException
+	 */
+	public static Map<Integer, Map<ActionType, Map<String, Set<ActionType>>>> getRolesWhichCanWorkWithAttributes(List<ActionType> actionTypes, List<? extends AttributeDefinition> attrDefs) throws InternalErrorException {
+		// rights changed by this transaction are not in the snapshot yet
+		AttributeRightsMatrix matrix = TransactionSynchronizationManager.hasResource(attributeRightsChangedKey) ? null : getAttributeRightsMatrix();
+		Map<Integer, Map<ActionType, Map<String, Set<ActionType>>>> result = new HashMap<>();
+		for (AttributeDefinition attrDef : attrDefs) {
+			Map<ActionType, Map<String, Set<ActionType>>> rolesByActionType = new EnumMap<>(ActionType.class);
+			for (ActionType actionType : actionTypes) {
+				rolesByActionType.put(actionType, matrix == null ? loadRolesWhichCanWorkWithAttribute(actionType, attrDef) : matrix.getRoles(attrDef.getId(), actionType));
+			}
+			result.put(attrDef.getId(), rolesByActionType);
+		}
+		return result;
+	}
+
+	/**
+	 * Make the snapshot of attribute rights outdated. It is reloaded after the current transaction is finished,
+	 * until then the rights are read from the database in this transaction.
+	 */
+	public static void attributeRightsChanged() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			attributeRightsGeneration.incrementAndGet();
+			return;
+		}
+		if (!TransactionSynchronizationManager.hasResource(attributeRightsChangedKey)) {
+			TransactionSynchronizationManager.bindResource(attributeRightsChangedKey, Boolean.TRUE);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(attributeRightsChangedKey);
+					if (status == STATUS_COMMITTED) attributeRightsGeneration.incrementAndGet();
+				}
+			});
+		}
+	}
+
+	private static AttributeRightsMatrix getAttributeRightsMatrix() throws InternalErrorException {
+		AttributeRightsMatrix cached = attributeRightsMatrix.get();
+		long generation = attributeRightsGeneration.get();
+		long maxAge = BeansUtils.getCoreConfig().getAttributeRightsMaxAge() * 1000L;
+		if (cached != null && cached.getGeneration() == generation && System.currentTimeMillis() - cached.getLoadedAt() < maxAge) {
+			return cached;
+		}
+		AttributeRightsMatrix matrix;
+		try {
+			List<Pair<Integer, Pair<String, ActionType>>> rows = jdbc.query("select attributes_authz.attr_id, roles.name, action_types.action_type from attributes_authz " +
+							"join roles on attributes_authz.role_id=roles.id " +
+							"join action_types on attributes_authz.action_type_id=action_types.id",
+					(rs, arg1) -> new Pair<>(rs.getInt("attr_id"), new Pair<>(rs.getString("name").toUpperCase(), ActionType.valueOf(rs.getString("action_type").toUpperCase()))));
+			// generation read before the query, so the snapshot is outdated by any change committed meanwhile
+			matrix = new AttributeRightsMatrix(rows, generation);
+		} catch (RuntimeException e) {
+			throw new InternalErrorException(e);
+		}
+		// publish the snapshot only if no other thread published a snapshot of the same or newer generation meanwhile
+		while (!attributeRightsMatrix.compareAndSet(cached, matrix)) {
+			cached = attributeRightsMatrix.get();
+			if (cached != null && cached.getGeneration() >= matrix.getGeneration()) {
+				return cached;
+			}
+		}
+		return matrix;
+	}
+
+	private static Map<String, Set<ActionType>> loadRolesWhichCanWorkWithAttribute(ActionType actionType, AttributeDefinition attrDef) throws InternalErrorException {
 		String actType = actionType.getActionType().toLowerCase() + "%";
 		try {
 			List<Pair<String, ActionType>> pairs = jdbc.query("select distinct roles.name, action_types.action_type from attributes_authz " +
@@ -764,4 +865,8 @@ public class AuthzResolverImpl implements AuthzResolverImplApi {
 	public static List<PerunPolicy> fetchPolicyWithAllIncludedPolicies(String policyName) throws PolicyNotExistsException {
 		return perunPoliciesContainer.fetchPolicyWithAllIncludedPolicies(policyName);
 	}
+
+	public static CompiledPerunPolicy getCompiledPolicy(String policyName) throws PolicyNotExistsException {
+		return perunPoliciesContainer.getCompiledPolicy(policyName);
+	}
 }
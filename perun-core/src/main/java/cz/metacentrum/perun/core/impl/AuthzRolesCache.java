@@ -0,0 +1,307 @@
+package cz.metacentrum.perun.core.impl;
+
+import cz.metacentrum.perun.audit.events.AuditEvent;
+import cz.metacentrum.perun.audit.events.FacilityManagerEvents.FacilityDeleted;
+import cz.metacentrum.perun.audit.events.GroupManagerEvents.DirectMemberAddedToGroup;
+import cz.metacentrum.perun.audit.events.GroupManagerEvents.DirectMemberRemovedFromGroup;
+import cz.metacentrum.perun.audit.events.GroupManagerEvents.GroupCreatedAsSubgroup;
+import cz.metacentrum.perun.audit.events.GroupManagerEvents.GroupDeleted;
+import cz.metacentrum.perun.audit.events.GroupManagerEvents.GroupMoved;
+import cz.metacentrum.perun.audit.events.GroupManagerEvents.IndirectMemberAddedToGroup;
+import cz.metacentrum.perun.audit.events.GroupManagerEvents.IndirectMemberRemovedFromGroup;
+import cz.metacentrum.perun.audit.events.GroupManagerEvents.MemberRemovedFromGroupTotally;
+import cz.metacentrum.perun.audit.events.MembersManagerEvents.MemberCreated;
+import cz.metacentrum.perun.audit.events.MembersManagerEvents.MemberDeleted;
+import cz.metacentrum.perun.audit.events.ResourceManagerEvents.ResourceDeleted;
+import cz.metacentrum.perun.audit.events.SecurityTeamsManagerEvents.SecurityTeamDeleted;
+import cz.metacentrum.perun.audit.events.ServicesManagerEvents.ServiceDeleted;
+import cz.metacentrum.perun.audit.events.UserManagerEvents.OwnershipDisabledForSpecificUser;
+import cz.metacentrum.perun.audit.events.UserManagerEvents.OwnershipEnabledForSpecificUser;
+import cz.metacentrum.perun.audit.events.UserManagerEvents.OwnershipRemovedForSpecificUser;
+import cz.metacentrum.perun.audit.events.UserManagerEvents.UserAddedToOwnersOfSpecificUser;
+import cz.metacentrum.perun.audit.events.UserManagerEvents.UserDeleted;
+import cz.metacentrum.perun.audit.events.VoManagerEvents.VoDeleted;
+import cz.metacentrum.perun.core.api.BeansUtils;
+import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.User;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Roles of users (with all subgroups of their groups) and roles of authorized groups shared by all their sessions,
+ * so each new session doesn't have to compute them from the database again.
+ *
+ * Roles are invalidated when they are changed through AuthzResolverBlImpl and when audit messages about changes
+ * they depend on (membership in groups, group structure, ownership of service users, deleted objects) are stored.
+ * Invalidations made in a transaction are applied after its commit, until then the transaction doesn't use the cache.
+ * Roles changed by other Perun instances are reloaded after perun.authz.roles.maxAge seconds, 0 turns the cache off.
+ *
+ * Each invalidation takes a number from one sequence. Roles loaded before a later invalidation of the same user
+ * or group (or of everything) are never used, even if they are stored after it.
+ *
+ * @see cz.metacentrum.perun.core.blImpl.AuthzResolverBlImpl
+ */
+public class AuthzRolesCache {
+
+	private static final AuthzRolesCache instance = new AuthzRolesCache();
+
+	private final Map<Integer, Entry> userRoles = new ConcurrentHashMap<>();
+	private final Map<Integer, Entry> groupRoles = new ConcurrentHashMap<>();
+	private final AtomicLong sequence = new AtomicLong();
+	private volatile long allInvalidatedAt = 0;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	public static AuthzRolesCache getInstance() {
+		return instance;
+	}
+
+	/**
+	 * @return true if roles can be shared, false if sharing is turned off by configuration
+	 */
+	public boolean isEnabled() {
+		return BeansUtils.getCoreConfig().getAuthzRolesMaxAge() > 0;
+	}
+
+	/**
+	 * @return true if some roles were invalidated in the current transaction, so it must not use the cache
+	 */
+	public boolean isChangedInTransaction() {
+		return TransactionSynchronizationManager.hasResource(this);
+	}
+
+	/**
+	 * Get roles of the user from the cache, or load and store them.
+	 *
+	 * @param userId id of the user
+	 * @param loader loads roles of the user from the database
+	 * @return unmodifiable roles of the user
+	 */
+	public AuthzRoles getUserRoles(int userId, Supplier<AuthzRoles> loader) {
+		return get(userRoles, userId, loader);
+	}
+
+	/**
+	 * Get roles of the authorized group from the cache, or load and store them.
+	 *
+	 * @param groupId id of the group
+	 * @param loader loads roles of the group from the database
+	 * @return unmodifiable roles of the group
+	 */
+	public AuthzRoles getGroupRoles(int groupId, Supplier<AuthzRoles> loader) {
+		return get(groupRoles, groupId, loader);
+	}
+
+	/**
+	 * Invalidate roles of the users, after commit of the current transaction if there is one.
+	 *
+	 * @param userIds ids of users
+	 */
+	public void invalidateUsers(Collection<Integer> userIds) {
+		if (userIds.isEmpty()) return;
+		Invalidation invalidation = getTransactionInvalidation();
+		if (invalidation != null) {
+			invalidation.userIds.addAll(userIds);
+		} else {
+			invalidate(userRoles, userIds);
+		}
+	}
+
+	/**
+	 * Invalidate roles of the user, after commit of the current transaction if there is one.
+	 *
+	 * @param userId id of the user
+	 */
+	public void invalidateUser(int userId) {
+		invalidateUsers(Collections.singleton(userId));
+	}
+
+	/**
+	 * Invalidate roles of the authorized group, after commit of the current transaction if there is one.
+	 * Roles of members of the group have to be invalidated separately.
+	 *
+	 * @param groupId id of the group
+	 */
+	public void invalidateGroup(int groupId) {
+		Invalidation invalidation = getTransactionInvalidation();
+		if (invalidation != null) {
+			invalidation.groupIds.add(groupId);
+		} else {
+			invalidate(groupRoles, Collections.singleton(groupId));
+		}
+	}
+
+	/**
+	 * Invalidate roles of all users and groups, after commit of the current transaction if there is one.
+	 */
+	public void invalidateAll() {
+		Invalidation invalidation = getTransactionInvalidation();
+		if (invalidation != null) {
+			invalidation.all = true;
+		} else {
+			invalidateAllNow();
+		}
+	}
+
+	/**
+	 * Invalidate roles affected by changes described by the stored audit messages.
+	 *
+	 * @param messages audit messages just stored
+	 */
+	public void messagesStored(List<AuditerMessage> messages) {
+		if (!isEnabled()) return;
+		Set<Integer> userIds = new HashSet<>();
+		for (AuditerMessage message : messages) {
+			AuditEvent event = message.getEvent();
+			if (event instanceof GroupCreatedAsSubgroup || event instanceof GroupMoved || event instanceof GroupDeleted
+					|| event instanceof VoDeleted || event instanceof FacilityDeleted || event instanceof ResourceDeleted
+					|| event instanceof ServiceDeleted || event instanceof SecurityTeamDeleted) {
+				// subgroups of administered groups or roles of groups have changed, or roles on the object are gone
+				invalidateAll();
+				return;
+			} else if (event instanceof DirectMemberAddedToGroup) {
+				addUserOf(userIds, ((DirectMemberAddedToGroup) event).getMember());
+			} else if (event instanceof IndirectMemberAddedToGroup) {
+				addUserOf(userIds, ((IndirectMemberAddedToGroup) event).getMember());
+			} else if (event instanceof DirectMemberRemovedFromGroup) {
+				addUserOf(userIds, ((DirectMemberRemovedFromGroup) event).getMember());
+			} else if (event instanceof IndirectMemberRemovedFromGroup) {
+				addUserOf(userIds, ((IndirectMemberRemovedFromGroup) event).getMember());
+			} else if (event instanceof MemberRemovedFromGroupTotally) {
+				addUserOf(userIds, ((MemberRemovedFromGroupTotally) event).getMember());
+			} else if (event instanceof MemberCreated) {
+				addUserOf(userIds, ((MemberCreated) event).getMember());
+			} else if (event instanceof MemberDeleted) {
+				addUserOf(userIds, ((MemberDeleted) event).getMember());
+			} else if (event instanceof UserDeleted) {
+				addUser(userIds, ((UserDeleted) event).getUser());
+			} else if (event instanceof UserAddedToOwnersOfSpecificUser) {
+				addUser(userIds, ((UserAddedToOwnersOfSpecificUser) event).getUser());
+				addUser(userIds, ((UserAddedToOwnersOfSpecificUser) event).getSpecificUser());
+			} else if (event instanceof OwnershipEnabledForSpecificUser) {
+				addUser(userIds, ((OwnershipEnabledForSpecificUser) event).getUser());
+				addUser(userIds, ((OwnershipEnabledForSpecificUser) event).getSpecificUser());
+			} else if (event instanceof OwnershipDisabledForSpecificUser) {
+				addUser(userIds, ((OwnershipDisabledForSpecificUser) event).getUser());
+				addUser(userIds, ((OwnershipDisabledForSpecificUser) event).getSpecificUser());
+			} else if (event instanceof OwnershipRemovedForSpecificUser) {
+				addUser(userIds, ((OwnershipRemovedForSpecificUser) event).getUser());
+				addUser(userIds, ((OwnershipRemovedForSpecificUser) event).getSpecificUser());
+			}
+		}
+		invalidateUsers(userIds);
+	}
+
+	/**
+	 * @return hits, misses, invalidations and number of stored users and groups
+	 */
+	public String getStatistics() {
+		return "hits=" + hits.sum() + ", misses=" + misses.sum() + ", invalidations=" + invalidations.sum()
+				+ ", users=" + userRoles.size() + ", groups=" + groupRoles.size();
+	}
+
+	private AuthzRoles get(Map<Integer, Entry> entries, int id, Supplier<AuthzRoles> loader) {
+		Entry entry = entries.get(id);
+		if (entry != null && entry.isValid()) {
+			hits.increment();
+			return entry.roles;
+		}
+		misses.increment();
+
+		// sequence is read before loading, so the roles are not stored over any later invalidation
+		long loadedAt = sequence.get();
+		AuthzRoles roles = loader.get().makeUnmodifiable();
+		Entry loaded = new Entry(roles, loadedAt);
+		entries.compute(id, (key, stored) -> stored != null && stored.sequence > loadedAt ? stored : loaded);
+		return roles;
+	}
+
+	private void invalidate(Map<Integer, Entry> entries, Collection<Integer> ids) {
+		for (Integer id : ids) {
+			// empty entry keeps the number of invalidation for roles being loaded right now
+			entries.put(id, new Entry(null, sequence.incrementAndGet()));
+			invalidations.increment();
+		}
+	}
+
+	private void invalidateAllNow() {
+		allInvalidatedAt = sequence.incrementAndGet();
+		userRoles.clear();
+		groupRoles.clear();
+		invalidations.increment();
+	}
+
+	/**
+	 * Get invalidations collected in the current transaction, the first call registers them to be applied after
+	 * its commit.
+	 *
+	 * @return invalidations of the current transaction or null if there is no transaction
+	 */
+	private Invalidation getTransactionInvalidation() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) return null;
+		Invalidation invalidation = (Invalidation) TransactionSynchronizationManager.getResource(this);
+		if (invalidation != null) return invalidation;
+
+		Invalidation newInvalidation = new Invalidation();
+		TransactionSynchronizationManager.bindResource(this, newInvalidation);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCompletion(int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(AuthzRolesCache.this);
+				if (status != STATUS_COMMITTED) return;
+				if (newInvalidation.all) {
+					invalidateAllNow();
+				} else {
+					invalidate(userRoles, newInvalidation.userIds);
+					invalidate(groupRoles, newInvalidation.groupIds);
+				}
+			}
+		});
+		return newInvalidation;
+	}
+
+	private static void addUserOf(Set<Integer> userIds, Member member) {
+		if (member != null) userIds.add(member.getUserId());
+	}
+
+	private static void addUser(Set<Integer> userIds, User user) {
+		if (user != null) userIds.add(user.getId());
+	}
+
+	private class Entry {
+
+		private final AuthzRoles roles;
+		private final long sequence;
+		private final long storedAt = System.currentTimeMillis();
+
+		Entry(AuthzRoles roles, long sequence) {
+			this.roles = roles;
+			this.sequence = sequence;
+		}
+
+		boolean isValid() {
+			return roles != null && sequence >= allInvalidatedAt
+					&& System.currentTimeMillis() - storedAt < BeansUtils.getCoreConfig().getAuthzRolesMaxAge() * 1000L;
+		}
+	}
+
+	private static class Invalidation {
+
+		private final Set<Integer> userIds = new HashSet<>();
+		private final Set<Integer> groupIds = new HashSet<>();
+		private boolean all = false;
+	}
+}
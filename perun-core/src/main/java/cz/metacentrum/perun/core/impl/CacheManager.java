@@ -34,7 +34,10 @@ import javax.transaction.RollbackException;
 import javax.transaction.SystemException;
 import javax.transaction.TransactionManager;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -53,6 +56,9 @@ public class CacheManager implements CacheManagerApi {
 
 	private final AtomicInteger counter = new AtomicInteger(0);
 	private final Object nestedCacheNamesKey;
+	private final Object changedKeysKey = new Object();
+	private final Object transactionIndexKey = new Object();
+	private final AttributeHoldersIndex index = new AttributeHoldersIndex();
 
 	private static final String CACHE_NAME = "transactionalCache";
 	private static final String SIMPLE_CACHE_NAME = "simpleCache";
@@ -108,6 +114,7 @@ public class CacheManager implements CacheManagerApi {
 	 */
 	public void clearCache() {
 		getCache(CACHE_NAME).clear();
+		index.clear();
 	}
 
 	@Override
@@ -209,6 +216,164 @@ public class CacheManager implements CacheManagerApi {
 		return (Boolean) TransactionSynchronizationManager.getResource(this);
 	}
 
+	/**
+	 * Gets keys of the normal cache changed in transaction, which has to be refreshed in the index after commit.
+	 * @return list of keys, null if there is no transaction and/or resource does not exist
+	 */
+	private List<AttributeIdWithHolders> getChangedKeysFromTransaction() {
+		return (List<AttributeIdWithHolders>) TransactionSynchronizationManager.getResource(changedKeysKey);
+	}
+
+	/**
+	 * Gets index of attributes stored in this transaction, including nested transactions.
+	 * @return index, null if there is no transaction and/or resource does not exist
+	 */
+	private AttributeHoldersIndex getTransactionIndexFromTransaction() {
+		return (AttributeHoldersIndex) TransactionSynchronizationManager.getResource(transactionIndexKey);
+	}
+
+	/**
+	 * Adds stored attribute to the index. In transaction, it's added only to the index of the transaction,
+	 * which is read together with the shared one and which is dropped at the end of the transaction.
+	 * If the attribute is stored into the normal cache, its key is marked as changed, so the shared index gets it after commit.
+	 *
+	 * @param key key the attribute is stored under
+	 * @param value stored attribute
+	 */
+	private void indexStoredAttribute(AttributeIdWithHolders key, AttributeHolders value) {
+		AttributeHoldersIndex transactionIndex = getTransactionIndexFromTransaction();
+		if(transactionIndex == null) {
+			index.add(key, value.getNamespace());
+			return;
+		}
+
+		transactionIndex.add(key, value.getNamespace());
+		if(!this.isInNestedTransaction()) this.indexChangedKey(key);
+	}
+
+	/**
+	 * Marks key of the normal cache as changed. The index is refreshed for changed keys after commit of the transaction,
+	 * because only then it's sure, what is stored under them. Without transaction, it's refreshed right away.
+	 *
+	 * @param key changed key
+	 */
+	private void indexChangedKey(AttributeIdWithHolders key) {
+		List<AttributeIdWithHolders> changedKeys = getChangedKeysFromTransaction();
+		if(changedKeys != null) {
+			changedKeys.add(key);
+		} else {
+			refreshIndex(Collections.singletonList(key));
+		}
+	}
+
+	/**
+	 * Refreshes the index for keys by what is stored under them in the normal cache.
+	 *
+	 * @param keys keys to refresh
+	 */
+	private void refreshIndex(Collection<AttributeIdWithHolders> keys) {
+		Cache<Object, Object> cache = this.getCache(AccessType.READ_NOT_UPDATED_CACHE);
+		index.refresh(keys, key -> (AttributeHolders) cache.get(key));
+	}
+
+	/**
+	 * Gets attribute definitions from the namespace by the index, as they are seen in the current transaction.
+	 *
+	 * @param namespace namespace
+	 * @return list of attribute definitions
+	 */
+	private List<AttributeHolders> getAttributeDefinitionsFromIndex(String namespace) {
+		AttributeHoldersIndex transactionIndex = getTransactionIndexFromTransaction();
+		int[] ids = index.getDefinitionIds(namespace);
+		if(transactionIndex != null) ids = mergeIds(ids, transactionIndex.getDefinitionIds(namespace));
+
+		List<AttributeHolders> attrDefs = new ArrayList<>();
+		for(int id: ids) {
+			AttributeHolders attrDef = this.getStoredValue(new AttributeIdWithHolders(id));
+			if(attrDef != null && namespace.equals(attrDef.getNamespace())) attrDefs.add(attrDef);
+		}
+		return attrDefs;
+	}
+
+	/**
+	 * Gets attributes of the holders from namespaces by the index, as they are seen in the current transaction.
+	 *
+	 * @param primaryHolder primary holder
+	 * @param secondaryHolder secondary holder, can be null
+	 * @param namespaces namespaces of attributes
+	 * @return list of attributes
+	 */
+	private List<AttributeHolders> getAttributesFromIndex(Holder primaryHolder, Holder secondaryHolder, List<String> namespaces) {
+		List<AttributeHolders> attrs = new ArrayList<>();
+		for(int id: this.getAttributeIdsFromIndex(primaryHolder, secondaryHolder)) {
+			AttributeHolders attr = this.getStoredValue(new AttributeIdWithHolders(id, primaryHolder, secondaryHolder));
+			if(attr != null && namespaces.contains(attr.getNamespace())) attrs.add(attr);
+		}
+		return attrs;
+	}
+
+	/**
+	 * Gets ids of attributes stored for the holders from the shared index and from the index of the current transaction.
+	 *
+	 * @param primaryHolder primary holder
+	 * @param secondaryHolder secondary holder, can be null
+	 * @return sorted ids of attributes
+	 */
+	private int[] getAttributeIdsFromIndex(Holder primaryHolder, Holder secondaryHolder) {
+		AttributeHoldersIndex transactionIndex = getTransactionIndexFromTransaction();
+		int[] ids = index.getAttributeIds(primaryHolder, secondaryHolder);
+		if(transactionIndex == null) return ids;
+		return mergeIds(ids, transactionIndex.getAttributeIds(primaryHolder, secondaryHolder));
+	}
+
+	/**
+	 * Merges two sorted arrays of ids.
+	 *
+	 * @param ids sorted ids
+	 * @param otherIds other sorted ids
+	 * @return sorted ids from both arrays without duplicates
+	 */
+	private static int[] mergeIds(int[] ids, int[] otherIds) {
+		if(otherIds.length == 0) return ids;
+		if(ids.length == 0) return otherIds;
+
+		int[] merged = new int[ids.length + otherIds.length];
+		int i = 0, j = 0, length = 0;
+		while(i < ids.length || j < otherIds.length) {
+			int id;
+			if(j == otherIds.length || (i < ids.length && ids[i] < otherIds[j])) {
+				id = ids[i++];
+			} else if(i == ids.length || otherIds[j] < ids[i]) {
+				id = otherIds[j++];
+			} else {
+				id = ids[i++];
+				j++;
+			}
+			merged[length++] = id;
+		}
+		return Arrays.copyOf(merged, length);
+	}
+
+	/**
+	 * Gets value stored under the key as it is seen in the current transaction.
+	 * Values set or removed in nested transactions are looked up first, from the most nested one.
+	 * Changes of the top-level transaction are seen in the normal cache, which is transactional.
+	 *
+	 * @param key key of the value
+	 * @return stored value, null if nothing is stored under the key or it was removed in nested transaction
+	 */
+	private AttributeHolders getStoredValue(AttributeIdWithHolders key) {
+		if(isInNestedTransaction()) {
+			for(String cacheNameForSet: this.getNestedCacheNamesForRead()) {
+				if(this.getCache(cacheNameForSet + FOR_REMOVE).get(key) != null) return null;
+
+				AttributeHolders value = (AttributeHolders) this.getCache(cacheNameForSet).get(key);
+				if(value != null) return value;
+			}
+		}
+		return (AttributeHolders) this.getCache(AccessType.READ_NOT_UPDATED_CACHE).get(key);
+	}
+
 	/**
 	 * Gets transaction manager from cache.
 	 * @return cache transaction manager
@@ -422,47 +587,23 @@ public class CacheManager implements CacheManagerApi {
 
 	@Override
 	public List<Attribute> getAllNonEmptyAttributes(Holder holder) throws InternalErrorException {
-		QueryFactory qf = Search.getQueryFactory(this.getCache(AccessType.READ_NOT_UPDATED_CACHE));
-
-		org.infinispan.query.dsl.Query query =
-				qf.from(AttributeHolders.class)
-						.having(NAMESPACE).in(getCoreAttributesNamespace(holder.getType()))
-						.and().having(SAVED_BY).eq(AttributeHolders.SavedBy.ID)
-						.and(qf.having(PRIMARY_HOLDER + "." + HOLDER_ID).eq(holder.getId())
-								.and().having(PRIMARY_HOLDER + "." + HOLDER_TYPE).eq(holder.getType())
-								.and().having(SECONDARY_HOLDER).isNull()
-								.or(qf.having(PRIMARY_HOLDER).isNull()
-										.and().having(SECONDARY_HOLDER).isNull()
-										.and().having(SUBJECT).isNull()))
-						.or(qf.having(NAMESPACE).in(getNonEmptyAttributesNamespaces(holder.getType(), null))
-							.and().having(SAVED_BY).eq(AttributeHolders.SavedBy.ID)
-							.and().not().having(VALUE).isNull()
-							.and(qf.having(PRIMARY_HOLDER + "." + HOLDER_ID).eq(holder.getId())
-									.and().having(PRIMARY_HOLDER + "." + HOLDER_TYPE).eq(holder.getType())
-									.and().having(SECONDARY_HOLDER).isNull()
-									.or(qf.having(PRIMARY_HOLDER).isNull()
-											.and().having(SECONDARY_HOLDER).isNull()
-											.and().having(SUBJECT).isNull())))
-						.toBuilder().build();
+		//core attributes are not stored for holders, their definitions are returned
+		List<AttributeHolders> attrs = new ArrayList<>();
+		for(String namespace: getCoreAttributesNamespace(holder.getType())) {
+			attrs.addAll(getAttributeDefinitionsFromIndex(namespace));
+		}
+		for(AttributeHolders attr: getAttributesFromIndex(holder, null, getNonEmptyAttributesNamespaces(holder.getType(), null))) {
+			if(attr.getValue() != null) attrs.add(attr);
+		}
 
-		return BeansUtils.getAttributesFromAttributeHolders(query.list());
+		return BeansUtils.getAttributesFromAttributeHolders(attrs);
 	}
 
 	@Override
 	public List<Attribute> getAllNonEmptyAttributes(Holder primaryHolder, Holder secondaryHolder) throws InternalErrorException {
-		QueryFactory qf = Search.getQueryFactory(this.getCache(AccessType.READ_NOT_UPDATED_CACHE));
+		List<String> namespaces = getNonEmptyAttributesNamespaces(primaryHolder.getType(), secondaryHolder.getType());
 
-		org.infinispan.query.dsl.Query query =
-				qf.from(AttributeHolders.class)
-						.having(PRIMARY_HOLDER + "." + HOLDER_ID).eq(primaryHolder.getId())
-						.and().having(PRIMARY_HOLDER + "." + HOLDER_TYPE).eq(primaryHolder.getType())
-						.and().having(SECONDARY_HOLDER + "." + HOLDER_ID).eq(secondaryHolder.getId())
-						.and().having(SECONDARY_HOLDER + "." + HOLDER_TYPE).eq(secondaryHolder.getType())
-						.and().having(NAMESPACE).in(getNonEmptyAttributesNamespaces(primaryHolder.getType(), secondaryHolder.getType()))
-						.and().having(SAVED_BY).eq(AttributeHolders.SavedBy.ID)
-						.toBuilder().build();
-
-		return BeansUtils.getAttributesFromAttributeHolders(query.list());
+		return BeansUtils.getAttributesFromAttributeHolders(getAttributesFromIndex(primaryHolder, secondaryHolder, namespaces));
 	}
 
 	@Override
@@ -660,18 +801,9 @@ public class CacheManager implements CacheManagerApi {
 
 	@Override
 	public List<Attribute> getVirtualAttributes(Holder.HolderType primaryHolderType, Holder.HolderType secondaryHolderType) throws InternalErrorException {
-		QueryFactory qf = Search.getQueryFactory(this.getCache(AccessType.READ_NOT_UPDATED_CACHE));
+		String namespace = getVirtualAttributesNamespace(primaryHolderType, secondaryHolderType);
 
-		org.infinispan.query.dsl.Query query =
-				qf.from(AttributeHolders.class)
-						.having(PRIMARY_HOLDER).isNull()
-						.and().having(SECONDARY_HOLDER).isNull()
-						.and().having(SUBJECT).isNull()
-						.and().having(NAMESPACE).eq(getVirtualAttributesNamespace(primaryHolderType, secondaryHolderType))
-						.and().having(SAVED_BY).eq(AttributeHolders.SavedBy.ID)
-						.toBuilder().build();
-
-		return BeansUtils.getAttributesFromAttributeHolders(query.list());
+		return BeansUtils.getAttributesFromAttributeHolders(getAttributeDefinitionsFromIndex(namespace));
 	}
 
 	@Override
@@ -790,33 +922,22 @@ public class CacheManager implements CacheManagerApi {
 
 	@Override
 	public List<AttributeDefinition> getAttributesDefinitions() {
-		QueryFactory qf = Search.getQueryFactory(this.getCache(AccessType.READ_NOT_UPDATED_CACHE));
-
-		org.infinispan.query.dsl.Query query =
-				qf.from(AttributeHolders.class)
-						.having(PRIMARY_HOLDER).isNull()
-						.and().having(SECONDARY_HOLDER).isNull()
-						.and().having(SUBJECT).isNull()
-						.and().having(SAVED_BY).eq(AttributeHolders.SavedBy.ID)
-						.toBuilder().build();
+		AttributeHoldersIndex transactionIndex = getTransactionIndexFromTransaction();
+		int[] ids = index.getDefinitionIds();
+		if(transactionIndex != null) ids = mergeIds(ids, transactionIndex.getDefinitionIds());
+
+		List<AttributeHolders> attrDefs = new ArrayList<>();
+		for(int id: ids) {
+			AttributeHolders attrDef = this.getStoredValue(new AttributeIdWithHolders(id));
+			if(attrDef != null) attrDefs.add(attrDef);
+		}
 
-		return BeansUtils.getAttributeDefinitionsFromAttributeHolders(query.list());
+		return BeansUtils.getAttributeDefinitionsFromAttributeHolders(attrDefs);
 	}
 
 	@Override
 	public List<AttributeDefinition> getAttributesDefinitionsByNamespace(String namespace) {
-		QueryFactory qf = Search.getQueryFactory(this.getCache(AccessType.READ_NOT_UPDATED_CACHE));
-
-		org.infinispan.query.dsl.Query query =
-				qf.from(AttributeHolders.class)
-						.having(PRIMARY_HOLDER).isNull()
-						.and().having(SECONDARY_HOLDER).isNull()
-						.and().having(SUBJECT).isNull()
-						.and().having(NAMESPACE).eq(namespace)
-						.and().having(SAVED_BY).eq(AttributeHolders.SavedBy.ID)
-						.toBuilder().build();
-
-		return BeansUtils.getAttributeDefinitionsFromAttributeHolders(query.list());
+		return BeansUtils.getAttributeDefinitionsFromAttributeHolders(getAttributeDefinitionsFromIndex(namespace));
 	}
 
 	@Override
@@ -1068,45 +1189,34 @@ public class CacheManager implements CacheManagerApi {
 	public List<Attribute> getAttributesByIds(List<Integer> attrIds, Holder primaryHolder) throws InternalErrorException {
 		if(attrIds.isEmpty()) return new ArrayList<>();
 
-		QueryFactory qf = Search.getQueryFactory(this.getCache(AccessType.READ_NOT_UPDATED_CACHE));
-
-		org.infinispan.query.dsl.Query query =
-				qf.from(AttributeHolders.class)
-						.having(NAMESPACE).in(getAttributesByIdsNamespaces(primaryHolder.getType(), null))
-						.and().having(ID).in(attrIds)
-						.and().having(SAVED_BY).eq(AttributeHolders.SavedBy.ID)
-						.and(qf.having(PRIMARY_HOLDER + "." + HOLDER_ID).eq(primaryHolder.getId())
-								.and().having(PRIMARY_HOLDER + "." + HOLDER_TYPE).eq(primaryHolder.getType())
-								.and().having(SECONDARY_HOLDER).isNull()
-								.or(qf.having(PRIMARY_HOLDER).isNull()
-										.and().having(SECONDARY_HOLDER).isNull()
-										.and().having(SUBJECT).isNull()))
-						.toBuilder().build();
-
-		return removeDuplicates(query.list());
+		return getAttributesByIds(attrIds, primaryHolder, null, getAttributesByIdsNamespaces(primaryHolder.getType(), null));
 	}
 
 	@Override
 	public List<Attribute> getAttributesByIds(List<Integer> attrIds, Holder primaryHolder, Holder secondaryHolder) throws InternalErrorException {
 		if(attrIds.isEmpty()) return new ArrayList<>();
 
-		QueryFactory qf = Search.getQueryFactory(this.getCache(AccessType.READ_NOT_UPDATED_CACHE));
+		return getAttributesByIds(attrIds, primaryHolder, secondaryHolder, getAttributesByIdsNamespaces(primaryHolder.getType(), secondaryHolder.getType()));
+	}
 
-		org.infinispan.query.dsl.Query query =
-				qf.from(AttributeHolders.class)
-						.having(NAMESPACE).in(getAttributesByIdsNamespaces(primaryHolder.getType(), secondaryHolder.getType()))
-						.and().having(ID).in(attrIds)
-						.and().having(SAVED_BY).eq(AttributeHolders.SavedBy.ID)
-						.and(qf.having(PRIMARY_HOLDER + "." + HOLDER_ID).eq(primaryHolder.getId())
-								.and().having(PRIMARY_HOLDER + "." + HOLDER_TYPE).eq(primaryHolder.getType())
-								.and().having(SECONDARY_HOLDER + "." + HOLDER_ID).eq(secondaryHolder.getId())
-								.and().having(SECONDARY_HOLDER + "." + HOLDER_TYPE).eq(secondaryHolder.getType())
-								.or(qf.having(PRIMARY_HOLDER).isNull()
-										.and().having(SECONDARY_HOLDER).isNull()
-										.and().having(SUBJECT).isNull()))
-						.toBuilder().build();
+	/**
+	 * Gets attributes by ids directly by their keys. If attribute is not stored for holders, its definition is returned.
+	 *
+	 * @param attrIds ids of attributes
+	 * @param primaryHolder primary holder
+	 * @param secondaryHolder secondary holder, can be null
+	 * @param namespaces namespaces of attributes to return
+	 * @return list of attributes
+	 */
+	private List<Attribute> getAttributesByIds(List<Integer> attrIds, Holder primaryHolder, Holder secondaryHolder, List<String> namespaces) {
+		List<AttributeHolders> attrs = new ArrayList<>();
+		for(Integer id: new LinkedHashSet<>(attrIds)) {
+			AttributeHolders attr = this.getStoredValue(new AttributeIdWithHolders(id, primaryHolder, secondaryHolder));
+			if(attr == null) attr = this.getStoredValue(new AttributeIdWithHolders(id));
+			if(attr != null && namespaces.contains(attr.getNamespace())) attrs.add(attr);
+		}
 
-		return removeDuplicates(query.list());
+		return BeansUtils.getAttributesFromAttributeHolders(attrs);
 	}
 
 	@Override
@@ -1209,6 +1319,8 @@ public class CacheManager implements CacheManagerApi {
 			cacheForRemove.remove(attrId);
 			cacheForRemove.remove(attrId1);
 		}
+
+		this.indexStoredAttribute(attrId, attributeHolders);
 	}
 
 	@Override
@@ -1253,6 +1365,8 @@ public class CacheManager implements CacheManagerApi {
 
 		cache.put(attrId, attributeHolders);
 		cache.put(attrId1, attributeHolders1);
+
+		this.indexStoredAttribute(attrId, attributeHolders);
 	}
 
 	@Override
@@ -1360,6 +1474,8 @@ public class CacheManager implements CacheManagerApi {
 
 		cache.put(id, attributeHolders);
 		cache.put(id1, attributeHolders1);
+
+		this.indexStoredAttribute(id, attributeHolders);
 	}
 
 	@Override
@@ -1382,8 +1498,10 @@ public class CacheManager implements CacheManagerApi {
 			List<AttributeHolders> attrsToDelete = query.list();
 
 			for(AttributeHolders attr: attrsToDelete) {
-				cache.remove(new AttributeIdWithHolders(attr.getId(), null, attr.getPrimaryHolder(), attr.getSecondaryHolder(), attr.getSubject()));
+				AttributeIdWithHolders attrId = new AttributeIdWithHolders(attr.getId(), null, attr.getPrimaryHolder(), attr.getSecondaryHolder(), attr.getSubject());
+				cache.remove(attrId);
 				cache.remove(new AttributeIdWithHolders(null, attr.getName(), attr.getPrimaryHolder(), attr.getSecondaryHolder(), attr.getSubject()));
+				this.indexChangedKey(attrId);
 			}
 		}
 
@@ -1420,6 +1538,7 @@ public class CacheManager implements CacheManagerApi {
 		if(!this.isInNestedTransaction()) {
 			cache.remove(attrId);
 			cache.remove(attrId1);
+			this.indexChangedKey(attrId);
 		} else {
 			cache.put(attrId, VALUE_PLACEHOLDER);
 			cache.put(attrId1, VALUE_PLACEHOLDER);
@@ -1434,21 +1553,14 @@ public class CacheManager implements CacheManagerApi {
 		this.setCacheUpdatedInTransaction();
 
 		Cache<Object, Object> cache = this.getCache(AccessType.READ_NOT_UPDATED_CACHE);
-		QueryFactory qf = Search.getQueryFactory(cache);
 
-		org.infinispan.query.dsl.Query query =
-				qf.from(AttributeHolders.class)
-						.having(PRIMARY_HOLDER + "." + HOLDER_ID).eq(holder.getId())
-						.and().having(PRIMARY_HOLDER + "." + HOLDER_TYPE).eq(holder.getType())
-						.and().having(SECONDARY_HOLDER).isNull()
-						.and().having(SAVED_BY).eq(AttributeHolders.SavedBy.ID)
-						.toBuilder().build();
-
-		List<AttributeHolders> attrsToDelete = query.list();
-
-		for(AttributeHolders attr: attrsToDelete) {
-			cache.remove(new AttributeIdWithHolders(attr.getId(), attr.getPrimaryHolder(), null));
-			cache.remove(new AttributeIdWithHolders(attr.getName(), attr.getPrimaryHolder(), null));
+		for(int id: this.getAttributeIdsFromIndex(holder, null)) {
+			AttributeIdWithHolders attrId = new AttributeIdWithHolders(id, holder, null);
+			AttributeHolders attr = (AttributeHolders) cache.get(attrId);
+			if(attr == null) continue;
+			cache.remove(attrId);
+			cache.remove(new AttributeIdWithHolders(attr.getName(), holder, null));
+			this.indexChangedKey(attrId);
 		}
 	}
 
@@ -1460,22 +1572,14 @@ public class CacheManager implements CacheManagerApi {
 		this.setCacheUpdatedInTransaction();
 
 		Cache<Object, Object> cache = this.getCache(AccessType.READ_NOT_UPDATED_CACHE);
-		QueryFactory qf = Search.getQueryFactory(cache);
 
-		org.infinispan.query.dsl.Query query =
-				qf.from(AttributeHolders.class)
-						.having(PRIMARY_HOLDER + "." + HOLDER_ID).eq(primaryHolder.getId())
-						.and().having(PRIMARY_HOLDER + "." + HOLDER_TYPE).eq(primaryHolder.getType())
-						.and().having(SECONDARY_HOLDER + "." + HOLDER_ID).eq(secondaryHolder.getId())
-						.and().having(SECONDARY_HOLDER + "." + HOLDER_TYPE).eq(secondaryHolder.getType())
-						.and().having(SAVED_BY).eq(AttributeHolders.SavedBy.ID)
-						.toBuilder().build();
-
-		List<AttributeHolders> attrsToDelete = query.list();
-
-		for(AttributeHolders attr: attrsToDelete) {
-			cache.remove(new AttributeIdWithHolders(attr.getId(), attr.getPrimaryHolder(), attr.getSecondaryHolder()));
-			cache.remove(new AttributeIdWithHolders(attr.getName(), attr.getPrimaryHolder(), attr.getSecondaryHolder()));
+		for(int id: this.getAttributeIdsFromIndex(primaryHolder, secondaryHolder)) {
+			AttributeIdWithHolders attrId = new AttributeIdWithHolders(id, primaryHolder, secondaryHolder);
+			AttributeHolders attr = (AttributeHolders) cache.get(attrId);
+			if(attr == null) continue;
+			cache.remove(attrId);
+			cache.remove(new AttributeIdWithHolders(attr.getName(), primaryHolder, secondaryHolder));
+			this.indexChangedKey(attrId);
 		}
 	}
 
@@ -1500,8 +1604,10 @@ public class CacheManager implements CacheManagerApi {
 		List<AttributeHolders> attrsToDelete = query.list();
 
 		for(AttributeHolders attr: attrsToDelete) {
-			cache.remove(new AttributeIdWithHolders(attr.getId(), attr.getPrimaryHolder(), attr.getSecondaryHolder()));
+			AttributeIdWithHolders attrId = new AttributeIdWithHolders(attr.getId(), attr.getPrimaryHolder(), attr.getSecondaryHolder());
+			cache.remove(attrId);
 			cache.remove(new AttributeIdWithHolders(attr.getName(), attr.getPrimaryHolder(), attr.getSecondaryHolder()));
+			this.indexChangedKey(attrId);
 		}
 	}
 
@@ -1526,8 +1632,10 @@ public class CacheManager implements CacheManagerApi {
 		List<AttributeHolders> attrsToDelete = query.list();
 
 		for(AttributeHolders attr: attrsToDelete) {
-			cache.remove(new AttributeIdWithHolders(attr.getId(), attr.getPrimaryHolder(), attr.getSecondaryHolder()));
+			AttributeIdWithHolders attrId = new AttributeIdWithHolders(attr.getId(), attr.getPrimaryHolder(), attr.getSecondaryHolder());
+			cache.remove(attrId);
 			cache.remove(new AttributeIdWithHolders(attr.getName(), attr.getPrimaryHolder(), attr.getSecondaryHolder()));
+			this.indexChangedKey(attrId);
 		}
 	}
 
@@ -1542,6 +1650,15 @@ public class CacheManager implements CacheManagerApi {
 		} catch (HeuristicMixedException | HeuristicRollbackException | SystemException e) {
 			throw new TransactionSystemException("Unexpected system error occurred.", e);
 		}
+
+		//merge changes of the transaction to the shared index
+		List<AttributeIdWithHolders> changedKeys = getChangedKeysFromTransaction();
+		if(changedKeys != null) {
+			this.refreshIndex(changedKeys);
+			changedKeys.clear();
+		}
+		AttributeHoldersIndex transactionIndex = getTransactionIndexFromTransaction();
+		if(transactionIndex != null) transactionIndex.clear();
 	}
 
 	/**
@@ -1553,12 +1670,20 @@ public class CacheManager implements CacheManagerApi {
 		} catch (SystemException e) {
 			throw new TransactionSystemException("Unexpected system error occurred.", e);
 		}
+
+		//attributes stored in transaction are only in the index of the transaction, which is dropped
+		List<AttributeIdWithHolders> changedKeys = getChangedKeysFromTransaction();
+		if(changedKeys != null) changedKeys.clear();
+		AttributeHoldersIndex transactionIndex = getTransactionIndexFromTransaction();
+		if(transactionIndex != null) transactionIndex.clear();
 	}
 
 	/**
 	 * Begins new transaction for cache.
 	 *
-	 * It creates transaction resource that contains information, if there was any write operation performed on cache in this transaction.
+	 * It creates transaction resource that contains information, if there was any write operation performed on cache in this transaction,
+	 * resource with keys changed in this transaction, which are refreshed in the index after commit, and resource with index
+	 * of attributes stored in this transaction.
 	 */
 	public void newTopLevelTransaction() {
 		Boolean updated = getWasCacheUpdatedFromTransaction();
@@ -1570,6 +1695,11 @@ public class CacheManager implements CacheManagerApi {
 			TransactionSynchronizationManager.bindResource(this, Boolean.FALSE);
 		}
 
+		TransactionSynchronizationManager.unbindResourceIfPossible(changedKeysKey);
+		TransactionSynchronizationManager.bindResource(changedKeysKey, new ArrayList<AttributeIdWithHolders>());
+		TransactionSynchronizationManager.unbindResourceIfPossible(transactionIndexKey);
+		TransactionSynchronizationManager.bindResource(transactionIndexKey, new AttributeHoldersIndex());
+
 		try {
 			this.getCacheTransactionManager().begin();
 		} catch (NotSupportedException e) {
@@ -1639,12 +1769,17 @@ public class CacheManager implements CacheManagerApi {
 		Cache<Object, Object> cacheForRemoveToFlush = this.getCache(cacheNameToFlush + FOR_REMOVE);
 		Cache<Object, Object> cacheForSet = this.getCache(cacheName);
 
+		//keys of changes flushed to the normal cache are refreshed in the shared index after commit
+		boolean flushToNormalCache = transactionCacheNames.size() == 2;
+
 		for (Object o: cacheForSetToFlush.keySet()) {
-			cacheForSet.put(o, cacheForSetToFlush.get(o));
+			AttributeHolders attributeHolders = (AttributeHolders) cacheForSetToFlush.get(o);
+			cacheForSet.put(o, attributeHolders);
+			if(flushToNormalCache) this.indexChangedKey((AttributeIdWithHolders) o);
 		}
 
 		//if there is more than one nested transaction, we need to put removed attributes to cache for remove
-		if(transactionCacheNames.size() > 2) {
+		if(!flushToNormalCache) {
 			Cache<Object, Object> cacheForRemove = this.getCache(cacheName + FOR_REMOVE);
 			for (Object o: cacheForRemoveToFlush.keySet()) {
 				cacheForRemove.put(o, VALUE_PLACEHOLDER);
@@ -1652,6 +1787,7 @@ public class CacheManager implements CacheManagerApi {
 		} else {
 			for (Object o: cacheForRemoveToFlush.keySet()) {
 				cacheForSet.remove(o);
+				this.indexChangedKey((AttributeIdWithHolders) o);
 			}
 		}
 
@@ -1669,6 +1805,8 @@ public class CacheManager implements CacheManagerApi {
 			TransactionSynchronizationManager.unbindResourceIfPossible(this.getNestedCacheNamesKey());
 		}
 		TransactionSynchronizationManager.unbindResourceIfPossible(this);
+		TransactionSynchronizationManager.unbindResourceIfPossible(changedKeysKey);
+		TransactionSynchronizationManager.unbindResourceIfPossible(transactionIndexKey);
 	}
 
 	@Override
@@ -1680,6 +1818,10 @@ public class CacheManager implements CacheManagerApi {
 		for(Object key: keySet) {
 			cache.remove(key);
 		}
+		//in transaction, the index can't be cleared before commit, stored attributes are indexed again anyway
+		if(getChangedKeysFromTransaction() == null) {
+			index.clear();
+		}
 
 		List<AttributeDefinition> attrDefs;
 		List<AttributeHolders> attrs;
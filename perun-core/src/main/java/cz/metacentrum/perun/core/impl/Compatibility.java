@@ -88,6 +88,21 @@ public class Compatibility {
 		}
 	}
 
+	/**
+	 * Returns ordering of null values before all other values, which is not the default in all DB types.
+	 * Append it after the sorted expression in ORDER BY clause.
+	 */
+	public static String getNullsFirst() throws InternalErrorException {
+		switch (getDbType()) {
+			case "oracle":
+			case "postgresql":
+			case "hsqldb":
+				return " NULLS FIRST";
+			default:
+				throw new InternalErrorException("unknown DB type");
+		}
+	}
+
 	public static String getSysdate() throws InternalErrorException {
 		switch (getDbType()) {
 			case "oracle":
@@ -152,6 +167,35 @@ public class Compatibility {
 		}
 	}
 
+	/**
+	 * Oracle has recursive subqueries without the RECURSIVE keyword.
+	 */
+	static String getWithRecursive() {
+		switch (getDbType()) {
+			case "oracle":
+				return "with";
+			default:
+				return "with recursive";
+		}
+	}
+
+	/**
+	 * Limit number of rows returned by the ordered query. Oracle (before 12c) has no limit clause,
+	 * so the query is wrapped and limited by rownum there.
+	 *
+	 * @param query ordered select query
+	 * @param limitParameter placeholder of the limit, e.g. "?" or ":limit"
+	 * @return query returning at most limit rows
+	 */
+	static String limitRows(String query, String limitParameter) {
+		switch (getDbType()) {
+			case "oracle":
+				return "select * from (" + query + ") where rownum <= " + limitParameter;
+			default:
+				return query + " limit " + limitParameter;
+		}
+	}
+
 	static String getRowNumberOver() {
 		if ("hsqldb".equals(getDbType())) {
 			return ",row_number() over () as rownumber";
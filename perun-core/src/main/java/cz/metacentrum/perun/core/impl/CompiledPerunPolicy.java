@@ -0,0 +1,107 @@
+package cz.metacentrum.perun.core.impl;
+
+import cz.metacentrum.perun.core.api.Pair;
+import cz.metacentrum.perun.core.api.PerunPolicy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Policy with rules of all its (also nested) included policies, prepared for repeated evaluation.
+ *
+ * Rules are the maps of policy roles of PerunPolicy. Relation between rules is logical OR. Each rule keeps roles
+ * which are not connected to any object apart from roles connected to an object (e.g. VOADMIN -> Vo), relation
+ * between all of them is logical AND. Rules repeated in more included policies are kept only once.
+ *
+ * @see PerunPoliciesContainer
+ */
+public class CompiledPerunPolicy {
+
+	private final String policyName;
+	private final List<Rule> rules;
+
+	/**
+	 * Compile the policy.
+	 *
+	 * @param policyName name of the policy
+	 * @param policies the policy together with all its included policies
+	 */
+	public CompiledPerunPolicy(String policyName, List<PerunPolicy> policies) {
+		Set<Map<String, String>> policyRoles = new LinkedHashSet<>();
+		for (PerunPolicy policy : policies) policyRoles.addAll(policy.getPerunRoles());
+
+		List<Rule> rules = new ArrayList<>();
+		for (Map<String, String> roleArray : policyRoles) rules.add(new Rule(roleArray));
+
+		this.policyName = policyName;
+		this.rules = Collections.unmodifiableList(rules);
+	}
+
+	public String getPolicyName() {
+		return policyName;
+	}
+
+	/**
+	 * @return rules of the policy, principal is authorized if any of them is satisfied
+	 */
+	public List<Rule> getRules() {
+		return rules;
+	}
+
+	@Override
+	public String toString() {
+		return "CompiledPerunPolicy{" +
+			"policyName='" + policyName + '\'' +
+			", rules=" + rules +
+			'}';
+	}
+
+	/**
+	 * One map of policy roles, principal must have all its roles to satisfy it.
+	 */
+	public static class Rule {
+
+		private final List<String> rolesWithoutObject;
+		private final List<Pair<String, String>> rolesWithObject;
+
+		private Rule(Map<String, String> roleArray) {
+			List<String> rolesWithoutObject = new ArrayList<>();
+			List<Pair<String, String>> rolesWithObject = new ArrayList<>();
+			for (Map.Entry<String, String> role : roleArray.entrySet()) {
+				if (role.getValue() == null) {
+					rolesWithoutObject.add(role.getKey());
+				} else {
+					rolesWithObject.add(new Pair<>(role.getKey(), role.getValue()));
+				}
+			}
+			this.rolesWithoutObject = Collections.unmodifiableList(rolesWithoutObject);
+			this.rolesWithObject = Collections.unmodifiableList(rolesWithObject);
+		}
+
+		/**
+		 * @return roles the principal must have regardless of the objects
+		 */
+		public List<String> getRolesWithoutObject() {
+			return rolesWithoutObject;
+		}
+
+		/**
+		 * @return pairs of role and name of object, the principal must have the role on all objects of that name
+		 */
+		public List<Pair<String, String>> getRolesWithObject() {
+			return rolesWithObject;
+		}
+
+		@Override
+		public String toString() {
+			return "Rule{" +
+				"rolesWithoutObject=" + rolesWithoutObject +
+				", rolesWithObject=" + rolesWithObject +
+				'}';
+		}
+	}
+}
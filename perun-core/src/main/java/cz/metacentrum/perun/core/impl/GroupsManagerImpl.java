@@ -448,6 +448,33 @@ public class GroupsManagerImpl implements GroupsManagerImplApi {
 		}
 	}
 
+	@Override
+	public List<Group> getAllSubGroups(PerunSession sess, Group parentGroup) throws InternalErrorException {
+		try {
+			return jdbc.query(Compatibility.getWithRecursive() + " subgroups (id) as (" +
+							"select id from groups where parent_group_id=? " +
+							"union all select groups.id from groups join subgroups on groups.parent_group_id=subgroups.id) " +
+							"select " + groupMappingSelectQuery + " from groups join subgroups on groups.id=subgroups.id",
+					GROUP_MAPPER, parentGroup.getId());
+		} catch(RuntimeException ex) {
+			throw new InternalErrorException(ex);
+		}
+	}
+
+	@Override
+	public List<Group> getAllParentGroups(PerunSession sess, Group group) throws InternalErrorException {
+		try {
+			return jdbc.query(Compatibility.getWithRecursive() + " parents (id, depth) as (" +
+							"select parent_group_id, 1 from groups where id=? and parent_group_id is not null " +
+							"union all select groups.parent_group_id, parents.depth+1 from groups join parents on groups.id=parents.id " +
+							"where groups.parent_group_id is not null) " +
+							"select " + groupMappingSelectQuery + " from groups join parents on groups.id=parents.id order by parents.depth",
+					GROUP_MAPPER, group.getId());
+		} catch(RuntimeException ex) {
+			throw new InternalErrorException(ex);
+		}
+	}
+
 	@Override
 	public int getSubGroupsCount(PerunSession sess, Group parentGroup) throws InternalErrorException {
 		try {
@@ -4,6 +4,8 @@ import cz.metacentrum.perun.core.api.BeansUtils;
 import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Member;
 import cz.metacentrum.perun.core.api.MemberGroupStatus;
+import cz.metacentrum.perun.core.api.MembersOrderColumn;
+import cz.metacentrum.perun.core.api.MembersPageQuery;
 import cz.metacentrum.perun.core.api.MembershipType;
 import cz.metacentrum.perun.core.api.PerunPrincipal;
 import cz.metacentrum.perun.core.api.PerunSession;
@@ -477,4 +479,108 @@ public class MembersManagerImpl implements MembersManagerImplApi {
 
 	}
 
+	@Override
+	public List<Member> getMembersPage(PerunSession sess, Vo vo, MembersPageQuery query, List<String> cursor, int limit) throws InternalErrorException {
+		MapSqlParameterSource parameters = new MapSqlParameterSource();
+		StringBuilder where = getMembersPageWhereClause(vo, query, parameters);
+
+		String orderBy;
+		if (query.getSortColumn() == MembersOrderColumn.NAME) {
+			// empty names are sorted as missing ones, Oracle doesn't distinguish them
+			String lastName = "NULLIF(users.last_name,'')";
+			String firstName = "NULLIF(users.first_name,'')";
+			if (cursor != null) {
+				where.append(" AND (").append(getAfterNullsFirstCondition(lastName, "lastName", cursor.get(0), parameters))
+						.append(" OR (").append(getEqualsNullableCondition(lastName, "lastName", cursor.get(0), parameters))
+						.append(" AND (").append(getAfterNullsFirstCondition(firstName, "firstName", cursor.get(1), parameters))
+						.append(" OR (").append(getEqualsNullableCondition(firstName, "firstName", cursor.get(1), parameters))
+						.append(" AND members.id > :lastId))))");
+				parameters.addValue("lastId", Integer.parseInt(cursor.get(2)));
+			}
+			orderBy = " ORDER BY " + lastName + Compatibility.getNullsFirst() + ", " + firstName + Compatibility.getNullsFirst() + ", members.id";
+		} else {
+			if (cursor != null) {
+				where.append(" AND members.id > :lastId");
+				parameters.addValue("lastId", Integer.parseInt(cursor.get(0)));
+			}
+			orderBy = " ORDER BY members.id";
+		}
+
+		try {
+			parameters.addValue("limit", limit);
+			return namedParameterJdbcTemplate.query(Compatibility.limitRows("SELECT " + memberMappingSelectQuery + " FROM members" +
+					" JOIN users ON users.id=members.user_id" + where + orderBy, ":limit"),
+					parameters, MEMBER_MAPPER);
+		} catch (RuntimeException ex) {
+			throw new InternalErrorException(ex);
+		}
+	}
+
+	@Override
+	public int getMembersPageCount(PerunSession sess, Vo vo, MembersPageQuery query) throws InternalErrorException {
+		MapSqlParameterSource parameters = new MapSqlParameterSource();
+		StringBuilder where = getMembersPageWhereClause(vo, query, parameters);
+		try {
+			return namedParameterJdbcTemplate.queryForObject("SELECT COUNT(*) FROM members" +
+					" JOIN users ON users.id=members.user_id" + where, parameters, Integer.class);
+		} catch (RuntimeException ex) {
+			throw new InternalErrorException(ex);
+		}
+	}
+
+	/**
+	 * Builds condition matching rows, which come after the value in ascending order with null values first.
+	 * Null value is matched by IS NULL / IS NOT NULL, because it can't be compared.
+	 */
+	private static String getAfterNullsFirstCondition(String column, String parameter, String value, MapSqlParameterSource parameters) {
+		if (value == null) return column + " IS NOT NULL";
+		parameters.addValue(parameter, value);
+		return column + " > :" + parameter;
+	}
+
+	/**
+	 * Builds condition matching rows with the value, including null value.
+	 */
+	private static String getEqualsNullableCondition(String column, String parameter, String value, MapSqlParameterSource parameters) {
+		if (value == null) return column + " IS NULL";
+		parameters.addValue(parameter, value);
+		return column + " = :" + parameter;
+	}
+
+	/**
+	 * Builds WHERE clause with filters of the members page query and puts their values to the parameters.
+	 */
+	private static StringBuilder getMembersPageWhereClause(Vo vo, MembersPageQuery query, MapSqlParameterSource parameters) {
+		StringBuilder where = new StringBuilder(" WHERE members.vo_id=:voId");
+		parameters.addValue("voId", vo.getId());
+
+		if (!query.getStatuses().isEmpty()) {
+			List<Integer> statusCodes = new ArrayList<>();
+			for (String status : query.getStatuses()) {
+				statusCodes.add(Status.valueOf(status).getCode());
+			}
+			where.append(" AND members.status IN (:statuses)");
+			parameters.addValue("statuses", statusCodes);
+		}
+
+		if (query.getGroupId() != null) {
+			where.append(" AND EXISTS (SELECT 1 FROM groups_members WHERE groups_members.member_id=members.id AND groups_members.group_id=:groupId)");
+			parameters.addValue("groupId", query.getGroupId());
+		}
+
+		if (query.getSearchString() != null && !query.getSearchString().trim().isEmpty()) {
+			String searchString = query.getSearchString().trim();
+			// names are compared in lower case ASCII without spaces, same as in searching of users
+			where.append(" AND (lower(").append(Compatibility.convertToAscii("COALESCE(users.first_name,'') || COALESCE(users.middle_name,'') || COALESCE(users.last_name,'')")).append(") LIKE :search");
+			parameters.addValue("search", "%" + Utils.utftoasci(searchString.toLowerCase()).replaceAll(" ", "") + "%");
+			if (searchString.matches("\\d{1,9}")) {
+				where.append(" OR members.id=:searchId OR users.id=:searchId");
+				parameters.addValue("searchId", Integer.parseInt(searchString));
+			}
+			where.append(")");
+		}
+
+		return where;
+	}
+
 }
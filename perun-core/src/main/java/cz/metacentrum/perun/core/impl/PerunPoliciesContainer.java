@@ -14,20 +14,51 @@ import java.util.Queue;
 
 /**
  * PerunPoliciesContainer stores a list of perun policies.
+ *
+ * Each policy is also compiled together with all its included policies when the policies are set,
+ * so the include chains are not resolved again for each authorization.
  */
 public class PerunPoliciesContainer {
 
 	private static final Logger log = LoggerFactory.getLogger(PerunBasicDataSource.class);
-	private List<PerunPolicy> perunPolicies = new ArrayList<>();
+	private volatile Map<String, PerunPolicy> perunPolicies = new HashMap<>();
+	private volatile Map<String, CompiledPerunPolicy> compiledPolicies = new HashMap<>();
 
 	public void setPerunPolicies(List<PerunPolicy> perunPolicies) {
-		this.perunPolicies = perunPolicies;
+		Map<String, PerunPolicy> policiesByName = new HashMap<>();
+		for (PerunPolicy policy : perunPolicies) policiesByName.putIfAbsent(policy.getPolicyName(), policy);
+		this.perunPolicies = policiesByName;
+
+		Map<String, CompiledPerunPolicy> compiledPolicies = new HashMap<>();
+		for (String policyName : policiesByName.keySet()) {
+			try {
+				compiledPolicies.put(policyName, new CompiledPerunPolicy(policyName, fetchPolicyWithAllIncludedPolicies(policyName)));
+			} catch (PolicyNotExistsException e) {
+				// policy is left out, its authorization fails the same way as before
+				log.warn("Policy {} can't be compiled: {}", policyName, e.getMessage());
+			}
+		}
+		this.compiledPolicies = compiledPolicies;
 	}
 
 	public PerunPolicy getPerunPolicy(String policyName) throws PolicyNotExistsException {
-		for (PerunPolicy policy : perunPolicies) {
-			if (policy.getPolicyName().equals(policyName)) return policy;
-		}
+		PerunPolicy policy = perunPolicies.get(policyName);
+		if (policy != null) return policy;
+		throw new PolicyNotExistsException("Policy with name "+ policyName + "does not exists in the PerunPoliciesContainer.");
+	}
+
+	/**
+	 * Get the policy compiled together with all its (also nested) included policies.
+	 *
+	 * @param policyName is a policy definition for which will be the compiled policy returned.
+	 * @return compiled policy
+	 * @throws PolicyNotExistsException when the given policyName or any of its included policies does not exist in the PerunPoliciesContainer.
+	 */
+	public CompiledPerunPolicy getCompiledPolicy(String policyName) throws PolicyNotExistsException {
+		CompiledPerunPolicy policy = compiledPolicies.get(policyName);
+		if (policy != null) return policy;
+		// throws the exception for the missing policy
+		fetchPolicyWithAllIncludedPolicies(policyName);
 		throw new PolicyNotExistsException("Policy with name "+ policyName + "does not exists in the PerunPoliciesContainer.");
 	}
 
@@ -36,7 +36,8 @@ public class PerunTransactionManager extends DataSourceTransactionManager implem
 			this.getCacheManager().commit();
 		}
 		super.doCommit(status);
-		this.getAuditer().flush();
+		// messages are stored after the connection is released, see doCleanupAfterCompletion
+		TransactionSynchronizationManager.bindResource(status.getTransaction(), this.getAuditer().takeMessages());
 	}
 
 	@Override
@@ -55,13 +56,22 @@ public class PerunTransactionManager extends DataSourceTransactionManager implem
 		}
 		super.doCleanupAfterCompletion(transaction);
 
-		List<Lock> locks = (List<Lock>) TransactionSynchronizationManager.getResource(PerunLocksUtils.uniqueKey.get());
-		PerunLocksUtils.unlockAll(locks);
-
-		//Because we are recycle threads, we need to unbind all resources after completion if any exist
-		TransactionSynchronizationManager.unbindResourceIfPossible(PerunLocksUtils.uniqueKey.get());
-
-		this.getAuditer().clean();
+		// connection of the transaction is not bound anymore, so auditer writes messages of the committed
+		// transaction together with messages of other ones, still before locks of the transaction are released
+		List<AuditerMessage> committedMessages = (List<AuditerMessage>) TransactionSynchronizationManager.unbindResourceIfPossible(transaction);
+		try {
+			if (committedMessages != null) {
+				this.getAuditer().storeMessagesToDb(committedMessages);
+			}
+		} finally {
+			List<Lock> locks = (List<Lock>) TransactionSynchronizationManager.getResource(PerunLocksUtils.uniqueKey.get());
+			PerunLocksUtils.unlockAll(locks);
+
+			//Because we are recycle threads, we need to unbind all resources after completion if any exist
+			TransactionSynchronizationManager.unbindResourceIfPossible(PerunLocksUtils.uniqueKey.get());
+
+			this.getAuditer().clean();
+		}
 	}
 
 	public Auditer getAuditer() {
@@ -386,30 +386,8 @@ public class Utils {
 	 * @throws InternalErrorException
 	 */
 	public static int getNewId(JdbcTemplate jdbc, String sequenceName) throws InternalErrorException {
-		String dbType;
-		String url = "";
 		String query;
-		// try to deduce database type from jdbc connection metadata
-		try {
-			DataSource ds = jdbc.getDataSource();
-			if (ds instanceof HikariDataSource) {
-				url = ((HikariDataSource) ds).getJdbcUrl();
-			}
-		} catch (Exception e) {
-			log.error("cannot get JDBC url", e);
-		}
-
-		if (url.contains("hsqldb")) {
-			dbType = "hsqldb";
-		} else if (url.contains("oracle")) {
-			dbType = "oracle";
-		} else if (url.contains("postgresql")) {
-			dbType = "postgresql";
-		} else {
-			dbType = BeansUtils.getCoreConfig().getDbType();
-		}
-
-		switch (dbType) {
+		switch (getDbType(jdbc)) {
 			case "oracle":
 				query = "select " + sequenceName + ".nextval from dual";
 				break;
@@ -435,6 +413,69 @@ public class Utils {
 		}
 	}
 
+	/**
+	 * Gets block of next numbers from the sequence by one query. Returned numbers are not necessarily consecutive.
+	 * This function hides differences in the databases engines.
+	 *
+	 * @param jdbc
+	 * @param sequenceName
+	 * @param count number of IDs to get
+	 * @return list of new IDs
+	 * @throws InternalErrorException
+	 */
+	public static List<Integer> getNewIds(JdbcTemplate jdbc, String sequenceName, int count) throws InternalErrorException {
+		if (count <= 0) return new ArrayList<>();
+		String query;
+		switch (getDbType(jdbc)) {
+			case "oracle":
+				query = "select " + sequenceName + ".nextval from dual connect by level <= " + count;
+				break;
+			case "postgresql":
+				query = "select nextval('" + sequenceName + "') from generate_series(1, " + count + ")";
+				break;
+			case "hsqldb":
+				query = "select next value for " + sequenceName + " from unnest(sequence_array(1, " + count + ", 1))";
+				break;
+			default:
+				throw new InternalErrorException("Unsupported DB type");
+		}
+
+		try {
+			List<Integer> ids = jdbc.queryForList(query, Integer.class);
+			if (ids.size() != count) {
+				throw new InternalErrorException("Expected " + count + " new IDs, but got " + ids.size() + ".");
+			}
+			return ids;
+		} catch (RuntimeException e) {
+			throw new InternalErrorException(e);
+		}
+	}
+
+	/**
+	 * Deduce type of the database from jdbc connection metadata or from the CoreConfig.
+	 */
+	private static String getDbType(JdbcTemplate jdbc) {
+		String url = "";
+		try {
+			DataSource ds = jdbc.getDataSource();
+			if (ds instanceof HikariDataSource) {
+				url = ((HikariDataSource) ds).getJdbcUrl();
+			}
+		} catch (Exception e) {
+			log.error("cannot get JDBC url", e);
+		}
+
+		if (url.contains("hsqldb")) {
+			return "hsqldb";
+		} else if (url.contains("oracle")) {
+			return "oracle";
+		} else if (url.contains("postgresql")) {
+			return "postgresql";
+		} else {
+			return BeansUtils.getCoreConfig().getDbType();
+		}
+	}
+
 	/**
 	 * Returns current time in millis. Result of this call can then be used by function getRunningTime().
 	 *
@@ -18,7 +18,10 @@ import cz.metacentrum.perun.core.implApi.modules.attributes.UserFacilityVirtualA
 import cz.metacentrum.perun.core.implApi.modules.attributes.UserFacilityVirtualAttributesModuleImplApi;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Checks and fills at specified facility users UID.
@@ -103,6 +106,41 @@ public class urn_perun_user_facility_attribute_def_virt_UID extends UserFacility
 		return attr;
 	}
 
+	/**
+	 * Gets the value of the attribute f:uid-namespace only once and then reads the attribute
+	 * u:uid-namespace:[uid-namespace] of all users by one call.
+	 */
+	@Override
+	public Map<User, Attribute> getAttributeValues(PerunSessionImpl sess, List<User> users, Facility facility, AttributeDefinition attributeDefinition) throws InternalErrorException {
+		Map<User, Attribute> attrs = new HashMap<>();
+
+		try {
+			// Get the f:uid-namespace attribute
+			Attribute uidNamespaceAttribute = sess.getPerunBl().getAttributesManagerBl().getAttribute(sess, facility, AttributesManager.NS_FACILITY_ATTR_DEF + ":uid-namespace");
+
+			if (uidNamespaceAttribute.getValue() == null) {
+				for (User user : users) {
+					attrs.put(user, new Attribute(attributeDefinition));
+				}
+				return attrs;
+			}
+
+			// Get the u:uid-namespace[uidNamespaceAttribute] of all users
+			String uidAttributeName = sess.getPerunBl().getAttributesManagerBl().getAttributeDefinition(sess, AttributesManager.NS_USER_ATTR_DEF + ":uid-namespace:" + uidNamespaceAttribute.getValue()).getName();
+			Map<User, List<Attribute>> uidAttributes = sess.getPerunBl().getAttributesManagerBl().getUsersAttributes(sess, users, Collections.singletonList(uidAttributeName));
+			for (User user : users) {
+				Attribute attr = new Attribute(attributeDefinition);
+				for (Attribute uidAttribute : uidAttributes.get(user)) {
+					Utils.copyAttributeToVirtualAttributeWithValue(uidAttribute, attr);
+				}
+				attrs.put(user, attr);
+			}
+		} catch (AttributeNotExistsException | WrongAttributeAssignmentException e) {
+			throw new ConsistencyErrorException(e);
+		}
+		return attrs;
+	}
+
 	@Override
 	public boolean setAttributeValue(PerunSessionImpl sess, User user, Facility facility, Attribute attribute) throws InternalErrorException, WrongReferenceAttributeValueException {
 		AttributeDefinition userUidAttributeDefinition;
@@ -17,7 +17,10 @@ import cz.metacentrum.perun.core.implApi.modules.attributes.UserFacilityVirtualA
 import cz.metacentrum.perun.core.implApi.modules.attributes.UserFacilityVirtualAttributesModuleImplApi;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Checks and fills at specified facility users login.
@@ -104,6 +107,43 @@ public class urn_perun_user_facility_attribute_def_virt_login extends UserFacili
 		return attr;
 	}
 
+	/**
+	 * Gets the value of the attribute f:login-namespace only once and then reads the attribute
+	 * u:login-namespace:[login-namespace] of all users by one call.
+	 */
+	@Override
+	public Map<User, Attribute> getAttributeValues(PerunSessionImpl sess, List<User> users, Facility facility, AttributeDefinition attributeDefinition) throws InternalErrorException {
+		Map<User, Attribute> attrs = new HashMap<>();
+
+		try {
+			// Get the f:login-namespace attribute
+			Attribute loginNamespaceAttribute = sess.getPerunBl().getAttributesManagerBl().getAttribute(sess, facility, AttributesManager.NS_FACILITY_ATTR_DEF + ":login-namespace");
+
+			if (loginNamespaceAttribute.getValue() == null) {
+				for (User user : users) {
+					attrs.put(user, new Attribute(attributeDefinition));
+				}
+				return attrs;
+			}
+
+			// Get the u:login-namespace[loginNamespaceAttribute] of all users
+			String loginAttributeName = sess.getPerunBl().getAttributesManagerBl().getAttributeDefinition(sess, AttributesManager.NS_USER_ATTR_DEF + ":login-namespace:" + loginNamespaceAttribute.getValue()).getName();
+			Map<User, List<Attribute>> loginAttributes = sess.getPerunBl().getAttributesManagerBl().getUsersAttributes(sess, users, Collections.singletonList(loginAttributeName));
+			for (User user : users) {
+				Attribute attr = new Attribute(attributeDefinition);
+				for (Attribute loginAttribute : loginAttributes.get(user)) {
+					Utils.copyAttributeToVirtualAttributeWithValue(loginAttribute, attr);
+				}
+				attrs.put(user, attr);
+			}
+		} catch (AttributeNotExistsException e) {
+			throw new InternalErrorException(e);
+		} catch (WrongAttributeAssignmentException e) {
+			throw new ConsistencyErrorException(e);
+		}
+		return attrs;
+	}
+
 	@Override
 	public boolean setAttributeValue(PerunSessionImpl sess, User user, Facility facility, Attribute attribute) throws InternalErrorException, WrongReferenceAttributeValueException {
 		AttributeDefinition userLoginAttributeDefinition;
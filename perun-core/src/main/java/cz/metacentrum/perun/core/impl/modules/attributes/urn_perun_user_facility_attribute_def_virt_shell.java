@@ -18,8 +18,11 @@ import cz.metacentrum.perun.core.implApi.modules.attributes.UserFacilityVirtualA
 import cz.metacentrum.perun.core.implApi.modules.attributes.UserFacilityVirtualAttributesModuleImplApi;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -52,30 +55,76 @@ public class urn_perun_user_facility_attribute_def_virt_shell extends UserFacili
 				List<String> resourcesShellsForTest = (List<String>) sess.getPerunBl().getAttributesManagerBl().getAttribute(sess, resource, AttributesManager.NS_RESOURCE_ATTR_DEF + ":shells").getValue();
 				if (resourcesShellsForTest != null) resourcesShells.addAll(resourcesShellsForTest);
 			}
-			if (userPrefferedShells.getValue() != null){
-				for (String pShell : (List<String>)userPrefferedShells.getValue()) {
-					if (resourcesShells.contains(pShell)) {
-						Utils.copyAttributeToViAttributeWithoutValue(userPrefferedShells, attr);
-						attr.setValue(pShell);
-						return attr;
-					}
+			selectShell(attr, userPrefferedShells, facilityShells, resourcesShells);
+		} catch (AttributeNotExistsException | WrongAttributeAssignmentException ex) {
+			throw new InternalErrorException(ex);
+		}
+		return attr;
+
+	}
+
+	/**
+	 * Reads shells of the facility and of its resources only once and preferred shells of all users by one call.
+	 * Shell set for the user on the facility and resources allowed for the user are still read for each user.
+	 */
+	@Override
+	public Map<User, Attribute> getAttributeValues(PerunSessionImpl sess, List<User> users, Facility facility, AttributeDefinition attributeDefinition) throws InternalErrorException {
+		Map<User, Attribute> attrs = new HashMap<>();
+
+		try {
+			Attribute facilityShells = sess.getPerunBl().getAttributesManagerBl().getAttribute(sess, facility, AttributesManager.NS_FACILITY_ATTR_DEF + ":shells");
+			String preferredShellsName = sess.getPerunBl().getAttributesManagerBl().getAttributeDefinition(sess, AttributesManager.NS_USER_ATTR_DEF + ":preferredShells").getName();
+			Map<User, List<Attribute>> usersPreferredShells = sess.getPerunBl().getAttributesManagerBl().getUsersAttributes(sess, users, Collections.singletonList(preferredShellsName));
+			Map<Resource, List<String>> shellsOfResources = new HashMap<>();
+
+			for (User user : users) {
+				Attribute attr = new Attribute(attributeDefinition);
+				attrs.put(user, attr);
+
+				Attribute attribute = sess.getPerunBl().getAttributesManagerBl().getAttribute(sess, facility, user, AttributesManager.NS_USER_FACILITY_ATTR_DEF + ":shell");
+				if (attribute.getValue() != null) {
+					Utils.copyAttributeToVirtualAttributeWithValue(attribute, attr);
+					continue;
 				}
-			}
-			if (facilityShells.getValue() != null){
-				for (String fShell : (List<String>)facilityShells.getValue()) {
-					if (resourcesShells.contains(fShell)) {
-						Utils.copyAttributeToViAttributeWithoutValue(facilityShells, attr);
-						attr.setValue(fShell);
-						return attr;
+
+				Set<String> resourcesShells = new HashSet<>();
+				for (Resource resource : sess.getPerunBl().getUsersManagerBl().getAllowedResources(sess, facility, user)) {
+					if (!shellsOfResources.containsKey(resource)) {
+						shellsOfResources.put(resource, (List<String>) sess.getPerunBl().getAttributesManagerBl().getAttribute(sess, resource, AttributesManager.NS_RESOURCE_ATTR_DEF + ":shells").getValue());
 					}
+					if (shellsOfResources.get(resource) != null) resourcesShells.addAll(shellsOfResources.get(resource));
 				}
+				List<Attribute> userPreferredShells = usersPreferredShells.get(user);
+				selectShell(attr, userPreferredShells.isEmpty() ? new Attribute() : userPreferredShells.get(0), facilityShells, resourcesShells);
 			}
-
 		} catch (AttributeNotExistsException | WrongAttributeAssignmentException ex) {
 			throw new InternalErrorException(ex);
 		}
-		return attr;
+		return attrs;
+	}
 
+	/**
+	 * Sets the first preferred shell of the user, or the first shell of the facility, which is allowed on some of the resources.
+	 */
+	private void selectShell(Attribute attr, Attribute userPrefferedShells, Attribute facilityShells, Set<String> resourcesShells) {
+		if (userPrefferedShells.getValue() != null){
+			for (String pShell : (List<String>)userPrefferedShells.getValue()) {
+				if (resourcesShells.contains(pShell)) {
+					Utils.copyAttributeToViAttributeWithoutValue(userPrefferedShells, attr);
+					attr.setValue(pShell);
+					return;
+				}
+			}
+		}
+		if (facilityShells.getValue() != null){
+			for (String fShell : (List<String>)facilityShells.getValue()) {
+				if (resourcesShells.contains(fShell)) {
+					Utils.copyAttributeToViAttributeWithoutValue(facilityShells, attr);
+					attr.setValue(fShell);
+					return;
+				}
+			}
+		}
 	}
 
 	@Override
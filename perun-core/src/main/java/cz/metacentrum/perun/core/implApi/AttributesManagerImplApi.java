@@ -1296,6 +1296,30 @@ public interface AttributesManagerImplApi {
 	 */
 	HashMap<User, List<Attribute>> getRequiredAttributes(PerunSession sess, Service service, List<User> users) throws InternalErrorException;
 
+	/**
+	 * Get user attributes with the given names for each user in the list by one query.
+	 *
+	 * @param sess perun session
+	 * @param users you get attributes for these users
+	 * @param attrNames names of the attributes, names from other than user namespace are ignored
+	 * @return map of user and his list of attributes, users without any attribute may be missing
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	HashMap<User, List<Attribute>> getUsersAttributes(PerunSession sess, List<User> users, List<String> attrNames) throws InternalErrorException;
+
+	/**
+	 * Get member attributes with the given names for each member in the list by one query.
+	 *
+	 * @param sess perun session
+	 * @param members you get attributes for these members
+	 * @param attrNames names of the attributes, names from other than member namespace are ignored
+	 * @return map of member and his list of attributes, members without any attribute may be missing
+	 *
+	 * @throws InternalErrorException if an exception raise in concrete implementation, the exception is wrapped in InternalErrorException
+	 */
+	HashMap<Member, List<Attribute>> getMembersAttributes(PerunSession sess, List<Member> members, List<String> attrNames) throws InternalErrorException;
+
 	/**
 	 * Get member-group attributes which are required by the service.
 	 *
@@ -57,6 +57,30 @@ public interface AuditMessagesManagerImplApi {
 	 */
 	List<AuditEvent> pollConsumerEvents(PerunSession perunSession, String consumerName) throws InternalErrorException;
 
+	/**
+	 * Returns list of <b>AuditMessages</b> from audit log with IDs > lastProcessedId for registered auditer consumer.
+	 * At most batchSize oldest messages are returned and last processed ID of consumer is moved to the last of them.
+	 *
+	 * @param perunSession perun session
+	 * @param consumerName consumer to get messages for
+	 * @param batchSize maximal number of returned messages
+	 * @return List of audit messages
+	 * @throws InternalErrorException When implementation fails
+	 */
+	List<AuditMessage> pollConsumerMessages(PerunSession perunSession, String consumerName, int batchSize) throws InternalErrorException;
+
+	/**
+	 * Returns list of <b>AuditEvents</b> from audit log with IDs > lastProcessedId for registered auditer consumer.
+	 * At most batchSize oldest events are returned and last processed ID of consumer is moved to the last of them.
+	 *
+	 * @param perunSession perun session
+	 * @param consumerName consumer to get events for
+	 * @param batchSize maximal number of returned events
+	 * @return List of audit events
+	 * @throws InternalErrorException When implementation fails
+	 */
+	List<AuditEvent> pollConsumerEvents(PerunSession perunSession, String consumerName, int batchSize) throws InternalErrorException;
+
 	/**
 	 * Creates new auditer consumer with last processed id which equals current auditer log max id.
 	 *
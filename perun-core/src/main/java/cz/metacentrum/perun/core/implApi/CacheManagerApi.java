@@ -19,6 +19,7 @@ public interface CacheManagerApi {
 
 	/**
 	 * Returns true if cache was updated in transaction.
+	 * Methods searching the cache by queries see only committed state, they can't be used after the update.
 	 *
 	 * @return true if cache was updated in transaction, false if it was not updated or if there is no transaction
 	 */
@@ -27,7 +28,7 @@ public interface CacheManagerApi {
 	/**
 	 * Gets all <b>non-empty</b> attributes associated with the primary holder.
 	 * Gets only non-virtual attributes.
-	 * Should be used only if wasCacheUpdatedInTransaction is false, else may return incorrect results.
+	 * Changes made in the current transaction are visible, so it can be used also if wasCacheUpdatedInTransaction is true.
 	 *
 	 * @param holder primary holder
 	 * @return list of attributes
@@ -38,7 +39,7 @@ public interface CacheManagerApi {
 	/**
 	 * Gets all <b>non-empty</b> attributes associated with the primary holder and secondary holder.
 	 * Gets only non-virtual, non-core attributes.
-	 * Should be used only if wasCacheUpdatedInTransaction is false, else may return incorrect results.
+	 * Changes made in the current transaction are visible, so it can be used also if wasCacheUpdatedInTransaction is true.
 	 *
 	 * @param primaryHolder primary holder
 	 * @param secondaryHolder secondary holder
@@ -105,7 +106,7 @@ public interface CacheManagerApi {
 
 	/**
 	 * Gets all virtual attributes associated with the primary holder and secondary holder. If secondary holder is null, it returns attributes for primary holder.
-	 * Should be used only if wasCacheUpdatedInTransaction is false, else may return incorrect results.
+	 * Changes made in the current transaction are visible, so it can be used also if wasCacheUpdatedInTransaction is true.
 	 *
 	 * @param primaryHolderType primary holder type
 	 * @param secondaryHolderType secondary holder type
@@ -149,7 +150,7 @@ public interface CacheManagerApi {
 
 	/**
 	 * Gets attributes definitions (attribute without defined value).
-	 * Should be used only if wasCacheUpdatedInTransaction is false, else may return incorrect results.
+	 * Changes made in the current transaction are visible, so it can be used also if wasCacheUpdatedInTransaction is true.
 	 *
 	 * @return list of attributes definitions
 	 */
@@ -158,7 +159,7 @@ public interface CacheManagerApi {
 	/**
 	 * Gets attributes definition (attribute without defined value) with specified namespace.
 	 * It may happen that it returns more attribute definitions than it should, because it may return also attribute definitions for entities that do not exist (see javadoc for removeAllAttributes methods)
-	 * Should be used only if wasCacheUpdatedInTransaction is false, else may return incorrect results.
+	 * Changes made in the current transaction are visible, so it can be used also if wasCacheUpdatedInTransaction is true.
 	 *
 	 * @param namespace get only attributes with this namespace
 	 * @return list of attributes definitions
@@ -269,7 +270,7 @@ public interface CacheManagerApi {
 
 	/**
 	 * Gets all attributes associated with the primary holder which have id in list attrIds (empty and virtual too).
-	 * Should be used only if wasCacheUpdatedInTransaction is false, else may return incorrect results.
+	 * Changes made in the current transaction are visible, so it can be used also if wasCacheUpdatedInTransaction is true.
 	 *
 	 * @param attrIds list of attribute ids
 	 * @param primaryHolder primary holder
@@ -280,7 +281,7 @@ public interface CacheManagerApi {
 
 	/**
 	 * Gets all attributes associated with the primary and secondary holder which have id in list attrIds (empty and virtual too).
-	 * Should be used only if wasCacheUpdatedInTransaction is false, else may return incorrect results.
+	 * Changes made in the current transaction are visible, so it can be used also if wasCacheUpdatedInTransaction is true.
 	 *
 	 * @param attrIds list of attribute ids
 	 * @param primaryHolder primary holder
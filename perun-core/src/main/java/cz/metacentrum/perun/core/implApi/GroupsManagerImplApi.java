@@ -343,6 +343,29 @@ public interface GroupsManagerImplApi {
 	 */
 	List<Group> getSubGroups(PerunSession perunSession, Group parentGroup) throws InternalErrorException;
 
+	/**
+	 * Get all subgroups of the parent group recursively (its subgroups, their subgroups etc.) by one query.
+	 *
+	 * @param perunSession
+	 * @param parentGroup
+	 *
+	 * @throws InternalErrorException
+	 * @return list of groups
+	 */
+	List<Group> getAllSubGroups(PerunSession perunSession, Group parentGroup) throws InternalErrorException;
+
+	/**
+	 * Get all groups above the group in the hierarchy by one query, from its parent group up to the top-level group.
+	 * Members group is not a parent of top-level groups here.
+	 *
+	 * @param sess
+	 * @param group
+	 *
+	 * @throws InternalErrorException
+	 * @return list of groups, empty for top-level groups
+	 */
+	List<Group> getAllParentGroups(PerunSession sess, Group group) throws InternalErrorException;
+
 	/** Gets list of all administrators of this group.
 	 * If some group is administrator of the given group, all members are included in the list.
 	 *
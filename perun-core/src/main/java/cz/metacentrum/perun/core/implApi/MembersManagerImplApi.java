@@ -3,6 +3,7 @@ package cz.metacentrum.perun.core.implApi;
 import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Member;
 import cz.metacentrum.perun.core.api.MemberGroupStatus;
+import cz.metacentrum.perun.core.api.MembersPageQuery;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.Resource;
 import cz.metacentrum.perun.core.api.Status;
@@ -331,4 +332,30 @@ public interface MembersManagerImplApi {
 	 */
 	MemberGroupStatus getUnifiedMemberGroupStatus(PerunSession sess, User user, Facility facility) throws InternalErrorException;
 
+	/**
+	 * Returns one page of members of the VO matching the query sorted by the sort column of the query.
+	 * Members with missing or empty names are sorted before others.
+	 *
+	 * @param sess PerunSession
+	 * @param vo VO to get members from
+	 * @param query query with filters and sort column, page token of the query is ignored
+	 * @param cursor values of the sort column (last name, first name, null if missing) and member id of the last member
+	 *               of the previous page or null for the first page
+	 * @param limit maximal number of returned members
+	 * @return members of the page
+	 * @throws InternalErrorException
+	 */
+	List<Member> getMembersPage(PerunSession sess, Vo vo, MembersPageQuery query, List<String> cursor, int limit) throws InternalErrorException;
+
+	/**
+	 * Returns number of all members of the VO matching the query.
+	 *
+	 * @param sess PerunSession
+	 * @param vo VO to count members of
+	 * @param query query with filters, page token and sort column of the query are ignored
+	 * @return number of matching members
+	 * @throws InternalErrorException
+	 */
+	int getMembersPageCount(PerunSession sess, Vo vo, MembersPageQuery query) throws InternalErrorException;
+
 }
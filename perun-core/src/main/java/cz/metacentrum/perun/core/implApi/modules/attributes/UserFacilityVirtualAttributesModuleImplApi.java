@@ -8,6 +8,9 @@ import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.core.api.exceptions.WrongReferenceAttributeValueException;
 import cz.metacentrum.perun.core.impl.PerunSessionImpl;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * This interface serves as a template for virtual attributes.
  *
@@ -28,6 +31,20 @@ public interface UserFacilityVirtualAttributesModuleImplApi extends UserFacility
 	 */
 	Attribute getAttributeValue(PerunSessionImpl perunSession, User user, Facility facility, AttributeDefinition attribute) throws InternalErrorException;
 
+	/**
+	 * This method will return computed values for all users on the same facility.
+	 * Modules can read data shared by all the users (e.g. facility attributes) only once.
+	 *
+	 * @param perunSession perun session
+	 * @param users users which are needed for computing the values
+	 * @param facility facility which is needed for computing the values
+	 * @param attribute attribute to operate on
+	 * @return map of users to attributes with computed values
+	 * @throws InternalErrorException if an exception is raised in particular
+	 *         implementation, the exception is wrapped in InternalErrorException
+	 */
+	Map<User, Attribute> getAttributeValues(PerunSessionImpl perunSession, List<User> users, Facility facility, AttributeDefinition attribute) throws InternalErrorException;
+
 	/**
 	 * Method sets attributes' values which are dependent on this virtual attribute.
 	 *
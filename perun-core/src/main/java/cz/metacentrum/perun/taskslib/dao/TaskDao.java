@@ -37,6 +37,13 @@ public interface TaskDao {
 
 	void updateTask(Task task);
 
+	/**
+	 * Update all Tasks in one JDBC batch. Same columns as by updateTask(Task) are updated.
+	 *
+	 * @param tasks Tasks to update
+	 */
+	void updateTasks(List<Task> tasks);
+
 	void removeTask(int id);
 
 	int countTasks();
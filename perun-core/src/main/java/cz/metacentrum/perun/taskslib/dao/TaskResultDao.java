@@ -1,6 +1,7 @@
 package cz.metacentrum.perun.taskslib.dao;
 
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
+import cz.metacentrum.perun.core.api.Pair;
 import cz.metacentrum.perun.taskslib.model.TaskResult;
 
 import java.util.List;
@@ -69,6 +70,15 @@ public interface TaskResultDao {
 
 	int insertNewTaskResult(TaskResult taskResult, int engineID) throws InternalErrorException;
 
+	/**
+	 * Insert TaskResults in one JDBC batch. IDs for all of them are taken from the sequence by one query
+	 * and set to the TaskResults.
+	 *
+	 * @param taskResults pairs of TaskResult and ID of engine it came from
+	 * @throws InternalErrorException when new IDs can't be obtained
+	 */
+	void insertNewTaskResults(List<Pair<TaskResult, Integer>> taskResults) throws InternalErrorException;
+
 	List<TaskResult> getTaskResults(int engineID);
 
 	TaskResult getTaskResultById(int taskResultId, int engineID);
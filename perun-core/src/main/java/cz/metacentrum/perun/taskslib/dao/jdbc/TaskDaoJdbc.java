@@ -330,6 +330,30 @@ public class TaskDaoJdbc extends JdbcDaoSupport implements TaskDao {
 
 	@Override
 	public void updateTask(Task task) {
+		// jdbc template cannot be null
+		getMyJdbcTemplate().update(getUpdateTaskQuery(), getUpdateTaskArgs(task));
+	}
+
+	@Override
+	public void updateTasks(List<Task> tasks) {
+		if (tasks.isEmpty()) return;
+		List<Object[]> batchArgs = new ArrayList<>(tasks.size());
+		for (Task task : tasks) {
+			batchArgs.add(getUpdateTaskArgs(task));
+		}
+		// jdbc template cannot be null
+		getMyJdbcTemplate().batchUpdate(getUpdateTaskQuery(), batchArgs);
+	}
+
+	private static String getUpdateTaskQuery() {
+		return "update tasks set service_id = ?, facility_id = ?, schedule = " + Compatibility.toDate("?","'DD-MM-YYYY HH24:MI:SS'") + ", recurrence = ?, delay = ?, "
+				+ "status = ?, start_time = " + Compatibility.toDate("?","'DD-MM-YYYY HH24:MI:SS'") + ", end_time = " + Compatibility.toDate("?","'DD-MM-YYYY HH24:MI:SS'") + " where id = ?";
+	}
+
+	/**
+	 * Get arguments of the query returned by getUpdateTaskQuery() from current state of the Task.
+	 */
+	private Object[] getUpdateTaskArgs(Task task) {
 		String scheduled = null;
 		if (task.getSchedule() != null) {
 			scheduled = task.getSchedule().format(getDateTimeFormatter());
@@ -342,12 +366,8 @@ public class TaskDaoJdbc extends JdbcDaoSupport implements TaskDao {
 		if (task.getStartTime() != null) {
 			startTime = task.getStartTime().format(getDateTimeFormatter());
 		}
-
-		// jdbc template cannot be null
-		getMyJdbcTemplate().update(
-				"update tasks set service_id = ?, facility_id = ?, schedule = " + Compatibility.toDate("?","'DD-MM-YYYY HH24:MI:SS'") + ", recurrence = ?, delay = ?, "
-				+ "status = ?, start_time = " + Compatibility.toDate("?","'DD-MM-YYYY HH24:MI:SS'") + ", end_time = " + Compatibility.toDate("?","'DD-MM-YYYY HH24:MI:SS'") + " where id = ?", task.getServiceId(),
-				task.getFacilityId(), scheduled, task.getRecurrence(), task.getDelay(), task.getStatus().toString(), startTime, endTime, task.getId());
+		return new Object[] { task.getServiceId(), task.getFacilityId(), scheduled, task.getRecurrence(), task.getDelay(),
+				task.getStatus().toString(), startTime, endTime, task.getId() };
 	}
 
 	@Override
@@ -1,6 +1,7 @@
 package cz.metacentrum.perun.taskslib.dao.jdbc;
 
 import cz.metacentrum.perun.core.api.BeansUtils;
+import cz.metacentrum.perun.core.api.Pair;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.core.impl.Compatibility;
 import cz.metacentrum.perun.core.impl.ServicesManagerImpl;
@@ -19,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Transactional
@@ -78,6 +80,44 @@ public class TaskResultDaoJdbc extends JdbcDaoSupport implements TaskResultDao {
 	public int insertNewTaskResult(TaskResult taskResult, int engineID) throws InternalErrorException {
 		int newTaskResultId = Utils.getNewId(this.getJdbcTemplate(), "tasks_results_id_seq");
 
+		// jdbc template cannot be null
+		this.getJdbcTemplate().update(getInsertTaskResultQuery(), getInsertTaskResultArgs(newTaskResultId, taskResult, engineID));
+		return newTaskResultId;
+	}
+
+	@SuppressWarnings("ConstantConditions")
+	@Override
+	public void insertNewTaskResults(List<Pair<TaskResult, Integer>> taskResults) throws InternalErrorException {
+		if (taskResults.isEmpty()) return;
+		List<Integer> newIds = Utils.getNewIds(this.getJdbcTemplate(), "tasks_results_id_seq", taskResults.size());
+
+		List<Object[]> batchArgs = new ArrayList<>(taskResults.size());
+		for (int i = 0; i < taskResults.size(); i++) {
+			Pair<TaskResult, Integer> taskResult = taskResults.get(i);
+			batchArgs.add(getInsertTaskResultArgs(newIds.get(i), taskResult.getLeft(), taskResult.getRight()));
+		}
+		// jdbc template cannot be null
+		this.getJdbcTemplate().batchUpdate(getInsertTaskResultQuery(), batchArgs);
+
+		for (int i = 0; i < taskResults.size(); i++) {
+			taskResults.get(i).getLeft().setId(newIds.get(i));
+		}
+	}
+
+	private static String getInsertTaskResultQuery() {
+		return "insert into tasks_results(" +
+				"id, " +
+				"task_id, " +
+				"destination_id, " +
+				"status, " +
+				"err_message, " +
+				"std_message, " +
+				"return_code, " +
+				"timestamp, " +
+				"engine_id) values (?,?,?,?,?,?,?, " + Compatibility.toDate("?","'DD-MM-YYYY HH24:MI:SS'") + " ,?)";
+	}
+
+	private Object[] getInsertTaskResultArgs(int newTaskResultId, TaskResult taskResult, int engineID) {
 		// There was probably an issue with too long a String for VARCHAR2 datatype http://goo.gl/caVxp.
 		// Solution might be to shorten the message according to VARCHAR2: http://goo.gl/WrlYm
 		byte[] standardMessage = null;
@@ -90,29 +130,16 @@ public class TaskResultDaoJdbc extends JdbcDaoSupport implements TaskResultDao {
 		standardMessage = clearZeroBytesFromString(standardMessage, 4000);
 		errorMessage = clearZeroBytesFromString(errorMessage, 4000);
 
-		// jdbc template cannot be null
-		this.getJdbcTemplate()
-			.update(
-					"insert into tasks_results(" +
-					"id, " +
-					"task_id, " +
-					"destination_id, " +
-					"status, " +
-					"err_message, " +
-					"std_message, " +
-					"return_code, " +
-					"timestamp, " +
-					"engine_id) values (?,?,?,?,?,?,?, " + Compatibility.toDate("?","'DD-MM-YYYY HH24:MI:SS'") + " ,?)",
-					newTaskResultId,
-					taskResult.getTaskId(),
-					taskResult.getDestinationId(),
-					taskResult.getStatus().toString(),
-					errorMessage == null ? null : new String(errorMessage, StandardCharsets.UTF_8),
-					standardMessage == null ? null : new String(standardMessage, StandardCharsets.UTF_8),
-					taskResult.getReturnCode(),
-					TaskDaoJdbc.getDateFormatter().format(taskResult.getTimestamp()),
-					engineID);
-		return newTaskResultId;
+		return new Object[] {
+				newTaskResultId,
+				taskResult.getTaskId(),
+				taskResult.getDestinationId(),
+				taskResult.getStatus().toString(),
+				errorMessage == null ? null : new String(errorMessage, StandardCharsets.UTF_8),
+				standardMessage == null ? null : new String(standardMessage, StandardCharsets.UTF_8),
+				taskResult.getReturnCode(),
+				TaskDaoJdbc.getDateFormatter().format(taskResult.getTimestamp()),
+				engineID };
 	}
 
 	@SuppressWarnings("ConstantConditions")
@@ -1,5 +1,6 @@
 package cz.metacentrum.perun.taskslib.service;
 
+import cz.metacentrum.perun.core.api.Pair;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.taskslib.model.TaskResult;
 
@@ -25,6 +26,14 @@ public interface ResultManager {
 
 	int insertNewTaskResult(TaskResult taskResult, int engineID) throws InternalErrorException;
 
+	/**
+	 * Insert TaskResults in one batch. If any of them can't be inserted, none is.
+	 *
+	 * @param taskResults pairs of TaskResult and ID of engine it came from
+	 * @throws InternalErrorException
+	 */
+	void insertNewTaskResults(List<Pair<TaskResult, Integer>> taskResults) throws InternalErrorException;
+
 	List<TaskResult> getTaskResults(int engineID);
 
 	TaskResult getTaskResultById(int taskResultId, int engineID);
@@ -41,6 +41,20 @@ public interface TaskManager {
 
 	void updateTask(Task task);
 
+	/**
+	 * Queue Task to be updated in the database by the next flushTaskUpdates().
+	 * More updates of the same Task are coalesced into one, which writes its state at the time of flush.
+	 * Until then, the database can be behind the in-memory Task.
+	 *
+	 * @param task Task to update
+	 */
+	void updateTaskDeferred(Task task);
+
+	/**
+	 * Write all Tasks queued by updateTaskDeferred() to the database in one batch.
+	 */
+	void flushTaskUpdates();
+
 	void updateTaskEngine(Task task, int engineID) throws InternalErrorException;
 
 	boolean isThereSuchTask(Service service, Facility facility, int engineID);
@@ -7,6 +7,7 @@ import cz.metacentrum.perun.taskslib.model.Task;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * This interface describes basic Task storing functionality, where every Task is uniquely represented by
@@ -49,6 +50,20 @@ public interface TaskStore {
 	 */
 	Task addTask(Task task) throws TaskStoreException;
 
+	/**
+	 * Get Task by its Facility and Service or create it, if it's not present yet.
+	 * Lookup and creation are atomic, so at most one Task for the pair is ever created
+	 * even when called concurrently. Task returned by the factory must have
+	 * the same Facility and Service and is added to the TaskStore.
+	 *
+	 * @param facility Facility to get Task for
+	 * @param service Service to get Task for
+	 * @param taskFactory Called to create new Task, when none exists yet
+	 * @return Existing Task or newly created Task
+	 * @throws TaskStoreException When created Task can't be added because of some kind of inconsistency
+	 */
+	Task getOrCreateTask(Facility facility, Service service, Supplier<Task> taskFactory) throws TaskStoreException;
+
 	/**
 	 * Get all Tasks present in a TaskStore.
 	 *
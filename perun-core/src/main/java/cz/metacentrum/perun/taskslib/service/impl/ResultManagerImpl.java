@@ -1,5 +1,6 @@
 package cz.metacentrum.perun.taskslib.service.impl;
 
+import cz.metacentrum.perun.core.api.Pair;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.taskslib.dao.TaskResultDao;
 import cz.metacentrum.perun.taskslib.model.TaskResult;
@@ -55,6 +56,11 @@ public class ResultManagerImpl implements ResultManager {
 		return taskResultDao.insertNewTaskResult(taskResult, engineID);
 	}
 
+	@Override
+	public void insertNewTaskResults(List<Pair<TaskResult, Integer>> taskResults) throws InternalErrorException {
+		taskResultDao.insertNewTaskResults(taskResults);
+	}
+
 	@Override
 	public List<TaskResult> getTaskResults(int engineID) {
 		return taskResultDao.getTaskResults(engineID);
@@ -10,10 +10,14 @@ import cz.metacentrum.perun.taskslib.model.Task.TaskStatus;
 import cz.metacentrum.perun.taskslib.service.TaskManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  *
@@ -23,12 +27,15 @@ import java.util.List;
  */
 @Transactional
 @org.springframework.stereotype.Service(value = "taskManager")
-public class TaskManagerImpl implements TaskManager {
+public class TaskManagerImpl implements TaskManager, DisposableBean {
 	private static final Logger log = LoggerFactory.getLogger(TaskManagerImpl.class);
 
 	@Autowired
 	private TaskDao taskDao;
 
+	// Tasks waiting for deferred update by their IDs, only the latest Task object matters
+	private final Map<Integer, Task> pendingUpdates = new ConcurrentHashMap<>();
+
 	@Override
 	public int scheduleNewTask(Task task, int engineID) {
 		return taskDao.scheduleNewTask(task, engineID);
@@ -91,9 +98,48 @@ public class TaskManagerImpl implements TaskManager {
 
 	@Override
 	public void updateTask(Task task) {
+		// current state is written right now, pending update is not needed anymore
+		pendingUpdates.remove(task.getId());
 		taskDao.updateTask(task);
 	}
 
+	@Override
+	public void updateTaskDeferred(Task task) {
+		pendingUpdates.put(task.getId(), task);
+	}
+
+	@Override
+	public void flushTaskUpdates() {
+		if (pendingUpdates.isEmpty()) return;
+		List<Task> tasks = new ArrayList<>(pendingUpdates.size());
+		for (Integer id : pendingUpdates.keySet()) {
+			Task task = pendingUpdates.remove(id);
+			if (task != null) tasks.add(task);
+		}
+		try {
+			taskDao.updateTasks(tasks);
+		} catch (RuntimeException e) {
+			// keep updates for the next flush unless newer ones were queued meanwhile
+			for (Task task : tasks) {
+				pendingUpdates.putIfAbsent(task.getId(), task);
+			}
+			throw e;
+		}
+		log.debug("Flushed {} deferred Task updates.", tasks.size());
+	}
+
+	/**
+	 * Write pending Task updates when application is shut down.
+	 */
+	@Override
+	public void destroy() {
+		try {
+			flushTaskUpdates();
+		} catch (RuntimeException e) {
+			log.error("Unable to flush {} deferred Task updates on shutdown.", pendingUpdates.size(), e);
+		}
+	}
+
 	@Override
 	public void updateTaskEngine(Task task, int engineID) throws InternalErrorException {
 		taskDao.updateTaskEngine(task, engineID);
@@ -111,11 +157,13 @@ public class TaskManagerImpl implements TaskManager {
 
 	@Override
 	public void removeTask(int id, int engineID) {
+		pendingUpdates.remove(id);
 		taskDao.removeTask(id, engineID);
 	}
 
 	@Override
 	public void removeTask(int id) {
+		pendingUpdates.remove(id);
 		taskDao.removeTask(id);
 	}
 
@@ -12,25 +12,45 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Implementation of TaskStore as in-memory pool.
  *
+ * Tasks are kept in concurrent maps, so lookups don't need any lock. Modifications
+ * of one <Facility, Service> pair are serialized by one of the striped locks, which keeps
+ * both maps consistent and makes get-or-create atomic without blocking other pairs.
+ * IDs of Tasks are also indexed by their status, the index is updated by Task itself
+ * through its status listener.
+ *
  * @see cz.metacentrum.perun.taskslib.service.TaskStore
  *
  * @author David Šarman
  * @author Pavel Zlámal <zlamal@cesnet.cz>
  */
-public class TaskStoreImpl implements TaskStore {
+public class TaskStoreImpl implements TaskStore, Task.StatusListener {
 
 	private final static Logger log = LoggerFactory.getLogger(TaskStoreImpl.class);
-	private final Map<Integer, Task> tasksById = new HashMap<>();
-	private final Map<Pair<Facility, Service>, Task> tasksByFacilityAndService = new HashMap<>();
+	private final static int LOCK_STRIPES = 64;
+
+	private final Map<Integer, Task> tasksById = new ConcurrentHashMap<>();
+	private final Map<Pair<Facility, Service>, Task> tasksByFacilityAndService = new ConcurrentHashMap<>();
+	private final Map<Task.TaskStatus, Set<Integer>> taskIdsByStatus = new EnumMap<>(Task.TaskStatus.class);
+	private final Object[] locks = new Object[LOCK_STRIPES];
 
 	public TaskStoreImpl() {
+		for (Task.TaskStatus status : Task.TaskStatus.values()) {
+			taskIdsByStatus.put(status, ConcurrentHashMap.newKeySet());
+		}
+		for (int i = 0; i < LOCK_STRIPES; i++) {
+			locks[i] = new Object();
+		}
 	}
 
 	@Override
@@ -50,19 +70,16 @@ public class TaskStoreImpl implements TaskStore {
 
 	@Override
 	public Task addTask(Task task) throws TaskStoreException {
-		if (task.getService() == null) {
-			log.error("Tried to insert Task {} with no Service", task);
-			throw new IllegalArgumentException("Tasks Service not set.");
-		} else if (task.getFacility() == null) {
-			log.error("Tried to insert Task {} with no Facility", task);
-			throw new IllegalArgumentException("Tasks Facility not set.");
-		}
+		checkTask(task);
+		Pair<Facility, Service> key = new Pair<>(task.getFacility(), task.getService());
 		Task idAdded;
 		Task otherAdded;
-		synchronized (this) {
+		synchronized (getLock(key)) {
 			idAdded = tasksById.put(task.getId(), task);
-			otherAdded = tasksByFacilityAndService.put(
-					new Pair<>(task.getFacility(), task.getService()), task);
+			otherAdded = tasksByFacilityAndService.put(key, task);
+			unindexTask(idAdded, task);
+			unindexTask(otherAdded, task);
+			indexTask(task);
 		}
 		if (idAdded != otherAdded) {
 			log.error("Task returned from both Maps after insert differ. taskById {}, taskByFacilityAndService {}", idAdded, otherAdded);
@@ -72,31 +89,63 @@ public class TaskStoreImpl implements TaskStore {
 		}
 	}
 
+	@Override
+	public Task getOrCreateTask(Facility facility, Service service, Supplier<Task> taskFactory) throws TaskStoreException {
+		Pair<Facility, Service> key = new Pair<>(facility, service);
+		Task task = tasksByFacilityAndService.get(key);
+		if (task != null) return task;
+		synchronized (getLock(key)) {
+			task = tasksByFacilityAndService.get(key);
+			if (task != null) return task;
+			task = taskFactory.get();
+			checkTask(task);
+			if (!key.equals(new Pair<>(task.getFacility(), task.getService()))) {
+				log.error("Created Task {} doesn't belong to {} and {}", task, facility, service);
+				throw new TaskStoreException("Created Task has different Facility or Service.");
+			}
+			Task idAdded = tasksById.putIfAbsent(task.getId(), task);
+			if (idAdded != null) {
+				log.error("Created Task {} has the same ID as already stored Task {}", task, idAdded);
+				throw new TaskStoreException("Task with the same ID is already stored.");
+			}
+			tasksByFacilityAndService.put(key, task);
+			indexTask(task);
+		}
+		return task;
+	}
+
 	@Override
 	public Collection<Task> getAllTasks() {
 		return tasksById.values();
 	}
 
 	@Override
-	public synchronized List<Task> getTasksWithStatus(Task.TaskStatus... status) {
-		Collection<Task> tasks = tasksById.values();
-		synchronized (this) {
-			List<Task> result = new ArrayList<>();
-			List<Task.TaskStatus> statuses = Arrays.asList(status);
-			for (Task t : tasks) {
-				if (statuses.contains(t.getStatus())) result.add(t);
-			}
-			return result;
+	public List<Task> getTasksWithStatus(Task.TaskStatus... status) {
+		// same status might be requested more than once
+		Set<Integer> ids = new LinkedHashSet<>();
+		for (Task.TaskStatus s : status) {
+			ids.addAll(taskIdsByStatus.get(s));
+		}
+		List<Task.TaskStatus> statuses = Arrays.asList(status);
+		List<Task> result = new ArrayList<>(ids.size());
+		for (Integer id : ids) {
+			Task task = tasksById.get(id);
+			// status might have changed since we read the index
+			if (task != null && statuses.contains(task.getStatus())) result.add(task);
 		}
+		return result;
 	}
 
 	@Override
 	public Task removeTask(Task task) throws TaskStoreException {
+		Pair<Facility, Service> key = new Pair<>(task.getFacility(), task.getService());
 		Task idRemoved;
 		Task otherRemoved;
-		synchronized (this) {
+		synchronized (getLock(key)) {
 			idRemoved = tasksById.remove(task.getId());
-			otherRemoved = tasksByFacilityAndService.remove(new Pair<>(task.getFacility(), task.getService()));
+			otherRemoved = tasksByFacilityAndService.remove(key);
+			unindexTask(idRemoved, null);
+			unindexTask(otherRemoved, null);
 		}
 		if (idRemoved != otherRemoved) {
 			log.error("Inconsistent state occurred after removing Task {} from TaskStore", task);
@@ -109,15 +158,69 @@ public class TaskStoreImpl implements TaskStore {
 	public Task removeTask(int id) throws TaskStoreException {
 		Task task = getTask(id);
 		if (task != null) {
-			task = removeTask(getTask(id));
+			task = removeTask(task);
 		}
 		return task;
 	}
 
 	@Override
 	public void clear() {
+		for (Task task : tasksById.values()) {
+			unindexTask(task, null);
+		}
 		tasksById.clear();
 		tasksByFacilityAndService.clear();
+		for (Set<Integer> ids : taskIdsByStatus.values()) {
+			ids.clear();
+		}
+	}
+
+	@Override
+	public void statusChanged(Task task, Task.TaskStatus oldStatus, Task.TaskStatus newStatus) {
+		if (oldStatus != null) taskIdsByStatus.get(oldStatus).remove(task.getId());
+		if (newStatus != null) taskIdsByStatus.get(newStatus).add(task.getId());
+	}
+
+	private void checkTask(Task task) {
+		if (task.getService() == null) {
+			log.error("Tried to insert Task {} with no Service", task);
+			throw new IllegalArgumentException("Tasks Service not set.");
+		} else if (task.getFacility() == null) {
+			log.error("Tried to insert Task {} with no Facility", task);
+			throw new IllegalArgumentException("Tasks Facility not set.");
+		}
+	}
+
+	private Object getLock(Pair<Facility, Service> key) {
+		return locks[Math.floorMod(key.hashCode(), LOCK_STRIPES)];
+	}
+
+	/**
+	 * Start listening to status changes of the Task and put it to the status index.
+	 * Task lock is held, so no status change can slip between reading and indexing the status.
+	 */
+	private void indexTask(Task task) {
+		synchronized (task) {
+			task.setStatusListener(this);
+			if (task.getStatus() != null) taskIdsByStatus.get(task.getStatus()).add(task.getId());
+		}
+	}
+
+	/**
+	 * Stop listening to status changes of the Task, which is no longer stored,
+	 * and remove it from the status index.
+	 *
+	 * @param task Task to unindex, nothing is done for null
+	 * @param replacement Task stored instead, nothing is done if it is the same Task
+	 */
+	private void unindexTask(Task task, Task replacement) {
+		if (task == null || task == replacement) return;
+		synchronized (task) {
+			task.setStatusListener(null);
+			if (task.getStatus() != null) {
+				taskIdsByStatus.get(task.getStatus()).remove(task.getId());
+			}
+		}
 	}
 
 }
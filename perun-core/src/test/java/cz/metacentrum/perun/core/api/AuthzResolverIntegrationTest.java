@@ -5,12 +5,14 @@ import cz.metacentrum.perun.core.AbstractPerunIntegrationTest;
 import cz.metacentrum.perun.core.api.exceptions.AlreadyMemberException;
 import cz.metacentrum.perun.core.api.exceptions.ExtendMembershipException;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
+import cz.metacentrum.perun.core.api.exceptions.PolicyNotExistsException;
 import cz.metacentrum.perun.core.api.exceptions.PrivilegeException;
 import cz.metacentrum.perun.core.api.exceptions.UserNotAdminException;
 import cz.metacentrum.perun.core.api.exceptions.WrongAttributeValueException;
 import cz.metacentrum.perun.core.api.exceptions.WrongReferenceAttributeValueException;
 import cz.metacentrum.perun.core.blImpl.AuthzResolverBlImpl;
 import cz.metacentrum.perun.core.impl.AuthzRoles;
+import cz.metacentrum.perun.core.impl.AuthzRolesCache;
 import cz.metacentrum.perun.core.impl.PerunSessionImpl;
 import org.junit.Test;
 
@@ -21,8 +23,11 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
@@ -64,6 +69,61 @@ public class AuthzResolverIntegrationTest extends AbstractPerunIntegrationTest {
 		assertTrue(AuthzResolver.authorized(session, "default_policy", Collections.emptyList()));
 	}
 
+	@Test
+	public void authorizedFilterByIncludedPolicies() throws Exception {
+		System.out.println(CLASS_NAME + "authorizedFilterByIncludedPolicies");
+
+		final Vo adminVo = perun.getVosManager().createVo(sess, new Vo(0,"testvo1","testvo1"));
+		final Vo otherVo = perun.getVosManager().createVo(sess, new Vo(0,"testvo2","testvo2"));
+		final Group groupInAdminVo = perun.getGroupsManager().createGroup(sess, adminVo, new Group("testGroup1", "testg1"));
+		final Group adminGroup = perun.getGroupsManager().createGroup(sess, otherVo, new Group("testGroup2", "testg2"));
+		final Group otherGroup = perun.getGroupsManager().createGroup(sess, otherVo, new Group("testGroup3", "testg3"));
+		final Member createdMember = createSomeMember(adminVo);
+		final User createdUser = perun.getUsersManagerBl().getUserByMember(sess, createdMember);
+
+		AuthzResolver.setRole(sess, createdUser, adminVo, Role.VOADMIN);
+		AuthzResolver.setRole(sess, createdUser, adminGroup, Role.GROUPADMIN);
+
+		PerunSession session = getHisSession(createdMember);
+		AuthzResolver.refreshAuthz(session);
+
+		List<Group> groups = Arrays.asList(groupInAdminVo, adminGroup, otherGroup);
+		assertEquals(Arrays.asList(groupInAdminVo, adminGroup), AuthzResolver.authorizedFilter(session, "test_group_admin_policy", groups));
+		assertEquals(Collections.singletonList(groupInAdminVo), AuthzResolver.authorizedFilter(session, "test_vo_admin_policy", groups));
+		for (Group group : groups) {
+			assertEquals(AuthzResolver.authorizedFilter(session, "test_group_admin_policy", groups).contains(group),
+				AuthzResolver.authorized(session, "test_group_admin_policy", Collections.singletonList(group)));
+		}
+	}
+
+	@Test
+	public void authorizedFilterPerunAdmin() throws Exception {
+		System.out.println(CLASS_NAME + "authorizedFilterPerunAdmin");
+
+		final Vo createdVo = perun.getVosManager().createVo(sess, new Vo(0,"testvo1","testvo1"));
+		final Group createdGroup = perun.getGroupsManager().createGroup(sess, createdVo, new Group("testGroup1", "testg1"));
+		final Member createdMember = createSomeMember(createdVo);
+		final User createdUser = perun.getUsersManagerBl().getUserByMember(sess, createdMember);
+
+		List<PerunBean> objects = Arrays.asList(createdVo, createdGroup, createdMember);
+
+		PerunSession session = getHisSession(createdMember);
+		AuthzResolver.refreshAuthz(session);
+		assertTrue(AuthzResolver.authorizedFilter(session, "test_group_admin_policy", objects).isEmpty());
+
+		AuthzResolver.setRole(sess, createdUser, null, Role.PERUNADMIN);
+		AuthzResolver.refreshAuthz(session);
+		assertEquals(objects, AuthzResolver.authorizedFilter(session, "test_group_admin_policy", objects));
+	}
+
+	@Test
+	public void authorizedFilterPolicyNotExists() throws Exception {
+		System.out.println(CLASS_NAME + "authorizedFilterPolicyNotExists");
+
+		assertThatExceptionOfType(PolicyNotExistsException.class).isThrownBy(
+			() -> AuthzResolver.authorizedFilter(sess, "not_existing_policy", Collections.emptyList()));
+	}
+
 	@Test
 	public void isAuthorizedInvalidPrincipal() throws Exception {
 		System.out.println(CLASS_NAME + "isAuthorizedInvalidPrincipal");
@@ -500,6 +560,128 @@ public class AuthzResolverIntegrationTest extends AbstractPerunIntegrationTest {
 		assertFalse(AuthzResolver.isAuthorizedForAttribute(testSession, ActionType.READ, attrDef, attributeUser));
 	}
 
+	@Test
+	public void isAuthorizedForAttributeAfterRightsChangedInTransaction() throws Exception {
+		System.out.println(CLASS_NAME + "isAuthorizedForAttributeAfterRightsChangedInTransaction");
+
+		final Vo createdVo = perun.getVosManager().createVo(sess, new Vo(0,"testvo1","testvo1"));
+		final Member sessionMember = createSomeMember(createdVo);
+		final User sessionUser = perun.getUsersManagerBl().getUserByMember(sess, sessionMember);
+
+		AttributeDefinition attrDef = new AttributeDefinition();
+		attrDef.setNamespace(AttributesManager.NS_USER_ATTR_DEF);
+		attrDef.setType(Integer.class.getName());
+		attrDef.setFriendlyName("testUserAttr");
+		attrDef.setDisplayName("test user attr");
+
+		attrDef = perun.getAttributesManagerBl().createAttribute(sess, attrDef);
+
+		PerunPrincipal mockedPerunPrincipal = mock(PerunPrincipal.class, RETURNS_DEEP_STUBS);
+		when(mockedPerunPrincipal.isAuthzInitialized()).thenReturn(true);
+		when(mockedPerunPrincipal.getRoles()).thenReturn(new AuthzRoles(Role.SELF, sessionUser));
+		when(mockedPerunPrincipal.getUser()).thenReturn(sessionUser);
+		when(mockedPerunPrincipal.getUserId()).thenReturn(sessionUser.getId());
+
+		PerunSessionImpl testSession = new PerunSessionImpl(sess.getPerun(), mockedPerunPrincipal, sess.getPerunClient());
+
+		// rights are read from memory before they are changed
+		assertFalse(AuthzResolver.isAuthorizedForAttribute(testSession, ActionType.READ, attrDef, sessionUser));
+
+		List<AttributeRights> rights = new ArrayList<>();
+		rights.add(new AttributeRights(attrDef.getId(), Role.SELF, Arrays.asList(ActionType.READ, ActionType.WRITE)));
+		perun.getAttributesManagerBl().setAttributeRights(sess, rights);
+
+		assertTrue(AuthzResolver.isAuthorizedForAttribute(testSession, ActionType.READ, attrDef, sessionUser));
+		assertTrue(AuthzResolver.isAuthorizedForAttribute(testSession, ActionType.WRITE, attrDef, sessionUser));
+		assertEquals(Collections.singleton(ActionType.READ), AuthzResolverBlImpl.getRolesWhichCanWorkWithAttribute(sess, ActionType.READ, attrDef).get(Role.SELF));
+	}
+
+	@Test
+	public void refreshAuthzAfterRoleChangedInTransaction() throws Exception {
+		System.out.println(CLASS_NAME + "refreshAuthzAfterRoleChangedInTransaction");
+
+		final Vo createdVo = perun.getVosManager().createVo(sess, new Vo(0,"testvo1","testvo1"));
+		final Member sessionMember = createSomeMember(createdVo);
+		final User sessionUser = perun.getUsersManagerBl().getUserByMember(sess, sessionMember);
+
+		PerunSession userSession = new PerunSessionImpl(perun,
+				new PerunPrincipal("pepa", ExtSourcesManager.EXTSOURCE_NAME_INTERNAL, ExtSourcesManager.EXTSOURCE_INTERNAL, sessionUser),
+				new PerunClient());
+		AuthzResolverBlImpl.refreshAuthz(userSession);
+		assertFalse(userSession.getPerunPrincipal().getRoles().hasRole(Role.VOADMIN, createdVo));
+
+		AuthzResolverBlImpl.setRole(sess, sessionUser, createdVo, Role.VOADMIN);
+
+		// roles shared by sessions are not used, the role is not committed yet
+		AuthzResolverBlImpl.refreshAuthz(userSession);
+		assertTrue(userSession.getPerunPrincipal().getRoles().hasRole(Role.VOADMIN, createdVo));
+	}
+
+	@Test
+	public void rolesCacheInvalidatedAfterCommit() throws Exception {
+		System.out.println(CLASS_NAME + "rolesCacheInvalidatedAfterCommit");
+
+		// id of no real user, so roles of other tests are not affected
+		final int userId = -1;
+		final AtomicInteger loads = new AtomicInteger();
+		Supplier<AuthzRoles> loader = () -> {
+			loads.incrementAndGet();
+			return new AuthzRoles(Role.VOADMIN, new Vo(1, "testvo1", "testvo1"));
+		};
+		AuthzRolesCache cache = AuthzRolesCache.getInstance();
+
+		assertTrue(cache.getUserRoles(userId, loader).hasRole(Role.VOADMIN));
+		assertTrue(cache.getUserRoles(userId, loader).isUnmodifiable());
+		assertEquals(1, loads.get());
+
+		cache.invalidateUser(userId);
+
+		// invalidation waits for commit, the transaction itself must not use the cache since then
+		assertTrue(cache.isChangedInTransaction());
+		assertTrue(cache.getUserRoles(userId, loader).hasRole(Role.VOADMIN));
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	public void filterNotAllowedAttributesResolvesReadAndWrite() throws Exception {
+		System.out.println(CLASS_NAME + "filterNotAllowedAttributesResolvesReadAndWrite");
+
+		final Vo createdVo = perun.getVosManager().createVo(sess, new Vo(0,"testvo1","testvo1"));
+		final Member sessionMember = createSomeMember(createdVo);
+		final User sessionUser = perun.getUsersManagerBl().getUserByMember(sess, sessionMember);
+
+		List<Attribute> attributes = new ArrayList<>();
+		for (String friendlyName : Arrays.asList("testUserAttrReadWrite", "testUserAttrRead", "testUserAttrHidden")) {
+			AttributeDefinition attrDef = new AttributeDefinition();
+			attrDef.setNamespace(AttributesManager.NS_USER_ATTR_DEF);
+			attrDef.setType(Integer.class.getName());
+			attrDef.setFriendlyName(friendlyName);
+			attrDef.setDisplayName(friendlyName);
+			attributes.add(new Attribute(perun.getAttributesManagerBl().createAttribute(sess, attrDef)));
+		}
+
+		PerunPrincipal mockedPerunPrincipal = mock(PerunPrincipal.class, RETURNS_DEEP_STUBS);
+		when(mockedPerunPrincipal.isAuthzInitialized()).thenReturn(true);
+		when(mockedPerunPrincipal.getRoles()).thenReturn(new AuthzRoles(Role.SELF, sessionUser));
+		when(mockedPerunPrincipal.getUser()).thenReturn(sessionUser);
+		when(mockedPerunPrincipal.getUserId()).thenReturn(sessionUser.getId());
+
+		PerunSessionImpl testSession = new PerunSessionImpl(sess.getPerun(), mockedPerunPrincipal, sess.getPerunClient());
+
+		// nothing is allowed before rights are set
+		assertTrue(AuthzResolverBlImpl.filterNotAllowedAttributes(testSession, sessionUser, new ArrayList<>(attributes)).isEmpty());
+
+		List<AttributeRights> rights = new ArrayList<>();
+		rights.add(new AttributeRights(attributes.get(0).getId(), Role.SELF, Arrays.asList(ActionType.READ, ActionType.WRITE)));
+		rights.add(new AttributeRights(attributes.get(1).getId(), Role.SELF, Collections.singletonList(ActionType.READ)));
+		perun.getAttributesManagerBl().setAttributeRights(sess, rights);
+
+		List<Attribute> allowedAttributes = AuthzResolverBlImpl.filterNotAllowedAttributes(testSession, sessionUser, new ArrayList<>(attributes));
+		assertEquals(Arrays.asList(attributes.get(0), attributes.get(1)), allowedAttributes);
+		assertTrue(allowedAttributes.get(0).getWritable());
+		assertFalse(allowedAttributes.get(1).getWritable());
+	}
+
 	@Test
 	public void hasOneOfTheRolesForObjectSucceeds() throws Exception {
 		System.out.println(CLASS_NAME + "hasOneOfTheRolesForObjectSucceeds");
@@ -0,0 +1,240 @@
+package cz.metacentrum.perun.core.bl;
+
+import com.zaxxer.hikari.HikariDataSource;
+import cz.metacentrum.perun.core.api.Attribute;
+import cz.metacentrum.perun.core.api.AttributeDefinition;
+import cz.metacentrum.perun.core.api.BeansUtils;
+import cz.metacentrum.perun.core.api.CoreConfig;
+import cz.metacentrum.perun.core.api.ExtSourcesManager;
+import cz.metacentrum.perun.core.api.Facility;
+import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.PerunClient;
+import cz.metacentrum.perun.core.api.PerunPrincipal;
+import cz.metacentrum.perun.core.api.PerunSession;
+import cz.metacentrum.perun.core.api.Resource;
+import cz.metacentrum.perun.core.api.Service;
+import cz.metacentrum.perun.core.api.ServiceAttributes;
+import cz.metacentrum.perun.core.api.ServiceAttributesDelta;
+import cz.metacentrum.perun.core.blImpl.ServicesManagerBlImpl;
+import cz.metacentrum.perun.core.impl.PerunSessionImpl;
+import cz.metacentrum.perun.core.implApi.ServicesManagerImplApi;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests of generating GEN data of resources in parallel in ServicesManagerBlImpl.
+ */
+public class ServicesManagerBlImplUnitTests {
+
+	private static final int RESOURCES_COUNT = 6;
+	private static final int MAX_PARALLELISM = 4;
+
+	private final Service service = new Service(1, "testService");
+	private final Facility facility = new Facility(1, "testFacility");
+	private final List<Resource> resources = new ArrayList<>();
+	private final Set<PerunSession> resourceSessions = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger runningResources = new AtomicInteger();
+	private final AtomicInteger maxRunningResources = new AtomicInteger();
+
+	private CoreConfig originalCoreConfig;
+	private CoreConfig coreConfig;
+	private PerunSession sess;
+	private PerunBl perunBl;
+	private ServicesManagerImplApi servicesManagerImpl;
+	private PlatformTransactionManager transactionManager;
+	private ServicesManagerBlImpl servicesManagerBl;
+
+	@Before
+	public void setUp() throws Exception {
+		originalCoreConfig = BeansUtils.getCoreConfig();
+		coreConfig = new CoreConfig();
+		coreConfig.setGenDataParallelism(1);
+		BeansUtils.setConfig(coreConfig);
+
+		for (int i = 1; i <= RESOURCES_COUNT; i++) {
+			resources.add(new Resource(i, "resource" + i, "", facility.getId(), 1));
+		}
+
+		perunBl = mock(PerunBl.class, RETURNS_DEEP_STUBS);
+		sess = new PerunSessionImpl(perunBl,
+			new PerunPrincipal("perunTests", ExtSourcesManager.EXTSOURCE_NAME_INTERNAL, ExtSourcesManager.EXTSOURCE_INTERNAL),
+			new PerunClient());
+		servicesManagerImpl = mock(ServicesManagerImplApi.class);
+		when(servicesManagerImpl.getAssignedResources(sess, service)).thenReturn(new ArrayList<>(resources));
+		when(perunBl.getFacilitiesManagerBl().getAssignedResources(sess, facility)).thenReturn(new ArrayList<>(resources));
+		when(perunBl.getAttributesManagerBl().getRequiredAttributes(sess, service, facility))
+			.thenReturn(Collections.singletonList(getAttribute("facility", facility.getId())));
+		when(perunBl.getAttributesManagerBl().getRequiredAttributes(any(PerunSession.class), eq(service), any(Resource.class)))
+			.thenAnswer(invocation -> {
+				resourceSessions.add(invocation.getArgument(0));
+				Resource resource = invocation.getArgument(2);
+				return Collections.singletonList(getAttribute("resource", resource.getId()));
+			});
+		when(perunBl.getResourcesManagerBl().getAllowedMembers(any(PerunSession.class), any(Resource.class)))
+			.thenAnswer(invocation -> {
+				maxRunningResources.accumulateAndGet(runningResources.incrementAndGet(), Math::max);
+				// give other workers time to start
+				Thread.sleep(20);
+				runningResources.decrementAndGet();
+				Resource resource = invocation.getArgument(1);
+				Member member = new Member(resource.getId(), resource.getId());
+				return Collections.singletonList(member);
+			});
+		when(perunBl.getAttributesManagerBl().getRequiredAttributes(any(PerunSession.class), eq(service), eq(facility), any(Resource.class), anyList(), eq(true)))
+			.thenAnswer(invocation -> {
+				List<Member> members = invocation.getArgument(4);
+				HashMap<Member, List<Attribute>> memberAttributes = new HashMap<>();
+				for (Member member : members) {
+					memberAttributes.put(member, Collections.singletonList(getAttribute("member", member.getId())));
+				}
+				return memberAttributes;
+			});
+
+		transactionManager = mock(PlatformTransactionManager.class);
+		servicesManagerBl = new ServicesManagerBlImpl(servicesManagerImpl, MAX_PARALLELISM);
+		servicesManagerBl.setPerunBl(perunBl);
+		servicesManagerBl.setTransactionManager(transactionManager);
+	}
+
+	@After
+	public void tearDown() {
+		servicesManagerBl.destroy();
+		BeansUtils.setConfig(originalCoreConfig);
+	}
+
+	@Test
+	public void hierarchicalDataInParallelSameAsSequential() throws Exception {
+		System.out.println("ServicesManagerBlImplUnitTests.hierarchicalDataInParallelSameAsSequential");
+
+		List<String> sequentialData = describe(servicesManagerBl.getHierarchicalData(sess, service, facility, false));
+		String sequentialGeneration = servicesManagerBl.getHierarchicalDataDelta(sess, service, facility, false, null).getGeneration();
+		assertThat(resourceSessions).containsOnly(sess);
+
+		resourceSessions.clear();
+		coreConfig.setGenDataParallelism(3);
+		List<String> parallelData = describe(servicesManagerBl.getHierarchicalData(sess, service, facility, false));
+
+		assertThat(parallelData).isEqualTo(sequentialData);
+		// keys of nodes are kept too
+		ServiceAttributesDelta parallelDelta = servicesManagerBl.getHierarchicalDataDelta(sess, service, facility, false, sequentialGeneration);
+		assertThat(parallelDelta.getGeneration()).isEqualTo(sequentialGeneration);
+		assertThat(parallelDelta.isChanged()).isFalse();
+		assertThat(maxRunningResources.get()).isLessThanOrEqualTo(3);
+		// each resource is generated in its own transaction with its own session
+		verify(transactionManager, times(2 * RESOURCES_COUNT)).getTransaction(argThat(definition ->
+			definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW && definition.isReadOnly()));
+		assertThat(resourceSessions).hasSize(2 * RESOURCES_COUNT).doesNotContain(sess);
+		for (PerunSession resourceSession : resourceSessions) {
+			assertThat(resourceSession.getPerunPrincipal()).isSameAs(sess.getPerunPrincipal());
+		}
+	}
+
+	@Test
+	public void hierarchicalDataParallelismLimitedByInitialParallelism() throws Exception {
+		System.out.println("ServicesManagerBlImplUnitTests.hierarchicalDataParallelismLimitedByInitialParallelism");
+
+		coreConfig.setGenDataParallelism(RESOURCES_COUNT);
+
+		List<String> data = describe(servicesManagerBl.getHierarchicalData(sess, service, facility, false));
+
+		assertThat(data).contains("resource:" + RESOURCES_COUNT);
+		assertThat(maxRunningResources.get()).isLessThanOrEqualTo(MAX_PARALLELISM);
+		verify(transactionManager, times(RESOURCES_COUNT)).getTransaction(any());
+	}
+
+	@Test
+	public void hierarchicalDataSequentialWhenStartedSequential() throws Exception {
+		System.out.println("ServicesManagerBlImplUnitTests.hierarchicalDataSequentialWhenStartedSequential");
+
+		servicesManagerBl.destroy();
+		servicesManagerBl = new ServicesManagerBlImpl(servicesManagerImpl, 1);
+		servicesManagerBl.setPerunBl(perunBl);
+		servicesManagerBl.setTransactionManager(transactionManager);
+		coreConfig.setGenDataParallelism(3);
+
+		servicesManagerBl.getHierarchicalData(sess, service, facility, false);
+
+		// no workers were created at the start
+		assertThat(resourceSessions).containsOnly(sess);
+		verify(transactionManager, times(0)).getTransaction(any());
+	}
+
+	@Test
+	public void hierarchicalDataParallelismLimitedByConnectionPool() throws Exception {
+		System.out.println("ServicesManagerBlImplUnitTests.hierarchicalDataParallelismLimitedByConnectionPool");
+
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setMaximumPoolSize(4);
+		servicesManagerBl.setDataSource(dataSource);
+		coreConfig.setGenDataParallelism(10);
+
+		List<String> data = describe(servicesManagerBl.getHierarchicalData(sess, service, facility, false));
+
+		assertThat(data).contains("resource:" + RESOURCES_COUNT);
+		assertThat(maxRunningResources.get()).isLessThanOrEqualTo(2);
+		verify(transactionManager, times(RESOURCES_COUNT)).getTransaction(any());
+	}
+
+	@Test
+	public void hierarchicalDataSequentialWithoutConnectionsForWorkers() throws Exception {
+		System.out.println("ServicesManagerBlImplUnitTests.hierarchicalDataSequentialWithoutConnectionsForWorkers");
+
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setMaximumPoolSize(3);
+		servicesManagerBl.setDataSource(dataSource);
+		coreConfig.setGenDataParallelism(10);
+
+		servicesManagerBl.getHierarchicalData(sess, service, facility, false);
+
+		// one worker would use the same number of connections as the sequential generation
+		assertThat(resourceSessions).containsOnly(sess);
+		verify(transactionManager, times(0)).getTransaction(any());
+	}
+
+	// --PRIVATE METHODS ---------------------------------------------------
+
+	private static Attribute getAttribute(String friendlyName, int value) {
+		AttributeDefinition definition = new AttributeDefinition();
+		definition.setNamespace("urn:perun:test:attribute-def:def");
+		definition.setFriendlyName(friendlyName);
+		definition.setType(Integer.class.getName());
+		return new Attribute(definition, value);
+	}
+
+	/**
+	 * Flattens the tree to the list of "friendlyName:value" of all attributes with "/" at the end of each element.
+	 */
+	private static List<String> describe(ServiceAttributes element) {
+		List<String> description = new ArrayList<>();
+		for (Attribute attribute : element.getAttributes()) {
+			description.add(attribute.getFriendlyName() + ":" + attribute.getValue());
+		}
+		for (ServiceAttributes childElement : element.getChildElements()) {
+			description.addAll(describe(childElement));
+		}
+		description.add("/");
+		return description;
+	}
+}
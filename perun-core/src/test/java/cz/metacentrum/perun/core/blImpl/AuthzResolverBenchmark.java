@@ -0,0 +1,112 @@
+package cz.metacentrum.perun.core.blImpl;
+
+import cz.metacentrum.perun.core.api.BeansUtils;
+import cz.metacentrum.perun.core.api.CoreConfig;
+import cz.metacentrum.perun.core.api.PerunClient;
+import cz.metacentrum.perun.core.api.PerunPrincipal;
+import cz.metacentrum.perun.core.api.PerunSession;
+import cz.metacentrum.perun.core.api.Role;
+import cz.metacentrum.perun.core.api.User;
+import cz.metacentrum.perun.core.api.Vo;
+import cz.metacentrum.perun.core.bl.PerunBl;
+import cz.metacentrum.perun.core.impl.AuthzRoles;
+import cz.metacentrum.perun.core.impl.PerunSessionImpl;
+import cz.metacentrum.perun.core.implApi.AuthzResolverImplApi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures throughput of authz initialization of new sessions (AuthzResolverBlImpl.refreshAuthz) by more threads.
+ * Loading of roles from the database is simulated by a fixed delay, so the throughput should grow with
+ * the number of threads. The same work done under one JVM-wide monitor, as refreshAuthz used to be,
+ * is measured for comparison.
+ *
+ * It's not run with tests. Run the main method (or org.openjdk.jmh.Main with JMH options) with the test classpath
+ * of perun-core after test-compile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthzResolverBenchmark {
+
+	// simulated duration of loading roles of user from the database
+	private static final long DB_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final Object GLOBAL_LOCK = new Object();
+
+	private final AtomicInteger userIds = new AtomicInteger();
+
+	@Setup
+	public void setUp() {
+		CoreConfig config = new CoreConfig();
+		config.setAdmins(Collections.emptyList());
+		config.setEnginePrincipals(Collections.emptyList());
+		config.setNotificationPrincipals(Collections.emptyList());
+		config.setRegistrarPrincipals(Collections.emptyList());
+		config.setExtSourcesMultipleIdentifiers(Collections.emptySet());
+		config.setRpcPrincipal("perunRpc");
+		BeansUtils.setConfig(config);
+
+		AuthzResolverBlImpl.setAuthzResolverImpl((AuthzResolverImplApi) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] {AuthzResolverImplApi.class}, (proxy, method, args) -> {
+					if (!method.getName().equals("getRoles")) throw new UnsupportedOperationException(method.getName());
+					LockSupport.parkNanos(DB_LATENCY_NANOS);
+					return new AuthzRoles(Role.VOADMIN, new Vo(1, "vo", "vo"));
+				}));
+	}
+
+	@State(Scope.Thread)
+	public static class Login {
+
+		private PerunSession sess;
+
+		@Setup
+		public void setUp(AuthzResolverBenchmark benchmark) {
+			int id = benchmark.userIds.incrementAndGet();
+			User user = new User(id, "first", "last", "", "", "");
+			PerunPrincipal principal = new PerunPrincipal("user" + id, "idp", "cz.metacentrum.perun.core.impl.ExtSourceIdp", user);
+			sess = new PerunSessionImpl(mock(PerunBl.class), principal, new PerunClient());
+		}
+	}
+
+	@Benchmark
+	public AuthzRoles refreshAuthz(Login login) {
+		AuthzResolverBlImpl.refreshAuthz(login.sess);
+		return login.sess.getPerunPrincipal().getRoles();
+	}
+
+	@Benchmark
+	public AuthzRoles refreshAuthzUnderGlobalLock(Login login) {
+		synchronized (GLOBAL_LOCK) {
+			AuthzResolverBlImpl.refreshAuthz(login.sess);
+		}
+		return login.sess.getPerunPrincipal().getRoles();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		for (int threads = 1; threads <= 8; threads *= 2) {
+			new Runner(new OptionsBuilder().include(AuthzResolverBenchmark.class.getSimpleName()).threads(threads).build()).run();
+		}
+	}
+}
@@ -43,17 +43,25 @@ import cz.metacentrum.perun.core.api.exceptions.UserNotExistsException;
 import cz.metacentrum.perun.core.api.exceptions.VoNotExistsException;
 import cz.metacentrum.perun.core.api.exceptions.WrongAttributeAssignmentException;
 import cz.metacentrum.perun.core.api.exceptions.WrongAttributeValueException;
+import cz.metacentrum.perun.core.api.exceptions.WrongReferenceAttributeValueException;
+import cz.metacentrum.perun.core.bl.AttributesManagerBl;
 import cz.metacentrum.perun.core.blImpl.AttributesManagerBlImpl;
 import cz.metacentrum.perun.core.impl.AttributesManagerImpl;
+import cz.metacentrum.perun.core.implApi.AttributesManagerImplApi;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+import org.mockito.invocation.Invocation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.framework.Advised;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.test.annotation.IfProfileValue;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -72,6 +80,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -160,6 +169,7 @@ public class AttributesManagerEntryIntegrationTestAbstract extends AbstractPerun
 	private Attribute vo2_toEmail_attribute;
 	private Attribute vo2_fromEmail_attribute;
 	private AttributesManagerBlImpl attributesManagerBl;
+	private AttributesManagerImplApi attributesManagerImplBackup;
 
 	//for testing attribute dependencies logic (no. 13) - USERs
 	private AttributeDefinition user_phone_atr_def;
@@ -2867,6 +2877,37 @@ public class AttributesManagerEntryIntegrationTestAbstract extends AbstractPerun
 
 	}
 
+	@Test
+	public void getFacilityAttributeMemoizedInTransaction() throws Exception {
+		System.out.println(CLASS_NAME + "getFacilityAttributeMemoizedInTransaction");
+
+		facility = setUpFacility();
+		attributes = setUpFacilityAttribute();
+		attributesManager.setAttribute(sess, facility, attributes.get(0));
+		String attributeName = attributes.get(0).getName();
+
+		AttributesManagerBl attributesManagerBl = perun.getAttributesManagerBl();
+		long hits = attributesManagerBl.getAttributesReadMemoHits();
+		long misses = attributesManagerBl.getAttributesReadMemoMisses();
+
+		Attribute retAttr = attributesManagerBl.getAttribute(sess, facility, attributeName);
+		retAttr.setValue("ModifiedByCaller");
+		retAttr = attributesManagerBl.getAttribute(sess, facility, attributeName);
+		assertEquals("memoized attribute was modified by caller", "FacilityAttribute", retAttr.getValue());
+		assertEquals(misses + 1, attributesManagerBl.getAttributesReadMemoMisses());
+		assertEquals(hits + 1, attributesManagerBl.getAttributesReadMemoHits());
+
+		retAttr.setValue("NewFacilityAttribute");
+		attributesManager.setAttribute(sess, facility, retAttr);
+		retAttr = attributesManagerBl.getAttribute(sess, facility, attributeName);
+		assertEquals("attribute read after change in transaction is not current", "NewFacilityAttribute", retAttr.getValue());
+
+		attributesManager.removeAttribute(sess, facility, retAttr);
+		retAttr = attributesManagerBl.getAttribute(sess, facility, attributeName);
+		assertNull("attribute read after removal in transaction is not current", retAttr.getValue());
+
+	}
+
 	@Test
 	public void getVoAttribute() throws Exception {
 		System.out.println(CLASS_NAME + "getVoAttribute");
@@ -14101,8 +14142,176 @@ public class AttributesManagerEntryIntegrationTestAbstract extends AbstractPerun
 	}
 
 
+	@Test
+	public void checkAttributesDependenciesChecksSharedDependantOnce() throws Exception {
+		System.out.println(CLASS_NAME + "checkAttributesDependenciesChecksSharedDependantOnce");
+
+		List<Attribute> quotaAttributes = setUpDataQuotaAttributes();
+		Attribute defaultDataQuota = quotaAttributes.get(0);
+		Attribute defaultDataLimit = quotaAttributes.get(1);
+		Attribute dataQuota = quotaAttributes.get(2);
+		Attribute dataLimit = quotaAttributes.get(3);
+
+		dataQuota.setValue("1G");
+		dataLimit.setValue("2G");
+		attributesManager.setAttributes(sess, member, resource, Arrays.asList(dataQuota, dataLimit));
+
+		AttributesManagerImplApi attributesManagerImplSpy = spyAttributesManagerImpl();
+		try {
+			defaultDataQuota.setValue("5G");
+			defaultDataLimit.setValue("10G");
+			attributesManager.setAttributes(sess, resource, Arrays.asList(defaultDataQuota, defaultDataLimit));
+
+			// member's dataLimit depends on both changed attributes
+			List<Object> dataLimitCheck = Arrays.asList("Member:" + member.getId(), "Resource:" + resource.getId(), dataLimit.getName());
+			assertEquals("shared dependant attribute was not checked exactly once", 1,
+					Collections.frequency(getSemanticsChecks(attributesManagerImplSpy), dataLimitCheck));
+		} finally {
+			restoreAttributesManagerImpl();
+		}
+	}
+
+	@Test (expected=WrongReferenceAttributeValueException.class)
+	public void checkAttributesDependenciesWhenDependantIsWrongForHolders() throws Exception {
+		System.out.println(CLASS_NAME + "checkAttributesDependenciesWhenDependantIsWrongForHolders");
+
+		List<Attribute> quotaAttributes = setUpDataQuotaAttributes();
+		Attribute defaultDataQuota = quotaAttributes.get(0);
+		Attribute defaultDataLimit = quotaAttributes.get(1);
+		Attribute dataLimit = quotaAttributes.get(3);
+
+		defaultDataQuota.setValue("1G");
+		attributesManager.setAttribute(sess, resource, defaultDataQuota);
+		dataLimit.setValue("2G");
+		attributesManager.setAttribute(sess, member, resource, dataLimit);
+
+		// member without own quota gets the default one, which exceeds his limit
+		defaultDataQuota.setValue("5G");
+		defaultDataLimit.setValue("10G");
+		attributesManager.setAttributes(sess, resource, Arrays.asList(defaultDataQuota, defaultDataLimit));
+	}
+
+	@Test
+	public void checkAttributesDependenciesSameAsPerAttributeChecks() throws Exception {
+		System.out.println(CLASS_NAME + "checkAttributesDependenciesSameAsPerAttributeChecks");
+
+		List<Attribute> quotaAttributes = setUpDataQuotaAttributes();
+		Attribute defaultDataQuota = quotaAttributes.get(0);
+		Attribute dataQuota = quotaAttributes.get(2);
+		Attribute dataLimit = quotaAttributes.get(3);
+
+		dataQuota.setValue("1G");
+		dataLimit.setValue("2G");
+		attributesManager.setAttributes(sess, member, resource, Arrays.asList(dataQuota, dataLimit));
+		defaultDataQuota.setValue("5G");
+		attributesManager.setAttribute(sess, resource, defaultDataQuota);
+
+		List<RichAttribute> changedAttributes = Arrays.asList(new RichAttribute<>(resource, null, defaultDataQuota),
+				new RichAttribute<>(resource, member, dataQuota));
+		Method testedMethod = getPrivateMethodFromAtrManager("checkAttributesDependencies", PerunSession.class, List.class);
+
+		AttributesManagerImplApi attributesManagerImplSpy = spyAttributesManagerImpl();
+		try {
+			for (RichAttribute richAttribute : changedAttributes) {
+				attributesManagerBl.checkAttributeDependencies(sess, richAttribute);
+			}
+			Set<List<Object>> perAttributeChecks = new HashSet<>(getSemanticsChecks(attributesManagerImplSpy));
+			Mockito.clearInvocations(attributesManagerImplSpy);
+
+			testedMethod.invoke(attributesManagerBl, sess, changedAttributes);
+			List<List<Object>> checks = getSemanticsChecks(attributesManagerImplSpy);
+			assertEquals("different attributes were checked", perAttributeChecks, new HashSet<>(checks));
+			assertEquals("some attribute was checked more than once", perAttributeChecks.size(), checks.size());
+
+			// member's quota is over his limit now
+			dataQuota.setValue("3G");
+			attributesManagerBl.setAttributeWithoutCheck(sess, member, resource, dataQuota, false);
+			try {
+				attributesManagerBl.checkAttributeDependencies(sess, changedAttributes.get(0));
+				fail("per attribute check should fail");
+			} catch (WrongReferenceAttributeValueException ex) {
+				// expected
+			}
+			try {
+				testedMethod.invoke(attributesManagerBl, sess, changedAttributes);
+				fail("check of all attributes should fail");
+			} catch (InvocationTargetException ex) {
+				assertTrue("check of all attributes failed with different exception", ex.getCause() instanceof WrongReferenceAttributeValueException);
+			}
+		} finally {
+			restoreAttributesManagerImpl();
+		}
+	}
+
 // PRIVATE METHODS ----------------------------------------------
 
+	/**
+	 * Resource defaultDataQuota, resource defaultDataLimit, member-resource dataQuota and member-resource dataLimit
+	 * without values. Attributes of member-resource depend on both resource ones. Member is assigned to the resource.
+	 */
+	private List<Attribute> setUpDataQuotaAttributes() throws Exception {
+		vo = setUpVo();
+		member = setUpMember();
+		facility = setUpFacility();
+		resource = setUpResource();
+		group = setUpGroup();
+		setUpMemberToResource();
+
+		List<Attribute> attributes = new ArrayList<>();
+		attributes.add(getOrSetUpAttribute("defaultDataQuota", AttributesManager.NS_RESOURCE_ATTR_DEF));
+		attributes.add(getOrSetUpAttribute("defaultDataLimit", AttributesManager.NS_RESOURCE_ATTR_DEF));
+		attributes.add(getOrSetUpAttribute("dataQuota", AttributesManager.NS_MEMBER_RESOURCE_ATTR_DEF));
+		attributes.add(getOrSetUpAttribute("dataLimit", AttributesManager.NS_MEMBER_RESOURCE_ATTR_DEF));
+		return attributes;
+	}
+
+	private Attribute getOrSetUpAttribute(String friendlyName, String namespace) throws Exception {
+		try {
+			return new Attribute(attributesManager.getAttributeDefinition(sess, namespace + ":" + friendlyName));
+		} catch (AttributeNotExistsException ex) {
+			return setUpAttribute(String.class.getName(), friendlyName, namespace, null);
+		}
+	}
+
+	/**
+	 * Replaces impl layer of attributes manager with a spy, so calls to it can be counted.
+	 * It must be restored by restoreAttributesManagerImpl() at the end of the test.
+	 */
+	private AttributesManagerImplApi spyAttributesManagerImpl() throws Exception {
+		attributesManagerBl = getTargetObject(perun.getAttributesManagerBl());
+		Field field = AttributesManagerBlImpl.class.getDeclaredField("attributesManagerImpl");
+		field.setAccessible(true);
+		attributesManagerImplBackup = (AttributesManagerImplApi) field.get(attributesManagerBl);
+		// impl is a proxy, so the spy delegates to it instead of copying it
+		AttributesManagerImplApi attributesManagerImplSpy = Mockito.mock(AttributesManagerImplApi.class, AdditionalAnswers.delegatesTo(attributesManagerImplBackup));
+		field.set(attributesManagerBl, attributesManagerImplSpy);
+		return attributesManagerImplSpy;
+	}
+
+	private void restoreAttributesManagerImpl() throws Exception {
+		Field field = AttributesManagerBlImpl.class.getDeclaredField("attributesManagerImpl");
+		field.setAccessible(true);
+		field.set(attributesManagerBl, attributesManagerImplBackup);
+	}
+
+	/**
+	 * Semantics checks called on the spy of impl layer, each as the list of holders and attribute name.
+	 */
+	private List<List<Object>> getSemanticsChecks(AttributesManagerImplApi attributesManagerImplSpy) {
+		List<List<Object>> checks = new ArrayList<>();
+		for (Invocation invocation : Mockito.mockingDetails(attributesManagerImplSpy).getInvocations()) {
+			if (!invocation.getMethod().getName().equals("checkAttributeSemantics")) continue;
+			Object[] args = invocation.getArguments();
+			List<Object> check = new ArrayList<>();
+			for (int i = 1; i < args.length - 1; i++) {
+				check.add(args[i] instanceof PerunBean ? args[i].getClass().getSimpleName() + ":" + ((PerunBean) args[i]).getId() : args[i]);
+			}
+			check.add(((Attribute) args[args.length - 1]).getName());
+			checks.add(check);
+		}
+		return checks;
+	}
+
 	/**
 	 * entityless_test_attribute1 -> key:1
 	 * entityless_test_attribute2 -> key:2
@@ -13,6 +13,7 @@ import org.junit.Test;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Integration tests of AuditMessagesManager.
@@ -68,6 +69,34 @@ public class AuditMessagesManagerEntryIntegrationTest extends AbstractPerunInteg
 		assertEquals("getMessage(sess, count) returns wrong count of messages", count , messages.size());
 	}
 
+	/**
+	 * Check if bounded polling returns messages in chunks and moves consumer forward
+	 */
+	@Test
+	public void testPollConsumerMessagesInBatches() throws Exception {
+		System.out.println(CLASS_NAME + "testPollConsumerMessagesInBatches");
+		String consumerName = "testPollConsumerMessagesInBatches";
+		perun.getAuditMessagesManager().createAuditerConsumer(sess, consumerName);
+		perun.getAuditMessagesManager().setLastProcessedId(sess, consumerName, perun.getAuditMessagesManager().getLastMessageId(sess));
+
+		for (int i = 0; i < 5; i++) {
+			perun.getAuditer().logWithoutTransaction(sess, new StringMessageEvent("Test cislo: "+ i));
+		}
+		// IDs could be skipped in the sequence, so lag is at least the number of new messages
+		assertTrue("wrong consumer lag", perun.getAuditMessagesManager().getAuditerConsumersLag(sess).get(consumerName) >= 5);
+
+		List<AuditMessage> firstChunk = perun.getAuditMessagesManager().pollConsumerMessages(sess, consumerName, 3);
+		assertEquals("first chunk has wrong count of messages", 3, firstChunk.size());
+		assertEquals("wrong last processed id", firstChunk.get(2).getId(), (int) perun.getAuditMessagesManager().getAllAuditerConsumers(sess).get(consumerName));
+
+		List<AuditMessage> secondChunk = perun.getAuditMessagesManager().pollConsumerMessages(sess, consumerName, 3);
+		assertEquals("second chunk has wrong count of messages", 2, secondChunk.size());
+		assertEquals("messages are not ordered", new StringMessageEvent("Test cislo: 3"), secondChunk.get(0).getEvent());
+		assertEquals("wrong consumer lag", 0, (int) perun.getAuditMessagesManager().getAuditerConsumersLag(sess).get(consumerName));
+
+		assertTrue("no messages should be left", perun.getAuditMessagesManager().pollConsumerEvents(sess, consumerName, 3).isEmpty());
+	}
+
 	/*
 	 * Wrong Range of count exception if count is less than 1 message
 	 */
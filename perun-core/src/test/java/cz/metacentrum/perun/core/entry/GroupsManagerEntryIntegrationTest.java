@@ -3012,6 +3012,23 @@ public class GroupsManagerEntryIntegrationTest extends AbstractPerunIntegrationT
 
 	}
 
+	@Test
+	public void getAllParentGroups() throws Exception {
+		System.out.println(CLASS_NAME + "getAllParentGroups");
+
+		vo = setUpVo();
+		setUpGroup(vo);
+
+		Group createdGroup21 = groupsManager.createGroup(sess, group, group21);
+		Group createdGroup2 = groupsManager.createGroup(sess, group, group2);
+		Group createdGroup3 = groupsManager.createGroup(sess, group21, group3);
+		Group createdGroup4 = groupsManager.createGroup(sess, group3, group4);
+
+		assertEquals(Arrays.asList(createdGroup3, createdGroup21, group), perun.getGroupsManagerBl().getAllParentGroups(sess, createdGroup4));
+		assertEquals(Collections.singletonList(group), perun.getGroupsManagerBl().getAllParentGroups(sess, createdGroup2));
+		assertTrue(perun.getGroupsManagerBl().getAllParentGroups(sess, group).isEmpty());
+	}
+
 	@Test (expected=GroupNotExistsException.class)
 	public void getSubGroupsWhenGroupNotExists() throws Exception {
 		System.out.println(CLASS_NAME + "getSubGroupsWhenGroupNotExists");
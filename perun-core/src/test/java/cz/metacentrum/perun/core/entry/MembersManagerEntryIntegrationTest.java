@@ -12,6 +12,9 @@ import cz.metacentrum.perun.core.api.Group;
 import cz.metacentrum.perun.core.api.GroupsManager;
 import cz.metacentrum.perun.core.api.Member;
 import cz.metacentrum.perun.core.api.MembersManager;
+import cz.metacentrum.perun.core.api.MembersOrderColumn;
+import cz.metacentrum.perun.core.api.MembersPageQuery;
+import cz.metacentrum.perun.core.api.Paginated;
 import cz.metacentrum.perun.core.api.PerunBean;
 import cz.metacentrum.perun.core.api.Resource;
 import cz.metacentrum.perun.core.api.RichMember;
@@ -44,14 +47,18 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -251,6 +258,152 @@ public class MembersManagerEntryIntegrationTest extends AbstractPerunIntegration
 		assertTrue(memberAttributes.contains(memberResourceAttribute1));
 	}
 
+	@Test
+	public void getRichMembersWithAttributesByNamesOfMoreMembers() throws Exception {
+		System.out.println(CLASS_NAME + "getRichMembersWithAttributesByNamesOfMoreMembers");
+
+		Member member2 = setUpMember2(createdVo);
+		User user = perun.getUsersManagerBl().getUserByMember(sess, createdMember);
+		User user2 = perun.getUsersManagerBl().getUserByMember(sess, member2);
+
+		Attribute userAttribute1 = setUpAttribute(String.class.getName(), "testUserAttribute1", AttributesManager.NS_USER_ATTR_DEF, "TEST VALUE");
+		perun.getAttributesManagerBl().setAttribute(sess, user, userAttribute1);
+		Attribute userAttribute2 = new Attribute(userAttribute1);
+		userAttribute2.setValue("OTHER VALUE");
+		perun.getAttributesManagerBl().setAttribute(sess, user2, userAttribute2);
+		Attribute memberAttribute1 = setUpAttribute(Integer.class.getName(), "testMemberAttribute1", AttributesManager.NS_MEMBER_ATTR_DEF, 15);
+		perun.getAttributesManagerBl().setAttribute(sess, createdMember, memberAttribute1);
+
+		List<String> attrNames = Arrays.asList(userAttribute1.getName(), memberAttribute1.getName());
+		List<RichMember> richMembers = perun.getMembersManagerBl().getRichMembersWithAttributesByNames(sess, createdVo, attrNames);
+		assertEquals(2, richMembers.size());
+
+		for (RichMember richMember : richMembers) {
+			assertEquals(1, richMember.getUserAttributes().size());
+			assertEquals(1, richMember.getMemberAttributes().size());
+			if (richMember.getId() == createdMember.getId()) {
+				assertEquals("TEST VALUE", richMember.getUserAttributes().get(0).getValue());
+				assertEquals(15, richMember.getMemberAttributes().get(0).getValue());
+			} else {
+				assertEquals("OTHER VALUE", richMember.getUserAttributes().get(0).getValue());
+				assertNull(richMember.getMemberAttributes().get(0).getValue());
+			}
+		}
+	}
+
+	@Test
+	public void getMembersPage() throws Exception {
+		System.out.println(CLASS_NAME + "getMembersPage");
+
+		Member member2 = setUpMember2(createdVo);
+		Member member3 = setUpMember(createdVo);
+
+		for (MembersOrderColumn sortColumn : MembersOrderColumn.values()) {
+			MembersPageQuery query = new MembersPageQuery(2, sortColumn);
+			Set<Integer> memberIds = new HashSet<>();
+			Paginated<RichMember> page = membersManagerEntry.getMembersPage(sess, createdVo, query, null);
+			assertEquals(3, page.getTotalCount());
+			assertEquals(2, page.getData().size());
+			assertNotNull(page.getNextPageToken());
+			page.getData().forEach(richMember -> memberIds.add(richMember.getId()));
+
+			query.setPageToken(page.getNextPageToken());
+			page = membersManagerEntry.getMembersPage(sess, createdVo, query, null);
+			assertEquals(3, page.getTotalCount());
+			assertEquals(1, page.getData().size());
+			assertNull(page.getNextPageToken());
+			page.getData().forEach(richMember -> memberIds.add(richMember.getId()));
+
+			assertEquals(new HashSet<>(Arrays.asList(createdMember.getId(), member2.getId(), member3.getId())), memberIds);
+		}
+	}
+
+	@Test
+	public void getMembersPageSortedByNameWithMissingNames() throws Exception {
+		System.out.println(CLASS_NAME + "getMembersPageSortedByNameWithMissingNames");
+
+		List<Member> members = new ArrayList<>();
+		members.add(createdMember);
+		members.add(setUpMember2(createdVo));
+		String[][] names = {{null, null}, {"Abcd", null}, {null, "Efgh"}, {"", ""}, {"Abcd", ""}};
+		for (int i = 0; i < names.length; i++) {
+			Candidate candidate = setUpCandidate();
+			candidate.setFirstName(names[i][0]);
+			candidate.setLastName(names[i][1]);
+			candidate.setUserExtSource(new UserExtSource(extSource, "missingNamesLogin" + i));
+			Member member = perun.getMembersManagerBl().createMemberSync(sess, createdVo, candidate);
+			usersForDeletion.add(perun.getUsersManager().getUserByMember(sess, member));
+			members.add(member);
+		}
+
+		// members with missing names must not drop out of any page
+		MembersPageQuery query = new MembersPageQuery(2, MembersOrderColumn.NAME);
+		List<Integer> memberIds = new ArrayList<>();
+		Paginated<RichMember> page;
+		do {
+			page = membersManagerEntry.getMembersPage(sess, createdVo, query, null);
+			assertEquals(members.size(), page.getTotalCount());
+			page.getData().forEach(richMember -> memberIds.add(richMember.getId()));
+			query.setPageToken(page.getNextPageToken());
+		} while (page.getNextPageToken() != null);
+
+		assertEquals(members.size(), memberIds.size());
+		assertEquals(members.stream().map(Member::getId).collect(Collectors.toSet()), new HashSet<>(memberIds));
+		// missing and empty names are sorted first and the same way
+		assertEquals(Arrays.asList(members.get(2).getId(), members.get(5).getId(), members.get(3).getId(), members.get(6).getId()), memberIds.subList(0, 4));
+		assertEquals(Arrays.asList(members.get(4).getId(), members.get(1).getId()), memberIds.subList(memberIds.size() - 2, memberIds.size()));
+	}
+
+	@Test
+	public void getMembersPageWithFilters() throws Exception {
+		System.out.println(CLASS_NAME + "getMembersPageWithFilters");
+
+		Member member2 = setUpMember2(createdVo);
+		Member member3 = setUpMember(createdVo);
+		perun.getMembersManagerBl().setStatus(sess, member3, Status.DISABLED);
+		perun.getGroupsManagerBl().addMember(sess, createdGroup, createdMember);
+
+		MembersPageQuery query = new MembersPageQuery(10, MembersOrderColumn.ID);
+		query.setStatuses(Collections.singletonList("VALID"));
+		Paginated<RichMember> page = membersManagerEntry.getMembersPage(sess, createdVo, query, null);
+		assertEquals(2, page.getTotalCount());
+		assertEquals(Arrays.asList(Math.min(createdMember.getId(), member2.getId()), Math.max(createdMember.getId(), member2.getId())),
+				Arrays.asList(page.getData().get(0).getId(), page.getData().get(1).getId()));
+
+		query = new MembersPageQuery(10, MembersOrderColumn.NAME);
+		query.setSearchString("abcd efgh");
+		page = membersManagerEntry.getMembersPage(sess, createdVo, query, null);
+		assertEquals(1, page.getTotalCount());
+		assertEquals(member2.getId(), page.getData().get(0).getId());
+
+		query = new MembersPageQuery(10, MembersOrderColumn.NAME);
+		query.setGroupId(createdGroup.getId());
+		page = membersManagerEntry.getMembersPage(sess, createdVo, query, Collections.singletonList(AttributesManager.NS_MEMBER_ATTR_DEF + ":mail"));
+		assertEquals(1, page.getTotalCount());
+		assertEquals(createdMember.getId(), page.getData().get(0).getId());
+		assertEquals(1, page.getData().get(0).getMemberAttributes().size());
+	}
+
+	@Test
+	public void getRichMemberWithAttributes() throws Exception {
+		System.out.println(CLASS_NAME + "getRichMemberWithAttributes");
+
+		User user = perun.getUsersManagerBl().getUserByMember(sess, createdMember);
+		Attribute userAttribute1 = setUpAttribute(String.class.getName(), "testUserAttribute1", AttributesManager.NS_USER_ATTR_DEF, "TEST VALUE");
+		perun.getAttributesManagerBl().setAttribute(sess, user, userAttribute1);
+		Attribute userAttribute2 = setUpAttribute(String.class.getName(), "testUserAttribute2", AttributesManager.NS_USER_ATTR_DEF, "TEST VALUE");
+		Attribute memberAttribute1 = setUpAttribute(Integer.class.getName(), "testMemberAttribute1", AttributesManager.NS_MEMBER_ATTR_DEF, 15);
+		perun.getAttributesManagerBl().setAttribute(sess, createdMember, memberAttribute1);
+
+		RichMember richMember = perun.getMembersManagerBl().getRichMemberWithAttributes(sess, createdMember);
+
+		assertTrue(richMember.getUserAttributes().contains(userAttribute1));
+		assertFalse("Empty attribute should not be returned", richMember.getUserAttributes().stream().anyMatch(a -> a.getName().equals(userAttribute2.getName())));
+		assertTrue("Core attributes should be returned", richMember.getUserAttributes().stream().anyMatch(a -> a.getName().equals(AttributesManager.NS_USER_ATTR_CORE + ":id")));
+		assertTrue(richMember.getMemberAttributes().contains(memberAttribute1));
+		assertTrue("Core attributes should be returned", richMember.getMemberAttributes().stream().anyMatch(a -> a.getName().equals(AttributesManager.NS_MEMBER_ATTR_CORE + ":id")));
+	}
+
 	@Test
 	public void getRichMembersWithAttributesByNames() throws Exception {
 		System.out.println(CLASS_NAME + "getRichMembersWithAttributesByNames");
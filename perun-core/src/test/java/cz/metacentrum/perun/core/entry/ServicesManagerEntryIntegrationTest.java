@@ -9,6 +9,7 @@ import cz.metacentrum.perun.core.api.Destination;
 import cz.metacentrum.perun.core.api.ExtSource;
 import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Group;
+import cz.metacentrum.perun.core.api.HashedServiceAttributes;
 import cz.metacentrum.perun.core.api.Host;
 import cz.metacentrum.perun.core.api.Member;
 import cz.metacentrum.perun.core.api.MemberGroupStatus;
@@ -17,6 +18,8 @@ import cz.metacentrum.perun.core.api.RichDestination;
 import cz.metacentrum.perun.core.api.Role;
 import cz.metacentrum.perun.core.api.Service;
 import cz.metacentrum.perun.core.api.ServiceAttributes;
+import cz.metacentrum.perun.core.api.ServiceAttributesDelta;
+import cz.metacentrum.perun.core.api.ServiceAttributesSink;
 import cz.metacentrum.perun.core.api.ServicesPackage;
 import cz.metacentrum.perun.core.api.User;
 import cz.metacentrum.perun.core.api.UserExtSource;
@@ -38,13 +41,16 @@ import cz.metacentrum.perun.core.impl.AuthzRoles;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -1310,6 +1316,132 @@ public class ServicesManagerEntryIntegrationTest extends AbstractPerunIntegratio
 		assertTrue("Our 1st resource required attribute not returned",userAttributes.contains(reqUserAttr));
 	}
 
+	@Test
+	public void streamFlatData() throws Exception {
+		System.out.println(CLASS_NAME + "streamFlatData");
+
+		vo = setUpVo();
+		facility = setUpFacility();
+		resource = setUpResource();
+		service = setUpService();
+		member = setUpMember();
+		User user = perun.getUsersManagerBl().getUserByMember(sess, member);
+		group = setUpGroup();
+		perun.getGroupsManager().addMember(sess, group, member);
+		perun.getResourcesManager().assignGroupToResource(sess, group, resource);
+
+		Attribute reqFacAttr = perun.getAttributesManager().getAttribute(sess, facility, "urn:perun:facility:attribute-def:core:name");
+		perun.getServicesManager().addRequiredAttribute(sess, service, reqFacAttr);
+		Attribute reqResAttr = perun.getAttributesManager().getAttribute(sess, resource, "urn:perun:resource:attribute-def:core:name");
+		perun.getServicesManager().addRequiredAttribute(sess, service, reqResAttr);
+		Attribute reqUserAttr = perun.getAttributesManager().getAttribute(sess, user, "urn:perun:user:attribute-def:core:id");
+		perun.getServicesManager().addRequiredAttribute(sess, service, reqUserAttr);
+		perun.getResourcesManager().assignService(sess, resource, service);
+
+		// record nodes in order they were streamed, end of node is recorded as null
+		List<List<Attribute>> nodes = new ArrayList<>();
+		perun.getServicesManager().streamFlatData(sess, service, facility, false, new ServiceAttributesSink() {
+			@Override
+			public void startElement(List<Attribute> attributes) {
+				nodes.add(new ArrayList<>(attributes));
+			}
+
+			@Override
+			public void endElement() {
+				nodes.add(null);
+			}
+		});
+
+		assertEquals(10, nodes.size());
+		assertEquals(Collections.singletonList(reqFacAttr), nodes.get(0));
+		assertTrue("Resources node should have no attributes", nodes.get(1).isEmpty());
+		assertEquals(Collections.singletonList(reqResAttr), nodes.get(2));
+		assertNull(nodes.get(3));
+		assertNull(nodes.get(4));
+		assertTrue("Users node should have no attributes", nodes.get(5).isEmpty());
+		assertEquals(Collections.singletonList(reqUserAttr), nodes.get(6));
+		assertNull(nodes.get(7));
+		assertNull(nodes.get(8));
+		assertNull(nodes.get(9));
+	}
+
+	@Test
+	public void getHierarchicalDataDelta() throws Exception {
+		System.out.println(CLASS_NAME + "getHierarchicalDataDelta");
+
+		vo = setUpVo();
+		facility = setUpFacility();
+		resource = setUpResource();
+		service = setUpService();
+		member = setUpMember();
+		group = setUpGroup();
+		perun.getGroupsManager().addMember(sess, group, member);
+		perun.getResourcesManager().assignGroupToResource(sess, group, resource);
+
+		Attribute reqFacAttr = perun.getAttributesManager().getAttribute(sess, facility, "urn:perun:facility:attribute-def:core:name");
+		perun.getServicesManager().addRequiredAttribute(sess, service, reqFacAttr);
+		Attribute reqResAttr = perun.getAttributesManager().getAttribute(sess, resource, "urn:perun:resource:attribute-def:core:name");
+		perun.getServicesManager().addRequiredAttribute(sess, service, reqResAttr);
+		perun.getResourcesManager().assignService(sess, resource, service);
+
+		Resource resource2 = new Resource();
+		resource2.setName("HierarchDataDeltaResource");
+		resource2.setDescription("Testovaci2");
+		resource2 = perun.getResourcesManager().createResource(sess, resource2, vo, facility);
+		perun.getResourcesManager().assignGroupToResource(sess, group, resource2);
+		perun.getResourcesManager().assignService(sess, resource2, service);
+
+		ServiceAttributesDelta complete = perun.getServicesManager().getHierarchicalDataDelta(sess, service, facility, false, null);
+		assertTrue("Unknown generation should return complete data", complete.isComplete());
+		assertNotNull(complete.getGeneration());
+		assertEquals(2, complete.getChanges().getChildElements().size());
+
+		ServiceAttributesDelta unchanged = perun.getServicesManager().getHierarchicalDataDelta(sess, service, facility, false, complete.getGeneration());
+		assertFalse(unchanged.isChanged());
+		assertFalse(unchanged.isComplete());
+		assertEquals(complete.getGeneration(), unchanged.getGeneration());
+
+		// generations are kept for each service and facility separately
+		Service service2 = perun.getServicesManager().createService(sess, new Service(0, "HierarchDataDeltaService2"));
+		ServiceAttributesDelta otherService = perun.getServicesManager().getHierarchicalDataDelta(sess, service2, facility, false, complete.getGeneration());
+		assertTrue("Generation of another service should return complete data", otherService.isComplete());
+		assertNull(otherService.getPreviousGeneration());
+
+		resource2.setName("HierarchDataDeltaResourceRenamed");
+		perun.getResourcesManager().updateResource(sess, resource2);
+
+		ServiceAttributesDelta delta = perun.getServicesManager().getHierarchicalDataDelta(sess, service, facility, false, complete.getGeneration());
+		assertTrue(delta.isChanged());
+		assertFalse(delta.isComplete());
+		assertNotEquals(complete.getGeneration(), delta.getGeneration());
+		assertEquals(complete.getGeneration(), delta.getPreviousGeneration());
+		// only the renamed resource is returned, the facility node is its parent
+		assertEquals(Collections.singletonList(reqFacAttr), delta.getChanges().getAttributes());
+		assertEquals("facility:" + facility.getId(), delta.getChanges().getKey());
+		assertEquals(delta.getGeneration(), delta.getChanges().getHash());
+		assertEquals(1, delta.getChanges().getChildElements().size());
+		HashedServiceAttributes changedResource = (HashedServiceAttributes) delta.getChanges().getChildElements().get(0);
+		Attribute reqResAttr2 = perun.getAttributesManager().getAttribute(sess, resource2, "urn:perun:resource:attribute-def:core:name");
+		assertEquals(Collections.singletonList(reqResAttr2), changedResource.getAttributes());
+		assertEquals("facility:" + facility.getId() + "/resource:" + resource2.getId(), changedResource.getKey());
+		assertNotNull(changedResource.getHash());
+		// modified nodes are not removed
+		assertTrue(delta.getRemovedElements().isEmpty());
+
+		perun.getResourcesManager().removeService(sess, resource2, service);
+
+		// changes against the first generation are still known after the second one
+		ServiceAttributesDelta removed = perun.getServicesManager().getHierarchicalDataDelta(sess, service, facility, false, complete.getGeneration());
+		assertFalse(removed.isComplete());
+		assertEquals(complete.getGeneration(), removed.getPreviousGeneration());
+		assertEquals(Collections.singletonList("facility:" + facility.getId() + "/resource:" + resource2.getId()), removed.getRemovedElements());
+		assertTrue("Unchanged resource should be left out", removed.getChanges().getChildElements().isEmpty());
+
+		ServiceAttributesDelta removedSinceDelta = perun.getServicesManager().getHierarchicalDataDelta(sess, service, facility, false, delta.getGeneration());
+		assertFalse(removedSinceDelta.isComplete());
+		assertEquals(removed.getRemovedElements(), removedSinceDelta.getRemovedElements());
+	}
+
 	@Test
 	public void getFlatDataWithoutExpiredUsers() throws Exception {
 		System.out.println(CLASS_NAME + "getFlatData");
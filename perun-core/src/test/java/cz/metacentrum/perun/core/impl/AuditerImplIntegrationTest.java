@@ -1,16 +1,33 @@
 package cz.metacentrum.perun.core.impl;
 
 import cz.metacentrum.perun.audit.events.FacilityManagerEvents.FacilityCreated;
+import cz.metacentrum.perun.audit.events.StringMessageEvent;
 import cz.metacentrum.perun.core.AbstractPerunIntegrationTest;
 import cz.metacentrum.perun.core.api.AuditMessage;
+import cz.metacentrum.perun.core.api.BeansUtils;
 import cz.metacentrum.perun.core.api.Facility;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
-
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcPerunTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -18,6 +35,13 @@ public class AuditerImplIntegrationTest extends AbstractPerunIntegrationTest {
 
 	private Facility facility;      // uses creation of facility to store same system message in Auditer
 
+	@Autowired
+	@Qualifier("perunTransactionManager")
+	private PlatformTransactionManager perunTransactionManager;
+
+	@Autowired
+	private DataSource dataSource;
+
 	@Before
 	public void checkAuditerExists() {
 
@@ -72,8 +96,141 @@ public class AuditerImplIntegrationTest extends AbstractPerunIntegrationTest {
 		//assertTrue("Invalid message received.", messages.get(0).getEvent().getMessage().contains("\"message\":\"Facility created Facility:"));
 	}
 
+	@Test
+	public void logMessagesInBothFormats() throws Exception {
+		System.out.println("AuditerTest.logMessagesInBothFormats");
+
+		perun.getAuditer().clean();
+
+		FacilityCreated jsonEvent = new FacilityCreated(new Facility(0,"AuditorTestFacility"));
+		FacilityCreated smileEvent = new FacilityCreated(new Facility(1,"AuditorTestFacility2"));
+
+		String originalFormat = BeansUtils.getCoreConfig().getAuditerMessageFormat();
+		try {
+			BeansUtils.getCoreConfig().setAuditerMessageFormat("json");
+			perun.getAuditer().log(sess, jsonEvent);
+			perun.getAuditer().flush();
+
+			BeansUtils.getCoreConfig().setAuditerMessageFormat("smile");
+			perun.getAuditer().log(sess, smileEvent);
+			perun.getAuditer().flush();
+		} finally {
+			BeansUtils.getCoreConfig().setAuditerMessageFormat(originalFormat);
+		}
+
+		// newest message first
+		List<AuditMessage> messages = perun.getAuditMessagesManagerBl().getMessagesByCount(sess, 2);
+
+		assertEquals("Invalid number of messages.", 2, messages.size());
+		assertEquals("Invalid Smile message.", smileEvent, messages.get(0).getEvent());
+		assertEquals("Invalid JSON message.", jsonEvent, messages.get(1).getEvent());
+	}
+
+	@Test
+	public void awaitStoredMessages() throws Exception {
+		System.out.println("AuditerTest.awaitStoredMessages");
+
+		long storedBatches = perun.getAuditer().getStoredBatchesCount();
+		assertFalse("auditer should not signal new messages", perun.getAuditer().awaitStoredMessages(storedBatches, 10));
+
+		int lastMessageId = perun.getAuditMessagesManagerBl().getLastMessageId(sess);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(perunTransactionManager);
+		transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		try {
+			transactionTemplate.execute(status -> {
+				perun.getAuditer().log(sess, new FacilityCreated(new Facility(0,"AuditorTestFacility")));
+				return null;
+			});
+
+			assertTrue("auditer should signal new messages", perun.getAuditer().awaitStoredMessages(storedBatches, 10));
+			assertEquals("Invalid number of stored batches.", storedBatches + 1, perun.getAuditer().getStoredBatchesCount());
+		} finally {
+			deleteCommittedMessages(lastMessageId);
+		}
+
+		// messages written by the running transaction are signaled after it commits, test transaction is rolled back
+		storedBatches = perun.getAuditer().getStoredBatchesCount();
+		perun.getAuditer().logWithoutTransaction(sess, new FacilityCreated(new Facility(0,"AuditorTestFacility")));
+		assertFalse("auditer should not signal uncommitted messages", perun.getAuditer().awaitStoredMessages(storedBatches, 10));
+	}
+
+	@Test
+	public void storeMessagesOfConcurrentTransactions() throws Exception {
+		System.out.println("AuditerTest.storeMessagesOfConcurrentTransactions");
+
+		final int committers = 8;
+		final int transactionsPerCommitter = 20;
+		final int messagesPerTransaction = 5;
+
+		TransactionTemplate transactionTemplate = new TransactionTemplate(perunTransactionManager);
+		int lastMessageId = perun.getAuditMessagesManagerBl().getLastMessageId(sess);
+		ExecutorService executor = Executors.newFixedThreadPool(committers);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int c = 0; c < committers; c++) {
+				final int committer = c;
+				futures.add(executor.submit(() -> {
+					for (int t = 0; t < transactionsPerCommitter; t++) {
+						final int transaction = t;
+						// messages are stored by the transaction manager when the transaction commits
+						transactionTemplate.execute(status -> {
+							for (int m = 0; m < messagesPerTransaction; m++) {
+								perun.getAuditer().log(sess, new StringMessageEvent("concurrent " + committer + " " + transaction + " " + m));
+							}
+							return null;
+						});
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(1, TimeUnit.MINUTES);
+			}
+
+			int total = committers * transactionsPerCommitter * messagesPerTransaction;
+			List<AuditMessage> stored = perun.getAuditMessagesManagerBl().getMessages(sess, total);
+			assertEquals("Invalid number of messages.", total, stored.size());
+
+			// newest messages are first, so messages of each committer must come in reverse order of logging
+			// and messages of each transaction must not be interleaved with messages of other transactions
+			Map<Integer, Integer> lastSeenByCommitter = new HashMap<>();
+			for (AuditMessage message : stored) {
+				assertTrue("Message stored before the test was returned.", message.getId() > lastMessageId);
+				String[] parts = message.getEvent().getMessage().split(" ");
+				assertEquals("Unexpected message stored.", "concurrent", parts[0]);
+				int committer = Integer.parseInt(parts[1]);
+				int order = Integer.parseInt(parts[2]) * messagesPerTransaction + Integer.parseInt(parts[3]);
+				Integer newer = lastSeenByCommitter.put(committer, order);
+				if (newer != null) {
+					assertEquals("Messages of committer " + committer + " are not in logged order.", newer - 1, order);
+				}
+			}
+			assertEquals("Messages of some committers are missing.", committers, lastSeenByCommitter.size());
+			for (int i = 1; i < stored.size(); i++) {
+				String[] newer = stored.get(i - 1).getEvent().getMessage().split(" ");
+				String[] older = stored.get(i).getEvent().getMessage().split(" ");
+				if (!newer[3].equals("0")) {
+					assertEquals("Messages of transactions are interleaved.", newer[1] + " " + newer[2], older[1] + " " + older[2]);
+				}
+			}
+		} finally {
+			executor.shutdown();
+			deleteCommittedMessages(lastMessageId);
+		}
+	}
+
 	// ------------- private methods ----------------------------------
 
+	/**
+	 * Deletes messages committed by the test, they are not removed by rollback of the test transaction.
+	 *
+	 * @param lastMessageId id of the last message stored before the test
+	 */
+	private void deleteCommittedMessages(int lastMessageId) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(perunTransactionManager);
+		transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		transactionTemplate.execute(status -> new JdbcPerunTemplate(dataSource).update("delete from auditer_log where id > ?", lastMessageId));
+	}
+
 
 	private void setUpFacility() throws Exception {
 
@@ -0,0 +1,130 @@
+package cz.metacentrum.perun.core.impl;
+
+import cz.metacentrum.perun.core.api.Attribute;
+import cz.metacentrum.perun.core.api.AttributeDefinition;
+import cz.metacentrum.perun.core.api.AttributeHolders;
+import cz.metacentrum.perun.core.api.AttributesManager;
+import cz.metacentrum.perun.core.api.Holder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.query.Search;
+import org.infinispan.query.dsl.QueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading of attributes from CacheManager by its index with the Infinispan queries,
+ * which were used to read them before.
+ *
+ * It's not run with tests. Run the main method (or org.openjdk.jmh.Main with JMH options) with the test classpath
+ * of perun-core after test-compile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheManagerBenchmark {
+
+	private static final int ATTRIBUTES = 10;
+
+	@Param({"100", "1000", "10000"})
+	private int facilities;
+
+	private DefaultCacheManager localCacheManager;
+	private CacheManager cacheManager;
+	private Holder facility;
+	private List<Integer> attributeIds;
+
+	@Setup
+	public void setUp() throws Exception {
+		localCacheManager = new DefaultCacheManager("infinispan-config.xml");
+		cacheManager = new CacheManager(localCacheManager);
+
+		List<AttributeDefinition> attrDefs = new ArrayList<>();
+		attributeIds = new ArrayList<>();
+		for (int i = 1; i <= ATTRIBUTES; i++) {
+			AttributeDefinition attrDef = new AttributeDefinition();
+			attrDef.setId(i);
+			attrDef.setNamespace(AttributesManager.NS_FACILITY_ATTR_OPT);
+			attrDef.setFriendlyName("benchmark-" + i);
+			attrDef.setType(String.class.getName());
+			cacheManager.setAttributeDefinition(attrDef);
+			attrDefs.add(attrDef);
+			attributeIds.add(i);
+		}
+
+		for (int id = 1; id <= facilities; id++) {
+			for (AttributeDefinition attrDef : attrDefs) {
+				cacheManager.setAttribute(new Attribute(attrDef, "value-" + id), new Holder(id, Holder.HolderType.FACILITY), null);
+			}
+		}
+		facility = new Holder(facilities / 2, Holder.HolderType.FACILITY);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		localCacheManager.close();
+	}
+
+	@Benchmark
+	public List<Attribute> getAllNonEmptyAttributesByIndex() throws Exception {
+		return cacheManager.getAllNonEmptyAttributes(facility);
+	}
+
+	@Benchmark
+	public List<Object> getAllNonEmptyAttributesByQuery() {
+		QueryFactory qf = Search.getQueryFactory(localCacheManager.getCache("transactionalCache"));
+
+		return qf.from(AttributeHolders.class)
+				.having("namespaceForSearch").in(Arrays.asList(AttributesManager.NS_FACILITY_ATTR_DEF, AttributesManager.NS_FACILITY_ATTR_OPT))
+				.and().having("savedBy").eq(AttributeHolders.SavedBy.ID)
+				.and().not().having("valueForSearch").isNull()
+				.and().having("primaryHolder.id").eq(facility.getId())
+				.and().having("primaryHolder.type").eq(facility.getType())
+				.and().having("secondaryHolder").isNull()
+				.toBuilder().build().list();
+	}
+
+	@Benchmark
+	public List<Attribute> getAttributesByIdsByKeys() throws Exception {
+		return cacheManager.getAttributesByIds(attributeIds, facility);
+	}
+
+	@Benchmark
+	public List<Object> getAttributesByIdsByQuery() {
+		QueryFactory qf = Search.getQueryFactory(localCacheManager.getCache("transactionalCache"));
+
+		return qf.from(AttributeHolders.class)
+				.having("namespaceForSearch").in(Arrays.asList(AttributesManager.NS_FACILITY_ATTR_DEF, AttributesManager.NS_FACILITY_ATTR_OPT))
+				.and().having("idForSearch").in(attributeIds)
+				.and().having("savedBy").eq(AttributeHolders.SavedBy.ID)
+				.and().having("primaryHolder.id").eq(facility.getId())
+				.and().having("primaryHolder.type").eq(facility.getType())
+				.and().having("secondaryHolder").isNull()
+				.toBuilder().build().list();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(CacheManagerBenchmark.class.getSimpleName()).build()).run();
+	}
+}
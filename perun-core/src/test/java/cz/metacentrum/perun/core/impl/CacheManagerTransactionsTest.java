@@ -194,7 +194,10 @@ public class CacheManagerTransactionsTest extends AbstractPerunIntegrationTest {
 		assertEquals("returned attribute is not same as stored", groupAttr1, cacheManager.getAttributeByName(groupAttr1.getName(), groupHolder, null));
 		assertEquals("returned attribute is not same as stored", entitylessAttr, cacheManager.getEntitylessAttribute(entitylessAttr.getName(), subject));
 
+		// count definitions in DB, cache was cleared in setUp and it's read in transaction even after update
+		CacheManager.setCacheDisabled(true);
 		int numOfAttrDefs = ((PerunBlImpl)perun).getAttributesManagerImpl().getAttributesDefinition(sess).size();
+		CacheManager.setCacheDisabled(false);
 
 		((PerunBlImpl)perun).getAttributesManagerImpl().deleteAttribute(sess, groupAttr);
 
@@ -805,6 +808,73 @@ public class CacheManagerTransactionsTest extends AbstractPerunIntegrationTest {
 		assertEquals("returned attribute is not same as stored", attr, cacheManager.getAttributeByName(attr.getName(), groupHolder, null));
 	}
 
+	@Test
+	public void getAllNonEmptyAttributesAfterUpdateInTransaction() throws Exception {
+		System.out.println(CLASS_NAME + "getAllNonEmptyAttributesAfterUpdateInTransaction");
+
+		Attribute attr = setUpGroupAttribute();
+		cacheManager.setAttribute(attr, groupHolder, null);
+		assertTrue("cache should have been updated in transaction", cacheManager.wasCacheUpdatedInTransaction());
+
+		List<Attribute> attrs = cacheManager.getAllNonEmptyAttributes(groupHolder);
+		assertEquals("it should return 1 attribute", 1, attrs.size());
+		assertTrue("result should contain attribute set in transaction", attrs.contains(attr));
+
+		cacheManager.newNestedTransaction();
+
+		Attribute attr1 = setUpGroupAttribute1();
+		cacheManager.setAttribute(attr1, groupHolder, null);
+		cacheManager.removeAttribute(attr, groupHolder, null);
+
+		attrs = cacheManager.getAllNonEmptyAttributes(groupHolder);
+		assertEquals("it should return 1 attribute", 1, attrs.size());
+		assertTrue("result should contain attribute set in nested transaction", attrs.contains(attr1));
+
+		cacheManager.cleanNestedTransaction();
+
+		attrs = cacheManager.getAllNonEmptyAttributes(groupHolder);
+		assertEquals("it should return 1 attribute", 1, attrs.size());
+		assertTrue("result should contain attribute set before nested transaction", attrs.contains(attr));
+		assertTrue("attributes of other holder should not be returned", cacheManager.getAllNonEmptyAttributes(groupHolder1).isEmpty());
+	}
+
+	@Test
+	public void getAttributesByIdsAndDefinitionsAfterUpdateInTransaction() throws Exception {
+		System.out.println(CLASS_NAME + "getAttributesByIdsAndDefinitionsAfterUpdateInTransaction");
+
+		cacheManager.newNestedTransaction();
+
+		AttributeDefinition groupAttrDef = setUpGroupAttributeDefinition();
+		Attribute groupAttr = setUpGroupAttribute();
+		cacheManager.setAttribute(groupAttr, groupHolder, null);
+
+		List<AttributeDefinition> attrDefs = cacheManager.getAttributesDefinitionsByNamespace(AttributesManager.NS_GROUP_ATTR_OPT);
+		assertEquals("it should return 2 attribute definitions", 2, attrDefs.size());
+		assertTrue("result should contain attribute definition set in transaction", attrDefs.contains(groupAttrDef));
+
+		List<Integer> attributeIds = new ArrayList<>();
+		attributeIds.add(groupAttr.getId());
+		attributeIds.add(groupAttrDef.getId());
+
+		List<Attribute> attrs = cacheManager.getAttributesByIds(attributeIds, groupHolder);
+		assertEquals("it should return 2 attributes", 2, attrs.size());
+		assertTrue("result should contain group attribute", attrs.contains(groupAttr));
+		assertTrue("result should contain group attribute definition", attrs.contains(groupAttrDef));
+
+		cacheManager.flushNestedTransaction();
+
+		assertEquals("it should return 2 attribute definitions", 2, cacheManager.getAttributesDefinitions().size());
+		attrs = cacheManager.getAttributesByIds(attributeIds, groupHolder);
+		assertTrue("result should contain group attribute", attrs.contains(groupAttr));
+
+		cacheManager.rollback();
+		// new transaction needed, else the rollback called after this method by spring would throw exception
+		cacheManager.newTopLevelTransaction();
+
+		assertTrue("attribute definitions should not exist after rollback", cacheManager.getAttributesDefinitions().isEmpty());
+		assertTrue("attributes should not exist after rollback", cacheManager.getAllNonEmptyAttributes(groupHolder).isEmpty());
+	}
+
 
 
 
@@ -11,11 +11,16 @@ import cz.metacentrum.perun.core.api.Vo;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcPerunTemplate;
+
+import javax.sql.DataSource;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalUnit;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -46,6 +51,9 @@ public class UtilsIntegrationTest extends AbstractPerunIntegrationTest {
 
 	private UsersManager usersManager;
 
+	@Autowired
+	private DataSource dataSource;
+
 	@Before
 	public void setUp() throws Exception {
 		usersManager = perun.getUsersManager();
@@ -59,6 +67,21 @@ public class UtilsIntegrationTest extends AbstractPerunIntegrationTest {
 		setUpUserExtSource();
 	}
 
+	@Test
+	public void getNewIdsTest() throws Exception {
+		System.out.println("Utils.getNewIds");
+
+		JdbcPerunTemplate jdbcTemplate = new JdbcPerunTemplate(dataSource);
+		List<Integer> ids = Utils.getNewIds(jdbcTemplate, "tasks_results_id_seq", 5);
+		assertEquals(5, ids.size());
+		assertEquals(5, new HashSet<>(ids).size());
+
+		int nextId = Utils.getNewId(jdbcTemplate, "tasks_results_id_seq");
+		for (Integer id : ids) {
+			assertTrue(id < nextId);
+		}
+	}
+
 	@Test
 	public void parseCommonNameTest() {
 		System.out.println("Utils.parseCommonName");
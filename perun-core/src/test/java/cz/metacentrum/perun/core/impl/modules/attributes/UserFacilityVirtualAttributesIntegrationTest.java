@@ -0,0 +1,169 @@
+package cz.metacentrum.perun.core.impl.modules.attributes;
+
+import cz.metacentrum.perun.core.AbstractPerunIntegrationTest;
+import cz.metacentrum.perun.core.api.Attribute;
+import cz.metacentrum.perun.core.api.AttributeDefinition;
+import cz.metacentrum.perun.core.api.AttributesManager;
+import cz.metacentrum.perun.core.api.Candidate;
+import cz.metacentrum.perun.core.api.ExtSource;
+import cz.metacentrum.perun.core.api.Facility;
+import cz.metacentrum.perun.core.api.Group;
+import cz.metacentrum.perun.core.api.Member;
+import cz.metacentrum.perun.core.api.Resource;
+import cz.metacentrum.perun.core.api.User;
+import cz.metacentrum.perun.core.api.UserExtSource;
+import cz.metacentrum.perun.core.api.Vo;
+import cz.metacentrum.perun.core.api.exceptions.AttributeNotExistsException;
+import cz.metacentrum.perun.core.impl.PerunSessionImpl;
+import cz.metacentrum.perun.core.implApi.modules.attributes.UserFacilityVirtualAttributesModuleImplApi;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Values of user-facility virtual attributes computed for a list of users must be the same
+ * as values computed for each user separately.
+ */
+public class UserFacilityVirtualAttributesIntegrationTest extends AbstractPerunIntegrationTest {
+
+	private static final String NAMESPACE = "virtTestNamespace";
+
+	private Facility facility;
+	private User userWithValues;
+	private User userWithFacilityShell;
+	private User userWithoutValues;
+	private List<User> users;
+
+	@Before
+	public void setUp() throws Exception {
+		Vo vo = perun.getVosManagerBl().createVo(sess, new Vo(0, "UserFacilityVirtTestVo", "UFVTestVo"));
+		facility = perun.getFacilitiesManagerBl().createFacility(sess, new Facility(0, "UserFacilityVirtTestFacility"));
+		Resource resource = new Resource();
+		resource.setName("UserFacilityVirtTestResource");
+		resource.setDescription("test resource");
+		resource = perun.getResourcesManagerBl().createResource(sess, resource, vo, facility);
+		Group group = perun.getGroupsManagerBl().createGroup(sess, vo, new Group("UserFacilityVirtTestGroup", ""));
+		perun.getResourcesManagerBl().assignGroupToResource(sess, group, resource);
+
+		Member memberWithValues = setUpMember(vo, "withValues");
+		Member memberWithFacilityShell = setUpMember(vo, "withFacilityShell");
+		// member without group has no allowed resource
+		Member memberWithoutValues = setUpMember(vo, "withoutValues");
+		perun.getGroupsManagerBl().addMember(sess, group, memberWithValues);
+		perun.getGroupsManagerBl().addMember(sess, group, memberWithFacilityShell);
+		userWithValues = perun.getUsersManagerBl().getUserByMember(sess, memberWithValues);
+		userWithFacilityShell = perun.getUsersManagerBl().getUserByMember(sess, memberWithFacilityShell);
+		userWithoutValues = perun.getUsersManagerBl().getUserByMember(sess, memberWithoutValues);
+		users = Arrays.asList(userWithValues, userWithFacilityShell, userWithoutValues);
+
+		Attribute uidNamespace = getOrSetUpAttribute(AttributesManager.NS_FACILITY_ATTR_DEF, "uid-namespace", String.class);
+		uidNamespace.setValue(NAMESPACE);
+		perun.getAttributesManagerBl().setAttributeWithoutCheck(sess, facility, uidNamespace);
+		Attribute loginNamespace = getOrSetUpAttribute(AttributesManager.NS_FACILITY_ATTR_DEF, "login-namespace", String.class);
+		loginNamespace.setValue(NAMESPACE);
+		perun.getAttributesManagerBl().setAttributeWithoutCheck(sess, facility, loginNamespace);
+		Attribute facilityShells = getOrSetUpAttribute(AttributesManager.NS_FACILITY_ATTR_DEF, "shells", ArrayList.class);
+		facilityShells.setValue(new ArrayList<>(Arrays.asList("/bin/bash", "/bin/zsh")));
+		perun.getAttributesManagerBl().setAttributeWithoutCheck(sess, facility, facilityShells);
+		Attribute resourceShells = getOrSetUpAttribute(AttributesManager.NS_RESOURCE_ATTR_DEF, "shells", ArrayList.class);
+		resourceShells.setValue(new ArrayList<>(Arrays.asList("/bin/bash", "/bin/zsh")));
+		perun.getAttributesManagerBl().setAttributeWithoutCheck(sess, resource, resourceShells);
+
+		Attribute uid = getOrSetUpAttribute(AttributesManager.NS_USER_ATTR_DEF, "uid-namespace:" + NAMESPACE, Integer.class);
+		uid.setValue(1000);
+		perun.getAttributesManagerBl().setAttributeWithoutCheck(sess, userWithValues, uid);
+		uid.setValue(1001);
+		perun.getAttributesManagerBl().setAttributeWithoutCheck(sess, userWithFacilityShell, uid);
+		Attribute login = getOrSetUpAttribute(AttributesManager.NS_USER_ATTR_DEF, "login-namespace:" + NAMESPACE, String.class);
+		login.setValue("withValues");
+		perun.getAttributesManagerBl().setAttributeWithoutCheck(sess, userWithValues, login);
+		Attribute preferredShells = getOrSetUpAttribute(AttributesManager.NS_USER_ATTR_DEF, "preferredShells", ArrayList.class);
+		preferredShells.setValue(new ArrayList<>(Collections.singletonList("/bin/zsh")));
+		perun.getAttributesManagerBl().setAttributeWithoutCheck(sess, userWithValues, preferredShells);
+		Attribute shell = getOrSetUpAttribute(AttributesManager.NS_USER_FACILITY_ATTR_DEF, "shell", String.class);
+		shell.setValue("/bin/sh");
+		perun.getAttributesManagerBl().setAttributeWithoutCheck(sess, facility, userWithFacilityShell, shell);
+	}
+
+	@Test
+	public void uidValuesSameAsForEachUser() throws Exception {
+		System.out.println("UserFacilityVirtualAttributes.uidValuesSameAsForEachUser");
+
+		Map<User, Attribute> values = assertValuesSameAsForEachUser(new urn_perun_user_facility_attribute_def_virt_UID(), "UID");
+		assertEquals(1000, values.get(userWithValues).getValue());
+		assertNull(values.get(userWithoutValues).getValue());
+	}
+
+	@Test
+	public void loginValuesSameAsForEachUser() throws Exception {
+		System.out.println("UserFacilityVirtualAttributes.loginValuesSameAsForEachUser");
+
+		Map<User, Attribute> values = assertValuesSameAsForEachUser(new urn_perun_user_facility_attribute_def_virt_login(), "login");
+		assertEquals("withValues", values.get(userWithValues).getValue());
+		assertNull(values.get(userWithFacilityShell).getValue());
+	}
+
+	@Test
+	public void shellValuesSameAsForEachUser() throws Exception {
+		System.out.println("UserFacilityVirtualAttributes.shellValuesSameAsForEachUser");
+
+		Map<User, Attribute> values = assertValuesSameAsForEachUser(new urn_perun_user_facility_attribute_def_virt_shell(), "shell");
+		assertEquals("/bin/zsh", values.get(userWithValues).getValue());
+		assertEquals("/bin/sh", values.get(userWithFacilityShell).getValue());
+		assertNull(values.get(userWithoutValues).getValue());
+	}
+
+	// --PRIVATE METHODS ---------------------------------------------------
+
+	private Map<User, Attribute> assertValuesSameAsForEachUser(UserFacilityVirtualAttributesModuleImplApi module, String friendlyName) throws Exception {
+		AttributeDefinition definition = getOrSetUpAttribute(AttributesManager.NS_USER_FACILITY_ATTR_VIRT, friendlyName, String.class);
+
+		Map<User, Attribute> values = module.getAttributeValues((PerunSessionImpl) sess, users, facility, definition);
+		assertEquals("value is missing for some user", users.size(), values.size());
+		for (User user : users) {
+			Attribute expected = module.getAttributeValue((PerunSessionImpl) sess, user, facility, definition);
+			Attribute actual = values.get(user);
+			assertNotNull("value is missing for " + user, actual);
+			assertEquals("different value for " + user, expected.getValue(), actual.getValue());
+			assertEquals("different attribute for " + user, expected.getName(), actual.getName());
+		}
+		return values;
+	}
+
+	private Attribute getOrSetUpAttribute(String namespace, String friendlyName, Class<?> type) throws Exception {
+		try {
+			return new Attribute(perun.getAttributesManagerBl().getAttributeDefinition(sess, namespace + ":" + friendlyName));
+		} catch (AttributeNotExistsException ex) {
+			AttributeDefinition definition = new AttributeDefinition();
+			definition.setNamespace(namespace);
+			definition.setFriendlyName(friendlyName);
+			definition.setType(type.getName());
+			return new Attribute(perun.getAttributesManagerBl().createAttribute(sess, definition));
+		}
+	}
+
+	private Member setUpMember(Vo vo, String login) throws Exception {
+		Candidate candidate = new Candidate();
+		candidate.setFirstName(login);
+		candidate.setId(0);
+		candidate.setMiddleName("");
+		candidate.setLastName("UserFacilityVirtTest");
+		candidate.setTitleBefore("");
+		candidate.setTitleAfter("");
+		candidate.setUserExtSource(new UserExtSource(new ExtSource(0, "testExtSource", "cz.metacentrum.perun.core.impl.ExtSourceInternal"), login));
+		candidate.setAttributes(new HashMap<>());
+		Member member = perun.getMembersManagerBl().createMemberSync(sess, vo, candidate);
+		usersForDeletion.add(perun.getUsersManagerBl().getUserByMember(sess, member));
+		return member;
+	}
+}
@@ -1,6 +1,7 @@
 package cz.metacentrum.perun.core.impl.modules.attributes;
 
 import cz.metacentrum.perun.core.api.Attribute;
+import cz.metacentrum.perun.core.api.AttributeDefinition;
 import cz.metacentrum.perun.core.api.AttributesManager;
 import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.User;
@@ -11,7 +12,19 @@ import cz.metacentrum.perun.core.impl.PerunSessionImpl;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class urn_perun_user_facility_attribute_def_virt_UIDTest {
@@ -22,6 +35,7 @@ public class urn_perun_user_facility_attribute_def_virt_UIDTest {
 	private User user = new User();
 	private PerunSessionImpl sess;
 	private Attribute reqAttribute;
+	private AttributesManagerBl attributesManagerBl;
 
 	@Before
 	public void setUp() throws Exception {
@@ -34,7 +48,7 @@ public class urn_perun_user_facility_attribute_def_virt_UIDTest {
 		PerunBl perunBl = mock(PerunBl.class);
 		when(sess.getPerunBl()).thenReturn(perunBl);
 
-		AttributesManagerBl attributesManagerBl = mock(AttributesManagerBl.class);
+		attributesManagerBl = mock(AttributesManagerBl.class);
 		when(sess.getPerunBl().getAttributesManagerBl()).thenReturn(attributesManagerBl);
 		when(attributesManagerBl.getAttribute(sess, facility, AttributesManager.NS_FACILITY_ATTR_DEF + ":uid-namespace")).thenReturn(reqAttribute);
 		when(attributesManagerBl.getAttribute(sess, user, AttributesManager.NS_USER_ATTR_DEF + ":uid-namespace:" + reqAttribute.getValue())).thenReturn(reqAttribute);
@@ -56,4 +70,31 @@ public class urn_perun_user_facility_attribute_def_virt_UIDTest {
 
 		classInstance.checkAttributeSemantics(sess, user, facility, attributeToCheck);
 	}
+
+	@Test
+	public void testGetAttributeValues() throws Exception {
+		System.out.println("testGetAttributeValues()");
+		User user2 = new User(2, "", "", "", "", "");
+		AttributeDefinition uidDefinition = new AttributeDefinition();
+		uidDefinition.setNamespace(AttributesManager.NS_USER_ATTR_DEF);
+		uidDefinition.setFriendlyName("uid-namespace:" + reqAttribute.getValue());
+		Attribute uidAttribute = new Attribute(uidDefinition);
+		uidAttribute.setValue("1000");
+		Attribute uidAttribute2 = new Attribute(uidDefinition);
+		uidAttribute2.setValue("1001");
+		Map<User, List<Attribute>> uidAttributes = new HashMap<>();
+		uidAttributes.put(user, Collections.singletonList(uidAttribute));
+		uidAttributes.put(user2, Collections.singletonList(uidAttribute2));
+		when(attributesManagerBl.getAttributeDefinition(sess, uidDefinition.getName())).thenReturn(uidDefinition);
+		when(attributesManagerBl.getUsersAttributes(sess, Arrays.asList(user, user2), Collections.singletonList(uidDefinition.getName()))).thenReturn(new HashMap<>(uidAttributes));
+
+		Map<User, Attribute> values = classInstance.getAttributeValues(sess, Arrays.asList(user, user2), facility, new AttributeDefinition(classInstance.getAttributeDefinition()));
+
+		assertEquals(2, values.size());
+		assertEquals("1000", values.get(user).getValue());
+		assertEquals("1001", values.get(user2).getValue());
+		// facility namespace is read only once and uids of all users by one call
+		verify(attributesManagerBl, times(1)).getAttribute(sess, facility, AttributesManager.NS_FACILITY_ATTR_DEF + ":uid-namespace");
+		verify(attributesManagerBl, never()).getAttribute(any(PerunSessionImpl.class), any(User.class), anyString());
+	}
 }
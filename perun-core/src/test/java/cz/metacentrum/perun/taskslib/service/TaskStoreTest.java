@@ -10,9 +10,16 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class TaskStoreTest {
@@ -96,4 +103,52 @@ public class TaskStoreTest {
 		assertTrue(tasks.contains(taskG));
 		assertTrue(tasks.contains(taskD));
 	}
+
+	@Test
+	public void testGetTaskWithStatusAfterStatusChange() throws Exception {
+		taskStore.addTask(taskW);
+		taskStore.addTask(taskG);
+
+		taskW.setStatus(Task.TaskStatus.GENERATED);
+		List<Task> tasks = taskStore.getTasksWithStatus(Task.TaskStatus.WAITING);
+		assertTrue(tasks.isEmpty());
+		tasks = taskStore.getTasksWithStatus(Task.TaskStatus.GENERATED);
+		assertEquals(2, tasks.size());
+
+		// removed task no longer updates the store
+		taskStore.removeTask(taskW);
+		taskW.setStatus(Task.TaskStatus.WAITING);
+		assertTrue(taskStore.getTasksWithStatus(Task.TaskStatus.WAITING).isEmpty());
+		tasks = taskStore.getTasksWithStatus(Task.TaskStatus.GENERATED);
+		assertEquals(1, tasks.size());
+		assertTrue(tasks.contains(taskG));
+	}
+
+	@Test
+	public void testGetOrCreateTask() throws Exception {
+		int threads = 8;
+		AtomicInteger created = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Task>> results = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			results.add(executor.submit(() -> {
+				start.await();
+				return taskStore.getOrCreateTask(taskW.getFacility(), taskW.getService(), () -> {
+					created.incrementAndGet();
+					return taskW;
+				});
+			}));
+		}
+		start.countDown();
+		for (Future<Task> result : results) {
+			assertSame(taskW, result.get());
+		}
+		executor.shutdown();
+
+		assertEquals(1, created.get());
+		assertEquals(1, taskStore.getSize());
+		assertSame(taskW, taskStore.getTask(taskW.getId()));
+		assertEquals(1, taskStore.getTasksWithStatus(Task.TaskStatus.WAITING).size());
+	}
 }
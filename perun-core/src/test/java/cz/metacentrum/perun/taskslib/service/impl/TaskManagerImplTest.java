@@ -0,0 +1,96 @@
+package cz.metacentrum.perun.taskslib.service.impl;
+
+import cz.metacentrum.perun.taskslib.dao.TaskDao;
+import cz.metacentrum.perun.taskslib.model.Task;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TaskManagerImplTest {
+
+	private TaskManagerImpl taskManager;
+	private TaskDao taskDao;
+	private Task task1;
+	private Task task2;
+
+	@Before
+	public void setUp() {
+		taskDao = mock(TaskDao.class);
+		taskManager = new TaskManagerImpl();
+		taskManager.setTaskDao(taskDao);
+
+		task1 = new Task();
+		task1.setId(1);
+		task1.setStatus(Task.TaskStatus.WAITING);
+
+		task2 = new Task();
+		task2.setId(2);
+		task2.setStatus(Task.TaskStatus.WAITING);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testDeferredUpdatesAreCoalesced() {
+		taskManager.updateTaskDeferred(task1);
+		task1.setStatus(Task.TaskStatus.PLANNED);
+		taskManager.updateTaskDeferred(task1);
+		taskManager.updateTaskDeferred(task2);
+		verify(taskDao, never()).updateTask(any(Task.class));
+
+		taskManager.flushTaskUpdates();
+
+		ArgumentCaptor<List<Task>> captor = ArgumentCaptor.forClass(List.class);
+		verify(taskDao, times(1)).updateTasks(captor.capture());
+		assertEquals(2, captor.getValue().size());
+
+		// nothing is left for the next flush
+		taskManager.flushTaskUpdates();
+		verify(taskDao, times(1)).updateTasks(any());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testDeferredUpdateIsDroppedByImmediateUpdateAndRemoval() {
+		taskManager.updateTaskDeferred(task1);
+		taskManager.updateTaskDeferred(task2);
+		taskManager.updateTask(task1);
+		taskManager.removeTask(task2.getId());
+
+		taskManager.flushTaskUpdates();
+
+		verify(taskDao, never()).updateTasks(any());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testFailedFlushKeepsUpdates() {
+		taskManager.updateTaskDeferred(task1);
+		doThrow(new RuntimeException("test")).when(taskDao).updateTasks(any());
+		try {
+			taskManager.flushTaskUpdates();
+		} catch (RuntimeException e) {
+			// expected
+		}
+
+		reset(taskDao);
+		taskManager.flushTaskUpdates();
+
+		ArgumentCaptor<List<Task>> captor = ArgumentCaptor.forClass(List.class);
+		verify(taskDao).updateTasks(captor.capture());
+		assertEquals(1, captor.getValue().size());
+		assertSame(task1, captor.getValue().get(0));
+	}
+
+}
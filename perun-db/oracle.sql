@@ -1,4 +1,4 @@
--- database version 3.1.55 (don't forget to update insert statement at the end of file)
+-- database version 3.1.56 (don't forget to update insert statement at the end of file)
 
 create user perunv3 identified by password;
 grant create session to perunv3;
@@ -1201,7 +1201,9 @@ create table tasks_results (
 -- AUDITER_LOG - logging
 create table auditer_log (
 	id integer not null,         --identifier of logged event
-	msg clob not null,           --text of logging message
+	msg clob,                    --text of logging message (JSON format)
+	msg_format integer default 0 not null, --format of stored message (0 = JSON in msg, 1 = Smile in msg_binary)
+	msg_binary blob,             --binary encoded logging message (Smile format)
 	actor nvarchar2(256) not null, --who causes the event
 	created_at date default sysdate not null,
 	created_by_uid integer,
@@ -1775,7 +1777,7 @@ CREATE INDEX ufauv_idx ON user_facility_attr_u_values (user_id, facility_id, att
 CREATE INDEX vauv_idx ON vo_attr_u_values (vo_id, attr_id) ;
 
 -- set initial Perun DB version
-insert into configurations values ('DATABASE VERSION','3.1.55');
+insert into configurations values ('DATABASE VERSION','3.1.56');
 
 -- insert membership types
 insert into membership_types (id, membership_type, description) values (1, 'DIRECT', 'Member is directly added into group');
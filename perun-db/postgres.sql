@@ -1,4 +1,4 @@
--- database version 3.1.55 (don't forget to update insert statement at the end of file)
+-- database version 3.1.56 (don't forget to update insert statement at the end of file)
 
 -- VOS - virtual organizations
 create table vos (
@@ -1191,7 +1191,9 @@ create table tasks_results (
 
 create table auditer_log (
 	id integer not null,         --identifier of logged event
-	msg text not null,           --text of logging message
+	msg text,                    --text of logging message (JSON format)
+	msg_format integer default 0 not null, --format of stored message (0 = JSON in msg, 1 = Smile in msg_binary)
+	msg_binary bytea,            --binary encoded logging message (Smile format)
 	actor varchar(256) not null, --who causes the event
 	created_at timestamp default statement_timestamp() not null,
 	created_by_uid integer,
@@ -1873,7 +1875,7 @@ grant all on user_ext_source_attr_u_values to perun;
 grant all on members_sponsored to perun;
 
 -- set initial Perun DB version
-insert into configurations values ('DATABASE VERSION','3.1.55');
+insert into configurations values ('DATABASE VERSION','3.1.56');
 
 -- insert membership types
 insert into membership_types (id, membership_type, description) values (1, 'DIRECT', 'Member is directly added into group');
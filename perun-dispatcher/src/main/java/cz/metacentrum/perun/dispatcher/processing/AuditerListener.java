@@ -3,11 +3,13 @@ package cz.metacentrum.perun.dispatcher.processing;
 import javax.annotation.Resource;
 
 import cz.metacentrum.perun.audit.events.AuditEvent;
+import cz.metacentrum.perun.core.api.BeansUtils;
 import cz.metacentrum.perun.core.api.Perun;
 import cz.metacentrum.perun.core.api.PerunClient;
 import cz.metacentrum.perun.core.api.PerunPrincipal;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.exceptions.PrivilegeException;
+import cz.metacentrum.perun.core.bl.PerunBl;
 import cz.metacentrum.perun.taskslib.runners.impl.AbstractRunner;
 
 import org.slf4j.Logger;
@@ -19,15 +21,25 @@ import cz.metacentrum.perun.dispatcher.model.Event;
 
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.BlockingQueue;
 
 /**
  * This class wraps AuditerConsumer for Dispatcher.
  *
- * It ensure continuous reading of audit messages and convert them to Events,
+ * It ensure continuous reading of audit messages in bounded chunks and convert them to Events,
  * which are then pushed to EventQueue for further processing by EventProcessor.
  *
+ * Between polls it waits for Auditer to signal newly stored messages, so changes made
+ * by this instance are read immediately. Other changes are read after "dispatcher.auditer.wait.timeout".
+ *
+ * Events are collected for "dispatcher.event.coalescing.window" milliseconds before they are pushed to EventQueue.
+ * Events within the window, which would be resolved from the same beans (e.g. many members added to the same group),
+ * are pushed only once, in the position of the first of them. Window 0 disables coalescing.
+ *
  * Its started by DispatcherManager when Spring context is initialized.
  *
  * @see cz.metacentrum.perun.dispatcher.processing.EventProcessor
@@ -47,6 +59,12 @@ public class AuditerListener extends AbstractRunner {
 	private Properties dispatcherProperties;
 	private Perun perun;
 	private PerunSession sess;
+	private EventServiceResolver eventServiceResolver;
+
+	// events of current coalescing window by their resolving key
+	private final Map<String, Event> coalescedEvents = new LinkedHashMap<>();
+	private long coalescingWindowStart;
+	private int coalescingWindowEvents;
 
 	// ----- setters -------------------------------------
 
@@ -77,6 +95,15 @@ public class AuditerListener extends AbstractRunner {
 		this.perun = perun;
 	}
 
+	public EventServiceResolver getEventServiceResolver() {
+		return eventServiceResolver;
+	}
+
+	@Autowired
+	public void setEventServiceResolver(EventServiceResolver eventServiceResolver) {
+		this.eventServiceResolver = eventServiceResolver;
+	}
+
 	// ----- methods -------------------------------------
 
 	@Override
@@ -86,6 +113,20 @@ public class AuditerListener extends AbstractRunner {
 
 		String dispatcherName = dispatcherProperties.getProperty("dispatcher.ip.address") + ":" + dispatcherProperties.getProperty("dispatcher.port");
 
+		long waitTimeout = 1000;
+		try {
+			waitTimeout = Long.parseLong(dispatcherProperties.getProperty("dispatcher.auditer.wait.timeout", "1000"));
+		} catch (NumberFormatException e) {
+			log.warn("Could not parse value of dispatcher.auditer.wait.timeout property. Using default.");
+		}
+
+		long coalescingWindow = 1000;
+		try {
+			coalescingWindow = Long.parseLong(dispatcherProperties.getProperty("dispatcher.event.coalescing.window", "1000"));
+		} catch (NumberFormatException e) {
+			log.warn("Could not parse value of dispatcher.event.coalescing.window property. Using default.");
+		}
+
 		try {
 
 			try {
@@ -103,9 +144,14 @@ public class AuditerListener extends AbstractRunner {
 			}
 
 
+			int batchSize = BeansUtils.getCoreConfig().getAuditerConsumerBatchSize();
+
 			while (!shouldStop()) {
 				try {
-					for (AuditEvent message : perun.getAuditMessagesManager().pollConsumerEvents(sess, dispatcherName)) {
+					List<AuditEvent> messages = perun.getAuditMessagesManager().pollConsumerEvents(sess, dispatcherName, batchSize);
+					for (AuditEvent message : messages) {
+						// keep cached assignments used for resolving in sync with audited changes
+						eventServiceResolver.invalidateCachedAssignments(message);
 						// create event for each message
 						Event event = new Event();
 						event.setTimeStamp(System.currentTimeMillis());
@@ -117,15 +163,29 @@ public class AuditerListener extends AbstractRunner {
 							whichOfTwoRules = true;
 						}
 						event.setData(message);
-						// pass event to queue for further processing
-						eventQueue.put(event);
+						if (coalescingWindow > 0) {
+							coalesceEvent(event);
+						} else {
+							// pass event to queue for further processing
+							eventQueue.put(event);
+						}
+					}
+					long windowRemaining = 0;
+					if (!coalescedEvents.isEmpty()) {
+						windowRemaining = coalescingWindowStart + coalescingWindow - System.currentTimeMillis();
+						if (windowRemaining <= 0) flushCoalescedEvents();
+					}
+					// full batch means there is a backlog, read next chunk without waiting
+					if (messages.size() < batchSize) {
+						long timeout = (windowRemaining > 0) ? Math.min(waitTimeout, windowRemaining) : waitTimeout;
+						((PerunBl) perun).getAuditMessagesManagerBl().waitForNewMessages(sess, dispatcherName, timeout);
 					}
-					Thread.sleep(1000);
 				} catch (InternalErrorException | PrivilegeException ex) {
 					log.error("AuditerListener couldn't get AuditEvents.", ex);
 					Thread.sleep(1000);
 				}
 			}
+			flushCoalescedEvents();
 			log.debug("AuditerListener has stopped.");
 		} catch (InterruptedException e) {
 			log.error("Error in AuditerListener: {}" + e);
@@ -134,4 +194,37 @@ public class AuditerListener extends AbstractRunner {
 
 	}
 
+	/**
+	 * Adds Event to current coalescing window, unless Event with the same resolving key is already there.
+	 *
+	 * @param event Event to add
+	 */
+	private void coalesceEvent(Event event) {
+		if (coalescedEvents.isEmpty()) coalescingWindowStart = System.currentTimeMillis();
+		coalescingWindowEvents++;
+		String key;
+		try {
+			key = eventServiceResolver.getResolvingKey(event.getData());
+		} catch (Exception ex) {
+			log.warn("Couldn't get resolving key of {}, it won't be coalesced: {}", event, ex);
+			key = "uncoalesced:" + coalescingWindowEvents;
+		}
+		coalescedEvents.putIfAbsent(key, event);
+	}
+
+	/**
+	 * Pushes Events of current coalescing window to EventQueue.
+	 *
+	 * @throws InterruptedException When putting to EventQueue is interrupted.
+	 */
+	private void flushCoalescedEvents() throws InterruptedException {
+		if (coalescedEvents.isEmpty()) return;
+		log.debug("Coalesced {} events to {} events.", coalescingWindowEvents, coalescedEvents.size());
+		for (Event event : coalescedEvents.values()) {
+			eventQueue.put(event);
+		}
+		coalescedEvents.clear();
+		coalescingWindowEvents = 0;
+	}
+
 }
@@ -13,7 +13,6 @@ import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.core.api.exceptions.PrivilegeException;
 import cz.metacentrum.perun.core.api.exceptions.ServiceNotExistsException;
 import cz.metacentrum.perun.core.bl.PerunBl;
-import cz.metacentrum.perun.dispatcher.exceptions.InvalidEventMessageException;
 import cz.metacentrum.perun.dispatcher.jms.EngineMessageProducerPool;
 import cz.metacentrum.perun.dispatcher.model.Event;
 import cz.metacentrum.perun.dispatcher.scheduling.SchedulingPool;
@@ -25,9 +24,11 @@ import cz.metacentrum.perun.taskslib.runners.impl.AbstractRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import javax.annotation.Resource;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +36,15 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This class ensure periodic blocking polling of EventQueue with Events parsed from audit messages by AuditerListener.
@@ -44,6 +54,12 @@ import java.util.concurrent.BlockingQueue;
  * Each Event is converted to Task if possible and added to pool (if new) or updated in pool (if exists).
  * New Tasks are also planned immediately.
  *
+ * Events are resolved concurrently by a pool of resolver threads. Resolved Facilities are then handed over
+ * to partition threads in the order in which Events were taken from EventQueue. Each Facility always belongs
+ * to the same partition, so Tasks of one Facility are created in order, while different Facilities
+ * are processed in parallel. Number of threads is set by "dispatcher.event.processor.threads" property,
+ * when set to 0, Events are processed one by one directly by EventProcessor thread.
+ *
  * @see cz.metacentrum.perun.dispatcher.model.Event
  * @see cz.metacentrum.perun.dispatcher.processing.AuditerListener
  * @see cz.metacentrum.perun.dispatcher.scheduling.SchedulingPool
@@ -58,6 +74,11 @@ public class EventProcessor extends AbstractRunner {
 
 	private final static Logger log = LoggerFactory.getLogger(EventProcessor.class);
 
+	private final static int DEFAULT_THREADS = 4;
+	// how many events per thread can be taken from EventQueue before previous ones are processed
+	private final static int EVENTS_IN_PROGRESS_PER_THREAD = 100;
+	private final static long REPORT_INTERVAL = 60000;
+
 	private BlockingQueue<Event> eventQueue;
 	private EngineMessageProducerPool engineMessageProducerPool;
 	private EventServiceResolver eventServiceResolver;
@@ -66,6 +87,16 @@ public class EventProcessor extends AbstractRunner {
 	private Properties dispatcherProperties;
 	private PerunSession sess;
 
+	private ThreadPoolExecutor resolverExecutor;
+	private ThreadPoolExecutor[] partitionExecutors;
+	private Semaphore eventsInProgress;
+	private int maxEventsInProgress;
+
+	private final StageLatency queueLatency = new StageLatency();
+	private final StageLatency resolveLatency = new StageLatency();
+	private final StageLatency partitionWaitLatency = new StageLatency();
+	private final StageLatency taskCreationLatency = new StageLatency();
+
 	// ----- setters -------------------------------------
 
 	public BlockingQueue<Event> getEventQueue() {
@@ -125,132 +156,305 @@ public class EventProcessor extends AbstractRunner {
 // ----- methods -------------------------------------
 
 	/**
-	 * EvProcessor thread, reads EventQueue and convert Events to Tasks,
-	 * which are added to scheduling pool or updated if already in pool.
+	 * EvProcessor thread, reads EventQueue and passes Events to resolver and partition threads,
+	 * which convert them to Tasks, which are added to scheduling pool or updated if already in pool.
+	 *
+	 * When stopped, already taken Events are processed before this method returns.
 	 */
 	@Override
 	public void run() {
+		startExecutors();
+		// completes when last taken Event was handed over to partitions
+		CompletableFuture<Void> lastRouted = CompletableFuture.completedFuture(null);
+		long lastReport = System.currentTimeMillis();
 		while (!shouldStop()) {
 			try {
-				Event event = eventQueue.take();
-				createTaskFromEvent(event);
-				log.debug("Remaining events in a Queue = {}, Engines = {}", eventQueue.size(), engineMessageProducerPool.poolSize());
+				if (!eventsInProgress.tryAcquire(1, TimeUnit.SECONDS)) continue;
+				Event event = eventQueue.poll(1, TimeUnit.SECONDS);
+				if (event == null) {
+					eventsInProgress.release();
+				} else {
+					if (resolverExecutor == null) {
+						routeEvent(event, resolveEvent(event));
+					} else {
+						CompletableFuture<Map<Facility, Set<Service>>> resolved;
+						try {
+							resolved = CompletableFuture.supplyAsync(() -> resolveEvent(event), resolverExecutor);
+						} catch (RejectedExecutionException e) {
+							log.error("Resolving of Event {} was rejected.", event);
+							eventsInProgress.release();
+							continue;
+						}
+						// failure of one Event must not stop routing of the following ones
+						lastRouted = resolved
+								.exceptionally(e -> {
+									log.error("Unable to resolve Event {}.", event, e);
+									return null;
+								})
+								.thenAcceptBoth(lastRouted, (resolvedServices, previous) -> routeEvent(event, resolvedServices))
+								.exceptionally(e -> {
+									log.error("Unable to route Event {}.", event, e);
+									eventsInProgress.release();
+									return null;
+								});
+					}
+					log.debug("Remaining events in a Queue = {}, Engines = {}", eventQueue.size(), engineMessageProducerPool.poolSize());
+				}
+				if (System.currentTimeMillis() - lastReport > REPORT_INTERVAL) {
+					log.debug(getReport());
+					lastReport = System.currentTimeMillis();
+				}
+			} catch (InterruptedException e) {
+				log.error("EventProcessor was interrupted.", e);
+				Thread.currentThread().interrupt();
+				break;
 			} catch (Exception e) {
 				log.error(e.getMessage(), e);
 			}
 		}
+		lastRouted.join();
+		stopExecutors();
 		log.debug("EventProcessor has stopped.");
 	}
 
 	/**
-	 * Creates Task from Event data. Tries to resolve Service and Facility pairs from Event.
-	 * Events for non existing entities are discarded.
+	 * Returns report of Events waiting in EventQueue and in partitions and latencies of processing stages.
 	 *
-	 * @param event Event to parse
-	 * @throws ServiceNotExistsException When Service from Event doesn't exists anymore
-	 * @throws InvalidEventMessageException  When Message has invalid format.
-	 * @throws InternalErrorException  When implementation fails
-	 * @throws PrivilegeException  When dispatcher lack privileges to call core methods
+	 * @return report for logging
 	 */
-	private void createTaskFromEvent(Event event) throws ServiceNotExistsException, InvalidEventMessageException, InternalErrorException, PrivilegeException {
+	public String getReport() {
+		StringBuilder partitions = new StringBuilder();
+		if (partitionExecutors != null) {
+			for (ThreadPoolExecutor partition : partitionExecutors) {
+				partitions.append(' ').append(partition.getQueue().size());
+			}
+		}
+		int inProgress = (eventsInProgress == null) ? 0 : maxEventsInProgress - eventsInProgress.availablePermits();
+		return "Dispatcher EventProcessor report:\n" +
+				"  EventQueue: " + eventQueue.size() +
+				"  In progress: " + inProgress +
+				"  Waiting for resolving: " + ((resolverExecutor == null) ? 0 : resolverExecutor.getQueue().size()) +
+				"  Waiting in partitions:" + partitions + "\n" +
+				"  Latency of queue: " + queueLatency +
+				"  resolving: " + resolveLatency +
+				"  partition wait: " + partitionWaitLatency +
+				"  task creation: " + taskCreationLatency;
+	}
 
-		Map<Facility, Set<Service>> resolvedServices = eventServiceResolver.resolveEvent(event.getData());
+	private void startExecutors() {
+		int threads = DEFAULT_THREADS;
+		try {
+			threads = Integer.parseInt(dispatcherProperties.getProperty("dispatcher.event.processor.threads", String.valueOf(DEFAULT_THREADS)));
+		} catch (NumberFormatException ex) {
+			log.warn("Unable to parse value of dispatcher.event.processor.threads property, using default value {}.", DEFAULT_THREADS);
+		}
+		if (threads < 1) {
+			resolverExecutor = null;
+			partitionExecutors = null;
+			maxEventsInProgress = 1;
+			eventsInProgress = new Semaphore(maxEventsInProgress);
+			log.debug("EventProcessor started without resolver and partition threads.");
+			return;
+		}
 
-		for (Entry<Facility, Set<Service>> map : resolvedServices.entrySet()) {
-			Facility facility = map.getKey();
-			for (Service service : map.getValue()) {
-				if (!service.isEnabled()) {
-					log.debug("Service not enabled: {}.", service);
-					continue;
+		resolverExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(), new CustomizableThreadFactory("event-resolver-"));
+		partitionExecutors = new ThreadPoolExecutor[threads];
+		for (int i = 0; i < threads; i++) {
+			partitionExecutors[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+					new LinkedBlockingQueue<>(), new CustomizableThreadFactory("event-partition-" + i + "-"));
+		}
+		maxEventsInProgress = threads * EVENTS_IN_PROGRESS_PER_THREAD;
+		eventsInProgress = new Semaphore(maxEventsInProgress);
+		log.debug("EventProcessor started with {} resolver and partition threads.", threads);
+	}
+
+	private void stopExecutors() {
+		if (resolverExecutor == null) return;
+		resolverExecutor.shutdown();
+		for (ThreadPoolExecutor partition : partitionExecutors) {
+			partition.shutdown();
+		}
+		try {
+			for (ThreadPoolExecutor partition : partitionExecutors) {
+				if (!partition.awaitTermination(1, TimeUnit.MINUTES)) {
+					log.warn("EventProcessor partition didn't finish processing of Events in time.");
 				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
 
-				if (((PerunBl) perun).getServicesManagerBl().isServiceBlockedOnFacility(service, facility)) {
-					log.debug("Service blocked on Facility: {} , {}.", service, facility);
-					continue;
+	/**
+	 * Resolves Facility and Service pairs from Event. Runs in resolver thread.
+	 *
+	 * @param event Event to resolve
+	 * @return Affected Facilities and Services on them, null if Event can't be resolved.
+	 */
+	private Map<Facility, Set<Service>> resolveEvent(Event event) {
+		long start = System.currentTimeMillis();
+		queueLatency.record(start - event.getTimeStamp());
+		try {
+			return eventServiceResolver.resolveEvent(event.getData());
+		} catch (Exception e) {
+			log.error("Unable to resolve Event {}.", event, e);
+			return null;
+		} finally {
+			resolveLatency.record(System.currentTimeMillis() - start);
+		}
+	}
+
+	/**
+	 * Hands over resolved Facilities of Event to their partitions. Events are routed one by one
+	 * in the order they were taken from EventQueue.
+	 *
+	 * Permit of the Event is released once all its Facilities are processed. If this method throws,
+	 * nothing was handed over and the caller must release the permit.
+	 *
+	 * @param event Resolved Event
+	 * @param resolvedServices Affected Facilities and Services on them, null if Event wasn't resolved.
+	 */
+	private void routeEvent(Event event, Map<Facility, Set<Service>> resolvedServices) {
+		if (resolvedServices == null || resolvedServices.isEmpty()) {
+			eventsInProgress.release();
+			return;
+		}
+		List<Entry<Facility, Set<Service>>> entries = new ArrayList<>(resolvedServices.entrySet());
+		AtomicInteger remainingFacilities = new AtomicInteger(entries.size());
+		for (Entry<Facility, Set<Service>> map : entries) {
+			long submitted = System.currentTimeMillis();
+			Runnable facilityTasks = () -> {
+				long start = System.currentTimeMillis();
+				partitionWaitLatency.record(start - submitted);
+				try {
+					createTasks(event, map.getKey(), map.getValue());
+				} catch (Exception e) {
+					log.error("Unable to create Tasks for {} from Event {}: {}", map.getKey(), event, e);
+				} finally {
+					taskCreationLatency.record(System.currentTimeMillis() - start);
+					if (remainingFacilities.decrementAndGet() == 0) eventsInProgress.release();
 				}
+			};
+			if (partitionExecutors == null) {
+				facilityTasks.run();
+				continue;
+			}
+			try {
+				partitionExecutors[Math.floorMod(map.getKey().getId(), partitionExecutors.length)].execute(facilityTasks);
+			} catch (RuntimeException e) {
+				log.error("Tasks for {} from Event {} were rejected: {}", map.getKey(), event, e);
+				if (remainingFacilities.decrementAndGet() == 0) eventsInProgress.release();
+			}
+		}
+	}
 
-				// Check if all destinations are not blocked
+	/**
+	 * Creates Tasks from Event data for one resolved Facility. Runs in partition thread of the Facility.
+	 *
+	 * @param event Event to parse
+	 * @param facility Facility affected by Event
+	 * @param services Services affected by Event on the Facility
+	 * @throws InternalErrorException  When implementation fails
+	 */
+	private void createTasks(Event event, Facility facility, Set<Service> services) throws InternalErrorException {
+		for (Service service : services) {
+			if (!service.isEnabled()) {
+				log.debug("Service not enabled: {}.", service);
+				continue;
+			}
+
+			if (((PerunBl) perun).getServicesManagerBl().isServiceBlockedOnFacility(service, facility)) {
+				log.debug("Service blocked on Facility: {} , {}.", service, facility);
+				continue;
+			}
+
+			// Check if all destinations are not blocked
+			try {
+
+				// init session
+				PerunSession sess;
 				try {
+					sess = getSession();
+				} catch (InternalErrorException e1) {
+					log.error("Error establishing perun session to create Task from Event: ", e1);
+					continue;
+				}
 
-					// init session
-					try {
-						if (sess == null) {
-							sess = perun.getPerunSession(new PerunPrincipal(
-											dispatcherProperties.getProperty("perun.principal.name"),
-											dispatcherProperties.getProperty("perun.principal.extSourceName"),
-											dispatcherProperties.getProperty("perun.principal.extSourceType")),
-									new PerunClient());
+				List<Destination> destinations = perun.getServicesManager().getDestinations(sess, service, facility);
+				if (destinations != null && !destinations.isEmpty()) {
+					Iterator<Destination> iter = destinations.iterator();
+					while (iter.hasNext()) {
+						Destination dest = iter.next();
+						if (((PerunBl) perun).getServicesManagerBl().isServiceBlockedOnDestination(service, dest.getId())) {
+							iter.remove();
 						}
-					} catch (InternalErrorException e1) {
-						log.error("Error establishing perun session to create Task from Event: ", e1);
+					}
+					if (destinations.isEmpty()) {
+						// All service destinations were blocked -> Task is denied to be sent to engine just like
+						// when service is blocked globally in Perun or on facility as a whole.
+						log.debug("{} blocked on all destinations on {}.", service, facility);
 						continue;
 					}
+				}
 
-					List<Destination> destinations = perun.getServicesManager().getDestinations(sess, service, facility);
-					if (destinations != null && !destinations.isEmpty()) {
-						Iterator<Destination> iter = destinations.iterator();
-						while (iter.hasNext()) {
-							Destination dest = iter.next();
-							if (((PerunBl) perun).getServicesManagerBl().isServiceBlockedOnDestination(service, dest.getId())) {
-								iter.remove();
-							}
-						}
-						if (destinations.isEmpty()) {
-							// All service destinations were blocked -> Task is denied to be sent to engine just like
-							// when service is blocked globally in Perun or on facility as a whole.
-							log.debug("{} blocked on all destinations on {}.", service, facility);
-							continue;
-						}
-					}
+			} catch (ServiceNotExistsException e) {
+				log.error("Service not exist: {}.", service);
+			} catch (FacilityNotExistsException e) {
+				log.error("Facility not exist: {}.", facility);
+			}  catch (InternalErrorException | PrivilegeException e) {
+				log.error("{}", e);
+			}
 
-				} catch (ServiceNotExistsException e) {
-					log.error("Service not exist: {}.", service);
-				} catch (FacilityNotExistsException e) {
-					log.error("Facility not exist: {}.", facility);
-				}  catch (InternalErrorException | PrivilegeException e) {
-					log.error("{}", e);
-				}
+			// get task for this <Service, Facility> pair or create it atomically,
+			// so even events of the same facility processed concurrently can't create duplicate tasks
 
-				// check for presence of task for this <Service, Facility> pair
-				// NOTE: this must be atomic enough to not create duplicate
-				// tasks in schedulingPool (are we running in parallel
-				// here?)
+			boolean isForced = determineForcedPropagation(event);
 
-				boolean isForced = determineForcedPropagation(event);
+			Task newTask = new Task();
+			newTask.setFacility(facility);
+			newTask.setService(service);
+			newTask.setStatus(TaskStatus.WAITING);
+			newTask.setRecurrence(0);
+			newTask.setDelay(service.getDelay());
+			newTask.setSchedule(LocalDateTime.now());
+			newTask.setSourceUpdated(false);
+			newTask.setPropagationForced(isForced);
 
-				Task task = schedulingPool.getTask(facility, service);
+			Task task;
+			try {
+				task = schedulingPool.getOrCreateTask(facility, service, () -> newTask);
+			} catch (TaskStoreException e) {
+				log.error("[{}] Could not add Task to pool. Task {} will be lost: {}", newTask.getId(), newTask, e);
+				continue;
+			}
 
-				if (task != null) {
-					// there already is a task in schedulingPool
-					// signal that task needs to regenerate data and be forced next time
-					task.setDestinations(null);
-					task.setSourceUpdated(true);
-					if (isForced) task.setPropagationForced(true);
-					task.setRecurrence(0);
-					log.debug("[{}] Task is already in pool. Re-setting source updated and forced flags, {}.", task.getId(), task);
-				} else {
-					// no such task yet, create one
-					task = new Task();
-					task.setFacility(facility);
-					task.setService(service);
-					task.setStatus(TaskStatus.WAITING);
-					task.setRecurrence(0);
-					task.setDelay(service.getDelay());
-					task.setSchedule(LocalDateTime.now());
-					task.setSourceUpdated(false);
-					task.setPropagationForced(isForced);
-					try {
-						schedulingPool.addToPool(task, null);
-						log.debug("[{}] New Task added to pool. {}.", task.getId(), task);
-					} catch (TaskStoreException e) {
-						log.error("[{}] Could not add Task to pool. Task {} will be lost: {}", task.getId(), task, e);
-					}
-					schedulingPool.scheduleTask(task, -1);
-				}
+			if (task != newTask) {
+				// there already is a task in schedulingPool
+				// signal that task needs to regenerate data and be forced next time
+				task.setDestinations(null);
+				task.setSourceUpdated(true);
+				if (isForced) task.setPropagationForced(true);
+				task.setRecurrence(0);
+				log.debug("[{}] Task is already in pool. Re-setting source updated and forced flags, {}.", task.getId(), task);
+			} else {
+				log.debug("[{}] New Task added to pool. {}.", task.getId(), task);
+				schedulingPool.scheduleTask(task, -1);
 			}
 		}
 	}
 
+	private synchronized PerunSession getSession() throws InternalErrorException {
+		if (sess == null) {
+			sess = perun.getPerunSession(new PerunPrincipal(
+							dispatcherProperties.getProperty("perun.principal.name"),
+							dispatcherProperties.getProperty("perun.principal.extSourceName"),
+							dispatcherProperties.getProperty("perun.principal.extSourceType")),
+					new PerunClient());
+		}
+		return sess;
+	}
+
 	/**
 	 * Return true if event forces service propagation
 	 *
@@ -263,4 +467,26 @@ public class EventProcessor extends AbstractRunner {
 
 	}
 
+	/**
+	 * Latency statistics of one stage of Event processing.
+	 */
+	private static class StageLatency {
+
+		private final LongAdder count = new LongAdder();
+		private final LongAdder total = new LongAdder();
+		private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+		void record(long millis) {
+			count.increment();
+			total.add(millis);
+			max.accumulate(millis);
+		}
+
+		@Override
+		public String toString() {
+			long n = count.sum();
+			return "avg " + ((n == 0) ? 0 : total.sum() / n) + " ms, max " + max.get() + " ms (" + n + ")";
+		}
+	}
+
 }
@@ -37,4 +37,21 @@ public interface EventServiceResolver {
 	 */
 	Map<Facility, Set<Service>> resolveEvent(AuditEvent event) throws InvalidEventMessageException, ServiceNotExistsException, InternalErrorException, PrivilegeException;
 
+	/**
+	 * Get key of PerunBeans, which are used to resolve AuditEvent. Events with the same key
+	 * are resolved to the same Facilities and Services, so only one of them needs to be resolved.
+	 *
+	 * @param event Event to get key for
+	 * @return Key of beans used for resolving of Event.
+	 */
+	String getResolvingKey(AuditEvent event);
+
+	/**
+	 * Invalidate cached assignments of Facilities, Resources, Groups, Hosts and Services changed by AuditEvent.
+	 * It must be called for each AuditEvent in the order they were audited, before any later AuditEvent is resolved.
+	 *
+	 * @param event Event, which could change assignments
+	 */
+	void invalidateCachedAssignments(AuditEvent event);
+
 }
@@ -1,14 +1,23 @@
 package cz.metacentrum.perun.dispatcher.processing.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import cz.metacentrum.perun.audit.events.AuditEvent;
+import cz.metacentrum.perun.audit.events.EngineForceEvent;
 import cz.metacentrum.perun.audit.events.EngineIgnoreEvent;
+import cz.metacentrum.perun.audit.events.FacilityManagerEvents.FacilityDeleted;
+import cz.metacentrum.perun.audit.events.GroupManagerEvents.AllGroupsFromVoDeleted;
+import cz.metacentrum.perun.audit.events.GroupManagerEvents.GroupDeleted;
+import cz.metacentrum.perun.audit.events.VoManagerEvents.VoDeleted;
 import cz.metacentrum.perun.core.api.PerunClient;
 
 import org.slf4j.Logger;
@@ -43,6 +52,11 @@ import cz.metacentrum.perun.dispatcher.processing.EventServiceResolver;
 /**
  * Implementation of EventServiceResolver.
  *
+ * Assignments of Resources to Facilities, Groups and Services, Hosts to Facilities and required attributes
+ * of Services are cached, since they change rarely compared to memberships. Cached entries are loaded on first use
+ * and removed by invalidateCachedAssignments() when an event changing them is read by AuditerListener.
+ * Resources allowed for Users and Members depend on memberships and are always read from Perun.
+ *
  * @see cz.metacentrum.perun.dispatcher.processing.EventServiceResolver
  *
  * @author Michal Karm Babacek
@@ -60,6 +74,26 @@ public class EventServiceResolverImpl implements EventServiceResolver {
 
 	private PerunSession perunSession = null;
 
+	// packages of events, which can change cached assignments of their beans
+	private static final Set<String> structuralEventPackages = new HashSet<>(Arrays.asList(
+			"FacilityManagerEvents", "ResourceManagerEvents", "ServicesManagerEvents"));
+	private static final Set<Class<?>> structuralEvents = new HashSet<>(Arrays.asList(
+			GroupDeleted.class, AllGroupsFromVoDeleted.class));
+	// events after which all cached assignments are removed
+	private static final Set<Class<?>> cacheClearingEvents = new HashSet<>(Arrays.asList(
+			FacilityDeleted.class, VoDeleted.class));
+
+	// cached assignments by ID of their bean
+	private final Map<Integer, List<Resource>> facilityResources = new ConcurrentHashMap<>();
+	private final Map<Integer, List<Resource>> groupResources = new ConcurrentHashMap<>();
+	private final Map<Integer, Facility> resourceFacility = new ConcurrentHashMap<>();
+	private final Map<Integer, List<Service>> resourceServices = new ConcurrentHashMap<>();
+	private final Map<Integer, Facility> hostFacility = new ConcurrentHashMap<>();
+	private final Map<Integer, List<AttributeDefinition>> serviceRequiredAttributes = new ConcurrentHashMap<>();
+	// guards storing of loaded values against concurrent invalidation
+	private final Object cacheLock = new Object();
+	private long cacheGeneration = 0;
+
 	// ----- setters -------------------------------------
 
 	public Properties getDispatcherProperties() {
@@ -94,41 +128,15 @@ public class EventServiceResolverImpl implements EventServiceResolver {
 			return result;
 		}
 
-		// GET All Beans (only PerunBeans) from message
-		List<PerunBean> listOfBeans = new ArrayList<PerunBean>();
-		listOfBeans = AuditParser.parseLog(event.getMessage());
-
-		// Prepare variables
-		AttributeDefinition attributeDefinition = null;
-		Facility facility = null;
-		Resource resource = null;
-		Group group = null;
-		User user = null;
-		Member member = null;
-		Service service = null;
-		Host host = null;
-
-		// Recognize every object in List of PerunBeans from eventData
-		// TODO: What about more than 1 resources, or more than 1 facilities etc. ?
-		for (PerunBean pb : listOfBeans) {
-			if (pb instanceof AttributeDefinition) {
-				attributeDefinition = (AttributeDefinition) pb;
-			} else if (pb instanceof Facility) {
-				facility = (Facility) pb;
-			} else if (pb instanceof Resource) {
-				resource = (Resource) pb;
-			} else if (pb instanceof Group) {
-				group = (Group) pb;
-			} else if (pb instanceof User) {
-				user = (User) pb;
-			} else if (pb instanceof Member) {
-				member = (Member) pb;
-			} else if (pb instanceof Service) {
-				service = (Service) pb;
-			} else if (pb instanceof Host) {
-				host = (Host) pb;
-			}
-		}
+		EventBeans beans = new EventBeans(event);
+		AttributeDefinition attributeDefinition = beans.attributeDefinition;
+		Facility facility = beans.facility;
+		Resource resource = beans.resource;
+		Group group = beans.group;
+		User user = beans.user;
+		Member member = beans.member;
+		Service service = beans.service;
+		Host host = beans.host;
 
 		// If there is any attribute, so create AttributeDefinition
 		if (attributeDefinition != null) {
@@ -141,21 +149,14 @@ public class EventServiceResolverImpl implements EventServiceResolver {
 
 		// =============== Resolve facilities from event======================
 
-		if (perunSession == null) {
-			perunSession = perun.getPerunSession(new PerunPrincipal(
-							dispatcherProperties.getProperty("perun.principal.name"),
-							dispatcherProperties.getProperty("perun.principal.extSourceName"),
-							dispatcherProperties.getProperty("perun.principal.extSourceType")),
-					new PerunClient());
-		}
+		PerunSession perunSession = getPerunSession();
 
 		// Try to find FACILITY in event
 		if (facility != null) {
 			try {
 				log.debug("Facility found in event. {}.", facility);
 				facilitiesResolvedFromEvent.add(facility);
-				resourcesResolvedFromEvent.addAll(perun.getFacilitiesManager()
-						.getAssignedResources(perunSession, facility));
+				resourcesResolvedFromEvent.addAll(getAssignedResources(facility));
 			} catch (FacilityNotExistsException ex) {
 				log.warn("Non-existing facility found while resolving event. id={}", facility.getId());
 			}
@@ -167,8 +168,7 @@ public class EventServiceResolverImpl implements EventServiceResolver {
 				// Try to find GROUP in event
 				if (group != null) {
 					try {
-						resourcesResolvedFromEvent = perun.getResourcesManager()
-								.getAssignedResources(perunSession, group);
+						resourcesResolvedFromEvent = getAssignedResources(group);
 					} catch (GroupNotExistsException ex) {
 						log.warn("Non-existing group found while resolving event. id={}", group.getId());
 					}
@@ -195,10 +195,9 @@ public class EventServiceResolverImpl implements EventServiceResolver {
 							if (host != null) {
 								try {
 									log.debug("Host found in event.id= {}.", host.getId());
-									facility = perun.getFacilitiesManager().getFacilityForHost(perunSession, host);
+									facility = getFacilityForHost(host);
 									facilitiesResolvedFromEvent.add(facility);
-									resourcesResolvedFromEvent.addAll(perun.getFacilitiesManager()
-											.getAssignedResources(perunSession, facility));
+									resourcesResolvedFromEvent.addAll(getAssignedResources(facility));
 								} catch (FacilityNotExistsException ex) {
 									log.warn(
 											"Host on non-existing facility found while resolving event. Host id={}",
@@ -247,8 +246,8 @@ public class EventServiceResolverImpl implements EventServiceResolver {
 			Facility facilityResolvedFromEvent;
 			List<Service> servicesResolvedFromResource;
 			try {
-				facilityResolvedFromEvent = perun.getResourcesManager().getFacility(perunSession, r);
-				servicesResolvedFromResource = perun.getResourcesManager().getAssignedServices(perunSession, r);
+				facilityResolvedFromEvent = getFacility(r);
+				servicesResolvedFromResource = new ArrayList<>(getAssignedServices(r));
 				// process only services resolved from event if any
 				if (!servicesResolvedFromEvent.isEmpty())
 					servicesResolvedFromResource.retainAll(servicesResolvedFromEvent);
@@ -265,10 +264,8 @@ public class EventServiceResolverImpl implements EventServiceResolver {
 					// TODO (CHECKME) This method can raise
 					// ServiceNotExistsException. Is it ok? Or it must be
 					// catch?
-					List<AttributeDefinition> serviceRequiredAttributes = perun
-							.getAttributesManager()
-							.getRequiredAttributesDefinition(perunSession, s);
-					if (!serviceRequiredAttributes.contains(attributeDefinition))
+					List<AttributeDefinition> requiredAttributes = getRequiredAttributesDefinition(s);
+					if (!requiredAttributes.contains(attributeDefinition))
 						continue;
 				}
 
@@ -287,4 +284,233 @@ public class EventServiceResolverImpl implements EventServiceResolver {
 
 	}
 
+	@Override
+	public String getResolvingKey(AuditEvent event) {
+
+		if (event instanceof EngineIgnoreEvent) return "ignored";
+
+		EventBeans beans = new EventBeans(event);
+
+		// only the first found bean is used for resolving, in the same order as in resolveEvent()
+		String key;
+		if (beans.facility != null) {
+			key = "facility:" + beans.facility.getId();
+		} else if (beans.resource != null) {
+			key = "resource:" + beans.resource.getId();
+		} else if (beans.group != null) {
+			key = "group:" + beans.group.getId();
+		} else if (beans.user != null) {
+			key = "user:" + beans.user.getId();
+		} else if (beans.member != null) {
+			key = "member:" + beans.member.getId();
+		} else if (beans.host != null) {
+			key = "host:" + beans.host.getId();
+		} else {
+			key = "none";
+		}
+		if (beans.service != null) key += ",service:" + beans.service.getId();
+		if (beans.attributeDefinition != null) key += ",attribute:" + beans.attributeDefinition.getId();
+		// forced events must not be merged with normal ones
+		if (event instanceof EngineForceEvent) key += ",forced";
+		return key;
+
+	}
+
+	@Override
+	public void invalidateCachedAssignments(AuditEvent event) {
+
+		if (cacheClearingEvents.contains(event.getClass())) {
+			clearCachedAssignments();
+			log.debug("All cached assignments removed because of event {}.", event);
+			return;
+		}
+
+		if (!structuralEvents.contains(event.getClass()) &&
+				!structuralEventPackages.contains(event.getClass().getPackage().getName().replaceFirst(".*\\.", ""))) {
+			return;
+		}
+
+		List<PerunBean> beans;
+		try {
+			beans = AuditParser.parseLog(event.getMessage());
+		} catch (Exception ex) {
+			log.warn("Couldn't parse beans of structural event {}, all cached assignments will be removed.", event);
+			clearCachedAssignments();
+			return;
+		}
+
+		synchronized (cacheLock) {
+			cacheGeneration++;
+			for (PerunBean bean : beans) {
+				if (bean instanceof Facility) {
+					facilityResources.remove(bean.getId());
+					resourceFacility.values().removeIf(facility -> facility.getId() == bean.getId());
+					hostFacility.values().removeIf(facility -> facility.getId() == bean.getId());
+				} else if (bean instanceof Resource) {
+					resourceFacility.remove(bean.getId());
+					resourceServices.remove(bean.getId());
+					facilityResources.remove(((Resource) bean).getFacilityId());
+					groupResources.values().removeIf(resources -> resources.stream().anyMatch(r -> r.getId() == bean.getId()));
+				} else if (bean instanceof Group) {
+					groupResources.remove(bean.getId());
+				} else if (bean instanceof Host) {
+					hostFacility.remove(bean.getId());
+				} else if (bean instanceof Service) {
+					serviceRequiredAttributes.remove(bean.getId());
+					resourceServices.values().removeIf(services -> services.stream().anyMatch(s -> s.getId() == bean.getId()));
+				}
+			}
+		}
+		log.debug("Cached assignments of {} removed because of event {}.", beans, event);
+
+	}
+
+	private void clearCachedAssignments() {
+		synchronized (cacheLock) {
+			cacheGeneration++;
+			facilityResources.clear();
+			groupResources.clear();
+			resourceFacility.clear();
+			resourceServices.clear();
+			hostFacility.clear();
+			serviceRequiredAttributes.clear();
+		}
+	}
+
+	private List<Resource> getAssignedResources(Facility facility) throws FacilityNotExistsException, PrivilegeException {
+		long generation = getCacheGeneration();
+		List<Resource> resources = facilityResources.get(facility.getId());
+		if (resources == null) {
+			resources = perun.getFacilitiesManager().getAssignedResources(getPerunSession(), facility);
+			resources = cache(facilityResources, facility.getId(), resources, generation);
+		}
+		return resources;
+	}
+
+	private List<Resource> getAssignedResources(Group group) throws GroupNotExistsException, PrivilegeException {
+		long generation = getCacheGeneration();
+		List<Resource> resources = groupResources.get(group.getId());
+		if (resources == null) {
+			resources = perun.getResourcesManager().getAssignedResources(getPerunSession(), group);
+			resources = cache(groupResources, group.getId(), resources, generation);
+		}
+		return resources;
+	}
+
+	private Facility getFacility(Resource resource) throws ResourceNotExistsException, PrivilegeException {
+		long generation = getCacheGeneration();
+		Facility facility = resourceFacility.get(resource.getId());
+		if (facility == null) {
+			facility = perun.getResourcesManager().getFacility(getPerunSession(), resource);
+			cache(resourceFacility, resource.getId(), facility, generation);
+		}
+		return facility;
+	}
+
+	private List<Service> getAssignedServices(Resource resource) throws ResourceNotExistsException, PrivilegeException {
+		long generation = getCacheGeneration();
+		List<Service> services = resourceServices.get(resource.getId());
+		if (services == null) {
+			services = perun.getResourcesManager().getAssignedServices(getPerunSession(), resource);
+			services = cache(resourceServices, resource.getId(), services, generation);
+		}
+		return services;
+	}
+
+	private Facility getFacilityForHost(Host host) throws HostNotExistsException, PrivilegeException {
+		long generation = getCacheGeneration();
+		Facility facility = hostFacility.get(host.getId());
+		if (facility == null) {
+			facility = perun.getFacilitiesManager().getFacilityForHost(getPerunSession(), host);
+			cache(hostFacility, host.getId(), facility, generation);
+		}
+		return facility;
+	}
+
+	private List<AttributeDefinition> getRequiredAttributesDefinition(Service service) throws ServiceNotExistsException, PrivilegeException {
+		long generation = getCacheGeneration();
+		List<AttributeDefinition> attributes = serviceRequiredAttributes.get(service.getId());
+		if (attributes == null) {
+			attributes = perun.getAttributesManager().getRequiredAttributesDefinition(getPerunSession(), service);
+			attributes = cache(serviceRequiredAttributes, service.getId(), attributes, generation);
+		}
+		return attributes;
+	}
+
+	private long getCacheGeneration() {
+		synchronized (cacheLock) {
+			return cacheGeneration;
+		}
+	}
+
+	/**
+	 * Stores loaded value to the cache, unless any cached assignments were invalidated since loading started,
+	 * since loaded value could be already outdated.
+	 *
+	 * @return stored value (unmodifiable list if value is a list)
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T cache(Map<Integer, T> cache, int id, T value, long generation) {
+		if (value instanceof List) value = (T) Collections.unmodifiableList(new ArrayList<>((List<?>) value));
+		synchronized (cacheLock) {
+			if (generation == cacheGeneration) cache.put(id, value);
+		}
+		return value;
+	}
+
+	private synchronized PerunSession getPerunSession() {
+		if (perunSession == null) {
+			perunSession = perun.getPerunSession(new PerunPrincipal(
+							dispatcherProperties.getProperty("perun.principal.name"),
+							dispatcherProperties.getProperty("perun.principal.extSourceName"),
+							dispatcherProperties.getProperty("perun.principal.extSourceType")),
+					new PerunClient());
+		}
+		return perunSession;
+	}
+
+	/**
+	 * PerunBeans parsed from the message of AuditEvent, which are used to resolve it.
+	 */
+	private static class EventBeans {
+
+		private AttributeDefinition attributeDefinition = null;
+		private Facility facility = null;
+		private Resource resource = null;
+		private Group group = null;
+		private User user = null;
+		private Member member = null;
+		private Service service = null;
+		private Host host = null;
+
+		EventBeans(AuditEvent event) {
+
+			// GET All Beans (only PerunBeans) from message
+			List<PerunBean> listOfBeans = AuditParser.parseLog(event.getMessage());
+
+			// Recognize every object in List of PerunBeans from eventData
+			// TODO: What about more than 1 resources, or more than 1 facilities etc. ?
+			for (PerunBean pb : listOfBeans) {
+				if (pb instanceof AttributeDefinition) {
+					attributeDefinition = (AttributeDefinition) pb;
+				} else if (pb instanceof Facility) {
+					facility = (Facility) pb;
+				} else if (pb instanceof Resource) {
+					resource = (Resource) pb;
+				} else if (pb instanceof Group) {
+					group = (Group) pb;
+				} else if (pb instanceof User) {
+					user = (User) pb;
+				} else if (pb instanceof Member) {
+					member = (Member) pb;
+				} else if (pb instanceof Service) {
+					service = (Service) pb;
+				} else if (pb instanceof Host) {
+					host = (Host) pb;
+				}
+			}
+		}
+
+	}
+
 }
@@ -129,7 +129,9 @@ public interface SchedulingPool extends TaskStore {
 	void onTaskDestinationComplete(int clientID, String string);
 
 	/**
-	 * Store TaskResult sent from Engine.
+	 * Store TaskResult sent from Engine. It's stored asynchronously together with other TaskResults.
+	 *
+	 * @see cz.metacentrum.perun.dispatcher.scheduling.TaskResultSink
 	 *
 	 * @param clientID ID of Engine
 	 * @param taskResult TaskResult object
@@ -0,0 +1,153 @@
+package cz.metacentrum.perun.dispatcher.scheduling;
+
+import cz.metacentrum.perun.core.api.Pair;
+import cz.metacentrum.perun.taskslib.model.TaskResult;
+import cz.metacentrum.perun.taskslib.service.ResultManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects TaskResults received from Engines and stores them to the database in batches.
+ *
+ * Results are flushed periodically (see perun-dispatcher-scheduler.xml) or immediately,
+ * when the number of queued results reaches the batch size. When a batch can't be stored,
+ * its results are stored one by one, so only the broken ones are lost.
+ */
+@org.springframework.stereotype.Service(value = "taskResultSink")
+public class TaskResultSink implements DisposableBean {
+
+	private final static Logger log = LoggerFactory.getLogger(TaskResultSink.class);
+
+	private final Queue<Pair<TaskResult, Integer>> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger queueSize = new AtomicInteger();
+
+	private final LongAdder queuedCount = new LongAdder();
+	private final LongAdder flushedCount = new LongAdder();
+	private final LongAdder batchCount = new LongAdder();
+	private final LongAdder lostCount = new LongAdder();
+
+	private int batchSize = 100;
+
+	private ResultManager resultManager;
+	private Properties dispatcherProperties;
+
+	// ----- setters -------------------------------------
+
+	public ResultManager getResultManager() {
+		return resultManager;
+	}
+
+	@Autowired
+	public void setResultManager(ResultManager resultManager) {
+		this.resultManager = resultManager;
+	}
+
+	public Properties getDispatcherProperties() {
+		return dispatcherProperties;
+	}
+
+	@Resource(name="dispatcherPropertiesBean")
+	public void setDispatcherProperties(Properties dispatcherProperties) {
+		this.dispatcherProperties = dispatcherProperties;
+		if (dispatcherProperties != null) {
+			try {
+				batchSize = Math.max(1, Integer.parseInt(dispatcherProperties.getProperty("dispatcher.task.results.batch.size", "100")));
+			} catch (NumberFormatException ex) {
+				log.warn("Could not parse value of dispatcher.task.results.batch.size property. Using default.");
+				batchSize = 100;
+			}
+		}
+	}
+
+	// ----- methods -------------------------------------
+
+	/**
+	 * Queue TaskResult to be stored by the next flush. When the batch is full, it's flushed right away
+	 * in the calling thread.
+	 *
+	 * @param clientID ID of Engine TaskResult came from
+	 * @param taskResult TaskResult to store
+	 */
+	public void addTaskResult(int clientID, TaskResult taskResult) {
+		queue.add(new Pair<>(taskResult, clientID));
+		queuedCount.increment();
+		if (queueSize.incrementAndGet() >= batchSize) {
+			flush();
+		}
+	}
+
+	/**
+	 * Store all queued TaskResults to the database in batches.
+	 */
+	public synchronized void flush() {
+		List<Pair<TaskResult, Integer>> batch = new ArrayList<>(batchSize);
+		Pair<TaskResult, Integer> taskResult;
+		while ((taskResult = queue.poll()) != null) {
+			queueSize.decrementAndGet();
+			batch.add(taskResult);
+			if (batch.size() >= batchSize) {
+				storeBatch(batch);
+				batch = new ArrayList<>(batchSize);
+			}
+		}
+		if (!batch.isEmpty()) {
+			storeBatch(batch);
+			log.debug(getReport());
+		}
+	}
+
+	private void storeBatch(List<Pair<TaskResult, Integer>> batch) {
+		try {
+			resultManager.insertNewTaskResults(batch);
+			flushedCount.add(batch.size());
+			batchCount.increment();
+			log.debug("Stored batch of {} TaskResults.", batch.size());
+		} catch (Exception e) {
+			log.warn("Could not store batch of {} TaskResults, storing them one by one: {}", batch.size(), e.getMessage());
+			for (Pair<TaskResult, Integer> taskResult : batch) {
+				try {
+					resultManager.insertNewTaskResult(taskResult.getLeft(), taskResult.getRight());
+					flushedCount.increment();
+				} catch (Exception ex) {
+					lostCount.increment();
+					log.error("Could not save TaskResult from Engine {}, {}, {}", taskResult.getRight(), taskResult.getLeft(), ex.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get report about TaskResults passed through the sink.
+	 *
+	 * @return report string
+	 */
+	public String getReport() {
+		return "Dispatcher TaskResultSink report:\n" +
+				"  QUEUED NOW: " + queueSize.get() +
+				"  QUEUED: " + queuedCount.sum() +
+				"  FLUSHED: " + flushedCount.sum() +
+				"  BATCHES: " + batchCount.sum() +
+				"  LOST: " + lostCount.sum();
+	}
+
+	/**
+	 * Store queued TaskResults when application is shut down.
+	 */
+	@Override
+	public void destroy() {
+		flush();
+		log.debug(getReport());
+	}
+
+}
@@ -183,8 +183,8 @@ public class TaskScheduler extends AbstractRunner {
 						log.warn("[{}] Facility, Service or Destination could not be found in DB for Task {}.", task.getId(), task);
 						break;
 				}
-				// update task status in DB
-				taskManager.updateTask(task);
+				// update task status in DB, updates are written in batches by the scheduled flush
+				taskManager.updateTaskDeferred(task);
 			}
 		}
 		log.debug("TaskScheduler has stopped.");
@@ -19,6 +19,7 @@ import cz.metacentrum.perun.core.bl.PerunBl;
 import cz.metacentrum.perun.dispatcher.jms.EngineMessageProducer;
 import cz.metacentrum.perun.dispatcher.jms.EngineMessageProducerPool;
 import cz.metacentrum.perun.dispatcher.scheduling.SchedulingPool;
+import cz.metacentrum.perun.dispatcher.scheduling.TaskResultSink;
 import cz.metacentrum.perun.taskslib.exceptions.TaskStoreException;
 import cz.metacentrum.perun.taskslib.model.Task;
 import cz.metacentrum.perun.taskslib.model.Task.TaskStatus;
@@ -38,12 +39,14 @@ import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.DelayQueue;
+import java.util.function.Supplier;
 
 import javax.annotation.Resource;
 
@@ -62,7 +65,8 @@ public class SchedulingPoolImpl implements SchedulingPool {
 
 	private final static Logger log = LoggerFactory.getLogger(SchedulingPoolImpl.class);
 
-	private final Map<Integer, EngineMessageProducer> enginesByTaskId = new HashMap<>();
+	private final Map<Integer, EngineMessageProducer> enginesByTaskId = new ConcurrentHashMap<>();
+	private final Map<Integer, Set<Integer>> taskIdsByEngine = new ConcurrentHashMap<>();
 	private PerunSession sess;
 
 	private DelayQueue<TaskSchedule> waitingTasksQueue;
@@ -71,6 +75,7 @@ public class SchedulingPoolImpl implements SchedulingPool {
 	private TaskStore taskStore;
 	private TaskManager taskManager;
 	private ResultManager resultManager;
+	private TaskResultSink taskResultSink;
 	private EngineMessageProducerPool engineMessageProducerPool;
 	private Perun perun;
 
@@ -143,6 +148,15 @@ public class SchedulingPoolImpl implements SchedulingPool {
 		this.resultManager = resultManager;
 	}
 
+	public TaskResultSink getTaskResultSink() {
+		return taskResultSink;
+	}
+
+	@Autowired
+	public void setTaskResultSink(TaskResultSink taskResultSink) {
+		this.taskResultSink = taskResultSink;
+	}
+
 	public EngineMessageProducerPool getEngineMessageProducerPool() {
 		return engineMessageProducerPool;
 	}
@@ -185,6 +199,21 @@ public class SchedulingPoolImpl implements SchedulingPool {
 		return taskStore.addTask(task);
 	}
 
+	/**
+	 * Get Task by its Facility and Service or create it. Newly created Task is stored
+	 * in the database first and added to the pool without any engine association.
+	 */
+	@Override
+	public Task getOrCreateTask(Facility facility, Service service, Supplier<Task> taskFactory) throws TaskStoreException {
+		return taskStore.getOrCreateTask(facility, service, () -> {
+			Task task = taskFactory.get();
+			int id = taskManager.scheduleNewTask(task, -1);
+			task.setId(id);
+			log.debug("[{}] New Task stored in DB: {}", task.getId(), task);
+			return task;
+		});
+	}
+
 	@Override
 	public Collection<Task> getAllTasks() {
 		return taskStore.getAllTasks();
@@ -197,7 +226,9 @@ public class SchedulingPoolImpl implements SchedulingPool {
 
 	@Override
 	public Task removeTask(Task task) throws TaskStoreException {
-		return taskStore.removeTask(task);
+		Task removed = taskStore.removeTask(task);
+		setEngineForTask(task.getId(), null);
+		return removed;
 	}
 
 	@Override
@@ -338,7 +369,7 @@ public class SchedulingPoolImpl implements SchedulingPool {
 			task.setGenEndTime((LocalDateTime) null);
 			task.setSendEndTime((LocalDateTime) null);
 
-			taskManager.updateTask(task);
+			taskManager.updateTaskDeferred(task);
 
 		}
 
@@ -388,14 +419,16 @@ public class SchedulingPoolImpl implements SchedulingPool {
 			}
 		}
 		addTask(task);
-		enginesByTaskId.put(task.getId(), engineMessageProducer);
+		setEngineForTask(task.getId(), engineMessageProducer);
 		log.debug("[{}] Task added to the pool: {}", task.getId(), task);
 		return getSize();
 	}
 
 	@Override
 	public Task removeTask(int id) throws TaskStoreException {
-		return taskStore.removeTask(id);
+		Task removed = taskStore.removeTask(id);
+		setEngineForTask(id, null);
+		return removed;
 	}
 
 	@Override
@@ -415,9 +448,11 @@ public class SchedulingPoolImpl implements SchedulingPool {
 	@Override
 	public List<Task> getTasksForEngine(int clientID) {
 		List<Task> result = new ArrayList<Task>();
-		for (Map.Entry<Integer, EngineMessageProducer> entry : enginesByTaskId.entrySet()) {
-			if (entry.getValue() != null && clientID == entry.getValue().getClientID()) {
-				result.add(getTask(entry.getKey()));
+		Set<Integer> taskIds = taskIdsByEngine.get(clientID);
+		if (taskIds != null) {
+			for (Integer taskId : taskIds) {
+				Task task = getTask(taskId);
+				if (task != null) result.add(task);
 			}
 		}
 		return result;
@@ -451,6 +486,7 @@ public class SchedulingPoolImpl implements SchedulingPool {
 	public void clear() {
 		taskStore.clear();
 		enginesByTaskId.clear();
+		taskIdsByEngine.clear();
 		waitingTasksQueue.clear();
 		waitingForcedTasksQueue.clear();
 	}
@@ -495,13 +531,33 @@ public class SchedulingPoolImpl implements SchedulingPool {
 		if (found == null) {
 			throw new InternalErrorException("no task by id " + task.getId());
 		} else {
-			enginesByTaskId.put(task.getId(), messageProducer);
+			setEngineForTask(task.getId(), messageProducer);
 		}
 		// if queue is removed, set -1 to task as it's done on task creation if queue is null
 		int queueId = (messageProducer != null) ? messageProducer.getClientID() : -1;
 		taskManager.updateTaskEngine(task, queueId);
 	}
 
+	/**
+	 * Associate Task with engine message producer and keep index of Tasks by engine in sync.
+	 *
+	 * @param taskId ID of Task
+	 * @param messageProducer producer of the engine or null to remove the association
+	 */
+	private void setEngineForTask(int taskId, EngineMessageProducer messageProducer) {
+		EngineMessageProducer previous;
+		synchronized (enginesByTaskId) {
+			previous = (messageProducer == null) ? enginesByTaskId.remove(taskId) : enginesByTaskId.put(taskId, messageProducer);
+			if (previous != null) {
+				Set<Integer> taskIds = taskIdsByEngine.get(previous.getClientID());
+				if (taskIds != null) taskIds.remove(taskId);
+			}
+			if (messageProducer != null) {
+				taskIdsByEngine.computeIfAbsent(messageProducer.getClientID(), k -> ConcurrentHashMap.newKeySet()).add(taskId);
+			}
+		}
+	}
+
 	@Override
 	public void closeTasksForEngine(int clientID) {
 
@@ -575,7 +631,7 @@ public class SchedulingPoolImpl implements SchedulingPool {
 				break;
 		}
 
-		taskManager.updateTask(task);
+		taskManager.updateTaskDeferred(task);
 
 		log.debug("[{}] Task status changed from {} to {} as reported by Engine: {}.", task.getId(), oldStatus, task.getStatus(), task);
 
@@ -606,11 +662,8 @@ public class SchedulingPoolImpl implements SchedulingPool {
 
 	@Override
 	public void onTaskDestinationComplete(int clientID, TaskResult taskResult) {
-		try {
-			resultManager.insertNewTaskResult(taskResult, clientID);
-		} catch (Exception e) {
-			log.error("Could not save TaskResult from Engine {}, {}, {}", clientID, taskResult, e.getMessage());
-		}
+		// stored to DB in batches
+		taskResultSink.addTaskResult(clientID, taskResult);
 	}
 
 }
@@ -22,7 +22,7 @@ import org.springframework.transaction.annotation.Transactional;
 public abstract class AbstractDispatcherTest {
 
 	@Autowired
-	PerunBl perun;
+	protected PerunBl perun;
 
 	protected PerunSession sess;
 	protected Group group1;
@@ -1,5 +1,6 @@
 package cz.metacentrum.perun.dispatcher.unit;
 
+import cz.metacentrum.perun.audit.events.AuditEvent;
 import cz.metacentrum.perun.audit.events.GroupManagerEvents.DirectMemberAddedToGroup;
 import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Service;
@@ -7,6 +8,7 @@ import cz.metacentrum.perun.dispatcher.AbstractDispatcherTest;
 import cz.metacentrum.perun.dispatcher.jms.EngineMessageProducer;
 import cz.metacentrum.perun.dispatcher.model.Event;
 import cz.metacentrum.perun.dispatcher.processing.EventProcessor;
+import cz.metacentrum.perun.dispatcher.processing.EventServiceResolver;
 import cz.metacentrum.perun.dispatcher.scheduling.impl.SchedulingPoolImpl;
 import cz.metacentrum.perun.taskslib.model.Task;
 import cz.metacentrum.perun.taskslib.model.Task.TaskStatus;
@@ -16,9 +18,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.Assert;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * @author Michal Voců
@@ -50,9 +61,15 @@ public class EventProcessorTest extends AbstractDispatcherTest {
 		eventProcessor.setEventQueue(mockQueue);
 		SchedulingPoolMock pool = new SchedulingPoolMock(2);
 		eventProcessor.setSchedulingPool(pool);
+		// test data are visible only in transaction of this thread, so events must be resolved here
+		eventProcessor.getDispatcherProperties().setProperty("dispatcher.event.processor.threads", "0");
 		// runs inside this thread, should end when message is delivered
 		// this necessitates the use of test timeout
-		eventProcessor.run();
+		try {
+			eventProcessor.run();
+		} finally {
+			eventProcessor.getDispatcherProperties().remove("dispatcher.event.processor.threads");
+		}
 		List<Task> addedTasks = pool.getTasks();
 		List<Facility> facilities = new LinkedList<>();
 
@@ -64,6 +81,162 @@ public class EventProcessorTest extends AbstractDispatcherTest {
 		}
 	}
 
+	@Test
+	public void eventProcessorPartitionsByFacilityTest() throws Exception {
+		System.out.println("EventProcessor.eventProcessorPartitionsByFacilityTest()");
+
+		// new processor, since autowired one could be already stopped by other test
+		EventProcessor processor = new EventProcessor();
+		processor.setPerun(eventProcessor.getPerun());
+		processor.setEngineMessageProducerPool(eventProcessor.getEngineMessageProducerPool());
+		processor.setDispatcherProperties(eventProcessor.getDispatcherProperties());
+
+		// processing threads can't read test data, so services are only checked and skipped as disabled
+		ServiceMock service11 = new ServiceMock(1, processor);
+		ServiceMock service12 = new ServiceMock(2, processor);
+		ServiceMock service21 = new ServiceMock(3, processor);
+		Facility facility2 = new Facility(facility1.getId() + 1, "testFacility2", "desc");
+		Map<Facility, Set<Service>> resolvedServices = new HashMap<>();
+		resolvedServices.put(facility1, new HashSet<>(Arrays.asList(service11, service12)));
+		resolvedServices.put(facility2, Collections.singleton(service21));
+		processor.setEventServiceResolver(new EventServiceResolver() {
+			@Override
+			public Map<Facility, Set<Service>> resolveEvent(AuditEvent event) {
+				return resolvedServices;
+			}
+
+			@Override
+			public String getResolvingKey(AuditEvent event) {
+				return event.getMessage();
+			}
+
+			@Override
+			public void invalidateCachedAssignments(AuditEvent event) {
+			}
+		});
+
+		LinkedBlockingQueue<Event> mockQueue = new LinkedBlockingQueue<>();
+		for (int i = 0; i < 10; i++) {
+			Event event = new Event();
+			event.setTimeStamp(System.currentTimeMillis());
+			event.setHeader("portishead");
+			event.setData(new DirectMemberAddedToGroup(member1, group1));
+			mockQueue.add(event);
+		}
+		processor.setEventQueue(mockQueue);
+
+		ServiceMock.checks = 0;
+		ServiceMock.expectedChecks = 30;
+		processor.getDispatcherProperties().setProperty("dispatcher.event.processor.threads", "2");
+		try {
+			processor.run();
+		} finally {
+			processor.getDispatcherProperties().remove("dispatcher.event.processor.threads");
+		}
+
+		Assert.isTrue(ServiceMock.checks == 30, "not all services were checked");
+		Set<String> facility1Threads = new HashSet<>(service11.getThreads());
+		facility1Threads.addAll(service12.getThreads());
+		Assert.isTrue(facility1Threads.size() == 1, "services of one facility were checked by more threads");
+		Assert.isTrue(service21.getThreads().size() == 1, "services of one facility were checked by more threads");
+		Assert.isTrue(!facility1Threads.equals(service21.getThreads()), "facilities were not processed by different partitions");
+		Assert.isTrue(processor.getReport().contains("task creation: "), "report doesn't contain stage latency");
+	}
+
+	@Test
+	public void eventProcessorContinuesAfterFailedEventTest() throws Exception {
+		System.out.println("EventProcessor.eventProcessorContinuesAfterFailedEventTest()");
+
+		EventProcessor processor = new EventProcessor();
+		processor.setPerun(eventProcessor.getPerun());
+		processor.setEngineMessageProducerPool(eventProcessor.getEngineMessageProducerPool());
+		processor.setDispatcherProperties(eventProcessor.getDispatcherProperties());
+
+		ServiceMock service11 = new ServiceMock(1, processor);
+		Map<Facility, Set<Service>> resolvedServices = Collections.singletonMap(facility1, Collections.singleton(service11));
+		// resolving of first event fails with error, routing of second one fails on resolved services
+		Map<Facility, Set<Service>> failingServices = new HashMap<Facility, Set<Service>>(resolvedServices) {
+			@Override
+			public Set<Entry<Facility, Set<Service>>> entrySet() {
+				throw new IllegalStateException("broken resolved services");
+			}
+		};
+		AtomicInteger resolved = new AtomicInteger();
+		processor.setEventServiceResolver(new EventServiceResolver() {
+			@Override
+			public Map<Facility, Set<Service>> resolveEvent(AuditEvent event) {
+				switch (resolved.incrementAndGet()) {
+					case 1:
+						throw new AssertionError("broken resolver");
+					case 2:
+						return failingServices;
+					default:
+						return resolvedServices;
+				}
+			}
+
+			@Override
+			public String getResolvingKey(AuditEvent event) {
+				return event.getMessage();
+			}
+
+			@Override
+			public void invalidateCachedAssignments(AuditEvent event) {
+			}
+		});
+
+		LinkedBlockingQueue<Event> mockQueue = new LinkedBlockingQueue<>();
+		for (int i = 0; i < 5; i++) {
+			Event event = new Event();
+			event.setTimeStamp(System.currentTimeMillis());
+			event.setHeader("portishead");
+			event.setData(new DirectMemberAddedToGroup(member1, group1));
+			mockQueue.add(event);
+		}
+		processor.setEventQueue(mockQueue);
+
+		ServiceMock.checks = 0;
+		ServiceMock.expectedChecks = 3;
+		// single resolver thread keeps the order of failing events
+		processor.getDispatcherProperties().setProperty("dispatcher.event.processor.threads", "1");
+		try {
+			processor.run();
+		} finally {
+			processor.getDispatcherProperties().remove("dispatcher.event.processor.threads");
+		}
+
+		Assert.isTrue(ServiceMock.checks == 3, "events following the failed ones were not routed");
+		Assert.isTrue(processor.getReport().contains("In progress: 0 "), "permits of failed events were not released");
+	}
+
+	private static class ServiceMock extends Service {
+
+		static int expectedChecks;
+		static int checks;
+
+		private final Set<String> threads = new HashSet<>();
+		private final EventProcessor processor;
+
+		ServiceMock(int id, EventProcessor processor) {
+			super(id, "serviceMock" + id);
+			this.processor = processor;
+		}
+
+		@Override
+		public boolean isEnabled() {
+			synchronized (ServiceMock.class) {
+				threads.add(Thread.currentThread().getName());
+				if (++checks == expectedChecks) processor.stop();
+			}
+			return false;
+		}
+
+		Set<String> getThreads() {
+			synchronized (ServiceMock.class) {
+				return threads;
+			}
+		}
+	}
 
 	private class EngineMessageProducerMock extends EngineMessageProducer {
 
@@ -102,6 +275,13 @@ public class EventProcessorTest extends AbstractDispatcherTest {
 			return null;
 		}
 
+		@Override
+		public Task getOrCreateTask(Facility facility, Service service, Supplier<Task> taskFactory) {
+			Task task = taskFactory.get();
+			addToPool(task, null);
+			return task;
+		}
+
 		public List<Task> getTasks() {
 			return tasks;
 		}
@@ -5,8 +5,14 @@ import java.util.Set;
 
 import cz.metacentrum.perun.audit.events.AuditEvent;
 import cz.metacentrum.perun.audit.events.GroupManagerEvents.DirectMemberAddedToGroup;
+import cz.metacentrum.perun.audit.events.GeneralServiceManagerEvents.ForcePropagationOnFacilityAndService;
+import cz.metacentrum.perun.audit.events.GeneralServiceManagerEvents.PropagationPlannedOnFacilityAndService;
+import cz.metacentrum.perun.audit.events.ResourceManagerEvents.ServiceRemovedFromResource;
 import cz.metacentrum.perun.core.api.Facility;
+import cz.metacentrum.perun.core.api.Group;
+import cz.metacentrum.perun.core.api.Member;
 import cz.metacentrum.perun.core.api.Service;
+import cz.metacentrum.perun.core.api.Status;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.core.api.exceptions.PrivilegeException;
 import cz.metacentrum.perun.core.api.exceptions.ServiceNotExistsException;
@@ -50,4 +56,42 @@ public class EventServiceResolverTest extends AbstractDispatcherTest {
 
 	}
 
+	@Test
+	public void cachedAssignmentsInvalidationTest() throws Exception {
+		System.out.println("EventServiceResolver.cachedAssignmentsInvalidationTest()");
+
+		AuditEvent auditEvent = new DirectMemberAddedToGroup(member1, group1);
+		Assert.assertEquals("We should have 2 services", 2, eventServiceResolver.resolveEvent(auditEvent).get(facility1).size());
+
+		perun.getResourcesManagerBl().removeService(sess, resource1, service2);
+		Assert.assertEquals("Cached services should be used", 2, eventServiceResolver.resolveEvent(auditEvent).get(facility1).size());
+
+		eventServiceResolver.invalidateCachedAssignments(new ServiceRemovedFromResource(service2, resource1));
+		Set<Service> resolved = eventServiceResolver.resolveEvent(auditEvent).get(facility1);
+		Assert.assertEquals("We should have 1 service after invalidation", 1, resolved.size());
+		Assert.assertTrue("Our Service 1 is missing", resolved.contains(service1));
+
+	}
+
+	@Test
+	public void getResolvingKeyTest() throws Exception {
+		System.out.println("EventServiceResolver.getResolvingKeyTest()");
+
+		Member member2 = new Member(member1.getId() + 1, user1.getId(), vo1.getId(), Status.VALID);
+		Group group2 = new Group("falcon2", "desc");
+		group2.setId(group1.getId() + 1);
+		group2.setVoId(vo1.getId());
+
+		String key = eventServiceResolver.getResolvingKey(new DirectMemberAddedToGroup(member1, group1));
+
+		Assert.assertEquals("Events of the same group should have the same key", key,
+				eventServiceResolver.getResolvingKey(new DirectMemberAddedToGroup(member2, group1)));
+		Assert.assertNotEquals("Events of different groups should have different keys", key,
+				eventServiceResolver.getResolvingKey(new DirectMemberAddedToGroup(member1, group2)));
+		Assert.assertNotEquals("Forced event should have different key",
+				eventServiceResolver.getResolvingKey(new ForcePropagationOnFacilityAndService(facility1, service1)),
+				eventServiceResolver.getResolvingKey(new PropagationPlannedOnFacilityAndService(facility1, service1)));
+
+	}
+
 }
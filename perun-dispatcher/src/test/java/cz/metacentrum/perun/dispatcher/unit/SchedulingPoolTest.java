@@ -93,6 +93,18 @@ public class SchedulingPoolTest extends AbstractDispatcherTest {
 		Assert.isTrue(task1 == tasks.get(0), "task equals");
 	}
 
+	@IfProfileValue(name = "perun.test.groups", values = ("unit-tests"))
+	@Test
+	public void getTasksForEngineTest() throws InternalErrorException {
+		System.out.println("SchedulingPool.getTasksForEngine()");
+		List<Task> tasks = schedulingPool.getTasksForEngine(engineMessageProducer.getClientID());
+		Assert.isTrue(tasks.size() == 1, "engine has one task");
+		Assert.isTrue(task1 == tasks.get(0), "task equals");
+		schedulingPool.setEngineMessageProducerForTask(task1, null);
+		tasks = schedulingPool.getTasksForEngine(engineMessageProducer.getClientID());
+		Assert.isTrue(tasks.isEmpty(), "engine has no task");
+	}
+
 /*	@IfProfileValue(name = "perun.test.groups", values = ("unit-tests"))
 	@Test
 	public void setTaskStatusTest() {
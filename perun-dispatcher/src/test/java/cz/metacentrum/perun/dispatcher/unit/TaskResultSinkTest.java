@@ -0,0 +1,61 @@
+package cz.metacentrum.perun.dispatcher.unit;
+
+import cz.metacentrum.perun.core.api.Destination;
+import cz.metacentrum.perun.dispatcher.AbstractDispatcherTest;
+import cz.metacentrum.perun.dispatcher.scheduling.TaskResultSink;
+import cz.metacentrum.perun.taskslib.model.Task;
+import cz.metacentrum.perun.taskslib.model.TaskResult;
+import cz.metacentrum.perun.taskslib.service.ResultManager;
+import cz.metacentrum.perun.taskslib.service.TaskManager;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TaskResultSinkTest extends AbstractDispatcherTest {
+
+	@Autowired
+	private TaskResultSink taskResultSink;
+	@Autowired
+	private TaskManager taskManager;
+	@Autowired
+	private ResultManager resultManager;
+
+	@Test
+	public void storeTaskResultsInBatchTest() throws Exception {
+		System.out.println("TaskResultSink.flush()");
+
+		Destination destination = perun.getServicesManagerBl().addDestination(sess, service1, facility1,
+				new Destination(0, "sink.test.host", Destination.DESTINATIONHOSTTYPE, Destination.PROPAGATIONTYPE_PARALLEL));
+
+		Task task = new Task();
+		task.setFacility(facility1);
+		task.setService(service1);
+		task.setStatus(Task.TaskStatus.PLANNED);
+		task.setSchedule(LocalDateTime.now());
+		task.setId(taskManager.scheduleNewTask(task, -1));
+
+		for (int i = 0; i < 3; i++) {
+			TaskResult taskResult = new TaskResult();
+			taskResult.setTaskId(task.getId());
+			taskResult.setDestinationId(destination.getId());
+			taskResult.setStatus(TaskResult.TaskResultStatus.DONE);
+			taskResult.setReturnCode(0);
+			taskResult.setStandardMessage("std " + i);
+			taskResult.setTimestamp(new Date());
+			taskResultSink.addTaskResult(1, taskResult);
+		}
+		assertTrue(resultManager.getTaskResultsByTask(task.getId()).isEmpty());
+
+		taskResultSink.flush();
+
+		List<TaskResult> taskResults = resultManager.getTaskResultsByTask(task.getId());
+		assertEquals(3, taskResults.size());
+	}
+
+}
@@ -50,15 +50,18 @@ public class EventProcessorImpl implements EventProcessor {
 		log.debug("\t Resolved Service[{}]", task.getService());
 		if (task.getFacility() != null && task.getService() != null) {
 			log.debug("[{}] Check if Task exist in SchedulingPool: {}", task.getId(), task);
-			Task currentTask = schedulingPool.getTask(task.getId());
-			if (currentTask == null) {
-				log.debug("[{}] Task not found in SchedulingPool.", task.getId());
-				try {
-					schedulingPool.addTask(task);
-				} catch (TaskStoreException e) {
-					log.error("Could not save Task {} into Engine SchedulingPool because of {}, it will be ignored", task, e);
-					// FIXME - should probably report ERROR back to dispatcher...
-				}
+			Task newTask = task;
+			Task currentTask;
+			try {
+				// lookup and insert are atomic, so the same Task received twice is never planned twice
+				currentTask = schedulingPool.getOrCreateTask(task.getFacility(), task.getService(), () -> newTask);
+			} catch (TaskStoreException e) {
+				log.error("Could not save Task {} into Engine SchedulingPool because of {}, it will be ignored", task, e);
+				// FIXME - should probably report ERROR back to dispatcher...
+				currentTask = task;
+			}
+			if (currentTask == task) {
+				log.debug("[{}] Task not found in SchedulingPool, added.", task.getId());
 			} else {
 				// since we always remove Task from pool at the end and Dispatcher doesn't send partial Destinations,
 				// we don't need to update existing Task object !! Let engine finish the processing.
@@ -24,6 +24,8 @@ import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 import static cz.metacentrum.perun.taskslib.model.Task.TaskStatus.*;
 
@@ -85,7 +87,33 @@ public class SchedulingPoolImpl implements SchedulingPool {
 
 		log.debug("[{}] Adding Task to scheduling pool: {}", task.getId(), task);
 		Task addedTask = taskStore.addTask(task);
+		queueNewTask(task);
+		return addedTask;
+	}
+
+	/**
+	 * Gets Task from the SchedulingPool or adds new one created by the factory.
+	 * Same as in addTask(), only Tasks with PLANNED status can be created.
+	 */
+	@Override
+	public Task getOrCreateTask(Facility facility, Service service, Supplier<Task> taskFactory) throws TaskStoreException {
+		AtomicReference<Task> created = new AtomicReference<>();
+		Task task = taskStore.getOrCreateTask(facility, service, () -> {
+			Task newTask = taskFactory.get();
+			if (newTask.getStatus() != PLANNED) {
+				throw new IllegalArgumentException("Only Tasks with PLANNED status can be added to SchedulingPool.");
+			}
+			log.debug("[{}] Adding Task to scheduling pool: {}", newTask.getId(), newTask);
+			created.set(newTask);
+			return newTask;
+		});
+		if (task == created.get()) {
+			queueNewTask(task);
+		}
+		return task;
+	}
 
+	private void queueNewTask(Task task) {
 		if (task.isPropagationForced()) {
 			try {
 				newTasksQueue.putFirst(task);
@@ -99,7 +127,6 @@ public class SchedulingPoolImpl implements SchedulingPool {
 				handleInterruptedException(task, e);
 			}
 		}
-		return addedTask;
 	}
 
 	@Override
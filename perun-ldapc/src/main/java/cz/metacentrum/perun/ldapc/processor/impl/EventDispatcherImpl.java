@@ -17,6 +17,7 @@ import cz.metacentrum.perun.auditparser.AuditParser;
 import cz.metacentrum.perun.core.api.Attribute;
 import cz.metacentrum.perun.core.api.AttributeDefinition;
 import cz.metacentrum.perun.core.api.AuditMessage;
+import cz.metacentrum.perun.core.api.BeansUtils;
 import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.Group;
 import cz.metacentrum.perun.core.api.Member;
@@ -29,6 +30,7 @@ import cz.metacentrum.perun.core.api.User;
 import cz.metacentrum.perun.core.api.UserExtSource;
 import cz.metacentrum.perun.core.api.Vo;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
+import cz.metacentrum.perun.core.bl.PerunBl;
 import cz.metacentrum.perun.ldapc.beans.LdapProperties;
 import cz.metacentrum.perun.ldapc.processor.EventDispatcher;
 import cz.metacentrum.perun.ldapc.processor.EventProcessor;
@@ -209,6 +211,8 @@ public class EventDispatcherImpl implements EventDispatcher, Runnable {
 			PerunSession perunSession = ldapcManager.getPerunSession();
 			Perun perun = ldapcManager.getPerunBl();
 
+			int batchSize = BeansUtils.getCoreConfig().getAuditerConsumerBatchSize();
+
 			//If running is true, then this process will be continuously
 			while (running) {
 
@@ -218,7 +222,7 @@ public class EventDispatcherImpl implements EventDispatcher, Runnable {
 				do {
 					try {
 						//IMPORTANT STEP1: Get new bulk of messages
-						messages = perun.getAuditMessagesManager().pollConsumerMessages(perunSession, ldapProperties.getLdapConsumerName());
+						messages = perun.getAuditMessagesManager().pollConsumerMessages(perunSession, ldapProperties.getLdapConsumerName(), batchSize);
 						// Rpc.AuditMessagesManager.pollConsumerMessages(ldapcManager.getRpcCaller(), ldapProperties.getLdapConsumerName());
 					} catch (InternalErrorException ex) {
 						log.error("Consumer failed due to {}. Sleeping for {} ms.",ex, sleepTime);
@@ -229,6 +233,8 @@ public class EventDispatcherImpl implements EventDispatcher, Runnable {
 					//If there are no messages, sleep for 1 sec and then try it again
 					if(messages == null) Thread.sleep(1000);
 				} while(messages == null);
+				//Full batch means there are more messages waiting, so do not wait before reading next one
+				boolean backlogged = messages.size() >= batchSize;
 				//If new messages exist, resolve them all
 				Iterator<AuditMessage> messagesIterator = messages.iterator();
 				while(messagesIterator.hasNext()) {
@@ -243,11 +249,11 @@ public class EventDispatcherImpl implements EventDispatcher, Runnable {
 					MessageBeans presentBeans = this.resolveMessage(message.getEvent().getMessage(), message.getId());
 					this.dispatchEvent(message.getEvent().getMessage(), presentBeans);
 				}
-				//After all messages has been resolved, test interrupting of thread and if its ok, wait and go for another bulk of messages
+				//After all messages has been resolved, test interrupting of thread and if its ok, wait for new messages and go for another bulk of them
 				if (Thread.interrupted()) {
 					running = false;
-				} else {
-					Thread.sleep(5000);
+				} else if (!backlogged) {
+					((PerunBl) perun).getAuditMessagesManagerBl().waitForNewMessages(perunSession, ldapProperties.getLdapConsumerName(), 5000);
 				}
 			}
 			//If ldapc is interrupted
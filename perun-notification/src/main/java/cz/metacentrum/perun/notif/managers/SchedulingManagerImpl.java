@@ -1,6 +1,7 @@
 package cz.metacentrum.perun.notif.managers;
 
 import cz.metacentrum.perun.audit.events.AuditEvent;
+import cz.metacentrum.perun.core.api.BeansUtils;
 import cz.metacentrum.perun.core.api.PerunSession;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.core.bl.PerunBl;
@@ -121,15 +122,20 @@ public class SchedulingManagerImpl {
 	 */
 	public void processPerunAuditMessages() throws Exception {
 		try {
-			List<AuditEvent> events = perun.getAuditMessagesManagerBl().pollConsumerEvents(session, consumerName);
-			for (AuditEvent event : events) {
-				try {
-					perunNotifAuditMessagesManager.saveMessageToPerunAuditerMessage(event.getMessage(), session);
-				} catch (InternalErrorException ex) {
-					logger.error("Error during saving message to db. Message: " + event.getMessage());
-					throw ex;
+			int batchSize = BeansUtils.getCoreConfig().getAuditerConsumerBatchSize();
+			List<AuditEvent> events;
+			// read messages in bounded chunks until the backlog is processed
+			do {
+				events = perun.getAuditMessagesManagerBl().pollConsumerEvents(session, consumerName, batchSize);
+				for (AuditEvent event : events) {
+					try {
+						perunNotifAuditMessagesManager.saveMessageToPerunAuditerMessage(event.getMessage(), session);
+					} catch (InternalErrorException ex) {
+						logger.error("Error during saving message to db. Message: " + event.getMessage());
+						throw ex;
+					}
 				}
-			}
+			} while (events.size() >= batchSize);
 		} catch (Exception ex) {
 			logger.error("Error during perunNotification process.");
 			throw ex;
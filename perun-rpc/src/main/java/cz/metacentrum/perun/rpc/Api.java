@@ -11,6 +11,7 @@ import cz.metacentrum.perun.core.api.ExtSourcesManager;
 import cz.metacentrum.perun.core.api.PerunClient;
 import cz.metacentrum.perun.core.api.PerunPrincipal;
 import cz.metacentrum.perun.core.api.PerunRequest;
+import cz.metacentrum.perun.core.api.ServiceAttributesStream;
 import cz.metacentrum.perun.core.api.exceptions.InternalErrorException;
 import cz.metacentrum.perun.core.api.exceptions.PerunException;
 import cz.metacentrum.perun.core.api.exceptions.PrivilegeException;
@@ -18,6 +19,7 @@ import cz.metacentrum.perun.core.api.exceptions.RpcException;
 import cz.metacentrum.perun.core.api.exceptions.UserNotExistsException;
 import cz.metacentrum.perun.core.api.exceptions.rt.PerunRuntimeException;
 import cz.metacentrum.perun.core.blImpl.AttributesManagerBlImpl;
+import cz.metacentrum.perun.core.blImpl.AuthzResolverBlImpl;
 import cz.metacentrum.perun.core.impl.AttributesManagerImpl;
 import cz.metacentrum.perun.rpc.deserializer.Deserializer;
 import cz.metacentrum.perun.rpc.deserializer.JsonDeserializer;
@@ -651,6 +653,7 @@ public class Api extends HttpServlet {
 					perunStatus.add("AuditerConsumer: '" + consumerName + "' with last processed id='" + lastProcessedId + "'");
 				}
 				perunStatus.add("LastMessageId: " + caller.call("auditMessagesManager", "getLastMessageId", des));
+				perunStatus.add("AuthzRolesCache: " + AuthzResolverBlImpl.getRolesCacheStatistics());
 				perunStatus.add("Timestamp: " + timestamp);
 				ser.write(perunStatus);
 
@@ -723,12 +726,20 @@ public class Api extends HttpServlet {
 				//Save only exceptions from caller to result
 				try {
 					result = caller.call(manager, method, des);
-					if (perunRequest != null) perunRequest.setResult(result);
+					if (result instanceof ServiceAttributesStream) {
+						// structure is generated while it is written, so it can't be kept in perunRequest
+						if (!(ser instanceof JsonSerializer)) {
+							throw new RpcException(RpcException.Type.UNKNOWN_SERIALIZER_FORMAT, fcm[0]);
+						}
+						((JsonSerializer) ser).writeServiceAttributes((ServiceAttributesStream) result);
+					} else if (perunRequest != null) {
+						perunRequest.setResult(result);
+					}
 				} catch (Exception ex) {
 					result = ex;
 					throw ex;
 				}
-				ser.write(result);
+				if (!(result instanceof ServiceAttributesStream)) ser.write(result);
 			}
 		} catch (PerunException pex) {
 			// If the output is JSONP, it cannot send the HTTP 400 code, because the web browser wouldn't accept this
@@ -53,10 +53,23 @@ public enum AuditMessagesManagerMethod implements ManagerMethod {
 	 * @param consumerName String Consumer to get messages for
 	 * @return List<AuditMessage> List of Audit Messages
 	 */
+	/*#
+	 * Returns list of AuditMessages from audit log with IDs > lastProcessedId for registered auditer consumer
+	 * specified by consumerName param. At most batchSize oldest messages are returned and last processed ID
+	 * of consumer is moved to the last of them.
+	 *
+	 * @param consumerName String Consumer to get messages for
+	 * @param batchSize int Maximal number of returned messages
+	 * @return List<AuditMessage> List of Audit Messages
+	 */
 	pollConsumerMessages {
 		@Override
 		public List<AuditMessage> call(ApiCaller ac, Deserializer parms) throws PerunException {
-			return ac.getAuditMessagesManager().pollConsumerMessages(ac.getSession(), parms.readString("consumerName"));
+			if (parms.contains("batchSize")) {
+				return ac.getAuditMessagesManager().pollConsumerMessages(ac.getSession(), parms.readString("consumerName"), parms.readInt("batchSize"));
+			} else {
+				return ac.getAuditMessagesManager().pollConsumerMessages(ac.getSession(), parms.readString("consumerName"));
+			}
 		}
 	},
 
@@ -104,6 +117,19 @@ public enum AuditMessagesManagerMethod implements ManagerMethod {
 		}
 	},
 
+	/*#
+	 * Get lag of all auditer consumers as a map with key=value pairs like String(name)=Integer(lag).
+	 * Lag is the difference between ID of last (newest) message in auditer logs and last processed ID of consumer.
+	 *
+	 * @return Map<String, Integer> Mapping of all auditer consumers to their lag.
+	 */
+	getAuditerConsumersLag {
+		@Override
+		public Map<String, Integer> call(ApiCaller ac, Deserializer parms) throws PerunException {
+			return ac.getAuditMessagesManager().getAuditerConsumersLag(ac.getSession());
+		}
+	},
+
 	/*#
 	 * Get ID of last (newest) message in auditer logs.
 	 *
@@ -720,6 +720,31 @@ public enum MembersManagerMethod implements ManagerMethod {
 		}
 	},
 
+	/*#
+	 * Get one page of RichMembers with attributes specific for list of attrsNames from the vo.
+	 * Members are filtered by the statuses, group and search string of the query and sorted by its sort column.
+	 * Next page is requested by passing nextPageToken of the previous page as pageToken of the query.
+	 * If attrsNames is empty or null return all attributes for specific richMembers.
+	 *
+	 * Query is an object with properties: pageSize (int), sortColumn (ID | NAME), statuses (List<String>
+	 * of VALID | INVALID | SUSPENDED | EXPIRED | DISABLED), searchString (String), groupId (int) and pageToken (String).
+	 * Only pageSize is mandatory.
+	 *
+	 * @param vo int Vo <code>id</code>
+	 * @param query MembersPageQuery Query for the page
+	 * @param attrsNames List<String> Attribute names
+	 * @return Paginated<RichMember> Page of richMembers with total count of matching members and token of the next page
+	 */
+	getMembersPage {
+		@Override
+		public Paginated<RichMember> call(ApiCaller ac, Deserializer parms) throws PerunException {
+			return ac.getMembersManager().getMembersPage(ac.getSession(),
+					ac.getVoById(parms.readInt("vo")),
+					parms.read("query", MembersPageQuery.class),
+					parms.contains("attrsNames") ? parms.readList("attrsNames", String.class) : null);
+		}
+	},
+
 	/*#
  	 * Get RichMembers with Attributes but only with selected attributes from list attrsDef for vo.
  	 *
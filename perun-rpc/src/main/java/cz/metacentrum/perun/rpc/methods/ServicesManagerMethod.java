@@ -6,9 +6,11 @@ import java.util.List;
 import cz.metacentrum.perun.controller.model.ServiceForGUI;
 import cz.metacentrum.perun.core.api.AttributeDefinition;
 import cz.metacentrum.perun.core.api.Destination;
+import cz.metacentrum.perun.core.api.Facility;
 import cz.metacentrum.perun.core.api.RichDestination;
 import cz.metacentrum.perun.core.api.Service;
-import cz.metacentrum.perun.core.api.ServiceAttributes;
+import cz.metacentrum.perun.core.api.ServiceAttributesDelta;
+import cz.metacentrum.perun.core.api.ServiceAttributesStream;
 import cz.metacentrum.perun.core.api.ServicesPackage;
 import cz.metacentrum.perun.core.api.Resource;
 import cz.metacentrum.perun.core.api.exceptions.PerunException;
@@ -507,10 +509,27 @@ public enum ServicesManagerMethod implements ManagerMethod {
 	 </pre>
 	 *
 	 */
+	/*#
+	 * Same as getHierarchicalData, but the structure is generated while it is written to the output,
+	 * so it is never kept in memory as a whole. Only JSON output format is supported.
+	 * If generating of the data fails after part of them was written, the output is not a valid JSON.
+	 *
+	 * @param service int Service <code>id</code>
+	 * @param facility int Facility <code>id</code>
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param stream boolean true to stream the structure
+	 * @return ServiceAttributes Attributes in the same structure as returned by getHierarchicalData
+	 */
 	getHierarchicalData {
 
 		@Override
-		public ServiceAttributes call(ApiCaller ac, Deserializer parms) throws PerunException {
+		public Object call(ApiCaller ac, Deserializer parms) throws PerunException {
+			if (parms.contains("stream") && parms.readBoolean("stream")) {
+				Service service = ac.getServiceById(parms.readInt("service"));
+				Facility facility = ac.getFacilityById(parms.readInt("facility"));
+				boolean filterExpiredMembers = parms.contains("filterExpiredMembers") && parms.readBoolean("filterExpiredMembers");
+				return (ServiceAttributesStream) sink -> ac.getServicesManager().streamHierarchicalData(ac.getSession(), service, facility, filterExpiredMembers, sink);
+			}
 			if (parms.contains("filterExpiredMembers")) {
 				return ac.getServicesManager().getHierarchicalData(ac.getSession(),
 					ac.getServiceById(parms.readInt("service")),
@@ -525,6 +544,40 @@ public enum ServicesManagerMethod implements ManagerMethod {
 		}
 	},
 
+	/*#
+	 * Same as getHierarchicalData, but only the part of the structure, which has changed since the given generation, is returned.
+	 * When nothing has changed, changes are null.
+	 *
+	 * Generations are remembered only for a limited time by the instance of Perun, which generated them.
+	 * When the generation is not known anymore, complete structure is returned with the complete flag set.
+	 * This is a normal response, clients must be able to handle it at any time by replacing all their data.
+	 *
+	 * @param service int Service <code>id</code>
+	 * @param facility int Facility <code>id</code>
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param generation String generation returned by the previous call
+	 * @return ServiceAttributesDelta Changes of the structure together with its current generation
+	 */
+	/*#
+	 * Returns complete structure as returned by getHierarchicalData together with its generation.
+	 *
+	 * @param service int Service <code>id</code>
+	 * @param facility int Facility <code>id</code>
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @return ServiceAttributesDelta Complete structure together with its current generation
+	 */
+	getHierarchicalDataDelta {
+
+		@Override
+		public ServiceAttributesDelta call(ApiCaller ac, Deserializer parms) throws PerunException {
+			return ac.getServicesManager().getHierarchicalDataDelta(ac.getSession(),
+				ac.getServiceById(parms.readInt("service")),
+				ac.getFacilityById(parms.readInt("facility")),
+				parms.contains("filterExpiredMembers") && parms.readBoolean("filterExpiredMembers"),
+				parms.contains("generation") ? parms.readString("generation") : null);
+		}
+	},
+
 	/*#
 	 * Generates the list of attributes per each user and per each resource. Never return member or member-resource attribute.
 	 *
@@ -584,10 +637,27 @@ public enum ServicesManagerMethod implements ManagerMethod {
 
 	 *
 	 */
+	/*#
+	 * Same as getFlatData, but the structure is generated while it is written to the output,
+	 * so it is never kept in memory as a whole. Only JSON output format is supported.
+	 * If generating of the data fails after part of them was written, the output is not a valid JSON.
+	 *
+	 * @param service int Service <code>id</code>
+	 * @param facility int Facility <code>id</code>
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param stream boolean true to stream the structure
+	 * @return ServiceAttributes Attributes in the same structure as returned by getFlatData
+	 */
 	getFlatData {
 
 		@Override
-		public ServiceAttributes call(ApiCaller ac, Deserializer parms) throws PerunException {
+		public Object call(ApiCaller ac, Deserializer parms) throws PerunException {
+			if (parms.contains("stream") && parms.readBoolean("stream")) {
+				Service service = ac.getServiceById(parms.readInt("service"));
+				Facility facility = ac.getFacilityById(parms.readInt("facility"));
+				boolean filterExpiredMembers = parms.contains("filterExpiredMembers") && parms.readBoolean("filterExpiredMembers");
+				return (ServiceAttributesStream) sink -> ac.getServicesManager().streamFlatData(ac.getSession(), service, facility, filterExpiredMembers, sink);
+			}
 			if (parms.contains("filterExpiredMembers")) {
 				return ac.getServicesManager().getFlatData(ac.getSession(),
 						ac.getServiceById(parms.readInt("service")),
@@ -602,6 +672,40 @@ public enum ServicesManagerMethod implements ManagerMethod {
 		}
 	},
 
+	/*#
+	 * Same as getFlatData, but only the part of the structure, which has changed since the given generation, is returned.
+	 * When nothing has changed, changes are null.
+	 *
+	 * Generations are remembered only for a limited time by the instance of Perun, which generated them.
+	 * When the generation is not known anymore, complete structure is returned with the complete flag set.
+	 * This is a normal response, clients must be able to handle it at any time by replacing all their data.
+	 *
+	 * @param service int Service <code>id</code>
+	 * @param facility int Facility <code>id</code>
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param generation String generation returned by the previous call
+	 * @return ServiceAttributesDelta Changes of the structure together with its current generation
+	 */
+	/*#
+	 * Returns complete structure as returned by getFlatData together with its generation.
+	 *
+	 * @param service int Service <code>id</code>
+	 * @param facility int Facility <code>id</code>
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @return ServiceAttributesDelta Complete structure together with its current generation
+	 */
+	getFlatDataDelta {
+
+		@Override
+		public ServiceAttributesDelta call(ApiCaller ac, Deserializer parms) throws PerunException {
+			return ac.getServicesManager().getFlatDataDelta(ac.getSession(),
+				ac.getServiceById(parms.readInt("service")),
+				ac.getFacilityById(parms.readInt("facility")),
+				parms.contains("filterExpiredMembers") && parms.readBoolean("filterExpiredMembers"),
+				parms.contains("generation") ? parms.readString("generation") : null);
+		}
+	},
+
 	/*#
 	 * Generates the list of attributes per each member associated with the resources and groups.
 	 *
@@ -753,10 +857,27 @@ public enum ServicesManagerMethod implements ManagerMethod {
 	 </pre>
 	 *
 	 */
+	/*#
+	 * Same as getDataWithGroups, but the structure is generated while it is written to the output,
+	 * so it is never kept in memory as a whole. Only JSON output format is supported.
+	 * If generating of the data fails after part of them was written, the output is not a valid JSON.
+	 *
+	 * @param service int Service <code>id</code>
+	 * @param facility int Facility <code>id</code>
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param stream boolean true to stream the structure
+	 * @return ServiceAttributes Attributes in the same structure as returned by getDataWithGroups
+	 */
 	getDataWithGroups {
 
 		@Override
-		public ServiceAttributes call(ApiCaller ac, Deserializer parms) throws PerunException {
+		public Object call(ApiCaller ac, Deserializer parms) throws PerunException {
+			if (parms.contains("stream") && parms.readBoolean("stream")) {
+				Service service = ac.getServiceById(parms.readInt("service"));
+				Facility facility = ac.getFacilityById(parms.readInt("facility"));
+				boolean filterExpiredMembers = parms.contains("filterExpiredMembers") && parms.readBoolean("filterExpiredMembers");
+				return (ServiceAttributesStream) sink -> ac.getServicesManager().streamDataWithGroups(ac.getSession(), service, facility, filterExpiredMembers, sink);
+			}
 			if (parms.contains("filterExpiredMembers")) {
 				return ac.getServicesManager().getDataWithGroups(ac.getSession(),
 					ac.getServiceById(parms.readInt("service")),
@@ -771,6 +892,40 @@ public enum ServicesManagerMethod implements ManagerMethod {
 		}
 	},
 
+	/*#
+	 * Same as getDataWithGroups, but only the part of the structure, which has changed since the given generation, is returned.
+	 * When nothing has changed, changes are null.
+	 *
+	 * Generations are remembered only for a limited time by the instance of Perun, which generated them.
+	 * When the generation is not known anymore, complete structure is returned with the complete flag set.
+	 * This is a normal response, clients must be able to handle it at any time by replacing all their data.
+	 *
+	 * @param service int Service <code>id</code>
+	 * @param facility int Facility <code>id</code>
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param generation String generation returned by the previous call
+	 * @return ServiceAttributesDelta Changes of the structure together with its current generation
+	 */
+	/*#
+	 * Returns complete structure as returned by getDataWithGroups together with its generation.
+	 *
+	 * @param service int Service <code>id</code>
+	 * @param facility int Facility <code>id</code>
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @return ServiceAttributesDelta Complete structure together with its current generation
+	 */
+	getDataWithGroupsDelta {
+
+		@Override
+		public ServiceAttributesDelta call(ApiCaller ac, Deserializer parms) throws PerunException {
+			return ac.getServicesManager().getDataWithGroupsDelta(ac.getSession(),
+				ac.getServiceById(parms.readInt("service")),
+				ac.getFacilityById(parms.readInt("facility")),
+				parms.contains("filterExpiredMembers") && parms.readBoolean("filterExpiredMembers"),
+				parms.contains("generation") ? parms.readString("generation") : null);
+		}
+	},
+
 	/*#
 	 * Generates the list of attributes per each member associated with the resources and groups in vos.
 	 *
@@ -926,9 +1081,26 @@ public enum ServicesManagerMethod implements ManagerMethod {
 	        +-----Vo ....
 	</pre>
 	 */
+	/*#
+	 * Same as getDataWithVos, but the structure is generated while it is written to the output,
+	 * so it is never kept in memory as a whole. Only JSON output format is supported.
+	 * If generating of the data fails after part of them was written, the output is not a valid JSON.
+	 *
+	 * @param service int Service <code>id</code>
+	 * @param facility int Facility <code>id</code>
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param stream boolean true to stream the structure
+	 * @return ServiceAttributes Attributes in the same structure as returned by getDataWithVos
+	 */
 	getDataWithVos {
 		@Override
-		public ServiceAttributes call(ApiCaller ac, Deserializer parms) throws PerunException {
+		public Object call(ApiCaller ac, Deserializer parms) throws PerunException {
+			if (parms.contains("stream") && parms.readBoolean("stream")) {
+				Service service = ac.getServiceById(parms.readInt("service"));
+				Facility facility = ac.getFacilityById(parms.readInt("facility"));
+				boolean filterExpiredMembers = parms.contains("filterExpiredMembers") && parms.readBoolean("filterExpiredMembers");
+				return (ServiceAttributesStream) sink -> ac.getServicesManager().streamDataWithVos(ac.getSession(), service, facility, filterExpiredMembers, sink);
+			}
 			if (parms.contains("filterExpiredMembers")) {
 				return ac.getServicesManager().getDataWithVos(ac.getSession(),
 					ac.getServiceById(parms.readInt("service")),
@@ -943,6 +1115,40 @@ public enum ServicesManagerMethod implements ManagerMethod {
 		}
 	},
 
+	/*#
+	 * Same as getDataWithVos, but only the part of the structure, which has changed since the given generation, is returned.
+	 * When nothing has changed, changes are null.
+	 *
+	 * Generations are remembered only for a limited time by the instance of Perun, which generated them.
+	 * When the generation is not known anymore, complete structure is returned with the complete flag set.
+	 * This is a normal response, clients must be able to handle it at any time by replacing all their data.
+	 *
+	 * @param service int Service <code>id</code>
+	 * @param facility int Facility <code>id</code>
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @param generation String generation returned by the previous call
+	 * @return ServiceAttributesDelta Changes of the structure together with its current generation
+	 */
+	/*#
+	 * Returns complete structure as returned by getDataWithVos together with its generation.
+	 *
+	 * @param service int Service <code>id</code>
+	 * @param facility int Facility <code>id</code>
+	 * @param filterExpiredMembers if true the method does not take members expired in groups into account
+	 * @return ServiceAttributesDelta Complete structure together with its current generation
+	 */
+	getDataWithVosDelta {
+
+		@Override
+		public ServiceAttributesDelta call(ApiCaller ac, Deserializer parms) throws PerunException {
+			return ac.getServicesManager().getDataWithVosDelta(ac.getSession(),
+				ac.getServiceById(parms.readInt("service")),
+				ac.getFacilityById(parms.readInt("facility")),
+				parms.contains("filterExpiredMembers") && parms.readBoolean("filterExpiredMembers"),
+				parms.contains("generation") ? parms.readString("generation") : null);
+		}
+	},
+
 	/*#
 	 * Returns packages.
 	 *